@@ -36,6 +36,15 @@ import java.util.Collection;
  *
  * Implement the doStep method to create a concrete simulation.
  *
+ * A simulation can enable a separate render thread so that the simulation thread never waits
+ * for drawing.  The doStep method must then change only the simulation's state and the publish
+ * method must copy this state into the drawables.  The publish method is invoked only while the
+ * render thread is not drawing.
+ *
+ * A simulation can also enable adaptive steps so that the number of steps per display is
+ * adjusted while the simulation runs.  The steps per display are chosen to achieve a target
+ * frame rate with the largest number of steps per second.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
@@ -45,6 +54,12 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
    protected boolean showStepsPerDisplay = false;
    protected int stepsPerDisplay = 1;
    protected int stepCounter = 0;
+   protected boolean renderThreadEnabled = false;
+   protected boolean adaptiveSteps = false;
+   private StepGovernor governor = new StepGovernor();
+   private Object renderLock = new Object();
+   private boolean renderRequested = false; // a published state has not been rendered; guarded by renderLock
+   private boolean rendering = false;       // the render thread is drawing; guarded by renderLock
 
    /**
     * Sets the Control for this model and initializes the control's values.
@@ -130,6 +145,9 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
     */
    public void stopAnimation() {
       super.stopAnimation();
+      if(renderThreadEnabled&&publishIfIdle()) { // show the final state
+         GUIUtils.repaintAnimatedFrames();
+      }
       stopRunning();
       stop();
    }
@@ -164,6 +182,9 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
       super.stepAnimation();
       stepCounter++;
       stopRunning();
+      if(renderThreadEnabled) {
+         publishIfIdle();
+      }
       org.opensourcephysics.display.GUIUtils.repaintAnimatedFrames();
    }
 
@@ -233,7 +254,8 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
     * Sets the number of animation steps before animated drawing panels are rendered.
     *
     * The default steps per animation is 1.  Increase this number if frequent rendering
-    * causes slugish behavior.
+    * causes slugish behavior.  The number is adjusted while the simulation runs if adaptive
+    * steps are enabled.
     *
     * @param num int
     */
@@ -253,6 +275,149 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
      return stepsPerDisplay;
    }
 
+   /**
+    * Enables a render thread that draws the animated frames while the simulation thread
+    * continues to step the simulation.
+    *
+    * The simulation thread does not sleep or wait when the render thread is enabled.  It publishes
+    * its state after every stepsPerDisplay steps if the render thread is not drawing; otherwise
+    * the state is not published and the simulation continues.  The render thread draws at most
+    * one frame every delayTime milliseconds.  Simulations that enable the render thread must
+    * override the publish method and must not change drawables in the doStep method.
+    *
+    * @param enable boolean
+    */
+   public void enableRenderThread(boolean enable) {
+      renderThreadEnabled = enable;
+   }
+
+   /**
+    * Determines if the render thread is enabled.
+    *
+    * @return boolean
+    */
+   public boolean isRenderThreadEnabled() {
+      return renderThreadEnabled;
+   }
+
+   /**
+    * Enables adaptive steps.
+    *
+    * The simulation measures the time needed to step and to render while it runs and adjusts
+    * the steps per display so that the animated frames are rendered at the target frame rate.
+    * The simulation thread does not sleep if stepping and rendering use the entire frame period.
+    * The achieved steps per second and frames per second are shown in the control.
+    *
+    * @param enable boolean
+    */
+   public void enableAdaptiveSteps(boolean enable) {
+      adaptiveSteps = enable;
+      if(control==null) {
+         return;
+      }
+      if(adaptiveSteps) {
+         control.setValue("steps per second", 0);
+         control.setValue("frames per second", 0);
+      } else {
+         control.removeParameter("steps per second");
+         control.removeParameter("frames per second");
+      }
+   }
+
+   /**
+    * Determines if adaptive steps are enabled.
+    *
+    * @return boolean
+    */
+   public boolean isAdaptiveStepsEnabled() {
+      return adaptiveSteps;
+   }
+
+   /**
+    * Sets the frame rate that is maintained when adaptive steps are enabled.
+    *
+    * The default frame rate is 30 frames per second.
+    *
+    * @param fps the frames per second
+    */
+   public void setTargetFrameRate(double fps) {
+      if(fps>0) {
+         governor.targetFrameRate = Math.min(fps, 1000);
+      }
+   }
+
+   /**
+    * Gets the frame rate that is maintained when adaptive steps are enabled.
+    *
+    * @return the frames per second
+    */
+   public double getTargetFrameRate() {
+      return governor.targetFrameRate;
+   }
+
+   /**
+    * Gets the steps per second that were achieved while adaptive steps are enabled.
+    *
+    * @return the steps per second
+    */
+   public double getStepsPerSecond() {
+      return governor.getStepsPerSecond();
+   }
+
+   /**
+    * Gets the frames per second that were achieved while adaptive steps are enabled.
+    *
+    * @return the frames per second
+    */
+   public double getFrameRate() {
+      return governor.getFrameRate();
+   }
+
+   /**
+    * Adjusts the steps per display and shows the achieved rates when a measurement has been completed.
+    *
+    * @param now the current time
+    * @param renderThread true if the frames are rendered by the render thread
+    */
+   private void adjustStepsPerDisplay(long now, boolean renderThread) {
+      int steps = governor.update(now, stepsPerDisplay, renderThread);
+      if(steps==0) {
+         return; // the measurement has not been completed
+      }
+      stepsPerDisplay = steps;
+      if(control==null) {
+         return;
+      }
+      if(showStepsPerDisplay) {
+         control.setAdjustableValue("steps per display", stepsPerDisplay);
+      }
+      control.setValue("steps per second", (int) Math.round(governor.getStepsPerSecond()));
+      control.setValue("frames per second", Math.round(10*governor.getFrameRate())/10.0);
+   }
+
+   /**
+    * Copies the simulation's state into the drawables.
+    *
+    * This method is invoked by the simulation thread when the render thread is enabled and
+    * is not drawing.  Override this method to update datasets, trails, and other drawables.
+    */
+   protected void publish() {}
+
+   /**
+    * Publishes the simulation's state if the render thread is not drawing.
+    *
+    * @return true if the state has been published
+    */
+   private boolean publishIfIdle() {
+      synchronized(renderLock) {
+         if(rendering) {
+            return false;
+         }
+         publish();
+         return true;
+      }
+   }
+
 
    /**
     * Resets the simulation to its default state.
@@ -266,22 +431,43 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
     */
    public void run() {
       GUIUtils.setAnimatedFrameIgnoreRepaint(true); // animated frames are updated by this thread so no need to repaint
+      governor.reset(System.currentTimeMillis());
+      if(renderThreadEnabled) {
+         runWithRenderThread();
+         GUIUtils.setAnimatedFrameIgnoreRepaint(false);
+         return;
+      }
       long sleepTime = delayTime;
       while(animationThread==Thread.currentThread()) {
          long currentTime = System.currentTimeMillis();
+         int steps = 0;
          for(int i = 0; i<stepsPerDisplay; i++) {
             doStep();
             stepCounter++;
+            steps++;
             if(animationThread!=Thread.currentThread()) {
                break;          // check for stop condition
-            } else {
+            } else if(!adaptiveSteps) {
                Thread.yield(); // give other threads a chance to run if needed
             }
          }
+         long stepTime = System.currentTimeMillis();
          org.opensourcephysics.display.GUIUtils.renderAnimatedFrames();
-         // adjust the sleep time to try and achieve a constant animation rate
-         // some VMs will hang if sleep time is less than 10
-         sleepTime = Math.max(10, delayTime-(System.currentTimeMillis()-currentTime));
+         if(adaptiveSteps) {
+            long now = System.currentTimeMillis();
+            governor.recordSteps(steps, stepTime-currentTime);
+            governor.recordFrame(now-stepTime);
+            adjustStepsPerDisplay(now, false);
+            sleepTime = governor.getPeriod()-(now-currentTime);
+            if(sleepTime<1) {
+               Thread.yield(); // the frame period has been used so continue without sleeping
+               continue;
+            }
+         } else {
+            // adjust the sleep time to try and achieve a constant animation rate
+            // some VMs will hang if sleep time is less than 10
+            sleepTime = Math.max(10, delayTime-(System.currentTimeMillis()-currentTime));
+         }
          try {
             Thread.sleep(sleepTime);
          } catch(InterruptedException ie) {}
@@ -289,6 +475,96 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
       GUIUtils.setAnimatedFrameIgnoreRepaint(false); // animated frames are updated by this thread so no need to repaint
    }
 
+   /**
+    * Steps the simulation continuously and hands the rendering to a render thread.
+    */
+   private void runWithRenderThread() {
+      final Thread simulationThread = Thread.currentThread();
+      Thread renderThread = new Thread(new Runnable() {
+
+         public void run() {
+            renderFrames(simulationThread);
+         }
+      });
+      renderThread.setPriority(Thread.MIN_PRIORITY);
+      renderThread.setDaemon(true);
+      renderThread.start();
+      while(animationThread==simulationThread) {
+         long currentTime = System.currentTimeMillis();
+         int steps = 0;
+         for(int i = 0; i<stepsPerDisplay; i++) {
+            doStep();
+            stepCounter++;
+            steps++;
+            if(animationThread!=simulationThread) {
+               break; // check for stop condition
+            }
+         }
+         if(adaptiveSteps) {
+            long now = System.currentTimeMillis();
+            governor.recordSteps(steps, now-currentTime);
+            adjustStepsPerDisplay(now, true);
+         }
+         synchronized(renderLock) {
+            if(!rendering) { // a newer state replaces a state that has not been rendered
+               publish();
+               renderRequested = true;
+               renderLock.notifyAll();
+            }
+         }
+         Thread.yield(); // give other threads a chance to run if needed
+      }
+      synchronized(renderLock) {
+         renderLock.notifyAll(); // wake the render thread so that it stops
+      }
+      try {
+         renderThread.join(1000);
+      } catch(InterruptedException ie) {}
+   }
+
+   /**
+    * Renders the animated frames whenever the simulation thread publishes a new state.
+    *
+    * @param simulationThread the thread that steps the simulation
+    */
+   private void renderFrames(Thread simulationThread) {
+      while(animationThread==simulationThread) {
+         long currentTime = System.currentTimeMillis();
+         synchronized(renderLock) {
+            while(!renderRequested&&(animationThread==simulationThread)) {
+               try {
+                  renderLock.wait();
+               } catch(InterruptedException ie) {}
+            }
+            if(!renderRequested) {
+               break; // the simulation has stopped
+            }
+            renderRequested = false;
+            rendering = true;
+         }
+         long renderTime = System.currentTimeMillis();
+         try {
+            GUIUtils.renderAnimatedFrames();
+         } finally {
+            synchronized(renderLock) {
+               rendering = false;
+            }
+         }
+         long sleepTime;
+         if(adaptiveSteps) {
+            long now = System.currentTimeMillis();
+            governor.recordFrame(now-renderTime);
+            sleepTime = Math.max(1, governor.getPeriod()-(now-currentTime));
+         } else {
+            // some VMs will hang if sleep time is less than 10
+            sleepTime = Math.max(10, delayTime-(System.currentTimeMillis()-currentTime));
+         }
+         try {
+            Thread.sleep(sleepTime);
+         } catch(InterruptedException ie) {}
+      }
+   }
+
   // Inner class that lets any control act as a SimControl.
    private class ShadowControl implements SimControl {
 
@@ -110,7 +110,7 @@ public class HiddenControl implements Control {
     try {
       ParsePosition parsePosition = new ParsePosition(0);
       double val = numberFormat.parse(str,parsePosition).doubleValue();
-      if(str.length()==parsePosition.getIndex()){
+      if(str.length()!=parsePosition.getIndex()){
          println("Variable "+par+" is not a number");
       }
       return val;
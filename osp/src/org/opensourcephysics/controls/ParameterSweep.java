@@ -0,0 +1,678 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.controls;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.*;
+import java.util.ArrayList;
+import org.opensourcephysics.display.Dataset;
+import org.opensourcephysics.numerics.ODE;
+import org.opensourcephysics.numerics.ODESolver;
+import org.opensourcephysics.numerics.ODESolverFactory;
+
+/**
+ * ParameterSweep runs many copies of a model over a grid of control values without a user interface.
+ *
+ * Each run creates a new model, stores the run's parameter values in a HiddenControl, and steps the model
+ * as fast as possible on one of a fixed number of worker threads.  Models that extend AbstractSimulation
+ * (or AbstractAnimation) are initialized through their setControl and initialize methods and are advanced
+ * by invoking doStep.  Models that implement ODE are advanced using an ODESolver.  Animation threads are
+ * never started and animated frames are never rendered.
+ *
+ * Observables are sampled every <code>sampleInterval</code> steps and are stored in one Dataset per
+ * observable per run.  The samples can also be written to tab-delimited column files, one file per run.
+ *
+ * Listeners are notified of progress using the "progress" property and of completion using the "done" property.
+ * The "done" property is fired once when the last worker thread finishes, also if the sweep has been cancelled
+ * or runs have failed; its new value is the number of completed runs.  Events are fired from a worker thread.
+ *
+ * @version 1.0
+ */
+public class ParameterSweep {
+  private ModelFactory factory;
+  private ArrayList parameterNames = new ArrayList();
+  private ArrayList parameterValues = new ArrayList();   // double[] grid values for each swept parameter
+  private ArrayList fixedNames = new ArrayList();
+  private ArrayList fixedValues = new ArrayList();
+  private ArrayList observableNames = new ArrayList();
+  private ArrayList observables = new ArrayList();
+  private int numberOfSteps = 100;
+  private int sampleInterval = 1;
+  private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+  private String solverName = "rk4";
+  private double dt = 0.01;
+  private boolean keepDatasets = true;
+  private File outputDirectory;
+  private Run[] runs = new Run[0];
+  private int nextRun, completedRuns;
+  private int activeWorkers;
+  private volatile boolean cancelled;
+  private Thread[] workers = new Thread[0];
+  private PropertyChangeSupport support = new PropertyChangeSupport(this);
+
+  /**
+   * Constructs a ParameterSweep that creates models using the given factory.
+   *
+   * @param factory ModelFactory
+   */
+  public ParameterSweep(ModelFactory factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Constructs a ParameterSweep that instantiates the given class using its default constructor.
+   *
+   * The class should extend AbstractAnimation or implement ODE.
+   *
+   * @param modelClass Class
+   */
+  public ParameterSweep(final Class modelClass) {
+    this(new ModelFactory() {
+      public Object createModel(Control control) {
+        try {
+          return modelClass.getDeclaredConstructor(new Class[0]).newInstance(new Object[0]);
+        } catch(java.lang.reflect.InvocationTargetException ex) {
+          throw new RuntimeException("Cannot instantiate "+modelClass.getName()+": "+ex.getTargetException());
+        } catch(Exception ex) {
+          throw new RuntimeException("Cannot instantiate "+modelClass.getName()+": "+ex);
+        }
+      }
+    });
+  }
+
+  /**
+   * Adds a swept parameter.  The sweep runs every combination of parameter values.
+   *
+   * @param name the parameter name that is read by the model's control
+   * @param values the values
+   */
+  public void addParameter(String name, double[] values) {
+    parameterNames.add(name);
+    parameterValues.add((double[]) values.clone());
+  }
+
+  /**
+   * Adds a swept parameter with n evenly spaced values between min and max inclusive.
+   *
+   * @param name the parameter name
+   * @param min the first value
+   * @param max the last value
+   * @param n the number of values
+   */
+  public void addParameter(String name, double min, double max, int n) {
+    n = Math.max(1, n);
+    double[] values = new double[n];
+    double delta = (n>1) ? (max-min)/(n-1) : 0;
+    for(int i = 0;i<n;i++) {
+      values[i] = min+i*delta;
+    }
+    values[n-1] = (n>1) ? max : min;
+    addParameter(name, values);
+  }
+
+  /**
+   * Sets a parameter that has the same value in every run.
+   *
+   * @param name the parameter name
+   * @param value the value
+   */
+  public void setFixedParameter(String name, Object value) {
+    int i = fixedNames.indexOf(name);
+    if(i>=0) {
+      fixedValues.set(i, value);
+    } else {
+      fixedNames.add(name);
+      fixedValues.add(value);
+    }
+  }
+
+  /**
+   * Adds an observable that is sampled during every run.
+   *
+   * @param name the observable's name
+   * @param observable the observable
+   */
+  public void addObservable(String name, Observable observable) {
+    observableNames.add(name);
+    observables.add(observable);
+  }
+
+  /**
+   * Adds an observable that samples an element of an ODE's state array.
+   *
+   * @param name the observable's name
+   * @param index the index into the state array
+   */
+  public void addStateObservable(String name, final int index) {
+    addObservable(name, new Observable() {
+      public double getValue(Object model) {
+        return((ODE) model).getState()[index];
+      }
+
+    });
+  }
+
+  /**
+   * Sets the number of steps in each run.
+   *
+   * @param n int
+   */
+  public void setNumberOfSteps(int n) {
+    numberOfSteps = Math.max(0, n);
+  }
+
+  /**
+   * Sets the number of steps between samples of the observables.
+   *
+   * @param n int
+   */
+  public void setSampleInterval(int n) {
+    sampleInterval = Math.max(1, n);
+  }
+
+  /**
+   * Sets the number of worker threads.  The default is the number of available processors.
+   *
+   * @param n int
+   */
+  public void setNumberOfThreads(int n) {
+    numberOfThreads = Math.max(1, n);
+  }
+
+  /**
+   * Sets the ODE solver and step size that are used to advance ODE models.
+   *
+   * @param name a solver name recognized by ODESolverFactory
+   * @param dt the step size
+   */
+  public void setODESolver(String name, double dt) {
+    solverName = name;
+    this.dt = dt;
+  }
+
+  /**
+   * Sets a directory where tab-delimited column files are written.  One file is written per run.
+   * A null directory disables file output.
+   *
+   * @param dir File
+   */
+  public void setOutputDirectory(File dir) {
+    outputDirectory = dir;
+  }
+
+  /**
+   * Sets whether sampled values are kept in Datasets.
+   * Disable this option to bound memory use when samples are only written to files.
+   *
+   * @param keep boolean
+   */
+  public void setKeepDatasets(boolean keep) {
+    keepDatasets = keep;
+  }
+
+  /**
+   * Gets the total number of runs in the parameter grid.
+   *
+   * @return int
+   */
+  public int getRunCount() {
+    int n = 1;
+    for(int i = 0, m = parameterValues.size();i<m;i++) {
+      n *= ((double[]) parameterValues.get(i)).length;
+    }
+    return n;
+  }
+
+  /**
+   * Gets the parameter values for a run in the order in which parameters were added.
+   *
+   * @param run the run index
+   * @return double[]
+   */
+  public double[] getParameterValues(int run) {
+    int m = parameterValues.size();
+    double[] vals = new double[m];
+    for(int i = m-1;i>=0;i--) { // the last parameter varies fastest
+      double[] grid = (double[]) parameterValues.get(i);
+      vals[i] = grid[run%grid.length];
+      run /= grid.length;
+    }
+    return vals;
+  }
+
+  /**
+   * Gets the Dataset for an observable in a completed run.
+   *
+   * @param run the run index
+   * @param observableName the observable's name
+   * @return the dataset or null if the run has not completed or datasets were not kept
+   */
+  public synchronized Dataset getDataset(int run, String observableName) {
+    int i = observableNames.indexOf(observableName);
+    if((i<0)||(run<0)||(run>=runs.length)||(runs[run]==null)||(runs[run].datasets==null)) {
+      return null;
+    }
+    return runs[run].datasets[i];
+  }
+
+  /**
+   * Gets a list containing the Datasets from a completed run.
+   *
+   * @param run the run index
+   * @return ArrayList
+   */
+  public synchronized ArrayList getDatasets(int run) {
+    ArrayList list = new ArrayList();
+    if((run<0)||(run>=runs.length)||(runs[run]==null)||(runs[run].datasets==null)) {
+      return list;
+    }
+    for(int i = 0;i<runs[run].datasets.length;i++) {
+      list.add(runs[run].datasets[i]);
+    }
+    return list;
+  }
+
+  /**
+   * Gets the last sampled value of an observable for every run.
+   * Runs that did not complete have the value Double.NaN.
+   *
+   * @param observableName the observable's name
+   * @return double[]
+   */
+  public synchronized double[] getFinalValues(String observableName) {
+    int k = observableNames.indexOf(observableName);
+    double[] vals = new double[runs.length];
+    for(int i = 0;i<runs.length;i++) {
+      vals[i] = ((k<0)||(runs[i]==null)||!runs[i].completed) ? Double.NaN : runs[i].finalValues[k];
+    }
+    return vals;
+  }
+
+  /**
+   * Gets the exception that terminated a run.
+   *
+   * @param run the run index
+   * @return the exception or null if the run did not fail
+   */
+  public synchronized Throwable getError(int run) {
+    if((run<0)||(run>=runs.length)||(runs[run]==null)) {
+      return null;
+    }
+    return runs[run].error;
+  }
+
+  /**
+   * Gets the number of completed runs.
+   *
+   * @return int
+   */
+  public synchronized int getCompletedRuns() {
+    return completedRuns;
+  }
+
+  /**
+   * Gets the fraction of the sweep that has been completed.
+   *
+   * @return a number between 0 and 1
+   */
+  public synchronized double getProgress() {
+    return(runs.length==0) ? 0 : completedRuns/(double) runs.length;
+  }
+
+  /**
+   * Starts the sweep on worker threads and returns immediately.
+   */
+  public synchronized void start() {
+    if(isRunning()) {
+      return;
+    }
+    cancelled = false;
+    nextRun = 0;
+    completedRuns = 0;
+    runs = new Run[getRunCount()];
+    int n = Math.min(numberOfThreads, runs.length);
+    workers = new Thread[n];
+    activeWorkers = n;
+    if(n==0) {
+      support.firePropertyChange("done", null, new Integer(0));
+      return;
+    }
+    for(int i = 0;i<n;i++) {
+      workers[i] = new Thread(new Worker(), "ParameterSweep-"+i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  /**
+   * Runs the sweep and waits for all runs to complete or for the sweep to be cancelled.
+   */
+  public void execute() {
+    start();
+    join();
+  }
+
+  /**
+   * Waits for the worker threads to finish.
+   */
+  public void join() {
+    Thread[] threads;
+    synchronized(this) {
+      threads = workers;
+    }
+    for(int i = 0;i<threads.length;i++) {
+      try {
+        threads[i].join();
+      } catch(InterruptedException ex) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Cancels the sweep.  Runs that are in progress stop at the next step.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Determines if the sweep has been cancelled.
+   *
+   * @return boolean
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Determines if any worker thread is running.
+   *
+   * @return boolean
+   */
+  public synchronized boolean isRunning() {
+    for(int i = 0;i<workers.length;i++) {
+      if(workers[i].isAlive()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds a PropertyChangeListener.
+   *
+   * @param listener the listener
+   */
+  public void addPropertyChangeListener(PropertyChangeListener listener) {
+    support.addPropertyChangeListener(listener);
+  }
+
+  /**
+   * Removes a PropertyChangeListener.
+   *
+   * @param listener the listener
+   */
+  public void removePropertyChangeListener(PropertyChangeListener listener) {
+    support.removePropertyChangeListener(listener);
+  }
+
+  /**
+   * Gets the index of the next run or -1 if there are no more runs.
+   */
+  private synchronized int nextRun() {
+    if(cancelled||(nextRun>=runs.length)) {
+      return -1;
+    }
+    return nextRun++;
+  }
+
+  /**
+   * Stores a finished run and notifies listeners.
+   */
+  private void runFinished(int index, Run run) {
+    int done;
+    synchronized(this) {
+      runs[index] = run;
+      completedRuns++;
+      done = completedRuns;
+    }
+    support.firePropertyChange("progress", null, new Integer(done));
+  }
+
+  /**
+   * Notifies listeners that the sweep is done when the last worker thread finishes.
+   */
+  private void workerFinished() {
+    int done;
+    synchronized(this) {
+      activeWorkers--;
+      if(activeWorkers>0) {
+        return;
+      }
+      done = completedRuns;
+    }
+    support.firePropertyChange("done", null, new Integer(done));
+  }
+
+  /**
+   * Loads the fixed and swept parameter values for a run into a control.
+   */
+  private void loadValues(Control control, double[] vals) {
+    for(int i = 0, n = fixedNames.size();i<n;i++) {
+      control.setValue((String) fixedNames.get(i), fixedValues.get(i));
+    }
+    for(int i = 0;i<vals.length;i++) {
+      control.setValue((String) parameterNames.get(i), vals[i]);
+    }
+  }
+
+  /**
+   * Performs a single run.
+   */
+  private Run doRun(int index) {
+    Run run = new Run();
+    double[] vals = getParameterValues(index);
+    int numObs = observables.size();
+    run.finalValues = new double[numObs];
+    PrintWriter writer = null;
+    try {
+      HiddenControl control = new HiddenControl();
+      loadValues(control, vals);
+      Object model = factory.createModel(control);
+      AbstractAnimation animation = null;
+      ODESolver solver = null;
+      if(model instanceof AbstractAnimation) {
+        animation = (AbstractAnimation) model;
+        animation.setControl(control); // resets the model to its default values
+        loadValues(control, vals);
+        animation.initializeAnimation();
+      } else if(model instanceof ODE) {
+        solver = ODESolverFactory.createODESolver((ODE) model, solverName);
+        if(solver==null) {
+          throw new IllegalArgumentException("Unknown ODE solver: "+solverName);
+        }
+        solver.initialize(dt);
+      } else {
+        throw new IllegalArgumentException("Model must extend AbstractAnimation or implement ODE.");
+      }
+      if(keepDatasets) {
+        run.datasets = new Dataset[numObs];
+        int maxPoints = numberOfSteps/sampleInterval+1;
+        for(int k = 0;k<numObs;k++) {
+          run.datasets[k] = new Dataset();
+          run.datasets[k].setMaximumPoints(Math.max(maxPoints, 16*1024));
+          run.datasets[k].setXYColumnNames((solver==null) ? "step" : "t", (String) observableNames.get(k));
+          run.datasets[k].setName(parameterString(vals));
+        }
+      }
+      if(outputDirectory!=null) {
+        writer = new PrintWriter(new BufferedWriter(new FileWriter(new File(outputDirectory, "run_"+index+".txt"))));
+        writer.println("# "+parameterString(vals));
+        writer.print((solver==null) ? "step" : "t");
+        for(int k = 0;k<numObs;k++) {
+          writer.print("\t"+observableNames.get(k));
+        }
+        writer.println();
+      }
+      AbstractSimulation simulation = (model instanceof AbstractSimulation) ? (AbstractSimulation) model : null;
+      if(simulation!=null) {
+        simulation.start();
+        simulation.startRunning();
+      }
+      double t = 0;
+      sample(model, run, writer, 0);
+      for(int step = 1;step<=numberOfSteps;step++) {
+        if(cancelled) {
+          break;
+        }
+        if(solver!=null) {
+          t += solver.step();
+        } else {
+          animation.doStep();
+          if(simulation!=null) {
+            simulation.stepCounter++;
+          }
+        }
+        if(step%sampleInterval==0) {
+          sample(model, run, writer, (solver==null) ? step : t);
+        }
+      }
+      if(simulation!=null) {
+        simulation.stopRunning();
+        simulation.stop();
+      }
+      run.completed = !cancelled;
+    } catch(Throwable ex) { // errors in one model must not stop the sweep
+      run.error = ex;
+      try {
+        OSPLog.warning("Parameter sweep run "+index+" failed: "+ex);
+      } catch(Throwable logEx) {} // the log is not available in some headless environments
+    } finally {
+      if(writer!=null) {
+        writer.close();
+      }
+    }
+    return run;
+  }
+
+  /**
+   * Samples the observables.
+   */
+  private void sample(Object model, Run run, PrintWriter writer, double x) {
+    if(writer!=null) {
+      writer.print(x);
+    }
+    for(int k = 0, n = observables.size();k<n;k++) {
+      double y = ((Observable) observables.get(k)).getValue(model);
+      run.finalValues[k] = y;
+      if(run.datasets!=null) {
+        run.datasets[k].append(x, y);
+      }
+      if(writer!=null) {
+        writer.print("\t"+y);
+      }
+    }
+    if(writer!=null) {
+      writer.println();
+    }
+  }
+
+  /**
+   * Gets a string that describes a run's parameter values.
+   */
+  private String parameterString(double[] vals) {
+    StringBuffer buf = new StringBuffer();
+    for(int i = 0;i<vals.length;i++) {
+      if(i>0) {
+        buf.append(", ");
+      }
+      buf.append(parameterNames.get(i)).append("=").append(vals[i]);
+    }
+    return buf.toString();
+  }
+
+  /**
+   * Creates a model for a single run.
+   */
+  public interface ModelFactory {
+
+    /**
+     * Creates a model.  The control contains the run's parameter values.
+     *
+     * @param control Control
+     * @return an AbstractAnimation or an ODE
+     */
+    public Object createModel(Control control);
+  }
+
+  /**
+   * Computes a value from a model.
+   */
+  public interface Observable {
+
+    /**
+     * Gets the current value of the observable.
+     *
+     * @param model the model
+     * @return double
+     */
+    public double getValue(Object model);
+  }
+
+  /**
+   * The results of a single run.
+   */
+  private static class Run {
+    Dataset[] datasets;
+    double[] finalValues;
+    boolean completed;
+    Throwable error;
+  }
+
+  /**
+   * Performs runs until the grid is exhausted or the sweep is cancelled.
+   */
+  private class Worker implements Runnable {
+    public void run() {
+      try {
+        int index;
+        while((index = nextRun())>=0) {
+          runFinished(index, doRun(index));
+        }
+      } finally {
+        workerFinished();
+      }
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
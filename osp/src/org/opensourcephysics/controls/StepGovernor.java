@@ -0,0 +1,153 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.controls;
+
+/**
+ * StepGovernor measures the cost of stepping and rendering a simulation and chooses the number of
+ * steps per display that achieves a target frame rate.
+ *
+ * The costs are measured over windows of about half a second and are smoothed between windows.
+ * The steps per display are chosen so that stepping fills the part of the frame period that is
+ * not used for rendering.  The number of steps grows by at most a factor of four per window so
+ * that a single fast window does not upset the simulation.  Steps that are too fast to be measured
+ * by the millisecond clock grow the number of steps by a factor of sixteen.
+ *
+ * @version 1.0
+ */
+class StepGovernor {
+   static final int WINDOW = 500;                  // milliseconds between updates
+   static final int MAX_STEPS = 1<<24;             // largest number of steps per display
+   static final double FILL = 0.9;                 // fraction of the available time that is used for steps
+   double targetFrameRate = 30;
+   private long windowStart;
+   private int windowSteps, windowFrames;
+   private long stepTime, renderTime;              // milliseconds spent in the current window
+   private double stepCost = -1, renderCost = -1;  // smoothed milliseconds per step and per frame
+   private double stepsPerSecond, frameRate;       // achieved rates in the last window
+
+   /**
+    * Starts a new measurement.  The smoothed costs are kept.
+    *
+    * @param now the current time in milliseconds
+    */
+   synchronized void reset(long now) {
+      windowStart = now;
+      windowSteps = windowFrames = 0;
+      stepTime = renderTime = 0;
+   }
+
+   /**
+    * Records steps that have been performed.
+    *
+    * @param steps the number of steps
+    * @param millis the time in milliseconds
+    */
+   synchronized void recordSteps(int steps, long millis) {
+      windowSteps += steps;
+      stepTime += millis;
+   }
+
+   /**
+    * Records a rendered frame.
+    *
+    * @param millis the rendering time in milliseconds
+    */
+   synchronized void recordFrame(long millis) {
+      windowFrames++;
+      renderTime += millis;
+   }
+
+   /**
+    * Gets the frame period in milliseconds.
+    *
+    * @return the period
+    */
+   long getPeriod() {
+      return Math.max(1, Math.round(1000/targetFrameRate));
+   }
+
+   /**
+    * Ends the measurement window if it has expired and computes the new steps per display.
+    *
+    * If rendering has its own thread the steps fill the frame period; otherwise the steps fill the
+    * time that is left after rendering.
+    *
+    * @param now the current time in milliseconds
+    * @param steps the current steps per display
+    * @param renderThread true if rendering does not take time from stepping
+    * @return the new steps per display or zero if the window has not expired
+    */
+   synchronized int update(long now, int steps, boolean renderThread) {
+      long dt = now-windowStart;
+      if(dt<WINDOW) {
+         return 0;
+      }
+      stepsPerSecond = 1000.0*windowSteps/dt;
+      frameRate = 1000.0*windowFrames/dt;
+      if(windowSteps>0) {
+         double cost = (double) stepTime/windowSteps;
+         stepCost = (stepCost<0) ? cost : (stepCost+cost)/2;
+      }
+      if(windowFrames>0) {
+         double cost = (double) renderTime/windowFrames;
+         renderCost = (renderCost<0) ? cost : (renderCost+cost)/2;
+      }
+      reset(now);
+      double period = getPeriod();
+      double budget = renderThread ? period : Math.max(period-Math.max(renderCost, 0), period/2);
+      double n;
+      if(stepCost<=0) {
+         n = 16.0*steps; // the steps are too fast to measure
+      } else {
+         n = Math.max(steps/8.0, Math.min(FILL*budget/stepCost, 4.0*steps));
+      }
+      return (int) Math.max(1, Math.min(n, MAX_STEPS));
+   }
+
+   /**
+    * Gets the steps per second in the last window.
+    *
+    * @return the rate
+    */
+   double getStepsPerSecond() {
+      return stepsPerSecond;
+   }
+
+   /**
+    * Gets the frames per second in the last window.
+    *
+    * @return the rate
+    */
+   double getFrameRate() {
+      return frameRate;
+   }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -16,7 +16,7 @@ import java.awt.BasicStroke;
  * @author       Wolfgang Christian
  * @version 1.0
  */
-public abstract class AbstractTrail implements Drawable, Measurable {
+public abstract class AbstractTrail implements Drawable, NotifyingMeasurable {
 
   public Color color = Color.black; // changing the color is harmless so this can be public
   protected boolean enableMeasure = false;
@@ -24,6 +24,10 @@ public abstract class AbstractTrail implements Drawable, Measurable {
   protected int numpts = 0;         // the number of points in the trail
   protected boolean closed = false;
   protected Stroke drawingStroke;
+  protected double simplification = 0; // pixels
+  TrailBuffer buffer = new TrailBuffer();
+  boolean boundsChanged = false;       // true if the bounds must be recomputed from the buffer
+  private MeasureSupport measureSupport = new MeasureSupport();
 
   /**
    * Adds a point to the trail.
@@ -43,6 +47,106 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    */
   public abstract void clear();
 
+  /**
+   * Sets the maximum number of points in the trail.
+   *
+   * The oldest point is removed when a point is added to a full trail so that memory and drawing
+   * time remain bounded.  The newest points are kept if the trail already has more points.
+   *
+   * @param max the maximum number of points; zero for an unbounded trail
+   */
+  public synchronized void setMaximumPoints(int max) {
+    int removals = buffer.removals;
+    buffer.setMaximum(max);
+    numpts = buffer.size;
+    boundsChanged |= (removals!=buffer.removals);
+    fireMeasureChanged();
+  }
+
+  /**
+   * Gets the maximum number of points in the trail.
+   *
+   * @return the maximum; zero if the trail is unbounded
+   */
+  public int getMaximumPoints() {
+    return buffer.maximum;
+  }
+
+  /**
+   * Sets the simplification tolerance in pixels.
+   *
+   * Points that are closer than the tolerance to the previously drawn point are not drawn.
+   * Because the tolerance is in screen space, points are dropped only when they are invisible
+   * at the current scale.  The points are kept so that zooming in restores the detail.
+   *
+   * @param pixels the tolerance; zero draws every point
+   */
+  public void setSimplification(double pixels) {
+    simplification = Math.max(pixels, 0);
+  }
+
+  /**
+   * Gets the simplification tolerance in pixels.
+   *
+   * @return the tolerance
+   */
+  public double getSimplification() {
+    return simplification;
+  }
+
+  /**
+   * Stores a point and updates the bounds.  The bounds are computed from the stored float values so that
+   * they can be compared with the points that are removed from the buffer.
+   *
+   * @param x
+   * @param y
+   * @param type the TrailBuffer point type
+   */
+  void storePoint(double x, double y, byte type) {
+    float fx = (float) x, fy = (float) y;
+    xmin = Math.min(xmin, fx);
+    xmax = Math.max(xmax, fx);
+    ymin = Math.min(ymin, fy);
+    ymax = Math.max(ymax, fy);
+    if(buffer.add(fx, fy, type)) {
+      // the bounds can only shrink if the removed point was on the boundary
+      float rx = buffer.removedX, ry = buffer.removedY;
+      boundsChanged |= (rx<=xmin)||(rx>=xmax)||(ry<=ymin)||(ry>=ymax);
+    }
+    numpts = buffer.size;
+    fireMeasureChanged();
+  }
+
+  /**
+   * Removes all points and resets the bounds.
+   */
+  void clearPoints() {
+    buffer.clear();
+    numpts = 0;
+    xmin = Double.MAX_VALUE;
+    xmax = -Double.MAX_VALUE;
+    ymin = Double.MAX_VALUE;
+    ymax = -Double.MAX_VALUE;
+    boundsChanged = false;
+    fireMeasureChanged();
+  }
+
+  /**
+   * Recomputes the bounds if points on the boundary have been removed.
+   */
+  synchronized void checkBounds() {
+    if(!boundsChanged) {
+      return;
+    }
+    double[] bounds = new double[4];
+    buffer.getBounds(bounds);
+    xmin = bounds[0];
+    xmax = bounds[1];
+    ymin = bounds[2];
+    ymax = bounds[3];
+    boundsChanged = false;
+  }
+
   /**
    * Sets the drawing stroke.
    * @param stroke Stroke
@@ -88,6 +192,43 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    */
   public void setMeasured(boolean _enableMeasure) {
     enableMeasure = _enableMeasure;
+    fireMeasureChanged();
+  }
+
+  /**
+   * Adds a listener that is notified when points are added or removed.
+   *
+   * @param listener
+   */
+  public void addMeasureListener(MeasureListener listener) {
+    measureSupport.add(listener);
+  }
+
+  /**
+   * Removes a measure listener.
+   *
+   * @param listener
+   */
+  public void removeMeasureListener(MeasureListener listener) {
+    measureSupport.remove(listener);
+  }
+
+  /**
+   * Notifies the measure listeners.  Subclasses that override the min/max getters
+   * must call this method after the values change.
+   */
+  protected void fireMeasureChanged() {
+    measureSupport.fire(this);
+  }
+
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   * Trails that notify their listeners override this method.
+   *
+   * @return false
+   */
+  public boolean isMeasureNotifying() {
+    return false;
   }
 
   /**
@@ -104,6 +245,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getXMin() {
+    checkBounds();
     return xmin;
   }
 
@@ -112,6 +254,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getXMax() {
+    checkBounds();
     return xmax;
   }
 
@@ -120,6 +263,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getYMin() {
+    checkBounds();
     return ymin;
   }
 
@@ -128,6 +272,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getYMax() {
+    checkBounds();
     return ymax;
   }
 }
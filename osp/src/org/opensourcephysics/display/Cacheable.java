@@ -0,0 +1,53 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+
+/**
+ * Cacheable objects report when their appearance changes so that a drawing panel can keep
+ * their rendering in an image.
+ *
+ * A drawing panel caches the leading Cacheable objects in its drawable list and draws the cached
+ * image until the change count of one of these objects changes or until the panel's scale or
+ * size changes.  Objects that draw data that may be modified without notification should not
+ * implement this interface.
+ *
+ * @version 1.0
+ */
+public interface Cacheable extends Drawable {
+
+  /**
+   * Gets a count that changes whenever the appearance of this object changes.
+   *
+   * @return the change count
+   */
+  public long getChangeCount();
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -79,6 +79,8 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
 
   private Color lineColor = Color.black;
   private GeneralPath ampPath; // used to draw line plots
+  private DataDecimator ampDecimator = new DataDecimator(); // used to draw large line plots
+  private DataDecimator reDecimator = new DataDecimator(), imDecimator = new DataDecimator();
   private Trail reTrail = new Trail(), imTrail = new Trail();
   private String name="Complex Data";
   private String xColumnName="x";  // the name of the x data
@@ -420,6 +422,7 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
     re_points[index] = re;
     im_points[index] = im;
     double amp = Math.sqrt(re*re+im*im);
+    amp_points[index] = amp;
     // generalPath.append(new Rectangle2D.Double(x, y, 0, 0), true);
     if(index==0) {
       ampPath.moveTo((float) x, (float) amp);
@@ -489,6 +492,9 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
     System.arraycopy(_xpoints, 0, xpoints, index, pointsAdded);
     System.arraycopy(_repoints, 0, re_points, index, pointsAdded);
     System.arraycopy(_impoints, 0, im_points, index, pointsAdded);
+    for(int i = index, n = index+pointsAdded;i<n;i++) {
+      amp_points[i] = Math.sqrt(re_points[i]*re_points[i]+im_points[i]*im_points[i]);
+    }
     index += pointsAdded;
     if(badData) {
       cleanBadData();
@@ -540,6 +546,7 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
       xpoints[index+i] = _xpoints[i];
       re_points[index+i] = _zpoints[2*i];
       im_points[index+i] = _zpoints[2*i+1];
+      amp_points[index+i] = amp;
       if((index==0)&&(i==0)) {
         ampPath.moveTo((float) _xpoints[i], (float) amp);
       } else {
@@ -567,9 +574,11 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
         System.arraycopy(xpoints, i+1, xpoints, i, index-i-1);
         System.arraycopy(re_points, i+1, re_points, i, index-i-1);
         System.arraycopy(im_points, i+1, im_points, i, index-i-1);
+        System.arraycopy(amp_points, i+1, amp_points, i, index-i-1);
         index--;
       }
     }
+    invalidateDecimators();
   }
 
   /**
@@ -766,16 +775,39 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
    * Recalcualte the general path.
    */
   protected void recalculatePath() {
+    invalidateDecimators();
     ampPath.reset();
     if(index<1) {
       return;
     }
-    float amp = (float) Math.sqrt(re_points[0]*re_points[0]+im_points[0]*im_points[0]);
-    ampPath.moveTo((float) xpoints[0], amp);
+    amp_points[0] = Math.sqrt(re_points[0]*re_points[0]+im_points[0]*im_points[0]);
+    ampPath.moveTo((float) xpoints[0], (float) amp_points[0]);
     for(int i = 1;i<index;i++) {
-      amp = (float) Math.sqrt(re_points[i]*re_points[i]+im_points[i]*im_points[i]);
-      ampPath.lineTo((float) xpoints[i], amp);
+      amp_points[i] = Math.sqrt(re_points[i]*re_points[i]+im_points[i]*im_points[i]);
+      ampPath.lineTo((float) xpoints[i], (float) amp_points[i]);
+    }
+  }
+
+  /**
+   * Discards the summaries that are used to draw large line plots.
+   */
+  protected void invalidateDecimators() {
+    ampDecimator.invalidate();
+    reDecimator.invalidate();
+    imDecimator.invalidate();
+  }
+
+  /**
+   * Draws a large line plot using a decimator.
+   *
+   * @return true if the plot was drawn; false otherwise
+   */
+  private boolean drawDecimated(DataDecimator decimator, double[] ypoints, DrawingPanel drawingPanel, AffineTransform at, Graphics2D g2) {
+    if((index<DataDecimator.MIN_POINTS)||!DataDecimator.canDecimate(g2)||!decimator.update(xpoints, ypoints, index)||!decimator.decimate(drawingPanel, at, g2)) {
+      return false;
     }
+    g2.draw(decimator.getPath());
+    return true;
   }
 
   /**
@@ -809,13 +841,17 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
    */
   protected void drawLinePlot(DrawingPanel drawingPanel, Graphics2D g2) {
     AffineTransform at = (AffineTransform) (drawingPanel.getPixelTransform().clone());
-    Shape s = ampPath.createTransformedShape(at);
     g2.setColor(lineColor);
-    g2.draw(s);
+    if(!drawDecimated(ampDecimator, amp_points, drawingPanel, at, g2)) {
+      Shape s = ampPath.createTransformedShape(at);
+      g2.draw(s);
+    }
     if(showPhase) {
       at.concatenate(flip);
-      s = ampPath.createTransformedShape(at);
-      g2.draw(s);
+      if(!drawDecimated(ampDecimator, amp_points, drawingPanel, at, g2)) {
+        Shape s = ampPath.createTransformedShape(at);
+        g2.draw(s);
+      }
     }
   }
 
@@ -825,8 +861,15 @@ public class ComplexDataset extends AbstractTableModel implements Drawable, Meas
    * @param g2
    */
   protected void drawReImPlot(DrawingPanel drawingPanel, Graphics2D g2) {
-    reTrail.draw(drawingPanel, g2);
-    imTrail.draw(drawingPanel, g2);
+    AffineTransform at = drawingPanel.getPixelTransform();
+    g2.setColor(reTrail.color);
+    if(!drawDecimated(reDecimator, re_points, drawingPanel, at, g2)) {
+      reTrail.draw(drawingPanel, g2);
+    }
+    g2.setColor(imTrail.color);
+    if(!drawDecimated(imDecimator, im_points, drawingPanel, at, g2)) {
+      imTrail.draw(drawingPanel, g2);
+    }
   }
 
   /**
@@ -0,0 +1,807 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+
+/**
+ * DataDecimator reduces a large line plot to the points that determine its pixels.
+ *
+ * Points are converted to pixel coordinates in the same way that a GeneralPath of float world coordinates
+ * is transformed so that a polyline through the points is drawn exactly as before.
+ *
+ * A thin line that is not antialiased is rasterized one segment at a time using fixed point coordinates
+ * with 10 fractional bits.  A segment between two points in the same half of a pixel column draws a vertical
+ * run of pixels in that column, and this run can be computed exactly from the fixed point coordinates.  The
+ * decimator computes the pixels drawn by the segments between consecutive points in every half column and
+ * replaces the points by the first, minimum, maximum, and last points if the segments between these points
+ * draw the same pixels.  Otherwise every point is kept.  The pixels are not computed for antialiased, wide,
+ * dashed, or translucent lines or for vector graphics; the canDecimate method determines if a graphics draws
+ * lines that can be decimated.
+ *
+ * The decimated points are kept until the data, the transformation, or the clip changes.  Points that are
+ * appended to data whose x values increase are decimated without decimating the previous points again.
+ * Points whose y value is Double.NaN are skipped.
+ *
+ * Runs of consecutive points that lie beyond the same edge of the panel are replaced by the first and last
+ * points of the run because the line between them is not visible.
+ *
+ * @version 1.0
+ */
+public class DataDecimator {
+  /** Datasets having fewer points are drawn point by point. */
+  public static final int MIN_POINTS = 1024;
+  static final int CLIP_MARGIN = 32; // pixels outside the panel that may be covered by wide lines
+  static final int PREC = 10;        // the fractional bits of the rasterizer's fixed point coordinates
+  static final int ONE = 1<<PREC;
+  static final int HALF = ONE>>1;
+  private double[] x, y;      // the data
+  private int n;              // the number of points that have been checked
+  private boolean increasing; // true if the x values do not decrease
+  private float[] xpix = new float[256], ypix = new float[256];
+  private int count;
+  private GeneralPath path = new GeneralPath();
+  private boolean clip;
+  private double clipLeft, clipTop, clipRight, clipBottom;
+  private int runCode;     // the edges shared by the points in the current run
+  private boolean pending; // true if the last point of a run has not been stored
+  private float pendingX, pendingY;
+  // the device translation and the region where segments are rasterized without clipping
+  private float transX, transY, regionLeft, regionTop, regionRight, regionBottom;
+  // the decimated points of sorted data are reused until the view changes
+  private boolean cached;
+  private double[] cachedMatrix = new double[6], matrix = new double[6];
+  private float[] cachedView = new float[10], view = new float[10];
+  private int cachedStart, cachedStop; // the range of decimated points
+  private int resumeIndex, resumeCount, resumeRunCode; // the state at the start of the last half column
+  private boolean resumePending;
+  private float resumeX, resumeY;
+  // the current half column
+  private int binKey, binSize, binStart, binColumn, binTop, binBottom;
+  private boolean binExact;
+  private int lastFX, lastFY;
+  private int[] groupSeq = new int[4], groupFX = new int[4], groupFY = new int[4];
+  private float[] groupX = new float[4], groupY = new float[4];
+  // the points that may replace the points of the current half column
+  private int candidateSize;
+  private int[] candidateFX = new int[4], candidateFY = new int[4];
+  private float[] candidateX = new float[4], candidateY = new float[4];
+  // the pixels drawn by the last rasterized segment
+  private int rasterColumn, rasterTop, rasterBottom;
+
+  /**
+   * Determines if lines drawn on the given graphics look the same when they are decimated.
+   *
+   * Lines can be decimated if they are thin, solid, opaque, and not antialiased and if the graphics draws
+   * on the screen or an image with an integer translation.
+   *
+   * @param g2
+   * @return true if line plots can be decimated
+   */
+  public static boolean canDecimate(Graphics2D g2) {
+    GraphicsConfiguration gc = g2.getDeviceConfiguration();
+    if((gc==null)||(gc.getDevice().getType()==GraphicsDevice.TYPE_PRINTER)) {
+      return false;
+    }
+    AffineTransform at = g2.getTransform();
+    if(((at.getType()&~AffineTransform.TYPE_TRANSLATION)!=0)||(at.getTranslateX()!=Math.rint(at.getTranslateX()))||(at.getTranslateY()!=Math.rint(at.getTranslateY()))) {
+      return false;
+    }
+    if(RenderingHints.VALUE_ANTIALIAS_ON.equals(g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING))) {
+      return false;
+    }
+    if(RenderingHints.VALUE_STROKE_PURE.equals(g2.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL))) {
+      return false;
+    }
+    // overlapping segments are blended more than once if the line is translucent
+    Composite composite = g2.getComposite();
+    if(!(composite instanceof AlphaComposite)||(((AlphaComposite) composite).getRule()!=AlphaComposite.SRC_OVER)||(((AlphaComposite) composite).getAlpha()!=1)) {
+      return false;
+    }
+    Paint paint = g2.getPaint();
+    if(!(paint instanceof Color)||(((Color) paint).getAlpha()!=255)) {
+      return false;
+    }
+    Stroke stroke = g2.getStroke();
+    if(!(stroke instanceof BasicStroke)) {
+      return false;
+    }
+    BasicStroke basic = (BasicStroke) stroke;
+    return(basic.getLineWidth()<=1)&&(basic.getDashArray()==null);
+  }
+
+  /**
+   * Discards the decimated points so that the data is decimated again the next time it is drawn.
+   * This method must be called if data other than the last points has changed.
+   */
+  public void invalidate() {
+    x = null;
+    y = null;
+    n = 0;
+    cached = false;
+  }
+
+  /**
+   * Discards the decimated points starting at the given index.
+   * The points before the last half column that precedes the index are kept.
+   *
+   * @param from the index of the first point that has changed
+   */
+  public void invalidate(int from) {
+    if((from<=0)||!increasing) {
+      invalidate();
+      return;
+    }
+    if(from>=n) {
+      return;
+    }
+    if(cached&&(from<=resumeIndex)) {
+      cached = false;
+    }
+    cachedStop = -1; // the last half column is decimated again
+    n = from;
+  }
+
+  /**
+   * Updates the decimator to include the given data.
+   *
+   * Points that have been appended since the last update are checked.  The decimated points are discarded
+   * if the arrays have been replaced or if the number of points has decreased.
+   *
+   * @param x the x values
+   * @param y the y values
+   * @param n the number of points
+   * @return true if the x values increase so that the data can be decimated
+   */
+  public boolean update(double[] x, double[] y, int n) {
+    if((x!=this.x)||(y!=this.y)||(n<this.n)) {
+      this.x = x;
+      this.y = y;
+      this.n = 0;
+      increasing = true;
+      cached = false;
+    }
+    for(int i = Math.max(this.n, 1);i<n;i++) {
+      if(!(x[i]>=x[i-1])) {
+        increasing = false;
+      }
+    }
+    this.n = n;
+    return increasing;
+  }
+
+  /**
+   * Gets the number of points that have been checked by the last update.
+   *
+   * @return int
+   */
+  public int getPointCount() {
+    return n;
+  }
+
+  /**
+   * Decimates the data for the panel's pixel transformation.
+   *
+   * @param panel the drawing panel
+   * @param g2 the graphics that will draw the line
+   * @return true if successful; false if the data cannot be decimated
+   */
+  public boolean decimate(DrawingPanel panel, Graphics2D g2) {
+    return decimate(panel, panel.getPixelTransform(), g2);
+  }
+
+  /**
+   * Decimates the data for the given transformation from world to pixel coordinates.
+   * Points that are to the left or right of the panel are skipped.  The panel may be null if every
+   * point should be kept.
+   *
+   * @param panel the drawing panel
+   * @param at the transformation; it must not rotate or shear
+   * @param g2 the graphics that will draw the line
+   * @return true if successful; false if the data cannot be decimated
+   */
+  public boolean decimate(DrawingPanel panel, AffineTransform at, Graphics2D g2) {
+    double sx = at.getScaleX(), tx = at.getTranslateX();
+    if(!increasing||!(sx>0)||(at.getShearX()!=0)||(at.getShearY()!=0)) {
+      cached = false;
+      return false;
+    }
+    setView(panel, at, g2);
+    // the points in the visible columns and one point on either side
+    int start = search((-1-tx)/sx, 0, n)-1;
+    while((start>0)&&(y[start]!=y[start])) {
+      start--;
+    }
+    start = Math.max(start, 0);
+    int stop = (panel==null) ? n : searchAbove((panel.getWidth()+1-tx)/sx, start, n);
+    while((stop<n-1)&&(y[stop]!=y[stop])) {
+      stop++;
+    }
+    stop = Math.min(stop, n-1);
+    boolean same = cached&&(start==cachedStart);
+    for(int i = 0;same&&(i<matrix.length);i++) {
+      same = (matrix[i]==cachedMatrix[i]);
+    }
+    for(int i = 0;same&&(i<view.length);i++) {
+      same = (view[i]==cachedView[i]);
+    }
+    if(same&&(stop==cachedStop)) {
+      return true; // nothing has changed
+    }
+    if(same&&(stop>cachedStop)&&(stop>=resumeIndex)&&(resumeIndex>start)) {
+      // decimate the last half column again together with the appended points
+      count = resumeCount;
+      runCode = resumeRunCode;
+      pending = resumePending;
+      pendingX = resumeX;
+      pendingY = resumeY;
+      scan(x, y, resumeIndex, stop+1-resumeIndex, at);
+    } else {
+      begin(panel);
+      scan(x, y, start, stop+1-start, at);
+    }
+    System.arraycopy(matrix, 0, cachedMatrix, 0, matrix.length);
+    System.arraycopy(view, 0, cachedView, 0, view.length);
+    cachedStart = start;
+    cachedStop = stop;
+    cached = true;
+    return true;
+  }
+
+  /**
+   * Decimates a sequence of points.
+   *
+   * Consecutive points in the same half of a pixel column are replaced by the first, last, minimum, and
+   * maximum points if the line through these points draws the same pixels.  The x values need not increase.
+   * The sequence starts at the given array index and wraps around the end of the arrays so that a circular
+   * buffer can be drawn without copying.
+   *
+   * @param panel the drawing panel
+   * @param at the transformation from world to pixel coordinates; it must not rotate or shear
+   * @param g2 the graphics that will draw the line
+   * @param x the x values
+   * @param y the y values
+   * @param first the array index of the first point
+   * @param n the number of points
+   */
+  public void decimateSequence(DrawingPanel panel, AffineTransform at, Graphics2D g2, double[] x, double[] y, int first, int n) {
+    cached = false;
+    setView(panel, at, g2);
+    begin(panel);
+    scan(x, y, first, n, at);
+  }
+
+  /**
+   * Converts a sequence of points to pixel coordinates.
+   *
+   * Every point is kept except for points in runs beyond an edge of the panel.  The sequence starts
+   * at the given array index and wraps around the end of the arrays.  The panel should be null if the
+   * lines are wide because wide lines may reach into the panel from beyond the margin.
+   *
+   * @param panel the drawing panel or null if no point should be skipped
+   * @param at the transformation from world to pixel coordinates
+   * @param x the x values
+   * @param y the y values
+   * @param first the array index of the first point
+   * @param n the number of points
+   */
+  public void transform(DrawingPanel panel, AffineTransform at, double[] x, double[] y, int first, int n) {
+    cached = false;
+    begin(panel);
+    double m00 = at.getScaleX(), m01 = at.getShearX(), m02 = at.getTranslateX();
+    double m10 = at.getShearY(), m11 = at.getScaleY(), m12 = at.getTranslateY();
+    int len = x.length;
+    for(int k = 0, i = first;k<n;k++, i++) {
+      if(i>=len) {
+        i -= len;
+      }
+      // the same arithmetic as the transformation of a float path
+      float xi = (float) x[i], yi = (float) y[i];
+      if(yi==yi) {
+        add((float) (m00*xi+m01*yi+m02), (float) (m10*xi+m11*yi+m12));
+      }
+    }
+    flush();
+  }
+
+  /**
+   * Gets the number of points in the decimated polyline.
+   *
+   * @return int
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the pixel x coordinates of the decimated polyline.  Only the first getCount() values are valid.
+   *
+   * @return float[]
+   */
+  public float[] getXPixels() {
+    return xpix;
+  }
+
+  /**
+   * Gets the pixel y coordinates of the decimated polyline.  Only the first getCount() values are valid.
+   *
+   * @return float[]
+   */
+  public float[] getYPixels() {
+    return ypix;
+  }
+
+  /**
+   * Gets a path in pixel coordinates through the decimated points.
+   * The path is reused and is valid until the next decimation.
+   *
+   * @return GeneralPath
+   */
+  public GeneralPath getPath() {
+    path.reset();
+    if(count>0) {
+      path.moveTo(xpix[0], ypix[0]);
+      for(int i = 1;i<count;i++) {
+        path.lineTo(xpix[i], ypix[i]);
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Stores the device translation of the graphics and the region in which lines are not clipped.
+   */
+  private void setView(DrawingPanel panel, AffineTransform at, Graphics2D g2) {
+    at.getMatrix(matrix);
+    AffineTransform device = g2.getTransform();
+    transX = (float) device.getTranslateX();
+    transY = (float) device.getTranslateY();
+    // the rasterizer clips lines at half a pixel outside the clip; one pixel is kept clear of the edges
+    Rectangle region = g2.getDeviceConfiguration().getBounds();
+    region.translate(-(int) transX, -(int) transY);
+    Rectangle clipRect = g2.getClipBounds();
+    if(clipRect!=null) {
+      region = region.intersection(clipRect);
+    }
+    if(panel!=null) {
+      region = region.intersection(new Rectangle(0, 0, panel.getWidth(), panel.getHeight()));
+    }
+    regionLeft = region.x+transX;
+    regionTop = region.y+transY;
+    regionRight = region.x+region.width-1+transX;
+    regionBottom = region.y+region.height-1+transY;
+    view[0] = transX;
+    view[1] = transY;
+    view[2] = regionLeft;
+    view[3] = regionTop;
+    view[4] = regionRight;
+    view[5] = regionBottom;
+    view[6] = (panel==null) ? -1 : panel.getWidth();
+    view[7] = (panel==null) ? -1 : panel.getHeight();
+  }
+
+  /**
+   * Decimates a sequence of points that starts at the given array index and wraps around the end of the arrays.
+   */
+  private void scan(double[] x, double[] y, int first, int n, AffineTransform at) {
+    double sx = at.getScaleX(), tx = at.getTranslateX();
+    double sy = at.getScaleY(), ty = at.getTranslateY();
+    int len = x.length;
+    binSize = 0;
+    for(int k = 0, i = first;k<n;k++, i++) {
+      if(i>=len) {
+        i -= len;
+      }
+      double yi = y[i];
+      if(yi!=yi) {
+        continue;
+      }
+      float px = pixel(sx, x[i], tx), py = pixel(sy, yi, ty);
+      // the device coordinates that are rasterized
+      float dx = px+transX, dy = py+transY;
+      int fx = (int) (dx*ONE), fy = (int) (dy*ONE);
+      boolean inside = (dx>=regionLeft)&&(dx<=regionRight)&&(dy>=regionTop)&&(dy<=regionBottom);
+      int key = fx>>(PREC-1); // the half column
+      if((binSize>0)&&(key==binKey)&&binExact&&inside) {
+        if(rasterize(lastFX, lastFY, fx, fy)) {
+          binExact = addRun(rasterColumn, rasterTop, rasterBottom);
+        } else if(rasterColumn<0) {
+          binExact = false;
+        }
+        binSize++;
+        if(fy<groupFY[1]) {
+          setGroup(1, k, fx, fy, px, py);
+        }
+        if(fy>groupFY[2]) {
+          setGroup(2, k, fx, fy, px, py);
+        }
+      } else if((binSize>0)&&(key==binKey)) {
+        binExact = false;
+        binSize++;
+      } else {
+        if(binSize>0) {
+          endBin(x, y, first, sx, tx, sy, ty);
+        }
+        // save the state so that appended points can be decimated later
+        resumeIndex = i;
+        resumeCount = count;
+        resumeRunCode = runCode;
+        resumePending = pending;
+        resumeX = pendingX;
+        resumeY = pendingY;
+        binKey = key;
+        binSize = 1;
+        binStart = k;
+        binColumn = (fx+HALF)>>PREC;
+        binTop = Integer.MAX_VALUE;
+        binBottom = Integer.MIN_VALUE;
+        binExact = inside;
+        setGroup(0, k, fx, fy, px, py);
+        setGroup(1, k, fx, fy, px, py);
+        setGroup(2, k, fx, fy, px, py);
+      }
+      setGroup(3, k, fx, fy, px, py);
+      lastFX = fx;
+      lastFY = fy;
+    }
+    if(binSize>0) {
+      endBin(x, y, first, sx, tx, sy, ty);
+    }
+    flush();
+  }
+
+  private void setGroup(int slot, int seq, int fx, int fy, float px, float py) {
+    groupSeq[slot] = seq;
+    groupFX[slot] = fx;
+    groupFY[slot] = fy;
+    groupX[slot] = px;
+    groupY[slot] = py;
+  }
+
+  /**
+   * Adds the points of the current half column.
+   *
+   * The first, minimum, maximum, and last points are added if the segments between them draw the same pixels
+   * as the segments between all the points.  Otherwise the first and last points are connected by a vertical
+   * line through the top and bottom pixels at the x coordinate of the first or the last point, or directly
+   * if no pixels are drawn.  Every point is added if none of these polylines draws the same pixels.
+   */
+  private void endBin(double[] x, double[] y, int first, double sx, double tx, double sy, double ty) {
+    if(binExact&&(binSize>4)) {
+      int top = binTop, bottom = binBottom;
+      if(groupSeq[1]>groupSeq[2]) { // order the minimum and maximum by sequence
+        swapGroup(1, 2);
+      }
+      candidateSize = 0;
+      for(int slot = 0;slot<4;slot++) {
+        if((slot==0)||(groupSeq[slot]!=groupSeq[slot-1])) {
+          addCandidate(groupX[slot], groupY[slot], groupFX[slot], groupFY[slot]);
+        }
+      }
+      if(addCandidates(top, bottom)) {
+        return;
+      }
+      if(top>bottom) { // nothing is drawn
+        candidateSize = 0;
+        addCandidate(groupX[0], groupY[0], groupFX[0], groupFY[0]);
+        addCandidate(groupX[3], groupY[3], groupFX[3], groupFY[3]);
+        if(addCandidates(top, bottom)) {
+          return;
+        }
+      } else {
+        // end at the pixel that is closer to the last point
+        int last = (groupFY[3]+HALF)>>PREC;
+        int end = (Math.abs(last-top)<Math.abs(last-bottom)) ? top : bottom;
+        int start = (end==top) ? bottom : top;
+        for(int slot = 0;slot<4;slot += 3) {
+          candidateSize = 0;
+          addCandidate(groupX[0], groupY[0], groupFX[0], groupFY[0]);
+          addCandidate(groupX[slot], start-transY, groupFX[slot], start<<PREC);
+          addCandidate(groupX[slot], end-transY, groupFX[slot], end<<PREC);
+          addCandidate(groupX[3], groupY[3], groupFX[3], groupFY[3]);
+          if(addCandidates(top, bottom)) {
+            return;
+          }
+        }
+      }
+    }
+    // add every point of the half column
+    int len = x.length;
+    int i = first+binStart;
+    for(int k = binStart;k<=groupSeq[3];k++, i++) {
+      if(i>=len) {
+        i -= len;
+      }
+      if(y[i]==y[i]) {
+        add(pixel(sx, x[i], tx), pixel(sy, y[i], ty));
+      }
+    }
+  }
+
+  private void addCandidate(float px, float py, int fx, int fy) {
+    candidateX[candidateSize] = px;
+    candidateY[candidateSize] = py;
+    candidateFX[candidateSize] = fx;
+    candidateFY[candidateSize] = fy;
+    candidateSize++;
+  }
+
+  /**
+   * Adds the candidate points if the segments between them draw the given run of pixels in the current column.
+   * The run is empty if the top is greater than the bottom.
+   *
+   * @return true if the points were added
+   */
+  private boolean addCandidates(int top, int bottom) {
+    binTop = Integer.MAX_VALUE;
+    binBottom = Integer.MIN_VALUE;
+    for(int k = 1;k<candidateSize;k++) {
+      if(rasterize(candidateFX[k-1], candidateFY[k-1], candidateFX[k], candidateFY[k])) {
+        if(!addRun(rasterColumn, rasterTop, rasterBottom)) {
+          return false;
+        }
+      } else if(rasterColumn<0) {
+        return false;
+      }
+    }
+    if((top<=bottom) ? ((binTop!=top)||(binBottom!=bottom)) : (binTop<=binBottom)) {
+      return false;
+    }
+    for(int k = 0;k<candidateSize;k++) {
+      add(candidateX[k], candidateY[k]);
+    }
+    return true;
+  }
+
+  private void swapGroup(int a, int b) {
+    int seq = groupSeq[a], fx = groupFX[a], fy = groupFY[a];
+    float px = groupX[a], py = groupY[a];
+    setGroup(a, groupSeq[b], groupFX[b], groupFY[b], groupX[b], groupY[b]);
+    setGroup(b, seq, fx, fy, px, py);
+  }
+
+  /**
+   * Adds a run of pixels to the pixels drawn in the current half column.
+   *
+   * @return false if the run is in another column or is separated from the previous runs
+   */
+  private boolean addRun(int column, int top, int bottom) {
+    if(column!=binColumn) {
+      return false;
+    }
+    if(binTop>binBottom) {
+      binTop = top;
+      binBottom = bottom;
+      return true;
+    }
+    if((top>binBottom+1)||(bottom<binTop-1)) {
+      return false;
+    }
+    binTop = Math.min(binTop, top);
+    binBottom = Math.max(binBottom, bottom);
+    return true;
+  }
+
+  /**
+   * Finds the pixels that the rasterizer draws for a thin line between two points whose device
+   * coordinates have been converted to fixed point.  The end points of the line are moved to the edges
+   * of their pixels in the same way as the rasterizer moves them.
+   *
+   * @return true if the line draws a vertical run of pixels; false if it draws nothing or if it draws
+   * pixels in more than one column, in which case the raster column is set to -1
+   */
+  private boolean rasterize(int x1, int y1, int x2, int y2) {
+    int c = (x1^x2)|(y1^y2);
+    int rx1, ry1, rx2, ry2;
+    if((c&-ONE)==0) { // both points are in one pixel
+      if(c!=0) {
+        rasterColumn = 0;
+        return false;
+      }
+      rx1 = rx2 = x1+HALF;
+      ry1 = ry2 = y1+HALF;
+    } else if((x1==x2)||(y1==y2)) {
+      rx1 = x1+HALF;
+      rx2 = x2+HALF;
+      ry1 = y1+HALF;
+      ry2 = y2+HALF;
+    } else {
+      int dx = x2-x1;
+      int dy = y2-y1;
+      int fx1 = x1&-ONE, fy1 = y1&-ONE;
+      int fx2 = x2&-ONE, fy2 = y2&-ONE;
+      if((fx1==x1)||(fy1==y1)) {
+        rx1 = x1+HALF;
+        ry1 = y1+HALF;
+      } else {
+        int bx1 = (x1<x2) ? fx1+ONE : fx1;
+        int by1 = (y1<y2) ? fy1+ONE : fy1;
+        int cross = y1+((bx1-x1)*dy)/dx;
+        if((cross>=fy1)&&(cross<=fy1+ONE)) {
+          rx1 = bx1;
+          ry1 = cross+HALF;
+        } else {
+          cross = x1+((by1-y1)*dx)/dy;
+          rx1 = cross+HALF;
+          ry1 = by1;
+        }
+      }
+      if((fx2==x2)||(fy2==y2)) {
+        rx2 = x2+HALF;
+        ry2 = y2+HALF;
+      } else {
+        int bx2 = (x1>x2) ? fx2+ONE : fx2;
+        int by2 = (y1>y2) ? fy2+ONE : fy2;
+        int cross = y2+((bx2-x2)*dy)/dx;
+        if((cross>=fy2)&&(cross<=fy2+ONE)) {
+          rx2 = bx2;
+          ry2 = cross+HALF;
+        } else {
+          cross = x2+((by2-y2)*dx)/dy;
+          rx2 = cross+HALF;
+          ry2 = by2;
+        }
+      }
+    }
+    rasterColumn = rx1>>PREC;
+    if(rasterColumn!=(rx2>>PREC)) {
+      rasterColumn = -1;
+      return false;
+    }
+    rasterTop = Math.min(ry1, ry2)>>PREC;
+    rasterBottom = Math.max(ry1, ry2)>>PREC;
+    return true;
+  }
+
+  /**
+   * Starts a new polyline that is clipped to the panel.
+   */
+  private void begin(DrawingPanel panel) {
+    count = 0;
+    runCode = 0;
+    pending = false;
+    clip = (panel!=null);
+    if(clip) {
+      clipLeft = -CLIP_MARGIN;
+      clipTop = -CLIP_MARGIN;
+      clipRight = panel.getWidth()+CLIP_MARGIN;
+      clipBottom = panel.getHeight()+CLIP_MARGIN;
+    }
+  }
+
+  /**
+   * Stores the last point of a run that is outside the panel.
+   */
+  private void flush() {
+    if(pending) {
+      store(pendingX, pendingY);
+      pending = false;
+    }
+  }
+
+  /**
+   * Adds a point to the polyline.
+   *
+   * A point that is beyond an edge shared by every point since the start of the current run is held
+   * until the next point is added; the run is replaced by its first and last points.
+   */
+  private void add(float px, float py) {
+    if(clip) {
+      int code = 0;
+      if(px<clipLeft) {
+        code = 1;
+      } else if(px>clipRight) {
+        code = 2;
+      }
+      if(py<clipTop) {
+        code |= 4;
+      } else if(py>clipBottom) {
+        code |= 8;
+      }
+      if((code&runCode)!=0) {
+        runCode &= code;
+        pending = true;
+        pendingX = px;
+        pendingY = py;
+        return;
+      }
+      flush();
+      runCode = code;
+    }
+    store(px, py);
+  }
+
+  private void store(float px, float py) {
+    if(count>=xpix.length) {
+      float[] temp = new float[2*count];
+      System.arraycopy(xpix, 0, temp, 0, count);
+      xpix = temp;
+      temp = new float[2*count];
+      System.arraycopy(ypix, 0, temp, 0, count);
+      ypix = temp;
+    }
+    xpix[count] = px;
+    ypix[count] = py;
+    count++;
+  }
+
+  /**
+   * Converts a world coordinate to a pixel coordinate using the same arithmetic as the transformation
+   * of a path of float coordinates.
+   */
+  private static float pixel(double scale, double value, double translate) {
+    return(float) (scale*(float) value+translate);
+  }
+
+  /**
+   * Finds the first index in the range [from, to) whose x value is greater than or equal to the given value.
+   */
+  private int search(double value, int from, int to) {
+    int lo = from, hi = to;
+    while(lo<hi) {
+      int mid = (lo+hi)>>>1;
+      if(x[mid]<value) {
+        lo = mid+1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Finds the first index in the range [from, to) whose x value is greater than the given value.
+   */
+  private int searchAbove(double value, int from, int to) {
+    int lo = from, hi = to;
+    while(lo<hi) {
+      int mid = (lo+hi)>>>1;
+      if(x[mid]<=value) {
+        lo = mid+1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
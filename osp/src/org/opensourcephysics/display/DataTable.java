@@ -37,6 +37,9 @@ public class DataTable extends JTable implements ActionListener {
    int refreshDelay = 0;                                                       // time in ms to delay refresh events
    javax.swing.Timer refreshTimer = new javax.swing.Timer(refreshDelay, this); // delay for refreshTable
    protected int labelColumnWidth = 40;
+   int refreshedRowCount = -1;  // row count at the last refresh
+   Object[] refreshedColumns;   // column names and classes at the last refresh
+   long refreshedEdits;         // edit stamp of the table models at the last refresh
    
    /**
     *  Constructs a DatTable with a default data model
@@ -232,6 +235,13 @@ public class DataTable extends JTable implements ActionListener {
     *  Refresh the data in the DataTable, as well as other changes to the table,
     *  such as row number visibility. Changes to the TableModels displayed in the
     *  table will not be visible until this method is called.
+    *
+    *  The table columns are rebuilt only if the columns have changed.  Otherwise rows
+    *  that have been added or removed are reported to the table and only the visible
+    *  rows are repainted, so that the cost of a refresh does not grow with the number of rows.
+    *  If the rows are sorted and rows have been added, only the added rows are read from the
+    *  sort column and merged into the sorted rows.  Otherwise the sort column is read so that
+    *  changed values are sorted again.
     */
    public void refreshTable() {
       if(refreshDelay>0) {
@@ -240,7 +250,7 @@ public class DataTable extends JTable implements ActionListener {
          Runnable doRefreshTable = new Runnable() {
 
             public synchronized void run() {
-               tableChanged(new TableModelEvent(dataTableModel, TableModelEvent.HEADER_ROW));
+               fireRefresh();
             }
          };
          if(SwingUtilities.isEventDispatchThread()) {
@@ -257,7 +267,75 @@ public class DataTable extends JTable implements ActionListener {
     * @param  evt
     */
    public void actionPerformed(ActionEvent evt) {
-      tableChanged(new TableModelEvent(dataTableModel, TableModelEvent.HEADER_ROW));
+      fireRefresh();
+   }
+
+   /**
+    *  Notifies the table of the changes since the last refresh.  Must be invoked in the
+    *  event dispatch thread.
+    */
+   private void fireRefresh() {
+      int columnCount = dataTableModel.getColumnCount();
+      Object[] columns = new Object[2*columnCount];
+      for(int i = 0; i<columnCount; i++) {
+         columns[2*i] = dataTableModel.getColumnName(i);
+         columns[2*i+1] = dataTableModel.getColumnClass(i);
+      }
+      int rowCount = dataTableModel.getRowCount();
+      int oldRowCount = refreshedRowCount;
+      refreshedRowCount = rowCount;
+      long edits = getEditStamp();
+      boolean appended = (edits!=Long.MIN_VALUE)&&(edits==refreshedEdits); // existing rows are unchanged
+      refreshedEdits = edits;
+      if((oldRowCount<0)||!Arrays.equals(columns, refreshedColumns)) { // rebuild the columns
+         refreshedColumns = columns;
+         TableModelEvent e = new TableModelEvent(dataTableModel, TableModelEvent.HEADER_ROW);
+         decorator.tableChanged(e);
+         tableChanged(e);
+         return;
+      }
+      if(rowCount>oldRowCount) {
+         TableModelEvent e = new TableModelEvent(decorator, oldRowCount, rowCount-1, TableModelEvent.ALL_COLUMNS,
+                                                 TableModelEvent.INSERT);
+         if(appended) {
+            decorator.tableChanged(e); // merges the new rows into a sorted table
+         } else { // the decorator reads the existing rows again
+            decorator.tableChanged(new TableModelEvent(decorator, 0, rowCount-1, TableModelEvent.ALL_COLUMNS,
+                                                       TableModelEvent.INSERT));
+         }
+         tableChanged(e);
+      } else if(rowCount<oldRowCount) {
+         TableModelEvent e = new TableModelEvent(decorator, rowCount, oldRowCount-1, TableModelEvent.ALL_COLUMNS,
+                                                 TableModelEvent.DELETE);
+         decorator.tableChanged(e);
+         tableChanged(e);
+      } else if((rowCount>0)&&(decorator.getSortedColumn()>=0)) {
+         // sorts the rows again if values in the sort column have changed
+         decorator.tableChanged(new TableModelEvent(decorator, 0, rowCount-1));
+      }
+      repaint(getVisibleRect()); // values in existing rows may have changed
+   }
+
+   /**
+    *  Gets a stamp that changes whenever rows other than appended rows change.
+    *
+    * @return the stamp or Long.MIN_VALUE if a table model does not report its edits
+    */
+   private long getEditStamp() {
+      if(!(dataTableModel instanceof DefaultDataTableModel)) {
+         return Long.MIN_VALUE;
+      }
+      ArrayList elements = ((DefaultDataTableModel) dataTableModel).dataTableElements;
+      long stamp = elements.size();
+      for(int i = 0; i<elements.size(); i++) {
+         DataTableElement dte = (DataTableElement) elements.get(i);
+         if(!(dte.tableModel instanceof Dataset)) {
+            return Long.MIN_VALUE;
+         }
+         Dataset dataset = (Dataset) dte.tableModel;
+         stamp = 31*(31*(31*stamp+dte.stride)+dataset.getStride())+dataset.getEditVersion();
+      }
+      return(stamp==Long.MIN_VALUE) ? 0 : stamp;
    }
 
    /**
@@ -10,6 +10,7 @@ import java.io.*;
 import java.util.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.nio.DoubleBuffer;
 import javax.swing.table.AbstractTableModel;
 import org.opensourcephysics.controls.*;
 
@@ -23,7 +24,7 @@ import org.opensourcephysics.controls.*;
  * @created    February 13, 2002
  * @version    1.0
  */
-public class Dataset extends AbstractTableModel implements Measurable, Data {
+public class Dataset extends AbstractTableModel implements NotifyingMeasurable, Data {
 
   /** Field datasetID an integer ID that identifies this object */
   protected int datasetID = hashCode(); // good enough for testing
@@ -58,7 +59,22 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
   // array of y points\
 
   protected GeneralPath generalPath;
-  // path used to draw line plots
+  // path through the data; built when it is requested by getGeneralPath
+
+  private int pathCount = 0;
+  // the number of points that have been added to the general path
+
+  protected int version = 0;
+  // incremented whenever the data changes
+
+  private int editVersion = 0;
+  // incremented whenever data other than the appended points changes
+
+  private MeasureSupport measureSupport = new MeasureSupport();
+  // listeners that are notified when the min/max values change
+
+  private boolean xShared, xLent;
+  // the xpoints array belongs to another dataset or is used by other datasets
 
   protected double xmax;
   // the maximum x value in the dataset
@@ -123,8 +139,27 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
   protected int maxPoints = 16*1024;
   // the maximum number of points that will be saved in a dataset
 
+  protected boolean ringBuffer = false;
+  // store the points in a circular buffer
+
+  protected int head = 0;
+  // the array index of the first point; nonzero only in ring buffer mode
+
+  private long headSerial = 0;
+  // the number of points that have been removed from the start of the ring buffer
+
   protected ArrayList errorBars = new ArrayList();
+  private int errorBarHead = 0;
+  // the error bars before this index belong to points that have been removed from the ring buffer
   protected Shape customMarker = new Rectangle2D.Double(-markerSize/2, -markerSize/2, markerSize, markerSize);
+  private DataDecimator decimator;
+  // summarizes large line plots
+  private long[] markerPixels = new long[0];
+  // pixels that have markers in large scatter plots
+  private int[] markerOrder = new int[0];
+  // indices of the markers that are drawn in large scatter plots
+  private ExtremeQueue xminQueue, xmaxQueue, yminQueue, ymaxQueue;
+  // sliding window minimum and maximum in ring buffer mode
 
   /**
    *  Dataset contructor.
@@ -325,6 +360,58 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    */
   public void setMaximumPoints(int maxPoints) {
     this.maxPoints = maxPoints;
+    if(ringBuffer&&(index>maxPoints)) {
+      removeFirst(index-maxPoints);
+    }
+  }
+
+  /**
+   * Sets the ring buffer mode.
+   *
+   * In ring buffer mode the points are stored in a circular buffer whose capacity is the maximum
+   * number of points.  Appending a point to a full buffer replaces the oldest point in constant time,
+   * and the minimum and maximum values are maintained for the points in the buffer.  The data is
+   * not sorted in ring buffer mode.  The first point is stored at the array index head and the points
+   * wrap around the end of the arrays.  Error bars are removed together with their points.
+   *
+   * @param ring true for ring buffer mode
+   */
+  public void setRingBuffer(boolean ring) {
+    if(ring==ringBuffer) {
+      return;
+    }
+    if(!ring) {
+      setCapacity(Math.max(xpoints.length, initialSize)); // moves the first point to index 0
+      ringBuffer = false;
+      errorBars.subList(0, errorBarHead).clear();
+      errorBarHead = 0;
+      xminQueue = xmaxQueue = yminQueue = ymaxQueue = null;
+      recalculatePath();
+      fireMeasureChanged();
+      return;
+    }
+    ownXPoints(); // the buffer overwrites old points
+    ringBuffer = true;
+    headSerial = 0;
+    xminQueue = new ExtremeQueue(false);
+    xmaxQueue = new ExtremeQueue(true);
+    yminQueue = new ExtremeQueue(false);
+    ymaxQueue = new ExtremeQueue(true);
+    if(index>maxPoints) {
+      removeFirst(index-maxPoints);
+    }
+    resetXYMinMax();
+    invalidateDecimator();
+    fireMeasureChanged();
+  }
+
+  /**
+   * Gets the ring buffer mode.
+   *
+   * @return true if points are stored in a circular buffer
+   */
+  public boolean isRingBuffer() {
+    return ringBuffer;
   }
 
   /**
@@ -465,7 +552,9 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
   public double[][] getPoints() {
     double[][] temp = new double[index][2];
     for(int i = 0;i<index;i++) {
-      temp[i] = new double[] {xpoints[i], ypoints[i]};
+      int j = slot(i);
+      temp[i][0] = xpoints[j];
+      temp[i][1] = ypoints[j];
     }
     return temp;
   }
@@ -477,7 +566,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    * @return a double[2][index] array of data
    */
   public double[][] getData2D() {
-    double[][] data = new double[2][index];
+    double[][] data = new double[2][];
     data[0] = getXPoints();
     data[1] = getYPoints();
     return data;
@@ -518,9 +607,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    * @return xpoints[]
    */
   public double[] getXPoints() {
-    double[] temp = new double[index];
-    System.arraycopy(xpoints, 0, temp, 0, index);
-    return temp;
+    return copyPoints(xpoints);
   }
 
   /**
@@ -529,9 +616,89 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    * @return    ypoints[]
    */
   public double[] getYPoints() {
-    double[] temp = new double[index];
-    System.arraycopy(ypoints, 0, temp, 0, index);
-    return temp;
+    return copyPoints(ypoints);
+  }
+
+  /**
+   * Gets a read-only view of the x values without copying them.
+   *
+   * The view starts at the first point and its limit is the number of points.  The view shares
+   * the storage of this dataset and is only valid until the data changes.  Use getVersion
+   * to determine if the data has changed.  A ring buffer that wraps around the end of its arrays
+   * is first copied so that the points are in order; this changes the version.
+   *
+   * @return the x values
+   */
+  public DoubleBuffer getXBuffer() {
+    return getBuffer(true);
+  }
+
+  /**
+   * Gets a read-only view of the y values without copying them.
+   *
+   * The view is only valid until the data changes.
+   *
+   * @return the y values
+   * @see #getXBuffer()
+   */
+  public DoubleBuffer getYBuffer() {
+    return getBuffer(false);
+  }
+
+  /**
+   * Gets the version of the data.  The version changes whenever points are added, removed, or moved.
+   *
+   * @return the version
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the edit version of the data.  The edit version changes whenever points other than the
+   * appended points are changed, removed, or moved.  It does not change when points are appended.
+   *
+   * @return the edit version
+   */
+  public int getEditVersion() {
+    return editVersion;
+  }
+
+  /**
+   * Adds a listener that is notified when the min/max values or the visibility change.
+   *
+   * @param listener
+   */
+  public void addMeasureListener(MeasureListener listener) {
+    measureSupport.add(listener);
+  }
+
+  /**
+   * Removes a measure listener.
+   *
+   * @param listener
+   */
+  public void removeMeasureListener(MeasureListener listener) {
+    measureSupport.remove(listener);
+  }
+
+  /**
+   * Notifies the measure listeners.  Subclasses that change the min/max values or override
+   * the min/max getters must call this method after the values change.
+   */
+  protected void fireMeasureChanged() {
+    measureSupport.fire(this);
+  }
+
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   *
+   * Subclasses are queried every time a panel is scaled unless they override this method.
+   *
+   * @return true if this is a Dataset rather than a subclass
+   */
+  public boolean isMeasureNotifying() {
+    return getClass()==Dataset.class;
   }
 
   /**
@@ -629,7 +796,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    */
   public Object getValueAt(int rowIndex, int columnIndex) {
     columnIndex = Dataset.convertTableColumnIndex(colVisible, columnIndex);
-    rowIndex = rowIndex*stride;
+    rowIndex = slot(rowIndex*stride);
     if(columnIndex==0) {
       return new Double(xpoints[rowIndex]);
     } else {
@@ -660,7 +827,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    * @param  dely
    */
   public void append(double x, double y, double delx, double dely) {
-    errorBars.add(new ErrorBar(x, y, delx, dely));
+    errorBars.add(new ErrorBar(x, y, delx, dely, headSerial+index));
     append(x, y);
   }
 
@@ -675,19 +842,21 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(Double.isNaN(x)||Double.isInfinite(x)||Double.isInfinite(y)) {
       return;
     }
+    if(ringBuffer) {
+      appendToRing(x, y);
+      fireMeasureChanged();
+      return;
+    }
     if(index>=xpoints.length) {
       increaseCapacity(xpoints.length*2);
     }
+    if(xShared) {
+      ownXPoints();
+    }
     xpoints[index] = x;
     ypoints[index] = y;
-    // generalPath.append(new Rectangle2D.Double(x, y, 0, 0), true);
+    version++;
     if(!Double.isNaN(y)) {
-      Point2D curPt = generalPath.getCurrentPoint();
-      if(curPt==null) {
-        generalPath.moveTo((float) x, (float) y);
-      } else {
-        generalPath.lineTo((float) x, (float) y);
-      }
       ymax = Math.max(y, ymax);
       ymin = Math.min(y, ymin);
     }
@@ -697,9 +866,8 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     // move the new datum if x is less than the last value.
     if(sorted&&(index>1)&&(x<xpoints[index-2])) {
       moveDatum(index-1);
-      // the new datum is out of place so move it
-      recalculatePath();
     }
+    fireMeasureChanged();
   }
 
   /**
@@ -712,7 +880,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    */
   public void append(double[] xpoints, double[] ypoints, double[] delx, double[] dely) {
     for(int i = 0, n = xpoints.length;i<n;i++) {
-      errorBars.add(new ErrorBar(xpoints[i], ypoints[i], delx[i], dely[i]));
+      errorBars.add(new ErrorBar(xpoints[i], ypoints[i], delx[i], dely[i], headSerial+index+i));
     }
     append(xpoints, ypoints);
   }
@@ -725,6 +893,21 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    * @param  _ypoints
    */
   public void append(double[] _xpoints, double[] _ypoints) {
+    if(sorted&&!ringBuffer) {
+      appendSorted(_xpoints, _ypoints);
+      fireMeasureChanged();
+      return;
+    }
+    if(ringBuffer) {
+      for(int i = 0;i<_xpoints.length;i++) {
+        if(Double.isNaN(_xpoints[i])||Double.isInfinite(_xpoints[i])||Double.isInfinite(_ypoints[i])) {
+          continue;
+        }
+        appendToRing(_xpoints[i], _ypoints[i]);
+      }
+      fireMeasureChanged();
+      return;
+    }
     boolean badData = false;
     for(int i = 0;i<_xpoints.length;i++) {
       if(Double.isNaN(_xpoints[i])||Double.isInfinite(_xpoints[i])||Double.isInfinite(_ypoints[i])) {
@@ -736,12 +919,6 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
       if(!Double.isNaN(_ypoints[i])) {
         ymax = Math.max(_ypoints[i], ymax);
         ymin = Math.min(_ypoints[i], ymin);
-        Point2D curPt = generalPath.getCurrentPoint();
-        if(curPt==null) {
-          generalPath.moveTo((float) _xpoints[i], (float) _ypoints[i]);
-        } else {
-          generalPath.lineTo((float) _xpoints[i], (float) _ypoints[i]);
-        }
       }
     }
     int pointsAdded = _xpoints.length;
@@ -753,6 +930,10 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
 
     }
     pointsAdded=Math.min(pointsAdded, maxPoints);  //cannot add more than the maximum capacity
+    if(xShared) {
+      ownXPoints();
+    }
+    version++;
     System.arraycopy(_xpoints, Math.max(0,_xpoints.length-pointsAdded), xpoints, index, pointsAdded );
     System.arraycopy(_ypoints, Math.max(0,_xpoints.length-pointsAdded), ypoints, index, pointsAdded);
     index += pointsAdded;
@@ -765,6 +946,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(increasedCapacity){
        resetXYMinMax();
     }
+    fireMeasureChanged();
   }
 
   /**
@@ -811,7 +993,8 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     try {
       PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
       for(int i = 0;i<index;i++) {
-        writer.println(xpoints[i]+"\t"+ypoints[i]);
+        int j = slot(i);
+        writer.println(xpoints[j]+"\t"+ypoints[j]);
       }
       writer.close();
     } catch(java.io.FileNotFoundException fnfe) {
@@ -845,11 +1028,15 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    */
   public void clear() {
     index = 0;
+    head = 0;
     xpoints = new double[initialSize];
+    xShared = xLent = false;
     ypoints = new double[initialSize];
-    generalPath.reset();
     errorBars.clear();
+    errorBarHead = 0;
     resetXYMinMax();
+    invalidateDecimator();
+    fireMeasureChanged();
   }
 
   /**
@@ -861,9 +1048,10 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(index==0) {
       return "No data in dataset.";
     }
-    String s = xpoints[0]+" "+ypoints[0]+"\n";
+    String s = xpoints[head]+" "+ypoints[head]+"\n";
     StringBuffer b = new StringBuffer(index*s.length());
-    for(int i = 0;i<index;i++) {
+    for(int n = 0;n<index;n++) {
+      int i = slot(n);
       b.append(xpoints[i]);
       String eol = "\n"; // end of line
       try {              // system properties may not be readable!
@@ -940,6 +1128,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
    */
   public void setVisible(boolean b) {
     visible = b;
+    fireMeasureChanged();
   }
 
   /**
@@ -959,6 +1148,14 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     stride = _stride;
   }
 
+  /**
+   * Gets the stride of this Dataset in a table view.
+   * @return the stride
+   */
+  public int getStride() {
+    return stride;
+  }
+
   /**
    * Gets the visibility of the x column of this Dataset in a table view.
    * @return the x column visibility
@@ -978,50 +1175,204 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
   /**
    *  Perform an insertion sort of the data set. Since data will be partially
    *  sorted this should be fast. Added by W. Christian.
+   *
+   *  The points that follow the sorted start of the data are sorted and then merged
+   *  into the sorted points.  Points having equal x values keep their order.
    */
   protected void insertionSort() {
-    boolean dataChanged = false;
-    if(index<2) {
+    int start = 1;
+    while((start<index)&&!(xpoints[start]<xpoints[start-1])) {
+      start++;
+    }
+    if(start>=index) {
+      return; // the data is sorted
+    }
+    int m = index-start;
+    double[] tempx = new double[m];
+    double[] tempy = new double[m];
+    System.arraycopy(xpoints, start, tempx, 0, m);
+    System.arraycopy(ypoints, start, tempy, 0, m);
+    index = start;
+    sortPoints(tempx, tempy, m);
+    mergePoints(tempx, tempy, m);
+  }
+
+  /**
+   *  Appends (x,y) arrays to a sorted Dataset by sorting the new points and merging them into the data.
+   *
+   * @param  _xpoints
+   * @param  _ypoints
+   */
+  private void appendSorted(double[] _xpoints, double[] _ypoints) {
+    int first = Math.max(0, _xpoints.length-maxPoints); // cannot add more than the maximum capacity
+    double[] tempx = new double[_xpoints.length-first];
+    double[] tempy = new double[tempx.length];
+    int m = 0;
+    for(int i = first;i<_xpoints.length;i++) {
+      if(Double.isNaN(_xpoints[i])||Double.isInfinite(_xpoints[i])||Double.isInfinite(_ypoints[i])) {
+        continue;
+      }
+      tempx[m] = _xpoints[i];
+      tempy[m] = _ypoints[i];
+      m++;
+    }
+    if(m==0) {
       return;
-      // need at least two points to sort.
     }
-    for(int i = 1;i<index;i++) {
-      if(xpoints[i]<xpoints[i-1]) {
-        // is the i-th datum smaller?
-        dataChanged = true;
-        moveDatum(i);
+    if(m>xpoints.length-index) {
+      // grow to fit the new points and drop only the leading points that exceed the maximum
+      int capacity = Math.min(maxPoints, Math.max(index+m, 2*xpoints.length));
+      int drop = Math.max(0, index+m-capacity);
+      double[] temp = xpoints;
+      xpoints = new double[capacity];
+      xShared = xLent = false;
+      System.arraycopy(temp, drop, xpoints, 0, index-drop);
+      temp = ypoints;
+      ypoints = new double[capacity];
+      System.arraycopy(temp, drop, ypoints, 0, index-drop);
+      if(drop>0) {
+        index -= drop;
+        resetXYMinMax();
+        recalculatePath();
       }
     }
-    if(dataChanged) {
-      recalculatePath();
+    for(int i = 0;i<m;i++) {
+      xmax = Math.max(tempx[i], xmax);
+      xmin = Math.min(tempx[i], xmin);
+      if(!Double.isNaN(tempy[i])) {
+        ymax = Math.max(tempy[i], ymax);
+        ymin = Math.min(tempy[i], ymin);
+      }
+    }
+    sortPoints(tempx, tempy, m);
+    mergePoints(tempx, tempy, m);
+  }
+
+  /**
+   *  Merges sorted points into the sorted data.  The data arrays must have room for the new points.
+   *  Points are moved from the end of the arrays so that only the points that follow the first new point move.
+   *
+   * @param  newx  the sorted x values
+   * @param  newy  the y values
+   * @param  m  the number of new points
+   */
+  private void mergePoints(double[] newx, double[] newy, int m) {
+    ownXPoints();
+    int i = index-1, k = index+m-1;
+    for(int j = m-1;j>=0;j--) {
+      double x = newx[j];
+      while((i>=0)&&(xpoints[i]>x)) {
+        xpoints[k] = xpoints[i];
+        ypoints[k] = ypoints[i];
+        i--;
+        k--;
+      }
+      xpoints[k] = x;
+      ypoints[k] = newy[j];
+      k--;
+    }
+    index += m;
+    invalidateDecimator(i+1); // points before i+1 have not moved
+  }
+
+  /**
+   *  Sorts the first n points of the given arrays by x using a stable merge sort.
+   *
+   * @param  x  the x values
+   * @param  y  the y values
+   * @param  n  the number of points
+   */
+  private static void sortPoints(double[] x, double[] y, int n) {
+    final int run = 16;
+    for(int lo = 0;lo<n;lo += run) { // insertion sort short runs
+      int hi = Math.min(lo+run, n);
+      for(int i = lo+1;i<hi;i++) {
+        double xi = x[i], yi = y[i];
+        int j = i-1;
+        while((j>=lo)&&(x[j]>xi)) {
+          x[j+1] = x[j];
+          y[j+1] = y[j];
+          j--;
+        }
+        x[j+1] = xi;
+        y[j+1] = yi;
+      }
+    }
+    if(n<=run) {
+      return;
+    }
+    double[] srcx = x, srcy = y, dstx = new double[n], dsty = new double[n];
+    for(int width = run;width<n;width *= 2) {
+      for(int lo = 0;lo<n;lo += 2*width) {
+        int mid = Math.min(lo+width, n), hi = Math.min(lo+2*width, n);
+        int i = lo, j = mid;
+        for(int k = lo;k<hi;k++) {
+          if((j>=hi)||((i<mid)&&(srcx[i]<=srcx[j]))) {
+            dstx[k] = srcx[i];
+            dsty[k] = srcy[i];
+            i++;
+          } else {
+            dstx[k] = srcx[j];
+            dsty[k] = srcy[j];
+            j++;
+          }
+        }
+      }
+      double[] temp = srcx;
+      srcx = dstx;
+      dstx = temp;
+      temp = srcy;
+      srcy = dsty;
+      dsty = temp;
+    }
+    if(srcx!=x) {
+      System.arraycopy(srcx, 0, x, 0, n);
+      System.arraycopy(srcy, 0, y, 0, n);
     }
   }
 
   /**
    *  Recalculate the general path.
+   *
+   *  The path is discarded and is rebuilt when it is next requested.  This method must be invoked
+   *  if the data arrays are changed directly.
    */
   protected void recalculatePath() {
-    generalPath.reset();
-    if(index<1) {
-      return;
+    invalidateDecimator();
+  }
+
+  /**
+   *  Gets a path through the data in world coordinates.  Points whose y value is Double.NaN are skipped.
+   *
+   *  The path is not used to draw line plots and is only built when it is requested.  Points that
+   *  have been appended since the last request are added to the existing path.
+   *
+   * @return the path
+   */
+  public GeneralPath getGeneralPath() {
+    if(pathCount>index) {
+      generalPath.reset();
+      pathCount = 0;
     }
     // changed by D.Brown
-    int i = 0;
-    for(;i<index;i++) {
-      if(!Double.isNaN(ypoints[i])) {
-        generalPath.moveTo((float) xpoints[i], (float) ypoints[i]);
-        break;
+    for(int i = pathCount;i<index;i++) {
+      int k = slot(i);
+      if(Double.isNaN(ypoints[k])) {
+        continue;
       }
-    }
-    for(int j = i+1;j<index;j++) {
-      if(!Double.isNaN(ypoints[j])) {
-        generalPath.lineTo((float) xpoints[j], (float) ypoints[j]);
+      if(generalPath.getCurrentPoint()==null) {
+        generalPath.moveTo((float) xpoints[k], (float) ypoints[k]);
+      } else {
+        generalPath.lineTo((float) xpoints[k], (float) ypoints[k]);
       }
     }
+    pathCount = index;
+    return generalPath;
   }
 
   /**
    *  Move an out-of-place datum into its correct position.
+   *  The points that precede the datum must be sorted.
    *
    * @param  loc  the datum
    */
@@ -1033,16 +1384,24 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     double x = xpoints[loc];
     // save the old values
     double y = ypoints[loc];
-    for(int i = 0;i<index;i++) {
-      if(xpoints[i]>x) {
-        // find the insertion point
-        System.arraycopy(xpoints, i, xpoints, i+1, loc-i);
-        xpoints[i] = x;
-        System.arraycopy(ypoints, i, ypoints, i+1, loc-i);
-        ypoints[i] = y;
-        return;
+    int lo = 0, hi = loc;
+    while(lo<hi) { // binary search for the first point whose x value is greater
+      int mid = (lo+hi)>>>1;
+      if(xpoints[mid]>x) {
+        hi = mid;
+      } else {
+        lo = mid+1;
       }
     }
+    if(lo==loc) {
+      return;
+    }
+    ownXPoints();
+    System.arraycopy(xpoints, lo, xpoints, lo+1, loc-lo);
+    xpoints[lo] = x;
+    System.arraycopy(ypoints, lo, ypoints, lo+1, loc-lo);
+    ypoints[lo] = y;
+    invalidateDecimator(lo);
   }
 
   /**
@@ -1056,7 +1415,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     // check that at least one ypoints element is a number
     boolean noNumbers = true;
     for(int i = 0;i<index;i++) {
-      noNumbers = Double.isNaN(ypoints[i]);
+      noNumbers = Double.isNaN(ypoints[slot(i)]);
       if(!noNumbers) {
         break;
       }
@@ -1064,10 +1423,120 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(noNumbers) {
       return;
     }
-    AffineTransform at = drawingPanel.getPixelTransform();
-    Shape s = generalPath.createTransformedShape(at);
     g2.setColor(lineColor);
-    g2.draw(s);
+    if(decimator==null) {
+      decimator = new DataDecimator();
+    }
+    // the points are converted to pixels without building a path in world coordinates
+    AffineTransform at = drawingPanel.getPixelTransform();
+    boolean thin = DataDecimator.canDecimate(g2);
+    if(!thin) {
+      decimator.transform(null, at, xpoints, ypoints, head, index); // wide lines are not clipped
+    } else if(index<DataDecimator.MIN_POINTS) {
+      decimator.transform(drawingPanel, at, xpoints, ypoints, head, index);
+    } else if(ringBuffer||!decimator.update(xpoints, ypoints, index)||!decimator.decimate(drawingPanel, at, g2)) {
+      // draw only the points that are visible at the current resolution
+      decimator.decimateSequence(drawingPanel, at, g2, xpoints, ypoints, head, index);
+    }
+    g2.draw(decimator.getPath());
+  }
+
+  /**
+   *  Discards the summary that is used to draw large line plots and the general path.
+   *  This method is invoked whenever data other than the last point changes.
+   */
+  protected void invalidateDecimator() {
+    version++;
+    editVersion++;
+    if(decimator!=null) {
+      decimator.invalidate();
+    }
+    generalPath.reset();
+    pathCount = 0;
+  }
+
+  /**
+   *  Discards the part of the large line plot summary that starts at the given point.
+   *  The general path is discarded if it contains the point.
+   *
+   * @param  start  the index of the first point that has changed
+   */
+  protected void invalidateDecimator(int start) {
+    version++;
+    editVersion++;
+    if(decimator!=null) {
+      decimator.invalidate(start);
+    }
+    if(pathCount>start) {
+      generalPath.reset();
+      pathCount = 0;
+    }
+  }
+
+  /**
+   *  Gets the array index of a point.
+   *
+   *  The array index is equal to the point index unless the dataset is in ring buffer mode.
+   *
+   * @param  i the point index
+   * @return the array index
+   */
+  protected final int slot(int i) {
+    int j = head+i;
+    if(j>=xpoints.length) {
+      j -= xpoints.length;
+    }
+    return j;
+  }
+
+  /**
+   *  Removes points from the start of the dataset.
+   *
+   *  Points are removed in constant time if the dataset is in ring buffer mode.
+   *
+   * @param  n the number of points
+   */
+  protected void removeFirst(int n) {
+    n = Math.min(n, index);
+    if(n<=0) {
+      return;
+    }
+    if(!ringBuffer) {
+      ownXPoints();
+      System.arraycopy(xpoints, n, xpoints, 0, index-n);
+      System.arraycopy(ypoints, n, ypoints, 0, index-n);
+      index -= n;
+      resetXYMinMax();
+      recalculatePath();
+      fireMeasureChanged();
+      return;
+    }
+    head = (index==n) ? 0 : slot(n);
+    index -= n;
+    invalidateDecimator();
+    headSerial += n;
+    xminQueue.expire(headSerial);
+    xmaxQueue.expire(headSerial);
+    yminQueue.expire(headSerial);
+    ymaxQueue.expire(headSerial);
+    updateMinMaxFromQueues();
+    expireErrorBars();
+    fireMeasureChanged();
+  }
+
+  /**
+   *  Skips the error bars of the points that have been removed from the ring buffer.
+   *  The skipped error bars are discarded when they fill half of the list.
+   */
+  private void expireErrorBars() {
+    int n = errorBars.size();
+    while((errorBarHead<n)&&(((ErrorBar) errorBars.get(errorBarHead)).serial<headSerial)) {
+      errorBarHead++;
+    }
+    if(2*errorBarHead>n) {
+      errorBars.subList(0, errorBarHead).clear();
+      errorBarHead = 0;
+    }
   }
 
   /**
@@ -1080,7 +1549,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     // check that at least one ypoints element is a number
     boolean noNumbers = true;
     for(int i = 0;i<index;i++) {
-      noNumbers = Double.isNaN(ypoints[i]);
+      noNumbers = Double.isNaN(ypoints[slot(i)]);
       if(!noNumbers) {
         break;
       }
@@ -1089,7 +1558,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
       return;
     }
     AffineTransform at = drawingPanel.getPixelTransform();
-    Shape s = generalPath.createTransformedShape(at);
+    Shape s = getGeneralPath().createTransformedShape(at);
     g2.setColor(fillColor);
     g2.fill(s);
     g2.setColor(edgeColor);
@@ -1118,12 +1587,33 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(viewRect!=null) { // decrease the clip if we are in a scroll pane
       g2.clipRect(viewRect.x, viewRect.y, viewRect.x+viewRect.width, viewRect.y+viewRect.height);
     }
-    for(int i = 0;i<index;i++) {
+    MarkerSprite sprite = getMarkerSprite(g2);
+    int count = index;
+    int[] order = null;
+    if((index>=DataDecimator.MIN_POINTS)&&canCullMarkers(g2)) { // draw only the last marker at every pixel
+      int margin = markerSize+1;
+      if(markerShape==CUSTOM) { // custom markers may be larger than the marker size
+        margin = (sprite==null) ? -1 : sprite.getExtent();
+      }
+      order = getVisibleMarkers(drawingPanel, g2.getClipBounds(), margin);
+      count = (order==null) ? index : markerOrder[0];
+    }
+    for(int n = 0;n<count;n++) {
+      int i = slot((order==null) ? n : order[n+1]);
       if(Double.isNaN(ypoints[i])) {
         continue;
       }
       xp = drawingPanel.xToPix(xpoints[i]);
       yp = drawingPanel.yToPix(ypoints[i]);
+      if(sprite!=null) { // stamp the rasterized marker
+        if(markerShape==POST) {
+          double bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
+          g2.setColor(edgeColor);
+          g2.drawLine((int) xp, (int) yp, (int) xp, (int) bottom);
+        }
+        sprite.stamp(g2, (int) xp, (int) yp);
+        continue;
+      }
       switch(markerShape) {
       case BAR : // draw a bar graph.
         double bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
@@ -1196,17 +1686,266 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
         break;
       }
     }
-    Iterator it = errorBars.iterator();
-    while(it.hasNext()) { // copy only the obejcts of the correct type
-      ((ErrorBar) it.next()).draw(drawingPanel, g2);
+    if(errorBars.size()>errorBarHead) {
+      g2.setColor(errorBarColor);
+      for(int i = errorBarHead, n = errorBars.size();i<n;i++) {
+        ((ErrorBar) errorBars.get(i)).drawLines(drawingPanel, g2);
+      }
     }
     g2.setClip(clipShape); // restore the original clipping
   }
 
+  /**
+   *  Gets a rasterized marker if markers can be stamped on the graphics.
+   *
+   * @param  g2
+   * @return the sprite or null if the marker shapes must be drawn
+   */
+  private MarkerSprite getMarkerSprite(Graphics2D g2) {
+    if((markerShape==BAR)||!MarkerSprite.canStamp(g2)) {
+      return null; // bars have variable height
+    }
+    int size = markerSize*2+1;
+    Color edge = (edgeColor!=fillColor) ? edgeColor : null;
+    switch(markerShape) {
+    case CUSTOM :
+      return (customMarker==null) ? null : MarkerSprite.getSprite(customMarker, customMarker, fillColor, edge, g2);
+    case PIXEL :
+      return MarkerSprite.getSprite("pixel", new Rectangle2D.Double(0, 0, 1, 1), null, edgeColor, g2);
+    case CIRCLE :
+      return MarkerSprite.getSprite("circle "+markerSize, new Ellipse2D.Double(-markerSize, -markerSize, size, size), fillColor, edge, g2);
+    default :
+      return MarkerSprite.getSprite("square "+markerSize, new Rectangle2D.Double(-markerSize, -markerSize, size, size), fillColor, edge, g2);
+    }
+  }
+
+  /**
+   *  Determines if markers that are covered by a later marker at the same pixel can be skipped.
+   *  A covered marker shows through if the colors are translucent or the edges are antialiased.
+   *
+   * @param  g2
+   * @return true if covered markers are invisible
+   */
+  private boolean canCullMarkers(Graphics2D g2) {
+    if((fillColor.getAlpha()<255)||(edgeColor.getAlpha()<255)) {
+      return false;
+    }
+    if(RenderingHints.VALUE_ANTIALIAS_ON.equals(g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING))) {
+      return false;
+    }
+    return AlphaComposite.SrcOver.equals(g2.getComposite());
+  }
+
+  /**
+   *  Finds the markers that are visible in a large scatter plot.
+   *
+   *  Every marker is determined by its pixel location.  Markers that are covered by a later
+   *  marker at the same pixel and markers that are outside the clip are not drawn so that
+   *  the plot is unchanged.  The number of visible markers is stored in the first element
+   *  of the returned array and the indices of the markers follow in increasing order.
+   *
+   * @param  drawingPanel
+   * @param  clip the clip bounds
+   * @param  margin the maximum distance from a marker's pixel to its edge or -1 if unknown
+   * @return the markers or null if every marker should be drawn
+   */
+  private int[] getVisibleMarkers(DrawingPanel drawingPanel, Rectangle clip, int margin) {
+    if((clip==null)||(margin<0)) {
+      return null;
+    }
+    int left = clip.x-margin, top = clip.y-margin;
+    int width = clip.width+2*margin+1, height = clip.height+2*margin+1;
+    long bits = (long) width*height;
+    if((width<=0)||(height<=0)||(bits>(1<<24))) {
+      return null;
+    }
+    int words = (int) ((bits+63)>>6);
+    if(markerPixels.length<words) {
+      markerPixels = new long[words];
+    } else {
+      java.util.Arrays.fill(markerPixels, 0, words, 0);
+    }
+    if(markerOrder.length<index+1) {
+      markerOrder = new int[index+1];
+    }
+    boolean culled = (markerShape!=BAR)&&(markerShape!=POST); // bars and posts extend to the axis
+    int count = 0;
+    for(int i = index-1;i>=0;i--) {
+      int j = slot(i);
+      if(Double.isNaN(ypoints[j])) {
+        continue;
+      }
+      int xp = drawingPanel.xToPix(xpoints[j])-left;
+      if((xp<0)||(xp>=width)) {
+        continue;
+      }
+      int yp = drawingPanel.yToPix(ypoints[j])-top;
+      if((yp<0)||(yp>=height)) {
+        if(culled) {
+          continue;
+        }
+      } else {
+        long bit = (long) yp*width+xp;
+        int word = (int) (bit>>6);
+        long mask = 1L<<(bit&63);
+        if((markerPixels[word]&mask)!=0) {
+          continue; // a later marker covers this marker
+        }
+        markerPixels[word] |= mask;
+      }
+      markerOrder[index-count] = i; // store from the end of the array
+      count++;
+    }
+    System.arraycopy(markerOrder, index-count+1, markerOrder, 1, count);
+    markerOrder[0] = count;
+    return markerOrder;
+  }
+
+  /**
+   *  Appends a datum whose x value may be stored in the x array of another dataset.
+   *
+   *  The x array of the source is shared if the x values of this dataset are the same as the
+   *  first x values of the source.  Only the y value is stored when the array is shared.
+   *  The points are appended normally if the x values differ.
+   *
+   * @param  x
+   * @param  y
+   * @param  source the dataset whose x values are shared
+   */
+  void appendLinked(double x, double y, Dataset source) {
+    if(ringBuffer||source.ringBuffer||(index>=source.index)||(index>=maxPoints)||(source.xpoints[index]!=x)
+       ||Double.isInfinite(y)||(sorted&&(index>0)&&(x<xpoints[index-1]))) {
+      append(x, y);
+      return;
+    }
+    if(xpoints!=source.xpoints) { // share the x array if the x values match
+      for(int i = 0;i<index;i++) {
+        if(xpoints[i]!=source.xpoints[i]) {
+          append(x, y);
+          return;
+        }
+      }
+      double[] temp = new double[source.xpoints.length];
+      System.arraycopy(ypoints, 0, temp, 0, index);
+      ypoints = temp;
+      xpoints = source.xpoints;
+      xShared = true;
+      source.xLent = true;
+    }
+    ypoints[index] = y;
+    version++;
+    if(!Double.isNaN(y)) {
+      ymax = Math.max(y, ymax);
+      ymin = Math.min(y, ymin);
+    }
+    xmax = Math.max(x, xmax);
+    xmin = Math.min(x, xmin);
+    index++;
+    fireMeasureChanged();
+  }
+
+  /**
+   *  Copies the x array if it is shared with another dataset so that the values can be changed.
+   */
+  private void ownXPoints() {
+    if(xShared||xLent) {
+      xpoints = (double[]) xpoints.clone();
+      xShared = xLent = false;
+    }
+  }
+
+  /**
+   *  Creates a read-only view of the x or y values.
+   */
+  private synchronized DoubleBuffer getBuffer(boolean x) {
+    if(head+index>xpoints.length) {
+      setCapacity(xpoints.length); // the ring buffer wraps so store the points in order
+    }
+    return DoubleBuffer.wrap(x ? xpoints : ypoints, head, index).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   *  Appends a datum to the ring buffer.  The oldest datum is replaced if the buffer is full.
+   */
+  private void appendToRing(double x, double y) {
+    if(index>=maxPoints) {
+      removeFirst(index-maxPoints+1);
+    }
+    if(index>=xpoints.length) {
+      setCapacity(Math.min(2*xpoints.length, maxPoints));
+    }
+    int j = slot(index);
+    xpoints[j] = x;
+    ypoints[j] = y;
+    version++;
+    addToQueues(j, headSerial+index);
+    index++;
+    updateMinMaxFromQueues();
+  }
+
+  /**
+   *  Adds the datum at the given array index to the minimum and maximum queues.
+   */
+  private void addToQueues(int j, long serial) {
+    double x = xpoints[j], y = ypoints[j];
+    xminQueue.add(x, serial);
+    xmaxQueue.add(x, serial);
+    if(!Double.isNaN(y)) {
+      yminQueue.add(y, serial);
+      ymaxQueue.add(y, serial);
+    }
+  }
+
+  /**
+   *  Sets the minimum and maximum values from the queues.
+   */
+  private void updateMinMaxFromQueues() {
+    xmin = xminQueue.peek(Double.MAX_VALUE);
+    xmax = xmaxQueue.peek(-Double.MAX_VALUE);
+    ymin = yminQueue.peek(Double.MAX_VALUE);
+    ymax = ymaxQueue.peek(-Double.MAX_VALUE);
+  }
+
+  /**
+   *  Copies the points into new arrays with the first point at index zero.
+   *
+   * @param  capacity the new array size
+   */
+  private synchronized void setCapacity(int capacity) {
+    if(index>capacity) {
+      removeFirst(index-capacity);
+    }
+    double[] tempx = new double[capacity];
+    double[] tempy = new double[capacity];
+    int n = Math.min(index, xpoints.length-head);
+    System.arraycopy(xpoints, head, tempx, 0, n);
+    System.arraycopy(xpoints, 0, tempx, n, index-n);
+    System.arraycopy(ypoints, head, tempy, 0, n);
+    System.arraycopy(ypoints, 0, tempy, n, index-n);
+    xpoints = tempx;
+    ypoints = tempy;
+    xShared = xLent = false;
+    head = 0;
+    invalidateDecimator();
+  }
+
+  /**
+   *  Copies the points in an array to a new array in point order.
+   */
+  private double[] copyPoints(double[] pts) {
+    double[] temp = new double[index];
+    int n = Math.min(index, pts.length-head);
+    System.arraycopy(pts, head, temp, 0, n);
+    System.arraycopy(pts, 0, temp, n, index-n);
+    return temp;
+  }
+
   /**
    *  Removes infinities and NaN (x only) from the dataset.
    */
   private void removeBadData() {
+    invalidateDecimator();
+    ownXPoints();
     for(int i = 0;i<index;i++) {
       if(Double.isNaN(xpoints[i])||Double.isInfinite(xpoints[i])||Double.isInfinite(ypoints[i])) {
         if((index==1)||(i==index-1)) {
@@ -1236,6 +1975,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     if(newIndex<0) newIndex=0;
     double[] tempx = xpoints;
     xpoints = new double[newCapacity];
+    xShared = xLent = false;
     System.arraycopy(tempx, index-newIndex, xpoints, 0, newIndex);
     double[] tempy = ypoints;
     ypoints = new double[newCapacity];
@@ -1251,12 +1991,24 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
   /**
    *  Reset the minimum and maximum values.
    */
-  private void resetXYMinMax() {
+  protected void resetXYMinMax() {
     // changed by W. Christian
     xmax = -Double.MAX_VALUE;
     ymax = -Double.MAX_VALUE;
     xmin = Double.MAX_VALUE;
     ymin = Double.MAX_VALUE;
+    if(ringBuffer) {
+      xminQueue.clear();
+      xmaxQueue.clear();
+      yminQueue.clear();
+      ymaxQueue.clear();
+      for(int i = 0;i<index;i++) {
+        addToQueues(slot(i), headSerial+i);
+      }
+      updateMinMaxFromQueues();
+      fireMeasureChanged();
+      return;
+    }
     for(int i = 0;i<index;i++) {
       if(Double.isNaN(xpoints[i])||Double.isInfinite(xpoints[i])||Double.isInfinite(ypoints[i])) {
         continue;
@@ -1269,6 +2021,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
         ymin = Math.min(ypoints[i], ymin);
       }
     }
+    fireMeasureChanged();
   }
 
   /**
@@ -1284,7 +2037,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
       if (nans > 0) {
         pts[i-nans] = pts[i];
       }
-      if (Double.isNaN(ypoints[i])) {
+      if (Double.isNaN(ypoints[slot(i)])) {
         nans++;
       }
     }
@@ -1294,18 +2047,81 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     return temp;
   }
 
+  /**
+   * A monotonic queue that gives the minimum or maximum of the values in a sliding window.
+   *
+   * Values that can no longer be the extreme value are removed when a value is added so that
+   * the extreme value is always at the front of the queue.
+   */
+  static class ExtremeQueue {
+    boolean max;
+    double[] values = new double[16];
+    long[] serials = new long[16];
+    int first, count;
+
+    ExtremeQueue(boolean max) {
+      this.max = max;
+    }
+
+    void clear() {
+      first = count = 0;
+    }
+
+    void add(double value, long serial) {
+      int mask = values.length-1;
+      while(count>0) {
+        double last = values[(first+count-1)&mask];
+        if(max ? (last<=value) : (last>=value)) {
+          count--;
+        } else {
+          break;
+        }
+      }
+      if(count==values.length) {
+        double[] v = new double[2*count];
+        long[] s = new long[2*count];
+        for(int i = 0;i<count;i++) {
+          v[i] = values[(first+i)&mask];
+          s[i] = serials[(first+i)&mask];
+        }
+        values = v;
+        serials = s;
+        first = 0;
+        mask = values.length-1;
+      }
+      int k = (first+count)&mask;
+      values[k] = value;
+      serials[k] = serial;
+      count++;
+    }
+
+    void expire(long serial) { // removes values that were added before the given serial number
+      while((count>0)&&(serials[first]<serial)) {
+        first = (first+1)&(values.length-1);
+        count--;
+      }
+    }
+
+    double peek(double empty) {
+      return (count==0) ? empty : values[first];
+    }
+
+  }
+
   /**
    * ErrorBar for datapoints.
    */
   class ErrorBar implements Drawable {
     double x, y, delx, dely; // the position and uncertainty of the data point
+    long serial;             // the serial number of the data point in ring buffer mode
     int tick = 3;
 
-    ErrorBar(double _x, double _y, double _delx, double _dely) {
+    ErrorBar(double _x, double _y, double _delx, double _dely, long _serial) {
       x = _x;
       y = _y;
       delx = _delx;
       dely = _dely;
+      serial = _serial;
     }
 
     /**
@@ -1315,6 +2131,17 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
     * @param g
     */
     public void draw(DrawingPanel panel, Graphics g) {
+      g.setColor(errorBarColor);
+      drawLines(panel, g);
+    }
+
+    /**
+    * Draws the error bars using the current color.
+    *
+    * @param panel
+    * @param g
+    */
+    void drawLines(DrawingPanel panel, Graphics g) {
       // changed by D.Brown
       if(Double.isNaN(y)) {
         return;
@@ -1325,7 +2152,6 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
       int ypix = panel.yToPix(y);
       int ypix1 = panel.yToPix(y-dely);
       int ypix2 = panel.yToPix(y+dely);
-      g.setColor(errorBarColor);
       g.drawLine(xpix1, ypix, xpix2, ypix);
       g.drawLine(xpix, ypix1, xpix, ypix2);
       g.drawLine(xpix1, ypix-tick, xpix1, ypix+tick);
@@ -1398,6 +2224,7 @@ public class Dataset extends AbstractTableModel implements Measurable, Data {
         data.append(xPoints, yPoints);
       }
       data.index=control.getInt("index");
+      data.fireMeasureChanged();
       if(control.getPropertyNames().contains("marker_shape")) {
         data.setMarkerShape(control.getInt("marker_shape"));
       }
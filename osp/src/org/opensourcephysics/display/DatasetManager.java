@@ -7,6 +7,7 @@
 
 package org.opensourcephysics.display;
 import java.awt.*;
+import java.nio.DoubleBuffer;
 import java.util.*;
 import javax.swing.table.AbstractTableModel;
 import org.opensourcephysics.controls.*;
@@ -102,6 +103,9 @@ public class DatasetManager extends AbstractTableModel
   /**
    *  Sets the linked flag. X data for datasets > 0 will not be shown in a table view.
    *
+   *  Datasets > 0 share the x array of the 0th dataset when points having the same x values
+   *  are appended to them through this manager.
+   *
    * @param  _linked  The new value
    */
   public void setXPointsLinked(boolean _linked) {
@@ -427,6 +431,32 @@ public class DatasetManager extends AbstractTableModel
     return dataset.getYPoints();
   }
 
+  /**
+   *  Gets a read-only view of the x values of the Dataset with the given index.
+   *
+   * @param  datasetIndex
+   * @return               the x values
+   * @see Dataset#getXBuffer()
+   */
+  public DoubleBuffer getXBuffer(int datasetIndex) {
+    checkDatasetIndex(datasetIndex);
+    Dataset dataset = (Dataset) datasets.get(datasetIndex);
+    return dataset.getXBuffer();
+  }
+
+  /**
+   *  Gets a read-only view of the y values of the Dataset with the given index.
+   *
+   * @param  datasetIndex
+   * @return               the y values
+   * @see Dataset#getYBuffer()
+   */
+  public DoubleBuffer getYBuffer(int datasetIndex) {
+    checkDatasetIndex(datasetIndex);
+    Dataset dataset = (Dataset) datasets.get(datasetIndex);
+    return dataset.getYBuffer();
+  }
+
   /**
    *  Gets the sorted flag.
    *
@@ -567,7 +597,11 @@ public class DatasetManager extends AbstractTableModel
   public void append(int datasetIndex, double x, double y) {
     checkDatasetIndex(datasetIndex);
     Dataset dataset = (Dataset) datasets.get(datasetIndex);
-    dataset.append(x, y);
+    if(linked&&(datasetIndex>0)&&(dataset.getClass()==Dataset.class)) {
+      dataset.appendLinked(x, y, (Dataset) datasets.get(0)); // share the x values of the 0th dataset
+    } else {
+      dataset.append(x, y);
+    }
   }
 
   /**
@@ -23,7 +23,7 @@ import java.util.Iterator;
  * @author       Wolfgang Christian
  * @version 1.0
  */
-public class DrawableBuffer implements Drawable, Measurable {
+public class DrawableBuffer implements Drawable, Measurable, Cacheable {
   Image image;
   boolean invalid = true;
   ArrayList drawableList = new ArrayList(); // list of Drawable objects
@@ -31,6 +31,7 @@ public class DrawableBuffer implements Drawable, Measurable {
   boolean measured = false;
   double xmin, xmax, ymin, ymax;
   boolean visible=true;
+  long changeCount = 0;
 
   /**
    * Constructor DrawableBuffer
@@ -65,6 +66,7 @@ public class DrawableBuffer implements Drawable, Measurable {
    */
   public void setBackground(Color color) {
     background = color;
+    changeCount++;
   }
 
   /**
@@ -73,6 +75,7 @@ public class DrawableBuffer implements Drawable, Measurable {
    */
   public void setVisible(boolean vis){
     visible=vis;
+    changeCount++;
   }
 
   /**
@@ -114,6 +117,16 @@ public class DrawableBuffer implements Drawable, Measurable {
       }
     }
     invalid = true;
+    changeCount++;
+  }
+
+  /**
+   * Gets the change count.  The count is incremented whenever the image is invalidated.
+   *
+   * @return the change count
+   */
+  public long getChangeCount() {
+    return changeCount;
   }
 
   /**
@@ -78,10 +78,18 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    protected double yPixPerUnit = 1;                                                     // the y scale in pixels per unit
    protected AffineTransform pixelTransform = new AffineTransform();                     // transform from world to pixel coodinates.
    protected double[] pixelMatrix = new double[6];                                       // 6 values in the 3x3 pixel transformation
-   protected ArrayList drawableList = new ArrayList();                                   // list of Drawable objects
+   protected ArrayList drawableList = new DrawableList();                                // list of Drawable objects
+   private ArrayList drawableSnapshot;                                                   // shared copy of the drawable list
+   private ArrayList snapshotSource;                                                     // the list that was copied
+   private int snapshotCount;                                                            // modification count of the copied list
+   private MeasureCache measureCache = new MeasureCache();                               // range of the measurable objects
    protected boolean validImage = false;                                                 // true if the current image is valid, false otherwise
    protected BufferedImage offscreenImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
    protected BufferedImage workingImage = offscreenImage;
+   private BufferedImage readyImage;                                                     // the newest complete frame that has not been shown
+   private volatile boolean newFrame = false;                                            // true if the ready image should replace the offscreen image
+   private volatile boolean paintPending = false;                                        // true while a paint request is in the event queue
+   private Object bufferLock = new Object();                                             // guards the exchange of the buffered images
    private boolean buffered = false;                                                     // true will draw this component using an off-screen image
    protected TextPanel trMessageBox = new TextPanel();                                   // text box in top right hand corner for message
    protected TextPanel tlMessageBox = new TextPanel();                                   // text box in top left hand corner for message
@@ -107,6 +115,13 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    VideoTool vidCap;
    double imageRatio = 1.0;
    protected double xMarginPercentage = 0.0, yMarginPercentage = 0.0;                    // Added by Paco
+   protected boolean layerCaching = true;                                                // caches the leading Cacheable drawables in an image
+   private BufferedImage layerImage;                                                     // the cached layer
+   private Drawable[] layerDrawables = new Drawable[0];                                  // the drawables in the cached layer
+   private long[] layerCounts = new long[0];                                             // the change counts of the cached drawables
+   private double[] layerMatrix = new double[6];                                         // the pixel matrix of the cached layer
+   private Shape layerClip;
+   private RenderingHints layerHints;
 
    /**
     * DrawingPanel constructor.
@@ -349,32 +364,38 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       if(!isShowing()||isIconified()) {
          return offscreenImage; // no need to draw if the frame is not visible
       }
+      BufferedImage frame = offscreenImage;
+      boolean published = false;
       if(buffered&&checkWorkingImage()) {
          validImage = true; // drawing into the working image will produce a valid image
          render(workingImage);
-         // swap the images
-         BufferedImage temp = offscreenImage;
-         offscreenImage = workingImage;
-         workingImage = temp;
+         frame = publishFrame();
+         published = true;
       }
       // always update a Swing component from the event thread
       Runnable doNow = new Runnable() {
 
          public void run() {
+            paintPending = false;
             paintImmediately(getVisibleRect());
          }
       };
       try {
          if(SwingUtilities.isEventDispatchThread()) {
             paintImmediately(getVisibleRect());
-         } else { // paint within the event thread
+         } else if(published) { // the event thread will copy the newest frame to the screen
+            if(!paintPending) {  // frames are dropped if a paint request is already waiting
+               paintPending = true;
+               SwingUtilities.invokeLater(doNow);
+            }
+         } else {               // unbuffered panels draw the drawables within the event thread
             SwingUtilities.invokeAndWait(doNow);
          }
       } catch(InvocationTargetException ex1) {}
       catch(InterruptedException ex1) {}
       if(vidCap!=null) {
          if(buffered) { // buffered image exists so use it.
-            vidCap.addFrame(offscreenImage);
+            vidCap.addFrame(frame);
          } else {       // render the image if the buffer does not exist
             // inefficient as the image may be rendered twice during every animation step
             if(vidCap.isRecording()) {
@@ -382,7 +403,41 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
             }
          }
       }
-      return offscreenImage;
+      return frame;
+   }
+
+   /**
+    * Publishes the working image as the newest complete frame.
+    *
+    * Three images are used so that the rendering thread never waits for the event thread.
+    * The rendering thread draws into the working image, the event thread copies the offscreen
+    * image to the screen, and the ready image holds the newest frame.  A frame that is
+    * replaced before it has been shown is dropped.
+    *
+    * @return the published frame
+    */
+   private BufferedImage publishFrame() {
+      synchronized(bufferLock) {
+         BufferedImage frame = workingImage;
+         workingImage = readyImage; // may be null; checkWorkingImage creates a new image
+         readyImage = frame;
+         newFrame = true;
+         return frame;
+      }
+   }
+
+   /**
+    * Replaces the offscreen image with the newest published frame.  Invoked by the event thread.
+    */
+   private void takeFrame() {
+      synchronized(bufferLock) {
+         if(newFrame) {
+            BufferedImage temp = offscreenImage;
+            offscreenImage = readyImage;
+            readyImage = temp;
+            newFrame = false;
+         }
+      }
    }
 
    /**
@@ -462,6 +517,9 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       }
       viewRect = findViewRect(); // find the clipping rectangle within a scroll pane viewport
       if(buffered) {                                    // paint bufferImage onto screen
+         if(newFrame) {
+            takeFrame();
+         }
          if(!validImage||(getWidth()!=offscreenImage.getWidth())||(getHeight()!=offscreenImage.getHeight())) {
             if((getWidth()!=offscreenImage.getWidth())||(getHeight()!=offscreenImage.getHeight())) {
                g.setColor(Color.WHITE);
@@ -548,7 +606,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       // the following statement has been moved to paintComponent
       // viewRect = findViewRect(); // finds the clipping rectangle within a scroll pane viewport
       computeGutters(); // last chance to set the gutters
-      ArrayList tempList = getDrawables(); // holds a clone of the drawable object list
+      ArrayList tempList = getDrawableSnapshot(); // a shared copy of the drawable object list
       scale(tempList); // sets the world-coordinate scale based on the autoscale values
       setPixelScale(); // sets the pixel scale and the world-to-pixel affine transformation matrix
       if(antialiasTextOn) {
@@ -642,8 +700,12 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       if(buffered) {              // turn off Java buffering because we are doing our own
          setDoubleBuffered(false);
       } else {                    // small default image is not used
-         workingImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-         offscreenImage = workingImage;
+         synchronized(bufferLock) {
+            workingImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+            offscreenImage = workingImage;
+            readyImage = null;
+            newFrame = false;
+         }
          setDoubleBuffered(true); // use Java's buffer
       }
       validImage = false;
@@ -1182,20 +1244,22 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       double ymin = Double.MAX_VALUE;
       double ymax = -Double.MAX_VALUE;
       boolean measurableFound = false;
-      ArrayList tempList = getDrawables(); // this clones the list of drawables
-      Iterator it = tempList.iterator();
-      while(it.hasNext()) {
-         Object obj = it.next();
-         if(!(obj instanceof Measurable)||!((Measurable) obj).isMeasured()) {
-            continue;               // object is not measurable or measure is not set
-         }
-         Measurable measurable = (Measurable) obj;
-         if(!Double.isNaN(measurable.getXMax())&&!Double.isNaN(measurable.getXMin())
-             &&!Double.isNaN(measurable.getYMax())&&!Double.isNaN(measurable.getYMin())) {
-            xmin = Math.min(xmin, measurable.getXMin());
-            xmax = Math.max(xmax, measurable.getXMax());
-            ymin = Math.min(ymin, measurable.getYMin());
-            ymax = Math.max(ymax, measurable.getYMax());
+      MeasureCache.Entry[] entries;
+      synchronized(measureCache) {
+         measureCache.update(getDrawableSnapshot());
+         entries = measureCache.getEntries();
+      }
+      for(int i = 0;i<entries.length;i++) {
+         MeasureCache.Entry entry = entries[i];
+         if(!entry.measured) {
+            continue;               // measure is not set
+         }
+         if(!Double.isNaN(entry.xmax)&&!Double.isNaN(entry.xmin)&&!Double.isNaN(entry.ymax)
+             &&!Double.isNaN(entry.ymin)) {
+            xmin = Math.min(xmin, entry.xmin);
+            xmax = Math.max(xmax, entry.xmax);
+            ymin = Math.min(ymin, entry.ymin);
+            ymax = Math.max(ymax, entry.ymax);
             measurableFound = true; // we have at least one valid min-max measure
          }
       }
@@ -1375,12 +1439,15 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Sets axis scales if autoscale is true using the max and min values of the measurable objects.
     */
    public void scale() {
-      ArrayList tempList = getDrawables(); // this clones the list of drawables
+      ArrayList tempList = getDrawableSnapshot();
       scale(tempList);
    }
 
    /**
     * Sets axis scales if autoscale is true using the max and min values of the objects in the given list.
+    *
+    * The measures of the objects are cached for the list, so the list must not be changed after it
+    * has been scaled.
     */
    protected void scale(ArrayList tempList) {
       if(autoscaleX) {
@@ -1397,7 +1464,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Autoscale flags are not respected.
     */
    public void measure() {
-      ArrayList tempList = getDrawables(); // this clones the list of drawables
+      ArrayList tempList = getDrawableSnapshot();
       scaleX(tempList);
       scaleY(tempList);
       setPixelScale();
@@ -1408,7 +1475,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Sets the x axis scale based on the max and min values of all measurable objects.  Autoscale flag is not respected.
     */
    protected void scaleX() {
-      ArrayList tempList = getDrawables(); // this clones the list of drawables
+      ArrayList tempList = getDrawableSnapshot();
       scaleX(tempList);
    }
 
@@ -1416,27 +1483,13 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Sets the x axis scale based on the max and min values of all measurable objects.  Autoscale flag is not respected.
     */
    void scaleX(ArrayList tempList) {
-      double newXMin = Double.MAX_VALUE;
-      double newXMax = -Double.MAX_VALUE;
-      boolean measurableFound = false;
-      Iterator it = tempList.iterator();
-      while(it.hasNext()) {
-         Object obj = it.next();
-         if(!(obj instanceof Measurable)) {
-            continue;               // object is not measurable
-         }
-         Measurable measurable = (Measurable) obj;
-         if(!measurable.isMeasured()) {
-            continue;               // objects' measure not yet set
-         }
-         double xmi = measurable.getXMin(), xma = measurable.getXMax();
-         if(!Double.isNaN(xmi)&&!Double.isNaN(xma)) {
-            newXMin = Math.min(newXMin, xmi);
-            newXMin = Math.min(newXMin, xma);
-            newXMax = Math.max(newXMax, xma);
-            newXMax = Math.max(newXMax, xmi);
-            measurableFound = true; // we have at least one valid min-max measure
-         }
+      double newXMin, newXMax;
+      boolean measurableFound;
+      synchronized(measureCache) { // only changed objects are measured
+         measureCache.update(tempList);
+         newXMin = measureCache.x.min;
+         newXMax = measureCache.x.max;
+         measurableFound = measureCache.x.found; // we have at least one valid min-max measure
       }
       // do not change change values unless there is at least one measurable object.
       if(measurableFound) {
@@ -1491,7 +1544,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Sets the y axis scale based on the max and min values of all measurable objects. Autoscale flag is not respected.
     */
    protected void scaleY() {
-      ArrayList tempList = getDrawables(); // this clones the list of drawables
+      ArrayList tempList = getDrawableSnapshot();
       scaleY(tempList);
    }
 
@@ -1499,27 +1552,13 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     * Sets the y axis scale based on the max and min values of all measurable objects. Autoscale flag is not respected.
     */
    void scaleY(ArrayList tempList) {
-      double newYMin = Double.MAX_VALUE;
-      double newYMax = -Double.MAX_VALUE;
-      boolean measurableFound = false;
-      Iterator it = tempList.iterator();
-      while(it.hasNext()) {
-         Object obj = it.next();
-         if(!(obj instanceof Measurable)) {
-            continue; // object is not measurable
-         }
-         Measurable measurable = (Measurable) obj;
-         if(!measurable.isMeasured()) {
-            continue; // objects' measure not yet set
-         }
-         double ymi = measurable.getYMin(), yma = measurable.getYMax();
-         if(!Double.isNaN(ymi)&&!Double.isNaN(yma)) {
-            newYMin = Math.min(newYMin, ymi);
-            newYMin = Math.min(newYMin, yma);
-            newYMax = Math.max(newYMax, yma);
-            newYMax = Math.max(newYMax, ymi);
-            measurableFound = true;
-         }
+      double newYMin, newYMax;
+      boolean measurableFound;
+      synchronized(measureCache) { // only changed objects are measured
+         measureCache.update(tempList);
+         newYMin = measureCache.y.min;
+         newYMax = measureCache.y.max;
+         measurableFound = measureCache.y.found;
       }
       // do not change change values unless there is at least one measurable object.
       if(measurableFound) {
@@ -1576,7 +1615,6 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     */
    protected void paintDrawableList(Graphics g, ArrayList tempList) {
       Graphics2D g2 = (Graphics2D) g;
-      Iterator it = tempList.iterator();
       Shape clipShape = g2.getClip();
       int w = getWidth()-leftGutter-rightGutter;
       int h = getHeight()-bottomGutter-topGutter;
@@ -1589,14 +1627,130 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       if((tempList!=null)&&!tempList.isEmpty()&&(tempList.get(0) instanceof False3D)) {
          ((Drawable) tempList.get(0)).draw(this, g2);
       } else {
-         while(it.hasNext()) {
-            Drawable drawable = (Drawable) it.next();
+         int start = layerCaching ? paintLayer(g2, tempList) : 0;
+         for(int i = start, n = tempList.size();i<n;i++) {
+            Drawable drawable = (Drawable) tempList.get(i);
             drawable.draw(this, g2);
          }
       }
       g2.setClip(clipShape);
    }
 
+   /**
+    * Paints the leading Cacheable drawables from a cached image.
+    *
+    * The layer is drawn offscreen with the gutter clip and copied to the screen or to the panel's buffer
+    * through the current clip, so unbuffered panels and partial repaints also use the cache.  The image
+    * is redrawn if a change count, the scale, the size, the gutters, or the rendering hints have changed.
+    * Printers, vector graphics, and scaled graphics always draw the drawables.
+    *
+    * @param g2
+    * @param tempList the drawables
+    * @return the number of drawables that have been painted
+    */
+   protected int paintLayer(Graphics2D g2, ArrayList tempList) {
+      int n = 0;
+      while((n<tempList.size())&&(tempList.get(n) instanceof Cacheable)) {
+         n++;
+      }
+      if((n==0)||!canCacheLayer(g2)) {
+         layerImage = null; // release the image
+         return 0;
+      }
+      int w = getWidth(), h = getHeight();
+      Shape clip = clipAtGutter ? new Rectangle(leftGutter, topGutter, w-leftGutter-rightGutter, h-bottomGutter-topGutter) : null;
+      RenderingHints hints = g2.getRenderingHints();
+      boolean valid = (layerImage!=null)&&(layerImage.getWidth()==w)&&(layerImage.getHeight()==h)&&(layerDrawables.length==n)&&Arrays.equals(layerMatrix, pixelMatrix)&&hints.equals(layerHints)&&((clip==null) ? layerClip==null : clip.equals(layerClip));
+      for(int i = 0;valid&&(i<n);i++) {
+         Cacheable drawable = (Cacheable) tempList.get(i);
+         valid = (layerDrawables[i]==drawable)&&(layerCounts[i]==drawable.getChangeCount());
+      }
+      if(!valid) {
+         if((layerImage==null)||(layerImage.getWidth()!=w)||(layerImage.getHeight()!=h)) {
+            layerImage = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+         }
+         if(layerDrawables.length!=n) {
+            layerDrawables = new Drawable[n];
+            layerCounts = new long[n];
+         }
+         Graphics2D lg = layerImage.createGraphics();
+         lg.setComposite(AlphaComposite.Clear);
+         lg.fillRect(0, 0, w, h);
+         lg.setComposite(AlphaComposite.SrcOver);
+         lg.setRenderingHints(hints);
+         lg.setClip(clip);
+         lg.setColor(g2.getColor());
+         lg.setFont(g2.getFont());
+         lg.setStroke(g2.getStroke());
+         for(int i = 0;i<n;i++) {
+            Cacheable drawable = (Cacheable) tempList.get(i);
+            layerCounts[i] = drawable.getChangeCount(); // read the count before drawing
+            layerDrawables[i] = drawable;
+            drawable.draw(this, lg);
+         }
+         lg.dispose();
+         System.arraycopy(pixelMatrix, 0, layerMatrix, 0, 6);
+         layerClip = clip;
+         layerHints = hints;
+      }
+      g2.drawImage(layerImage, 0, 0, null);
+      return n;
+   }
+
+   /**
+    * Determines if the given graphics draws pixels that can be copied from a layer image.
+    *
+    * @param g2
+    * @return true for screens and images drawn with an integer translation
+    */
+   protected boolean canCacheLayer(Graphics2D g2) {
+      if((g2 instanceof PrintGraphics)||(g2 instanceof java.awt.print.PrinterGraphics)||(g2 instanceof org.jibble.epsgraphics.EpsGraphics2D)) {
+         return false;
+      }
+      GraphicsConfiguration gc = g2.getDeviceConfiguration();
+      if(gc==null) {
+         return false;
+      }
+      int type = gc.getDevice().getType();
+      if((type!=GraphicsDevice.TYPE_IMAGE_BUFFER)&&(type!=GraphicsDevice.TYPE_RASTER_SCREEN)) {
+         return false;
+      }
+      AffineTransform at = g2.getTransform();
+      if((at.getType()&~AffineTransform.TYPE_TRANSLATION)!=0) {
+         return false;
+      }
+      return(at.getTranslateX()==Math.floor(at.getTranslateX()))&&(at.getTranslateY()==Math.floor(at.getTranslateY()));
+   }
+
+   /**
+    * Enables caching of the leading Cacheable drawables in an image.
+    *
+    * Drawables that implement the Cacheable interface and precede all other drawables in the
+    * drawable list are drawn into an image that is reused until they change.
+    *
+    * @param cache
+    */
+   public void setLayerCaching(boolean cache) {
+      layerCaching = cache;
+      layerImage = null;
+   }
+
+   /**
+    * Determines if the leading Cacheable drawables are cached in an image.
+    *
+    * @return boolean
+    */
+   public boolean isLayerCaching() {
+      return layerCaching;
+   }
+
+   /**
+    * Invalidates the cached layer so that the Cacheable drawables are redrawn during the next repaint.
+    */
+   public void invalidateLayer() {
+      layerImage = null;
+   }
+
    /**
     * Gets the glass panel.
     *
@@ -1747,6 +1901,27 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       return(ArrayList) drawableList.clone();
    }
 
+   /**
+    * Gets a shared copy of the list of Drawable objects that is used to measure and paint this panel.
+    *
+    * The copy is made only when the drawable list changes so repeated calls do not allocate.
+    * The returned list is shared and MUST NOT be modified.
+    *
+    * @return the shared list
+    */
+   protected synchronized ArrayList getDrawableSnapshot() {
+      if(!(drawableList instanceof DrawableList)) {
+         return(ArrayList) drawableList.clone(); // a subclass has replaced the list
+      }
+      int count = ((DrawableList) drawableList).getModCount();
+      if((drawableSnapshot==null)||(snapshotSource!=drawableList)||(snapshotCount!=count)) {
+         drawableSnapshot = (ArrayList) drawableList.clone();
+         snapshotSource = drawableList;
+         snapshotCount = count;
+      }
+      return drawableSnapshot;
+   }
+
    /**
     * Gets Drawable objects of an assignable type. The list contains
     * objects that are assignable from the class or interface.
@@ -2300,6 +2475,24 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       }
    }
 
+   /**
+    * The drawable list.  Replacing an element counts as a modification so that the
+    * modification count identifies every version of the list.
+    */
+   static class DrawableList extends ArrayList {
+
+      private static final long serialVersionUID = 1L;
+
+      public Object set(int index, Object element) {
+         modCount++;
+         return super.set(index, element);
+      }
+
+      int getModCount() {
+         return modCount;
+      }
+   }
+
    /**
     * Returns an XML.ObjectLoader to save and load object data.
     *
@@ -17,16 +17,20 @@ import java.awt.geom.Point2D;
 /**
  * Grid draws a rectangular grid on a data panel.
  *
+ * A grid is Cacheable so that a drawing panel can keep it in an image.  Subclasses that change the
+ * appearance of the grid without calling its setters must increment the change count.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
-public class Grid implements Drawable {
+public class Grid implements Drawable, Cacheable {
   protected int nx, ny; // number of cells in x and y directions
   protected double xmin, xmax, ymin, ymax;
   protected double dx, dy;
   protected Color color = new Color(200, 200, 200, 100);
   protected GeneralPath generalPath = new GeneralPath();
   protected boolean visible = true;
+  protected long changeCount = 0; // incremented whenever the appearance changes
 
   /**
    * Constructs a square grid of the given size with a spacing of 1.
@@ -70,6 +74,7 @@ public class Grid implements Drawable {
    */
   public void setVisible(boolean isVisible) {
     visible = isVisible;
+    changeCount++;
   }
 
   /**
@@ -88,6 +93,7 @@ public class Grid implements Drawable {
    */
   public void setColor(Color _color) {
     color = _color;
+    changeCount++;
   }
 
   /**
@@ -172,6 +178,7 @@ public class Grid implements Drawable {
       dy = 1;
     }
     if(!visible) { // don't calculate the general path unless this grid is visible
+      changeCount++;
       return;
     }
     float y = (float) ymin;
@@ -190,6 +197,7 @@ public class Grid implements Drawable {
         x += dx;
       }
     }
+    changeCount++;
   }
 
   public void draw(DrawingPanel panel, Graphics g) {
@@ -210,6 +218,15 @@ public class Grid implements Drawable {
     g2.setColor(Color.black);
   }
 
+  /**
+   * Gets the change count.  The count is incremented whenever the visibility, color, or scale changes.
+   *
+   * @return the change count
+   */
+  public long getChangeCount() {
+    return changeCount;
+  }
+
   /**
    * Gets the cell column and row index for the specified location
    */
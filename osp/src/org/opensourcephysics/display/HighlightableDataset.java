@@ -239,6 +239,16 @@ public class HighlightableDataset extends Dataset {
       return data;
     }
   }
+
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   * Highlighting does not change the measure.
+   *
+   * @return true if this is a HighlightableDataset rather than a subclass
+   */
+  public boolean isMeasureNotifying() {
+    return getClass()==HighlightableDataset.class;
+  }
 }
 
 /*
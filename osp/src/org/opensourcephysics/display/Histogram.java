@@ -12,14 +12,12 @@ import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
 import org.opensourcephysics.controls.*;
+import org.opensourcephysics.numerics.QuantileSketch;
+import org.opensourcephysics.numerics.RunningStatistics;
 
 /**
  *  Histogram maps bin number to occurrences. Histogram is Drawable and can be
@@ -27,6 +25,14 @@ import org.opensourcephysics.controls.*;
  *  displayed in a JTable. By default, bins consist of (notation: [ inclusive, )
  *  exclusive): ..., [-1,0), [0,1), [1,2), ...
  *
+ *  Occurrences are stored in primitive arrays.  Threads that append values concurrently
+ *  should enable concurrent appends so that every thread adds to one of several stripes.
+ *  The stripes are merged into the histogram when the histogram is drawn or read.
+ *
+ *  Histogram also keeps running statistics of the appended values and, if enabled, a quantile
+ *  sketch.  Both are updated in constant time per value.  Bins may be uniform, logarithmic, or
+ *  have variable widths given by an array of bin edges.
+ *
  * @author     Joshua Gould
  * @author     Wolfgang Christian
  * @created    June 26, 2002
@@ -42,6 +48,11 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
   /** draw bin from y min to top of bin */
   public final static int DRAW_BIN = 1;
 
+  /** bin number of values that do not belong to a bin */
+  public final static int NO_BIN = Integer.MIN_VALUE;
+
+  static final double LN10 = Math.log(10);
+
   /**
    * Should histogram be drawn on a log scale?  Default is false.
    */
@@ -62,7 +73,23 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
   protected int binStyle = DRAW_BIN;
 
   /** maps bin number to occurrences */
-  HashMap bins;
+  HistogramBins bins;
+
+  /** bins that receive concurrent appends; null if concurrent appends are disabled */
+  volatile Stripe[] stripes;
+
+  /** whether the stripes contain data that has not been merged */
+  volatile boolean stripesChanged;
+
+  /** statistics of the appended values */
+  RunningStatistics statistics = new RunningStatistics();
+
+  /** quantile sketch of the appended values; null if the sketch is disabled */
+  QuantileSketch sketch;
+
+  /** bin numbers and occurrences used for drawing and merging */
+  int[] binNumbers = new int[0];
+  double[] binValues = new double[0];
 
   /** width of a bin */
   double binWidth = 1;
@@ -70,6 +97,12 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
   /** offset of the bins */
   double binOffset = 0;
 
+  /** number of logarithmic bins per decade; zero if the bins are not logarithmic */
+  int binsPerDecade = 0;
+
+  /** edges of variable width bins; null if the bins do not have variable widths */
+  double[] binEdges;
+
   /** false if the bins are continuous */
   boolean discrete = true;
 
@@ -146,14 +179,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
       try {
         java.util.StringTokenizer st = new java.util.StringTokenizer(s, "\t");
         int binNumber = Integer.parseInt(st.nextToken());
-        double numberOfoccurrences = Double.parseDouble(st.nextToken());
-        Double prioroccurrences = (Double) bins.get(new Integer(binNumber));
-        if(prioroccurrences==null) {                            // first occurence for this bin
-          bins.put(new Integer(binNumber), new Double(numberOfoccurrences));
-        } else {
-          numberOfoccurrences += prioroccurrences.doubleValue(); // increase occurrences for bin by prioroccurrences
-          bins.put(new Integer(binNumber), new Double(numberOfoccurrences));
-        }
+        double numberOfoccurrences = bins.add(binNumber, Double.parseDouble(st.nextToken())); // increase occurrences for bin
         ymax = Math.max(numberOfoccurrences, ymax);
         xmin = Math.min(binNumber*binWidth+binOffset, xmin);
         xmax = Math.max(binNumber*binWidth+binWidth+binOffset, xmax);
@@ -174,17 +200,15 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    A String with the number of occurrences for each bin.
    * @see       #toString
    */
-  public String toSortedString() {
-    Set keySet = bins.keySet();
-    Object[] keys = keySet.toArray();
-    Arrays.sort(keys);
+  public synchronized String toSortedString() {
+    mergeStripes();
+    int n = copyBins();
     String s = "x\tx";
-    StringBuffer buf = new StringBuffer(s.length()*keys.length);
-    for(int i = 0;i<keys.length;i++) {
-      Object key = keys[i];
-      buf.append(key);
+    StringBuffer buf = new StringBuffer(s.length()*n);
+    for(int i = 0;i<n;i++) {
+      buf.append(binNumbers[i]);
       buf.append("\t");
-      buf.append(bins.get(keys[i]));
+      buf.append(binValues[i]);
       buf.append("\n");
     }
     return buf.toString();
@@ -197,19 +221,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    A String with the number of occurrences for each bin.
    */
   public String toString() {
-    Set set = bins.keySet();
-    Iterator keys = set.iterator();
-    String s = "x\tx";
-    StringBuffer buf = new StringBuffer(s.length()*set.size());
-    while(keys.hasNext()) {
-      Integer binNumber = (Integer) keys.next();
-      Double occurrences = (Double) bins.get(binNumber);
-      buf.append(binNumber);
-      buf.append("\t");
-      buf.append(occurrences);
-      buf.append("\n");
-    }
-    return buf.toString();
+    return toSortedString();
   }
 
   /**
@@ -219,9 +231,69 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return        the hash code
    */
   public int hashCode(double value) {
+    if(binEdges!=null) {
+      int i = java.util.Arrays.binarySearch(binEdges, value);
+      if(i<0) {
+        i = -i-2; // the edge below the value
+      }
+      return((i<0)||(i>=binEdges.length-1)) ? NO_BIN : i;
+    }
+    if(binsPerDecade>0) {
+      if(!(value>0)||(value==Double.POSITIVE_INFINITY)) {
+        return NO_BIN;
+      }
+      int binNumber = (int) Math.floor(Math.log(value)/LN10*binsPerDecade);
+      if(getBinStart(binNumber)>value) { // correct for roundoff in the logarithm
+        binNumber--;
+      } else if(getBinEnd(binNumber)<=value) {
+        binNumber++;
+      }
+      return binNumber;
+    }
     return(int) (Math.floor((value-binOffset)/binWidth));
   }
 
+  /**
+   *  Determines if all bins have the same width.
+   *
+   * @return    <code>true<\code> if the bins are neither logarithmic nor variable
+   */
+  boolean isUniformBins() {
+    return(binEdges==null)&&(binsPerDecade==0);
+  }
+
+  /**
+   *  Gets the x value at the left side of a bin.
+   *
+   * @param  binNumber
+   * @return    the start of the bin
+   */
+  double getBinStart(int binNumber) {
+    if(binEdges!=null) {
+      return binEdges[binNumber];
+    }
+    if(binsPerDecade>0) {
+      return Math.pow(10, (double) binNumber/binsPerDecade);
+    }
+    return binNumber*binWidth+binOffset;
+  }
+
+  /**
+   *  Gets the x value at the right side of a bin.
+   *
+   * @param  binNumber
+   * @return    the end of the bin
+   */
+  double getBinEnd(int binNumber) {
+    if(binEdges!=null) {
+      return binEdges[binNumber+1];
+    }
+    if(binsPerDecade>0) {
+      return Math.pow(10, (double) (binNumber+1)/binsPerDecade);
+    }
+    return binNumber*binWidth+binWidth+binOffset;
+  }
+
 
 
   /**
@@ -230,24 +302,222 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @param  value
    * @param  numberOfoccurrences
    */
-  public synchronized void append(double value, double numberOfoccurrences) {
-    sum += numberOfoccurrences;
+  public void append(double value, double numberOfoccurrences) {
     int binNumber = hashCode(value);
-    // Determine if there have previously been any occurrences for this bin
-    Double occurrences = (Double) bins.get(new Integer(binNumber));
-    if(occurrences==null) { // first occurence for this bin
-      bins.put(new Integer(binNumber), new Double(numberOfoccurrences));
-    } else {
-      // need to put Objects in HashMap, but can only add doubles
-      numberOfoccurrences += occurrences.doubleValue(); // increase occurrences for bin by numberOfoccurrences
-      bins.put(new Integer(binNumber), new Double(numberOfoccurrences));
+    Stripe[] stripes = this.stripes; // reference for thread safety
+    if(stripes!=null) { // add to the stripe of the current thread
+      Stripe stripe = stripes[System.identityHashCode(Thread.currentThread())&(stripes.length-1)];
+      synchronized(stripe) {
+        stripe.add(binNumber, value, numberOfoccurrences);
+      }
+      stripesChanged = true;
+      return;
+    }
+    synchronized(this) {
+      addValue(binNumber, value, numberOfoccurrences);
+    }
+  }
+
+  /**
+   *  Appends values with 1 occurrence from a range of an array.
+   *
+   *  The histogram is locked once for all the values.
+   *
+   * @param  values
+   * @param  from    the index of the first value
+   * @param  to      the index after the last value
+   */
+  public void append(double[] values, int from, int to) {
+    Stripe[] stripes = this.stripes;
+    if(stripes!=null) {
+      Stripe stripe = stripes[System.identityHashCode(Thread.currentThread())&(stripes.length-1)];
+      synchronized(stripe) {
+        for(int i = from;i<to;i++) {
+          stripe.add(hashCode(values[i]), values[i], 1);
+        }
+      }
+      stripesChanged = true;
+      return;
+    }
+    synchronized(this) {
+      for(int i = from;i<to;i++) {
+        addValue(hashCode(values[i]), values[i], 1);
+      }
+    }
+  }
+
+  /**
+   *  Adds a value to the statistics and its occurrences to a bin.
+   *  The caller must hold the lock on this histogram.
+   *
+   * @param  binNumber
+   * @param  value
+   * @param  numberOfoccurrences
+   */
+  private void addValue(int binNumber, double value, double numberOfoccurrences) {
+    statistics.add(value, numberOfoccurrences);
+    if(sketch!=null) {
+      sketch.add(value, numberOfoccurrences);
+    }
+    if(binNumber!=NO_BIN) {
+      addToBin(binNumber, numberOfoccurrences);
+    }
+  }
+
+  /**
+   *  Adds occurrences to a bin and updates the sum and the min and max values.
+   *  The caller must hold the lock on this histogram.
+   *
+   * @param  binNumber
+   * @param  numberOfoccurrences
+   */
+  private void addToBin(int binNumber, double numberOfoccurrences) {
+    sum += numberOfoccurrences;
+    boolean newExtreme = (binNumber<bins.first)||(binNumber>bins.last);
+    double occurrences = bins.add(binNumber, numberOfoccurrences); // increase occurrences for bin by numberOfoccurrences
+    ymax = Math.max(occurrences, ymax);
+    if(newExtreme) { // bin positions increase with the bin number
+      xmin = Math.min(getBinStart(binNumber), xmin);
+      xmax = Math.max(getBinEnd(binNumber), xmax);
     }
-    ymax = Math.max(numberOfoccurrences, ymax);
-    xmin = Math.min(binNumber*binWidth+binOffset, xmin);
-    xmax = Math.max(binNumber*binWidth+binWidth+binOffset, xmax);
     dataChanged = true;
   }
 
+  /**
+   *  Gets the statistics of the values that have been appended since the histogram was cleared.
+   *
+   *  Values that do not belong to a bin, such as nonpositive values in a logarithmic histogram,
+   *  are included.  Values read from a file of bins and occurrences are not included.
+   *
+   * @return    a copy of the statistics
+   */
+  public synchronized RunningStatistics getStatistics() {
+    mergeStripes();
+    return new RunningStatistics(statistics);
+  }
+
+  /**
+   *  Enables a quantile sketch of the appended values.  The sketch uses a bounded amount of
+   *  memory and includes only the values appended after the sketch is enabled.
+   *
+   * @param  enable
+   */
+  public synchronized void enableQuantileSketch(boolean enable) {
+    if(enable==(sketch!=null)) {
+      return;
+    }
+    sketch = enable ? new QuantileSketch() : null;
+    Stripe[] stripes = this.stripes;
+    for(int i = 0;(stripes!=null)&&(i<stripes.length);i++) {
+      synchronized(stripes[i]) {
+        stripes[i].sketch = enable ? new QuantileSketch() : null;
+      }
+    }
+  }
+
+  /**
+   *  Estimates the value below which the given fraction of the appended values lies.
+   *
+   * @param  q  the fraction between 0 and 1
+   * @return    the quantile or NaN if the quantile sketch is not enabled or is empty
+   */
+  public synchronized double getQuantile(double q) {
+    mergeStripes();
+    return(sketch==null) ? Double.NaN : sketch.getQuantile(q);
+  }
+
+  /**
+   *  Enables concurrent appends from several threads.
+   *
+   *  Values appended by different threads are usually added to different stripes so that threads
+   *  seldom wait for one another.  The stripes are merged into the histogram whenever the histogram
+   *  is drawn or its data is read.  This method should not be invoked while values are being appended.
+   *
+   * @param  concurrent
+   */
+  public synchronized void setConcurrentAppends(boolean concurrent) {
+    if(concurrent==(stripes!=null)) {
+      return;
+    }
+    if(concurrent) {
+      int n = 1;
+      while(n<2*Runtime.getRuntime().availableProcessors()) {
+        n *= 2;
+      }
+      Stripe[] newStripes = new Stripe[n];
+      for(int i = 0;i<n;i++) {
+        newStripes[i] = new Stripe();
+        if(sketch!=null) {
+          newStripes[i].sketch = new QuantileSketch();
+        }
+      }
+      stripes = newStripes;
+    } else {
+      stripesChanged = true;
+      mergeStripes();
+      stripes = null;
+    }
+  }
+
+  /**
+   *  Determines if concurrent appends are enabled.
+   *
+   * @return    <code>true<\code> if values are appended to stripes
+   */
+  public boolean isConcurrentAppends() {
+    return stripes!=null;
+  }
+
+  /**
+   *  Merges the stripes into the histogram's bins.
+   */
+  synchronized void mergeStripes() {
+    Stripe[] stripes = this.stripes;
+    if(!stripesChanged||(stripes==null)) {
+      return;
+    }
+    stripesChanged = false; // appends that occur during the merge will set this flag
+    for(int i = 0;i<stripes.length;i++) {
+      Stripe stripe = stripes[i];
+      synchronized(stripe) {
+        statistics.add(stripe.statistics);
+        stripe.statistics.clear();
+        if((sketch!=null)&&(stripe.sketch!=null)) {
+          sketch.add(stripe.sketch);
+          stripe.sketch.clear();
+        }
+        int n = stripe.bins.size();
+        if(n==0) {
+          continue;
+        }
+        if(binNumbers.length<n) {
+          binNumbers = new int[n];
+          binValues = new double[n];
+        }
+        stripe.bins.copyTo(binNumbers, binValues);
+        stripe.bins.clear();
+        for(int j = 0;j<n;j++) {
+          addToBin(binNumbers[j], binValues[j]);
+        }
+      }
+    }
+  }
+
+  /**
+   *  Copies the bin numbers and occurrences into the binNumbers and binValues arrays.
+   *  The caller must hold the lock on this histogram.
+   *
+   * @return    the number of bins
+   */
+  private int copyBins() {
+    int n = bins.size();
+    if(binNumbers.length<n) {
+      binNumbers = new int[n];
+      binValues = new double[n];
+    }
+    return bins.copyTo(binNumbers, binValues);
+  }
+
   /**
    *  Appends a value with 1 occurence.
    *
@@ -286,9 +556,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @param  values
    */
   public void append(double[] values) {
-    for(int i = 0;i<values.length;i++) {
-      append(values[i], 1);
-    }
+    append(values, 0, values.length);
   }
 
   /**
@@ -298,24 +566,23 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @param  g
    */
   public synchronized void draw(DrawingPanel drawingPanel, Graphics g) {
+    mergeStripes();
     if(bins.size()==0) {
       return;
     }
     Shape oldClip = g.getClip();
     g.setColor(binFillColor);
     g.clipRect(0, 0, drawingPanel.getWidth(), drawingPanel.getHeight());
-    for(Iterator keys = bins.keySet().iterator();keys.hasNext();) {
-      Integer binNumber = (Integer) keys.next();
-      Double d=(Double) (bins.get(binNumber));
-      if(d==null) return;
-      double occurrences = d.doubleValue();
+    int n = copyBins();
+    for(int i = 0;i<n;i++) {
+      double occurrences = binValues[i];
       if(normalizedToOne) {
         occurrences /= sum;
       }
       if(binStyle==DRAW_BIN) {
-        drawBin(drawingPanel, g, binNumber.intValue(), occurrences);
+        drawBin(drawingPanel, g, binNumbers[i], occurrences);
       } else {
-        drawPoint(drawingPanel, g, binNumber.intValue(), occurrences);
+        drawPoint(drawingPanel, g, binNumbers[i], occurrences);
       }
     }
     g.setClip(oldClip);
@@ -323,7 +590,18 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
 
   /** Clears all data from this histogram and resets min and max values. */
   public synchronized void clear() {
-    bins = new HashMap();
+    bins = new HistogramBins();
+    statistics.clear();
+    if(sketch!=null) {
+      sketch.clear();
+    }
+    Stripe[] stripes = this.stripes;
+    for(int i = 0;(stripes!=null)&&(i<stripes.length);i++) {
+      synchronized(stripes[i]) {
+        stripes[i].clear();
+      }
+    }
+    stripesChanged = false;
     xmin = Integer.MAX_VALUE;
     xmax = Integer.MIN_VALUE;
     ymax = Integer.MIN_VALUE;
@@ -410,6 +688,60 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    */
   public void setBinWidth(double _binWidth) {
     binWidth = _binWidth;
+    binsPerDecade = 0;
+    binEdges = null;
+  }
+
+  /**
+   *  Sets logarithmic bins that have equal widths on a log scale.  Bin n contains the values
+   *  in [10^(n/binsPerDecade), 10^((n+1)/binsPerDecade)).  Nonpositive values are not binned.
+   *  The bins should be set before data are appended.
+   *
+   * @param  _binsPerDecade  the number of bins per factor of ten
+   */
+  public void setLogBins(int _binsPerDecade) {
+    if(_binsPerDecade<1) {
+      throw new IllegalArgumentException("Number of bins per decade must be positive.");
+    }
+    binEdges = null;
+    binsPerDecade = _binsPerDecade;
+  }
+
+  /**
+   *  Gets the number of logarithmic bins per decade.
+   *
+   * @return    the bins per decade or zero if the bins are not logarithmic
+   */
+  public int getLogBins() {
+    return binsPerDecade;
+  }
+
+  /**
+   *  Sets bins with variable widths.  Bin n contains the values in [edges[n], edges[n+1]).
+   *  Values outside the edges are not binned.  The bins should be set before data are appended.
+   *
+   * @param  edges  the bin edges in increasing order
+   */
+  public void setBinEdges(double[] edges) {
+    if(edges.length<2) {
+      throw new IllegalArgumentException("At least two bin edges are required.");
+    }
+    for(int i = 1;i<edges.length;i++) {
+      if(!(edges[i]>edges[i-1])) {
+        throw new IllegalArgumentException("Bin edges must be increasing.");
+      }
+    }
+    binsPerDecade = 0;
+    binEdges = (double[]) edges.clone();
+  }
+
+  /**
+   *  Gets the edges of variable width bins.
+   *
+   * @return    a copy of the edges or null if the bins do not have variable widths
+   */
+  public double[] getBinEdges() {
+    return(binEdges==null) ? null : (double[]) binEdges.clone();
   }
 
   /**
@@ -474,6 +806,16 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
     return binWidth;
   }
 
+  /**
+   *  Gets the width of the given bin.
+   *
+   * @param  binNumber
+   * @return    The bin width.
+   */
+  public double getBinWidth(int binNumber) {
+    return isUniformBins() ? binWidth : getBinEnd(binNumber)-getBinStart(binNumber);
+  }
+
   /**
    *  Gets the offset of the bins.
    *
@@ -489,7 +831,8 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    xmin
    */
   public double getXMin() {
-    return(discrete&&bins.size()>1) ? xmin-binWidth : xmin;
+    mergeStripes();
+    return(discrete&&bins.size()>1&&isUniformBins()) ? xmin-binWidth : xmin;
   }
 
   /**
@@ -498,6 +841,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    xmax
    */
   public double getXMax() {
+    mergeStripes();
     return xmax;
   }
 
@@ -516,9 +860,12 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    xmax
    */
   public double getYMax() {
+    mergeStripes();
     double max = (normalizedToOne ? ymax/sum : ymax);
-    if(adjustForWidth) {
+    if(adjustForWidth&&isUniformBins()) {
       max = max/getBinWidth();
+    } else if(adjustForWidth) {
+      max = (normalizedToOne ? getMaxDensity()/sum : getMaxDensity());
     }
     if(logScale) {
       max = Math.log(max);
@@ -526,6 +873,20 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
     return max;
   }
 
+  /**
+   *  Gets the largest number of occurrences per unit width of a bin.
+   *
+   * @return    the maximum density
+   */
+  private synchronized double getMaxDensity() {
+    double max = 0;
+    int n = copyBins();
+    for(int i = 0;i<n;i++) {
+      max = Math.max(max, binValues[i]/getBinWidth(binNumbers[i]));
+    }
+    return max;
+  }
+
   /**
    *  Gets the valid measure flag. The measure is valid if this histogram is not
    *  empty.
@@ -535,6 +896,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    *
    */
   public boolean isMeasured() {
+    mergeStripes();
     return bins.size()>0;
   }
 
@@ -560,6 +922,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return    the count
    */
   public int getRowCount() {
+    mergeStripes();
     return bins.size();
   }
 
@@ -585,6 +948,10 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
     if(column==0) {
       return entry.getKey();
     }
+    if(column==1&&!isUniformBins()) {
+      int binNumber = ((Integer) entry.getKey()).intValue();
+      return new Double((getBinStart(binNumber)+getBinEnd(binNumber))/2.0);
+    }
     if(column==1) {
       return new Double(((Integer) entry.getKey()).doubleValue()*binWidth+binWidth/2.0+binOffset);
     } else {
@@ -638,7 +1005,7 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    */
   protected void drawBin(DrawingPanel drawingPanel, Graphics g, int binNumber, double occurrences) {
     if(adjustForWidth) {
-      occurrences = occurrences/getBinWidth();
+      occurrences = occurrences/getBinWidth(binNumber);
     }
     if(logScale) {
       occurrences = Math.max(0, Math.log(occurrences));
@@ -672,6 +1039,10 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return   the bins
    */
   public double[] getXPoints() {
+     if(!isUniformBins()) {
+       return getBinPoints(false)[0];
+     }
+     mergeStripes();
      int nbins=1+(int)((xmax-xmin)/binWidth);
      if(nbins<1)return new double[0];
      double[] xdata= new double[nbins];
@@ -687,14 +1058,16 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    *
    * @return    the values of the bins
    */
-  public double[] getYPoints() {
+  public synchronized double[] getYPoints() {
+     if(!isUniformBins()) {
+       return getBinPoints(false)[1];
+     }
+     mergeStripes();
      int nbins=1+(int)((xmax-xmin)/binWidth);
      if(nbins<1)return new double[0];
      double[] ydata= new double[nbins];
      for(int i=0; i<nbins; i++) {
-       Integer binNumber = new Integer(i);
-       Double bin=(Double)bins.get(binNumber);
-       ydata[i]=(bin==null)?0:bin.doubleValue();
+       ydata[i]=bins.get(i);
        //System.out.println("number"+binNumber.intValue()+"  x="+data[0][i]+ "  occurances="+data[1][i]);
      }
     return ydata;
@@ -705,16 +1078,18 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    *
    * @return a double[index][2] array of data
    */
-  public double[][] getPoints() {
+  public synchronized double[][] getPoints() {
+    if(!isUniformBins()) {
+      return getBinPoints(false);
+    }
+    mergeStripes();
     int nbins=1+(int)((xmax-xmin)/binWidth);
     if(nbins<1)return new double[2][0];
     double[][] data= new double[2][nbins];
     int iStart=(int)(xmin/binWidth);
     for(int i=0; i<nbins; i++) {
-      Integer binNumber = new Integer(i+iStart);
-      Double bin=(Double)bins.get(binNumber);
       data[0][i]=xmin+i*binWidth+binOffset + binWidth/2;
-      data[1][i]=(bin==null)?0:bin.doubleValue();
+      data[1][i]=bins.get(i+iStart);
       // System.out.println("number"+binNumber.intValue()+"  x="+data[0][i]+ "  occurances="+data[1][i]);
     }
     return data;
@@ -725,22 +1100,46 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    *
    * @return a double[index][2] array of data
    */
-  public double[][] getLogPoints() {
+  public synchronized double[][] getLogPoints() {
+    if(!isUniformBins()) {
+      return getBinPoints(true);
+    }
+    mergeStripes();
     int nbins = (int)Math.round ( (xmax - xmin) / binWidth);
     if (nbins < 1)
       return new double[2][0];
     double[][] data = new double[2][nbins];
     int iStart = (int) (xmin / binWidth);
     for (int i = 0; i < nbins; i++) {
-      Integer binNumber = new Integer(i + iStart);
-      Double bin = (Double) bins.get(binNumber);
       data[0][i] = xmin + i * binWidth + binOffset + binWidth / 2;
-      data[1][i] = (bin == null) ? 0 : bin.doubleValue();
+      data[1][i] = bins.get(i + iStart);
       data[1][i] = (data[1][i] > 0) ? Math.log(data[1][i]) : 0;
     }
     return data;
   }
 
+  /**
+   * Gets the bin centers and the values within every bin from the first to the last
+   * occupied bin of a logarithmic or variable width histogram.
+   *
+   * @param log <code>true<\code> to return the logarithm of the values
+   * @return a double[2][index] array of data
+   */
+  private synchronized double[][] getBinPoints(boolean log) {
+    mergeStripes();
+    int nbins = (bins.size()==0) ? 0 : bins.last-bins.first+1;
+    double[][] data = new double[2][nbins];
+    for(int i = 0;i<nbins;i++) {
+      int binNumber = bins.first+i;
+      data[0][i] = (getBinStart(binNumber)+getBinEnd(binNumber))/2;
+      data[1][i] = bins.get(binNumber);
+      if(log) {
+        data[1][i] = (data[1][i]>0) ? Math.log(data[1][i]) : 0;
+      }
+    }
+    return data;
+  }
+
 
 
   /**
@@ -751,6 +1150,9 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return position
    */
   public double getLeftMostBinPosition(int binNumber) {
+    if(!isUniformBins()) {
+      return getBinStart(binNumber)+getBinWidth(binNumber)*barOffset;
+    }
     return binNumber*binWidth+binOffset+binWidth*barOffset;
   }
 
@@ -762,6 +1164,9 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    * @return position
    */
   public double getRightMostBinPosition(int binNumber) {
+    if(!isUniformBins()) {
+      return getBinEnd(binNumber)+getBinWidth(binNumber)*barOffset;
+    }
     return binNumber*binWidth+binWidth+binOffset+binWidth*barOffset;
   }
 
@@ -770,12 +1175,83 @@ public class Histogram extends AbstractTableModel implements Measurable, Data {
    *  update
    */
   private synchronized void updateEntries() {
+    mergeStripes();
     if(dataChanged) {
-      entries = (Map.Entry[]) bins.entrySet().toArray(entries);
+      int n = copyBins();
+      entries = new Map.Entry[n];
+      for(int i = 0;i<n;i++) {
+        entries[i] = new BinEntry(binNumbers[i], binValues[i]);
+      }
       dataChanged = false;
     }
   }
 
+  /**
+   * The bins, statistics, and sketch that receive the values appended by some of the threads.
+   */
+  static class Stripe {
+    HistogramBins bins = new HistogramBins();
+    RunningStatistics statistics = new RunningStatistics();
+    QuantileSketch sketch;
+
+    void add(int binNumber, double value, double occurrences) {
+      statistics.add(value, occurrences);
+      if(sketch!=null) {
+        sketch.add(value, occurrences);
+      }
+      if(binNumber!=NO_BIN) {
+        bins.add(binNumber, occurrences);
+      }
+    }
+
+    void clear() {
+      bins.clear();
+      statistics.clear();
+      if(sketch!=null) {
+        sketch.clear();
+      }
+    }
+
+  }
+
+  /**
+   * A bin number-occurrences pair.
+   */
+  static class BinEntry implements Map.Entry {
+    Integer binNumber;
+    Double occurrences;
+
+    BinEntry(int binNumber, double occurrences) {
+      this.binNumber = new Integer(binNumber);
+      this.occurrences = new Double(occurrences);
+    }
+
+    public Object getKey() {
+      return binNumber;
+    }
+
+    public Object getValue() {
+      return occurrences;
+    }
+
+    public Object setValue(Object value) {
+      throw new UnsupportedOperationException();
+    }
+
+    public boolean equals(Object obj) {
+      if(!(obj instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry entry = (Map.Entry) obj;
+      return binNumber.equals(entry.getKey())&&occurrences.equals(entry.getValue());
+    }
+
+    public int hashCode() {
+      return binNumber.hashCode()^occurrences.hashCode();
+    }
+
+  }
+
    public double[][] getData2D(){
       double[][] data= (logScale)? getLogPoints(): getPoints();
       return data;
@@ -841,6 +1317,12 @@ public static XML.ObjectLoader getLoader() {
        control.setValue("bin_style", his.binStyle);
        control.setValue("bin_width", his.binWidth);
        control.setValue("bin_offset", his.binOffset);
+       if(his.binsPerDecade>0) {
+         control.setValue("bins_per_decade", his.binsPerDecade);
+       }
+       if(his.binEdges!=null) {
+         control.setValue("bin_edges", his.binEdges);
+       }
        control.setValue("name", his.name);
        control.setValue("x_column_name", his.xColumnName);
        control.setValue("y_column_name", his.yColumnName);
@@ -869,6 +1351,15 @@ public static XML.ObjectLoader getLoader() {
        his.binStyle=control.getInt("bin_style");
        his.binWidth=control.getDouble("bin_width");
        his.binOffset=control.getDouble("bin_offset");
+       double[] edges = (double[]) control.getObject("bin_edges");
+       int perDecade = control.getInt("bins_per_decade");
+       if(edges!=null) {
+         his.setBinEdges(edges);
+       } else if(perDecade>0) {
+         his.setLogBins(perDecade);
+       } else {
+         his.setBinWidth(his.binWidth);
+       }
        his.adjustForWidth=control.getBoolean("adjust_for_width");
        if(bins!=null&&vals!=null) {
          for(int i=0, n=bins.length; i<n; i++){
@@ -0,0 +1,299 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+
+/**
+ * HistogramBins maps bin numbers to occurrences using primitive arrays.
+ *
+ * Bins are stored in a dense array indexed by bin number while the occupied bins are
+ * contiguous enough; otherwise the bins are moved to an open-addressing hash table.
+ * A bin exists once a value has been added to it, even if the sum is zero.
+ *
+ * HistogramBins is not synchronized.
+ *
+ * @version 1.0
+ */
+class HistogramBins {
+  static final int MIN_DENSE = 64;      // initial dense capacity
+  static final int MAX_DENSE = 1<<22;   // largest dense array
+  static final int SPARSE_FACTOR = 4;   // dense span may not exceed this factor times the number of bins
+  // dense storage covers bins start to start+dense.length-1
+  double[] dense;
+  boolean[] present;
+  int start;
+  // sparse storage
+  int[] keys;
+  double[] values;
+  boolean[] used;
+  int size;  // number of bins
+  int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE; // smallest and largest bin numbers
+
+  /**
+   * Adds occurrences to a bin.
+   *
+   * @param bin the bin number
+   * @param occurrences
+   * @return the new number of occurrences in the bin
+   */
+  double add(int bin, double occurrences) {
+    if(keys==null) {
+      int i = bin-start; // negative if the difference overflows
+      if((dense!=null)&&(bin>=start)&&(i>=0)&&(i<dense.length)) {
+        if(!present[i]) {
+          present[i] = true;
+          size++;
+          if(bin<first) {
+            first = bin;
+          }
+          if(bin>last) {
+            last = bin;
+          }
+        }
+        return dense[i] += occurrences;
+      }
+      if(growDense(bin)) {
+        return add(bin, occurrences);
+      }
+    }
+    if(bin<first) {
+      first = bin;
+    }
+    if(bin>last) {
+      last = bin;
+    }
+    int mask = keys.length-1;
+    int i = hash(bin)&mask;
+    while(used[i]) {
+      if(keys[i]==bin) {
+        return values[i] += occurrences;
+      }
+      i = (i+1)&mask;
+    }
+    used[i] = true;
+    keys[i] = bin;
+    values[i] = occurrences;
+    size++;
+    if(2*size>keys.length) {
+      rehash(2*keys.length);
+    }
+    return occurrences;
+  }
+
+  /**
+   * Gets the occurrences in a bin.
+   *
+   * @param bin the bin number
+   * @return the occurrences or zero if the bin does not exist
+   */
+  double get(int bin) {
+    if(keys==null) {
+      int i = bin-start;
+      if((dense==null)||(bin<start)||(i<0)||(i>=dense.length)) {
+        return 0;
+      }
+      return dense[i];
+    }
+    int mask = keys.length-1;
+    int i = hash(bin)&mask;
+    while(used[i]) {
+      if(keys[i]==bin) {
+        return values[i];
+      }
+      i = (i+1)&mask;
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the number of bins.
+   *
+   * @return the number of bins
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Copies the bin numbers and occurrences into arrays in increasing bin order.
+   *
+   * @param binNumbers an array of length size() or larger
+   * @param occurrences an array of length size() or larger
+   * @return the number of bins
+   */
+  int copyTo(int[] binNumbers, double[] occurrences) {
+    int n = 0;
+    if(keys==null) {
+      if(dense==null) {
+        return 0;
+      }
+      for(int i = first-start, end = last-start;i<=end;i++) {
+        if(present[i]) {
+          binNumbers[n] = start+i;
+          occurrences[n] = dense[i];
+          n++;
+        }
+      }
+      return n;
+    }
+    for(int i = 0;i<keys.length;i++) {
+      if(used[i]) {
+        binNumbers[n++] = keys[i];
+      }
+    }
+    java.util.Arrays.sort(binNumbers, 0, n);
+    for(int i = 0;i<n;i++) {
+      occurrences[i] = get(binNumbers[i]);
+    }
+    return n;
+  }
+
+  /**
+   * Adds the bins of another HistogramBins to this object.
+   *
+   * @param bins
+   */
+  void addAll(HistogramBins bins) {
+    if(bins.keys==null) {
+      if(bins.dense==null) {
+        return;
+      }
+      for(int i = bins.first-bins.start, end = bins.last-bins.start;i<=end;i++) {
+        if(bins.present[i]) {
+          add(bins.start+i, bins.dense[i]);
+        }
+      }
+    } else {
+      for(int i = 0;i<bins.keys.length;i++) {
+        if(bins.used[i]) {
+          add(bins.keys[i], bins.values[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes all bins.
+   */
+  void clear() {
+    dense = null;
+    present = null;
+    keys = null;
+    values = null;
+    used = null;
+    size = 0;
+    first = Integer.MAX_VALUE;
+    last = Integer.MIN_VALUE;
+  }
+
+  /**
+   * Enlarges the dense array so that it includes the given bin.
+   *
+   * @return false if the bins have been moved to the hash table
+   */
+  private boolean growDense(int bin) {
+    if(dense==null) {
+      dense = new double[MIN_DENSE];
+      present = new boolean[MIN_DENSE];
+      start = (int) Math.min(Math.max((long) bin-MIN_DENSE/2, Integer.MIN_VALUE), (long) Integer.MAX_VALUE-MIN_DENSE+1);
+      return true;
+    }
+    long lo = Math.min((long) bin, first), hi = Math.max((long) bin, last);
+    long span = hi-lo+1;
+    if((span>MAX_DENSE)||(span>SPARSE_FACTOR*(long) (size+MIN_DENSE))) {
+      toSparse();
+      return false;
+    }
+    int capacity = dense.length;
+    while(capacity<span+span/2) {
+      capacity *= 2;
+    }
+    capacity = (int) Math.min(capacity, MAX_DENSE);
+    long newStart = lo-(capacity-span)/2; // center the occupied bins
+    if(newStart<Integer.MIN_VALUE) {
+      newStart = Integer.MIN_VALUE;
+    } else if(newStart+capacity-1>Integer.MAX_VALUE) {
+      newStart = (long) Integer.MAX_VALUE-capacity+1;
+    }
+    double[] newDense = new double[capacity];
+    boolean[] newPresent = new boolean[capacity];
+    if(size>0) {
+      int offset = (int) (first-newStart), from = first-start, n = last-first+1;
+      System.arraycopy(dense, from, newDense, offset, n);
+      System.arraycopy(present, from, newPresent, offset, n);
+    }
+    dense = newDense;
+    present = newPresent;
+    start = (int) newStart;
+    return true;
+  }
+
+  /**
+   * Moves the bins from the dense array to the hash table.
+   */
+  private void toSparse() {
+    double[] oldDense = dense;
+    boolean[] oldPresent = present;
+    int oldStart = start, oldFirst = first, oldLast = last, capacity = MIN_DENSE;
+    while(capacity<4*size) {
+      capacity *= 2;
+    }
+    clear();
+    keys = new int[capacity];
+    values = new double[capacity];
+    used = new boolean[capacity];
+    for(int i = oldFirst-oldStart, end = oldLast-oldStart;i<=end;i++) {
+      if(oldPresent[i]) {
+        add(oldStart+i, oldDense[i]);
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    double[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new int[capacity];
+    values = new double[capacity];
+    used = new boolean[capacity];
+    size = 0;
+    for(int i = 0;i<oldKeys.length;i++) {
+      if(oldUsed[i]) {
+        add(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private static int hash(int bin) {
+    int h = bin*0x9E3779B9;
+    return h^(h>>>16);
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
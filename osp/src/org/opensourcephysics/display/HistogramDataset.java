@@ -56,7 +56,8 @@ public class HistogramDataset extends Dataset {
       ymin = Math.min(binVals[index], ymin);
       //  xpoints do not change; ypoints has been set so just copy the new data
       System.arraycopy(binVals,0,ypoints,0,n);
-      if(isConnected()) recalculatePath();
+      recalculatePath();
+      fireMeasureChanged();
     }
   }
 
@@ -81,7 +82,8 @@ public class HistogramDataset extends Dataset {
     }
     //  xpoints do not change; ypoints has been set so just copy the new data
     System.arraycopy(binVals,0,this.ypoints,0,n);
-    if(isConnected()) recalculatePath();
+    recalculatePath();
+    fireMeasureChanged();
   }
 
   /**
@@ -133,9 +135,10 @@ public class HistogramDataset extends Dataset {
     //  xpoints do not change; ypoints has been set so just copy the new data
     ymax = 0;
     ymin = 0;
+    fireMeasureChanged();
     if(n==0) return;
     System.arraycopy(binVals,0,ypoints,0,n);
-    if(isConnected()) recalculatePath();
+    recalculatePath();
   }
 
   /**
@@ -172,12 +175,21 @@ protected static class HistogramDatasetLoader extends Loader{
       if (dataset.n==0)return obj;
       System.arraycopy(dataset.xVals, 0, dataset.xpoints, 0, dataset.n);
       System.arraycopy(dataset.binVals, 0, dataset.ypoints, 0, dataset.n);
-      if (dataset.isConnected()) dataset.recalculatePath();
+      dataset.resetXYMinMax();
+      dataset.recalculatePath();
       return obj;
    }
 }
 
-
+   /**
+    * Determines if the listeners are notified of every change to the measure.
+    * The bins are reported whenever they change.
+    *
+    * @return true if this is a HistogramDataset rather than a subclass
+    */
+   public boolean isMeasureNotifying() {
+      return getClass()==HistogramDataset.class;
+   }
 }
 
 /*
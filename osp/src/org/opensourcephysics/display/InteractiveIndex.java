@@ -0,0 +1,344 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * InteractiveIndex is a uniform grid that finds the Interactive objects near a point
+ * without testing every object in a drawing panel.
+ *
+ * Interactive circles are indexed by their centers and interactive shapes by their bounds.
+ * Other Interactive objects, and Selectable objects, are candidates for every query because
+ * their hit areas are unknown.  The grid is updated from the drawable list whenever the
+ * panel is painted so that queries find the objects where they were last drawn.
+ *
+ * @version 1.0
+ */
+class InteractiveIndex {
+  static final int GRID_SIZE = 64; // number of cells across the panel
+  static final int MAX_CELLS = 64; // objects that cover more cells are candidates for every query
+  static final Comparator TOP_DOWN = new Comparator() {
+    public int compare(Object o1, Object o2) {
+      int z1 = ((Entry) o1).z, z2 = ((Entry) o2).z;
+      return(z1>z2) ? -1 : ((z1<z2) ? 1 : 0);
+    }
+
+  };
+  Map entries = new IdentityHashMap(); // maps an Interactive to its entry
+  Map cells = new HashMap();           // maps a cell key to a list of entries
+  ArrayList unbounded = new ArrayList(); // entries that are tested for every query
+  double x0, y0, cellWidth, cellHeight;  // grid geometry
+  double viewWidth, viewHeight;          // world size of the panel when the grid was laid out
+  int maxPad;                            // largest pixel padding of an entry
+  boolean valid;
+  int generation, mark;
+
+  /**
+   * Marks the index as out of date until the next update.
+   */
+  synchronized void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Determines if the index has been updated since the drawable list changed.
+   *
+   * @return true if valid
+   */
+  synchronized boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * Updates the index from a drawable list.
+   *
+   * @param panel
+   * @param list the drawables in drawing order
+   */
+  synchronized void update(DrawingPanel panel, ArrayList list) {
+    double w = panel.getXMax()-panel.getXMin(), h = panel.getYMax()-panel.getYMin();
+    if(!(w>0)||!(h>0)||Double.isInfinite(w)||Double.isInfinite(h)) {
+      valid = false;
+      return;
+    }
+    if((cellWidth==0)||(w>2*viewWidth)||(2*w<viewWidth)||(h>2*viewHeight)||(2*h<viewHeight)) {
+      layout(panel.getXMin(), panel.getYMin(), w, h); // the scale has changed
+    }
+    generation++;
+    int count = 0;
+    for(int i = 0, n = list.size();i<n;i++) {
+      Object obj = list.get(i);
+      if(!(obj instanceof Interactive)) {
+        continue;
+      }
+      Entry entry = (Entry) entries.get(obj);
+      if(entry==null) {
+        entry = new Entry((Interactive) obj);
+        entries.put(obj, entry);
+      }
+      entry.z = i;
+      entry.generation = generation;
+      place(entry);
+      count++;
+    }
+    if(entries.size()>count) { // remove the objects that are no longer drawn
+      Iterator it = entries.values().iterator();
+      while(it.hasNext()) {
+        Entry entry = (Entry) it.next();
+        if(entry.generation!=generation) {
+          remove(entry);
+          it.remove();
+        }
+      }
+    }
+    valid = true;
+  }
+
+  /**
+   * Updates the position of an object that has moved.
+   *
+   * @param panel
+   * @param interactive
+   */
+  synchronized void update(DrawingPanel panel, Interactive interactive) {
+    Entry entry = (Entry) entries.get(interactive);
+    if((entry!=null)&&(cellWidth>0)) {
+      place(entry);
+    }
+  }
+
+  /**
+   * Gets the objects whose indexed bounds, padded by the given number of pixels, intersect
+   * a rectangle.  The objects are ordered from the top of the drawing to the bottom.
+   *
+   * @param panel
+   * @param xmin
+   * @param xmax
+   * @param ymin
+   * @param ymax
+   * @param tolerance the padding in pixels
+   * @return the candidates
+   */
+  synchronized ArrayList getCandidates(DrawingPanel panel, double xmin, double xmax, double ymin, double ymax, int tolerance) {
+    double dx = (tolerance+maxPad)/Math.abs(panel.getXPixPerUnit());
+    double dy = (tolerance+maxPad)/Math.abs(panel.getYPixPerUnit());
+    xmin -= dx;
+    xmax += dx;
+    ymin -= dy;
+    ymax += dy;
+    mark++;
+    ArrayList result = new ArrayList();
+    for(int i = 0, n = unbounded.size();i<n;i++) {
+      result.add(unbounded.get(i));
+    }
+    int ix0 = cellX(xmin), ix1 = cellX(xmax), iy0 = cellY(ymin), iy1 = cellY(ymax);
+    if((ix1-ix0+1L)*(iy1-iy0+1L)>cells.size()) { // visit the occupied cells
+      Iterator it = cells.values().iterator();
+      while(it.hasNext()) {
+        addCandidates((ArrayList) it.next(), result, xmin, xmax, ymin, ymax);
+      }
+    } else {
+      for(int ix = ix0;ix<=ix1;ix++) {
+        for(int iy = iy0;iy<=iy1;iy++) {
+          ArrayList cell = (ArrayList) cells.get(new Long(key(ix, iy)));
+          if(cell!=null) {
+            addCandidates(cell, result, xmin, xmax, ymin, ymax);
+          }
+        }
+      }
+    }
+    Collections.sort(result, TOP_DOWN);
+    for(int i = 0, n = result.size();i<n;i++) {
+      result.set(i, ((Entry) result.get(i)).interactive);
+    }
+    return result;
+  }
+
+  private void addCandidates(ArrayList cell, ArrayList result, double xmin, double xmax, double ymin, double ymax) {
+    for(int i = 0, n = cell.size();i<n;i++) {
+      Entry entry = (Entry) cell.get(i);
+      if(entry.mark==mark) {
+        continue; // already added from another cell
+      }
+      entry.mark = mark;
+      if((entry.xmin<=xmax)&&(entry.xmax>=xmin)&&(entry.ymin<=ymax)&&(entry.ymax>=ymin)) {
+        result.add(entry);
+      }
+    }
+  }
+
+  /**
+   * Sets the grid geometry and places all entries again.
+   */
+  private void layout(double xmin, double ymin, double w, double h) {
+    cells.clear();
+    unbounded.clear();
+    Iterator it = entries.values().iterator();
+    while(it.hasNext()) {
+      ((Entry) it.next()).placed = false;
+    }
+    x0 = xmin;
+    y0 = ymin;
+    viewWidth = w;
+    viewHeight = h;
+    cellWidth = w/GRID_SIZE;
+    cellHeight = h/GRID_SIZE;
+    maxPad = 0;
+  }
+
+  /**
+   * Computes the bounds of an entry and moves it to the corresponding cells.
+   */
+  private void place(Entry entry) {
+    Interactive ia = entry.interactive;
+    boolean bounded = true;
+    int pad = 0;
+    try {
+      if(ia instanceof Selectable) {
+        bounded = false; // a selected object may respond anywhere
+      } else if(ia.getClass()==InteractiveCircle.class) {
+        entry.xmin = entry.xmax = ia.getX();
+        entry.ymin = entry.ymax = ia.getY();
+        pad = ((InteractiveCircle) ia).pixRadius;
+      } else if(ia instanceof InteractiveShape) {
+        entry.xmin = ia.getXMin();
+        entry.xmax = ia.getXMax();
+        entry.ymin = ia.getYMin();
+        entry.ymax = ia.getYMax();
+      } else {
+        bounded = false;
+      }
+    } catch(RuntimeException ex) {
+      bounded = false;
+    }
+    if(bounded&&!(entry.xmin<=entry.xmax&&entry.ymin<=entry.ymax)) {
+      bounded = false; // NaN bounds
+    }
+    int ix0 = 0, ix1 = 0, iy0 = 0, iy1 = 0;
+    if(bounded) {
+      ix0 = cellX(entry.xmin);
+      ix1 = cellX(entry.xmax);
+      iy0 = cellY(entry.ymin);
+      iy1 = cellY(entry.ymax);
+      bounded = (ix1-ix0+1L)*(iy1-iy0+1L)<=MAX_CELLS;
+    }
+    if(entry.placed&&(entry.bounded==bounded)
+       &&(!bounded||((ix0==entry.ix0)&&(ix1==entry.ix1)&&(iy0==entry.iy0)&&(iy1==entry.iy1)))) {
+      return; // the object is still in the same cells
+    }
+    remove(entry);
+    entry.bounded = bounded;
+    entry.placed = true;
+    if(!bounded) {
+      unbounded.add(entry);
+      return;
+    }
+    maxPad = Math.max(maxPad, pad);
+    entry.ix0 = ix0;
+    entry.ix1 = ix1;
+    entry.iy0 = iy0;
+    entry.iy1 = iy1;
+    for(int ix = ix0;ix<=ix1;ix++) {
+      for(int iy = iy0;iy<=iy1;iy++) {
+        Long key = new Long(key(ix, iy));
+        ArrayList cell = (ArrayList) cells.get(key);
+        if(cell==null) {
+          cell = new ArrayList(4);
+          cells.put(key, cell);
+        }
+        cell.add(entry);
+      }
+    }
+  }
+
+  private void remove(Entry entry) {
+    if(!entry.placed) {
+      return;
+    }
+    entry.placed = false;
+    if(!entry.bounded) {
+      unbounded.remove(entry);
+      return;
+    }
+    for(int ix = entry.ix0;ix<=entry.ix1;ix++) {
+      for(int iy = entry.iy0;iy<=entry.iy1;iy++) {
+        Long key = new Long(key(ix, iy));
+        ArrayList cell = (ArrayList) cells.get(key);
+        if(cell!=null) {
+          cell.remove(entry);
+          if(cell.isEmpty()) {
+            cells.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  private int cellX(double x) {
+    return clamp(Math.floor((x-x0)/cellWidth));
+  }
+
+  private int cellY(double y) {
+    return clamp(Math.floor((y-y0)/cellHeight));
+  }
+
+  private static int clamp(double i) {
+    return(int) Math.max(-(1<<30), Math.min(1<<30, i));
+  }
+
+  private static long key(int ix, int iy) {
+    return(((long) ix)<<32)|(iy&0xffffffffL);
+  }
+
+  /**
+   * The index entry for an Interactive object.
+   */
+  static class Entry {
+    Interactive interactive;
+    int z;                  // position in the drawable list
+    double xmin, xmax, ymin, ymax;
+    int ix0, ix1, iy0, iy1; // cells covered by the bounds
+    boolean placed, bounded;
+    int generation, mark;
+
+    Entry(Interactive interactive) {
+      this.interactive = interactive;
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -7,7 +7,9 @@
 
 package org.opensourcephysics.display;
 import java.awt.Cursor;
+import java.awt.Graphics;
 import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 
@@ -32,6 +34,8 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
   protected InteractiveMouseHandler interactive = null;
   private Interactive iaDraggable = null; // interactive object that is being dragged
   private Selectable iaSelectable = null; // interactive object that has been selected
+  private InteractiveIndex spatialIndex = null; // grid of interactive objects; null if not enabled
+  private int indexTolerance = 4;               // pixel tolerance for index queries
 
   /**
    * Constructs an InteractivePanel with the given handler.
@@ -65,6 +69,50 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
     if(drawable instanceof Interactive) {
       containsInteractive = true;
     }
+    invalidateSpatialIndex();
+  }
+
+  /**
+   * Replaces a drawable object with another drawable.
+   *
+   * @param oldDrawable Drawable
+   * @param newDrawable Drawable
+   */
+  public synchronized void replaceDrawable(Drawable oldDrawable, Drawable newDrawable) {
+    super.replaceDrawable(oldDrawable, newDrawable);
+    if(newDrawable instanceof Interactive) {
+      containsInteractive = true;
+    }
+    invalidateSpatialIndex();
+  }
+
+  /**
+   * Removes a drawable object from the drawable list.
+   * @param drawable
+   */
+  public synchronized void removeDrawable(Drawable drawable) {
+    super.removeDrawable(drawable);
+    invalidateSpatialIndex();
+  }
+
+  /**
+   * Removes all objects of the given class from the drawable list.
+   *
+   * @param c the class
+   */
+  public synchronized void removeObjectsOfClass(Class c) {
+    super.removeObjectsOfClass(c);
+    invalidateSpatialIndex();
+  }
+
+  /**
+   * Removes all objects assignable to the given class from the drawable list.
+   *
+   * @param c the class
+   */
+  public synchronized void removeDrawables(Class c) {
+    super.removeDrawables(c);
+    invalidateSpatialIndex();
   }
 
   /**
@@ -73,6 +121,64 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
   public synchronized void clear() {
     super.clear();
     containsInteractive = false;
+    invalidateSpatialIndex();
+  }
+
+  /**
+   * Enables a spatial index that speeds up the search for the interactive object under the mouse.
+   *
+   * The index is a grid that is updated whenever the panel is painted.  Interactive circles are
+   * indexed by their centers and interactive shapes by their bounds; other interactive objects
+   * are tested for every mouse event.  Use the index in panels that contain many interactive
+   * circles or shapes.
+   *
+   * @param enable
+   */
+  public synchronized void enableSpatialIndex(boolean enable) {
+    if(enable==(spatialIndex!=null)) {
+      return;
+    }
+    spatialIndex = enable ? new InteractiveIndex() : null;
+    validImage = false;
+  }
+
+  /**
+   * Determines if the spatial index is enabled.
+   *
+   * @return true if enabled
+   */
+  public boolean isSpatialIndexEnabled() {
+    return spatialIndex!=null;
+  }
+
+  /**
+   * Sets the distance in pixels between the indexed position of an interactive object and the
+   * farthest point at which the object responds to the mouse.  The default is 4 pixels.
+   *
+   * @param pixels
+   */
+  public void setSpatialIndexTolerance(int pixels) {
+    indexTolerance = Math.max(0, pixels);
+  }
+
+  private void invalidateSpatialIndex() {
+    InteractiveIndex index = spatialIndex;
+    if(index!=null) {
+      index.invalidate();
+    }
+  }
+
+  /**
+   * Paints all the drawable objects in the panel and updates the spatial index.
+   * @param g
+   * @param tempList
+   */
+  protected void paintDrawableList(Graphics g, ArrayList tempList) {
+    InteractiveIndex index = spatialIndex;
+    if(index!=null) {
+      index.update(this, tempList);
+    }
+    super.paintDrawableList(g, tempList);
   }
 
   /**
@@ -159,6 +265,9 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
         y = panel.pixToY(panel.getHeight()-1-bottomGutter);
       }
       iaDraggable.setXY(x, y); // drag the interactive object
+      if(spatialIndex!=null) {
+        spatialIndex.update(this, iaDraggable);
+      }
       validImage = false;
       if(!getIgnoreRepaint()) {
         panel.repaint();      // repaint to keep the screen up to date
@@ -195,6 +304,19 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
       Interactive iad = ((Interactive) iaSelectable).findInteractive(this, mouseEvent.getX(), mouseEvent.getY());
       return iad;
     }
+    InteractiveIndex index = spatialIndex;
+    if((index!=null)&&index.isValid()) {
+      int xpix = mouseEvent.getX(), ypix = mouseEvent.getY();
+      double x = pixToX(xpix), y = pixToY(ypix);
+      ArrayList list = index.getCandidates(this, x, x, y, y, indexTolerance);
+      for(int i = 0, n = list.size();i<n;i++) {
+        Interactive iad = ((Interactive) list.get(i)).findInteractive(this, xpix, ypix);
+        if(iad!=null) {
+          return iad;
+        }
+      }
+      return null;
+    }
     Object[] array = drawableList.toArray();
     for(int i = array.length-1;i>=0;i--) {
       Object obj = array[i];
@@ -208,6 +330,46 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
     return null;
   }
 
+  /**
+   * Gets the interactive objects whose positions or bounds are within a rectangle in world
+   * coordinates, such as the rectangle reported by the zoom box.  Objects are ordered from
+   * the top of the drawing to the bottom.  The bounds of measured objects and the positions
+   * of other objects are compared to the rectangle.
+   *
+   * @param rect the rectangle
+   * @return the list of Interactive objects
+   */
+  public ArrayList getInteractives(Rectangle2D rect) {
+    double xmin = Math.min(rect.getMinX(), rect.getMaxX()), xmax = Math.max(rect.getMinX(), rect.getMaxX());
+    double ymin = Math.min(rect.getMinY(), rect.getMaxY()), ymax = Math.max(rect.getMinY(), rect.getMaxY());
+    Object[] array;
+    InteractiveIndex index = spatialIndex;
+    if((index!=null)&&index.isValid()) {
+      ArrayList candidates = index.getCandidates(this, xmin, xmax, ymin, ymax, 0);
+      array = new Object[candidates.size()];
+      for(int i = 0;i<array.length;i++) { // bottom to top
+        array[i] = candidates.get(array.length-1-i);
+      }
+    } else {
+      array = drawableList.toArray();
+    }
+    ArrayList list = new ArrayList();
+    for(int i = array.length-1;i>=0;i--) {
+      if(!(array[i] instanceof Interactive)) {
+        continue;
+      }
+      Interactive ia = (Interactive) array[i];
+      if(ia.isMeasured()) {
+        if((ia.getXMin()<=xmax)&&(ia.getXMax()>=xmin)&&(ia.getYMin()<=ymax)&&(ia.getYMax()>=ymin)) {
+          list.add(ia);
+        }
+      } else if((ia.getX()>=xmin)&&(ia.getX()<=xmax)&&(ia.getY()>=ymin)&&(ia.getY()<=ymax)) {
+        list.add(ia);
+      }
+    }
+    return list;
+  }
+
   /**
    * Shows the coordinates in the text box in the lower left hand corner.
    *
@@ -0,0 +1,686 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.Graphics;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * MappedDataset stores its data in memory-mapped files so that the number of points is not limited by the heap.
+ *
+ * The x and y values are stored in files that are mapped in chunks of 2^20 points.  Appending a point writes
+ * the point into the current chunk; the data is never copied.  The data is summarized by levels of blocks
+ * containing 64, 4096, 262144, and 16777216 points.  Every block stores its first, minimum, maximum,
+ * and last points.  The visible part of the data is drawn from the coarsest level that has at least
+ * BLOCKS_PER_PIXEL blocks in every pixel column so that at most a few thousand points are drawn per column
+ * and the cost of drawing does not depend on the number of points.
+ * The drawn lines are the same as the lines through all the points except near blocks that
+ * cross the boundary between pixel columns.
+ *
+ * The data cannot be sorted, error bars are not supported, and the maximum number of points is ignored.
+ * Methods that return copies of the data, such as getXPoints, allocate arrays that hold every point and should
+ * not be used with large datasets.
+ * The getXChunk and getYChunk methods return views of the mapped files without copying the data.
+ * The files are deleted when the dataset is closed or when the program exits.
+ *
+ * @version 1.0
+ */
+public class MappedDataset extends Dataset {
+  private static final long serialVersionUID = 1L;
+  /** The minimum number of summary blocks in a pixel column. */
+  public static final int BLOCKS_PER_PIXEL = 4;
+  static final int CHUNK_SHIFT = 20;       // points per chunk of the data files
+  static final int LEVEL_CHUNK_SHIFT = 16; // points per chunk of the summary files
+  static final int LEVEL_SHIFT = 6;        // every level has blocks that are 64 times larger
+  static final int LEVELS = 4;
+  File directory;
+  Column xcol, ycol;
+  Column[] xlevel = new Column[LEVELS], ylevel = new Column[LEVELS];
+  // the minimum and maximum of the current block at every level
+  int[] minIndex = new int[LEVELS], maxIndex = new int[LEVELS];
+  double[] minX = new double[LEVELS], minY = new double[LEVELS], maxX = new double[LEVELS], maxY = new double[LEVELS];
+  boolean[] blockValid = new boolean[LEVELS];
+  boolean increasing = true;
+  Dataset window; // draws the points that are copied from the files
+
+  /**
+   * Constructs a MappedDataset whose files are in the default temporary-file directory.
+   */
+  public MappedDataset() {
+    this(null);
+  }
+
+  /**
+   * Constructs a MappedDataset whose files are in the given directory.
+   *
+   * @param directory the directory; null for the default temporary-file directory
+   */
+  public MappedDataset(File directory) {
+    super();
+    this.directory = directory;
+    xcol = new Column(CHUNK_SHIFT);
+    ycol = new Column(CHUNK_SHIFT);
+    for(int level = 0;level<LEVELS;level++) {
+      xlevel[level] = new Column(LEVEL_CHUNK_SHIFT);
+      ylevel[level] = new Column(LEVEL_CHUNK_SHIFT);
+    }
+  }
+
+  /**
+   * Appends an (x,y) datum to the Dataset. A y value of Double.NaN
+   * is treated as null in plots and tables.
+   *
+   * @param  x
+   * @param  y
+   */
+  public synchronized void append(double x, double y) {
+    if(Double.isNaN(x)||Double.isInfinite(x)||Double.isInfinite(y)) {
+      return;
+    }
+    if(index==Integer.MAX_VALUE) {
+      return; // the dataset is full
+    }
+    int i = index;
+    xcol.put(i, x);
+    ycol.put(i, y);
+    if((i>0)&&(x<xcol.get(i-1))) {
+      increasing = false;
+    }
+    for(int level = 0;level<LEVELS;level++) {
+      summarize(level, i, x, y);
+    }
+    if(!Double.isNaN(y)) {
+      ymax = Math.max(y, ymax);
+      ymin = Math.min(y, ymin);
+    }
+    xmax = Math.max(x, xmax);
+    xmin = Math.min(x, xmin);
+    index++;
+    version++;
+    fireMeasureChanged();
+  }
+
+  /**
+   *  Appends a data point to the Dataset.  Error bars are not supported so the uncertainty is ignored.
+   *
+   * @param  x
+   * @param  y
+   * @param  delx
+   * @param  dely
+   */
+  public void append(double x, double y, double delx, double dely) {
+    append(x, y);
+  }
+
+  /**
+   *  Appends arrays of data points to the Dataset.  Error bars are not supported so the uncertainties are ignored.
+   *
+   * @param  xpoints
+   * @param  ypoints
+   * @param  delx
+   * @param  dely
+   */
+  public void append(double[] xpoints, double[] ypoints, double[] delx, double[] dely) {
+    append(xpoints, ypoints);
+  }
+
+  /**
+   * Appends (x,y) arrays to the Dataset. Any y value of Double.NaN
+   * is treated as null in plots and tables.
+   *
+   * @param  _xpoints
+   * @param  _ypoints
+   */
+  public synchronized void append(double[] _xpoints, double[] _ypoints) {
+    for(int i = 0;i<_xpoints.length;i++) {
+      append(_xpoints[i], _ypoints[i]);
+    }
+  }
+
+  /**
+   *  Clears all data from this Dataset.  The files are kept and are overwritten by new data.
+   */
+  public synchronized void clear() {
+    super.clear();
+    increasing = true;
+  }
+
+  /**
+   * Closes and deletes the files.  The dataset is cleared and may be used again.
+   */
+  public synchronized void close() {
+    clear();
+    xcol.close();
+    ycol.close();
+    for(int level = 0;level<LEVELS;level++) {
+      xlevel[level].close();
+      ylevel[level].close();
+    }
+  }
+
+  /**
+   * Ignored because a MappedDataset is never sorted.
+   *
+   * @param _sorted
+   */
+  public void setSorted(boolean _sorted) {}
+
+  /**
+   * Ignored because a MappedDataset does not use a ring buffer.
+   *
+   * @param ring
+   */
+  public void setRingBuffer(boolean ring) {}
+
+  /**
+   * Gets the x value of a point.
+   *
+   * @param i the index of the point
+   * @return the x value
+   */
+  public synchronized double getX(int i) {
+    return xcol.get(i);
+  }
+
+  /**
+   * Gets the y value of a point.
+   *
+   * @param i the index of the point
+   * @return the y value
+   */
+  public synchronized double getY(int i) {
+    return ycol.get(i);
+  }
+
+  /**
+   *  Gets a copy of the xpoints array.
+   *
+   * @return xpoints[]
+   */
+  public synchronized double[] getXPoints() {
+    double[] temp = new double[index];
+    xcol.read(0, temp, 0, index);
+    return temp;
+  }
+
+  /**
+   *  Gets a copy of the ypoints array.
+   *
+   * @return    ypoints[]
+   */
+  public synchronized double[] getYPoints() {
+    double[] temp = new double[index];
+    ycol.read(0, temp, 0, index);
+    return temp;
+  }
+
+  /**
+   * Gets a data array containing both x and y values.
+   *
+   * @return a double[index][2] array of data
+   */
+  public synchronized double[][] getPoints() {
+    double[][] temp = new double[index][2];
+    for(int i = 0;i<index;i++) {
+      temp[i][0] = xcol.get(i);
+      temp[i][1] = ycol.get(i);
+    }
+    return temp;
+  }
+
+  /**
+   * Gets an array of valid xpoints.
+   *
+   * @return valid xpoints[]
+   */
+  public synchronized double[] getValidXPoints() {
+    return getValidPoints(xcol);
+  }
+
+  /**
+   * Gets an array of valid ypoints.
+   *
+   * @return valid ypoints[]
+   */
+  public synchronized double[] getValidYPoints() {
+    return getValidPoints(ycol);
+  }
+
+  /**
+   * Gets a read-only view of the x values without copying them.
+   *
+   * A single view is only available if every point is stored in the first chunk.  Use getXChunk to
+   * access larger datasets.
+   *
+   * @return the x values
+   * @throws UnsupportedOperationException if the points are stored in more than one chunk
+   */
+  public synchronized DoubleBuffer getXBuffer() {
+    if(getChunkCount()>1) {
+      throw new UnsupportedOperationException("The x values are stored in "+getChunkCount()+" chunks.");
+    }
+    return getXChunk(0);
+  }
+
+  /**
+   * Gets a read-only view of the y values without copying them.
+   *
+   * @return the y values
+   * @throws UnsupportedOperationException if the points are stored in more than one chunk
+   * @see #getXBuffer()
+   */
+  public synchronized DoubleBuffer getYBuffer() {
+    if(getChunkCount()>1) {
+      throw new UnsupportedOperationException("The y values are stored in "+getChunkCount()+" chunks.");
+    }
+    return getYChunk(0);
+  }
+
+  /**
+   * Gets the number of chunks that store the points.  Every chunk except the last holds getChunkSize points.
+   *
+   * @return the number of chunks
+   */
+  public synchronized int getChunkCount() {
+    return(int) (((long) index+(1<<CHUNK_SHIFT)-1)>>CHUNK_SHIFT);
+  }
+
+  /**
+   * Gets the number of points in a full chunk.
+   *
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return 1<<CHUNK_SHIFT;
+  }
+
+  /**
+   * Gets a read-only view of the x values in a chunk of the mapped file.
+   *
+   * The view starts at point c*getChunkSize() and its limit is the number of points in the chunk.
+   * The view is valid until the dataset is cleared or closed.
+   *
+   * @param c the chunk
+   * @return the x values
+   */
+  public synchronized DoubleBuffer getXChunk(int c) {
+    return getChunk(xcol, c);
+  }
+
+  /**
+   * Gets a read-only view of the y values in a chunk of the mapped file.
+   *
+   * @param c the chunk
+   * @return the y values
+   * @see #getXChunk(int)
+   */
+  public synchronized DoubleBuffer getYChunk(int c) {
+    return getChunk(ycol, c);
+  }
+
+  private DoubleBuffer getChunk(Column col, int c) {
+    int n = Math.min(index-(c<<CHUNK_SHIFT), 1<<CHUNK_SHIFT);
+    if(n<=0) {
+      return DoubleBuffer.allocate(0).asReadOnlyBuffer();
+    }
+    DoubleBuffer buffer = col.chunk(c).duplicate();
+    buffer.clear();
+    buffer.limit(n);
+    return buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   *  Gets an x or y value for rendering in a JTable.
+   *
+   * @param  rowIndex
+   * @param  columnIndex
+   * @return              the datum
+   */
+  public synchronized Object getValueAt(int rowIndex, int columnIndex) {
+    columnIndex = Dataset.convertTableColumnIndex(new boolean[] {isXColumnVisible(), isYColumnVisible()}, columnIndex);
+    rowIndex = rowIndex*getStride();
+    if(columnIndex==0) {
+      return Double.valueOf(xcol.get(rowIndex));
+    }
+    double y = ycol.get(rowIndex);
+    if(Double.isNaN(y)) {
+      return null;
+    }
+    return Double.valueOf(y);
+  }
+
+  /**
+   *  Gets a path through the data.  The path is built from the coarsest summary of the data.
+   *
+   * @return the path
+   */
+  public synchronized java.awt.geom.GeneralPath getGeneralPath() {
+    loadWindow(0, index, LEVELS-1);
+    return(java.awt.geom.GeneralPath) window.getGeneralPath().clone();
+  }
+
+  /**
+   *  Draws the visible part of this Dataset in the drawing panel.
+   *
+   * @param  drawingPanel
+   * @param  g
+   */
+  public synchronized void draw(DrawingPanel drawingPanel, Graphics g) {
+    if(!visible||(index==0)) {
+      return;
+    }
+    int lo = 0, hi = index;
+    if(increasing) { // find the visible points and one point on either side
+      double x0 = drawingPanel.pixToX(0), x1 = drawingPanel.pixToX(drawingPanel.getWidth());
+      lo = Math.max(0, search(Math.min(x0, x1))-1);
+      hi = Math.min(index, search(Math.max(x0, x1))+1);
+    }
+    int level = -1;
+    long perPixel = (hi-lo)/Math.max(1, drawingPanel.getWidth()*BLOCKS_PER_PIXEL);
+    while((level<LEVELS-1)&&((1L<<(LEVEL_SHIFT*(level+2)))<=perPixel)) {
+      level++;
+    }
+    loadWindow(lo, hi, level);
+    window.draw(drawingPanel, g);
+  }
+
+  /**
+   *  Writes data from this Dataset to a file.
+   *
+   * @param outputFile
+   */
+  public synchronized void write(String outputFile) {
+    try {
+      java.io.PrintWriter writer = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.FileWriter(outputFile)));
+      for(int i = 0;i<index;i++) {
+        writer.println(xcol.get(i)+"\t"+ycol.get(i));
+      }
+      writer.close();
+    } catch(IOException ioe) {
+      System.err.println("Error writing file "+outputFile);
+    }
+  }
+
+  /**
+   *  Creates a string representation of the data.
+   *
+   * @return    the data
+   */
+  public synchronized String toString() {
+    if(index==0) {
+      return "No data in dataset.";
+    }
+    StringBuffer b = new StringBuffer();
+    for(int i = 0;i<index;i++) {
+      b.append(xcol.get(i));
+      b.append(" ");
+      double y = ycol.get(i);
+      b.append(Double.isNaN(y) ? "null" : String.valueOf(y));
+      b.append("\n");
+    }
+    return b.toString();
+  }
+
+  /**
+   * Gets the number of points in a range at a summary level; level -1 is the data.
+   */
+  private long levelPoints(int level, int lo, int hi) {
+    if(level<0) {
+      return hi-lo;
+    }
+    int shift = LEVEL_SHIFT*(level+1);
+    return 4L*(((hi-1)>>shift)-(lo>>shift)+1);
+  }
+
+  /**
+   * Copies the points in the given range at a summary level into the window dataset and copies
+   * the drawing attributes of this dataset.  The fields of this dataset are not changed.
+   */
+  private void loadWindow(int lo, int hi, int level) {
+    int first = lo, n = hi-lo;
+    Column xc = xcol, yc = ycol;
+    if((level>=0)&&(hi>lo)) {
+      int shift = LEVEL_SHIFT*(level+1);
+      first = 4*(lo>>shift);
+      n = (int) levelPoints(level, lo, hi);
+      xc = xlevel[level];
+      yc = ylevel[level];
+    }
+    n = Math.max(n, 0);
+    if(window==null) {
+      window = new Dataset();
+    }
+    if(window.xpoints.length<n) {
+      window.xpoints = new double[n];
+      window.ypoints = new double[n];
+    }
+    xc.read(first, window.xpoints, 0, n);
+    yc.read(first, window.ypoints, 0, n);
+    window.index = n;
+    window.invalidateDecimator(); // the window has changed
+    window.setMarkerShape(getMarkerShape());
+    window.setMarkerSize(getMarkerSize());
+    window.setMarkerColor(getFillColor(), getEdgeColor());
+    window.setLineColor(getLineColor());
+    window.setConnected(isConnected());
+    window.customMarker = customMarker;
+  }
+
+  /**
+   * Finds the first point whose x value is greater than or equal to the given value.
+   */
+  private int search(double value) {
+    int lo = 0, hi = index;
+    while(lo<hi) {
+      int mid = (lo+hi)>>>1;
+      if(xcol.get(mid)<value) {
+        lo = mid+1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Adds a point to the block that contains it at the given level.
+   * The block is stored as its first, minimum, maximum, and last points in index order.
+   */
+  private void summarize(int level, int i, double x, double y) {
+    int shift = LEVEL_SHIFT*(level+1);
+    int e = 4*(i>>shift);
+    Column xc = xlevel[level], yc = ylevel[level];
+    if((i&((1<<shift)-1))==0) {
+      blockValid[level] = false;
+    }
+    if(Double.isNaN(y)) {
+      if(!blockValid[level]) { // no valid points so far
+        for(int k = 0;k<4;k++) {
+          xc.put(e+k, x);
+          yc.put(e+k, y);
+        }
+      }
+      return;
+    }
+    if(!blockValid[level]) {
+      blockValid[level] = true;
+      minIndex[level] = maxIndex[level] = i;
+      minX[level] = maxX[level] = x;
+      minY[level] = maxY[level] = y;
+      for(int k = 0;k<4;k++) {
+        xc.put(e+k, x);
+        yc.put(e+k, y);
+      }
+      return;
+    }
+    boolean changed = false;
+    if(y<minY[level]) {
+      minIndex[level] = i;
+      minX[level] = x;
+      minY[level] = y;
+      changed = true;
+    }
+    if(y>maxY[level]) {
+      maxIndex[level] = i;
+      maxX[level] = x;
+      maxY[level] = y;
+      changed = true;
+    }
+    if(changed) {
+      boolean minFirst = minIndex[level]<maxIndex[level];
+      xc.put(e+1, minFirst ? minX[level] : maxX[level]);
+      yc.put(e+1, minFirst ? minY[level] : maxY[level]);
+      xc.put(e+2, minFirst ? maxX[level] : minX[level]);
+      yc.put(e+2, minFirst ? maxY[level] : minY[level]);
+    }
+    xc.put(e+3, x);
+    yc.put(e+3, y);
+  }
+
+  private double[] getValidPoints(Column col) {
+    int valid = 0;
+    for(int i = 0;i<index;i++) {
+      if(!Double.isNaN(ycol.get(i))) {
+        valid++;
+      }
+    }
+    double[] temp = new double[valid];
+    for(int i = 0, j = 0;i<index;i++) {
+      if(!Double.isNaN(ycol.get(i))) {
+        temp[j++] = col.get(i);
+      }
+    }
+    return temp;
+  }
+
+  /**
+   * A column of doubles stored in a file that is mapped into memory in chunks.
+   */
+  class Column {
+    int shift, mask;
+    File file;
+    RandomAccessFile raf;
+    FileChannel channel;
+    ArrayList chunks = new ArrayList();
+    DoubleBuffer last;
+    int lastChunk = -1;
+
+    Column(int shift) {
+      this.shift = shift;
+      mask = (1<<shift)-1;
+    }
+
+    double get(int i) {
+      return chunk(i>>shift).get(i&mask);
+    }
+
+    void put(int i, double value) {
+      chunk(i>>shift).put(i&mask, value);
+    }
+
+    /**
+     * Copies values from the column into an array.
+     */
+    void read(int from, double[] dest, int offset, int n) {
+      while(n>0) {
+        int c = from>>shift, start = from&mask;
+        int len = Math.min(n, mask+1-start);
+        DoubleBuffer buffer = chunk(c).duplicate();
+        buffer.position(start);
+        buffer.get(dest, offset, len);
+        from += len;
+        offset += len;
+        n -= len;
+      }
+    }
+
+    /**
+     * Gets a chunk, mapping new chunks as needed.
+     */
+    DoubleBuffer chunk(int c) {
+      if(c==lastChunk) {
+        return last;
+      }
+      try {
+        if(channel==null) {
+          file = File.createTempFile("dataset", ".dat", directory);
+          file.deleteOnExit();
+          raf = new RandomAccessFile(file, "rw");
+          channel = raf.getChannel();
+        }
+        while(c>=chunks.size()) {
+          long size = 8L<<shift;
+          chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size()*size, size).order(ByteOrder.nativeOrder()).asDoubleBuffer());
+        }
+      } catch(IOException ex) {
+        throw new RuntimeException("Dataset file cannot be mapped: "+ex.getMessage());
+      }
+      last = (DoubleBuffer) chunks.get(c);
+      lastChunk = c;
+      return last;
+    }
+
+    void close() {
+      chunks.clear();
+      last = null;
+      lastChunk = -1;
+      try {
+        if(channel!=null) {
+          channel.close();
+          raf.close();
+        }
+      } catch(IOException ex) {}
+      if(file!=null) {
+        file.delete();
+      }
+      channel = null;
+      raf = null;
+      file = null;
+    }
+
+  }
+
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   * Points are reported whenever they are appended or cleared.
+   *
+   * @return true if this is a MappedDataset rather than a subclass
+   */
+  public boolean isMeasureNotifying() {
+    return getClass()==MappedDataset.class;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
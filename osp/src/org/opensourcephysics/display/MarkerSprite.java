@@ -0,0 +1,191 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MarkerSprite is a marker that has been rasterized into a small image.
+ *
+ * Drawing the image at an integer pixel location produces the same pixels as filling and
+ * outlining the marker shape but avoids rasterizing the shape for every data point.
+ * Sprites are cached by shape, color, and rendering hints.  A sprite should only be used
+ * if the canStamp method returns true; vector graphics, such as EPS output, and transformed
+ * graphics should draw the marker shape.
+ *
+ * @version 1.0
+ */
+public class MarkerSprite {
+  static final int MAX_SPRITES = 64;
+  static final int PAD = 2; // pixels around the shape bounds for the outline and antialiasing
+  static final BasicStroke DEFAULT_STROKE = new BasicStroke();
+  private static Map cache = new LinkedHashMap(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+      return size()>MAX_SPRITES;
+    }
+
+  };
+  BufferedImage image;
+  int left, top, extent;
+
+  private MarkerSprite(Shape shape, Color fill, Color edge, Graphics2D g2) {
+    Rectangle bounds = shape.getBounds();
+    left = bounds.x-PAD;
+    top = bounds.y-PAD;
+    int right = bounds.x+bounds.width+PAD, bottom = bounds.y+bounds.height+PAD;
+    extent = Math.max(Math.max(-left, -top), Math.max(right, bottom));
+    image = new BufferedImage(right-left, bottom-top, BufferedImage.TYPE_INT_ARGB_PRE);
+    Graphics2D g = image.createGraphics();
+    g.setRenderingHints(g2.getRenderingHints());
+    g.translate(-left, -top);
+    if(fill!=null) {
+      g.setColor(fill);
+      g.fill(shape);
+    }
+    if(edge!=null) {
+      g.setColor(edge);
+      g.draw(shape);
+    }
+    g.dispose();
+  }
+
+  /**
+   * Determines if sprites produce the same pixels as shapes on the given graphics.
+   *
+   * Sprites are used only for image buffers drawn with an integer translation, the default
+   * stroke, and an opaque source-over composite.
+   *
+   * @param g2
+   * @return true if markers can be stamped
+   */
+  public static boolean canStamp(Graphics2D g2) {
+    GraphicsConfiguration gc = g2.getDeviceConfiguration();
+    if((gc==null)||(gc.getDevice().getType()!=GraphicsDevice.TYPE_IMAGE_BUFFER)) {
+      return false; // screens and printers, and vector graphics that report a screen device
+    }
+    AffineTransform at = g2.getTransform();
+    if((at.getType()&~AffineTransform.TYPE_TRANSLATION)!=0) {
+      return false;
+    }
+    if((at.getTranslateX()!=Math.floor(at.getTranslateX()))||(at.getTranslateY()!=Math.floor(at.getTranslateY()))) {
+      return false;
+    }
+    return DEFAULT_STROKE.equals(g2.getStroke())&&AlphaComposite.SrcOver.equals(g2.getComposite());
+  }
+
+  /**
+   * Gets the sprite for a marker shape centered on the origin.
+   *
+   * The shape key identifies the shape; markers having equal keys must have identical shapes.
+   *
+   * @param shapeKey the shape key
+   * @param shape the marker shape
+   * @param fill the fill color or null if the shape is not filled
+   * @param edge the edge color or null if the shape is not outlined
+   * @param g2 the graphics whose rendering hints are used
+   * @return the sprite
+   */
+  public static MarkerSprite getSprite(Object shapeKey, Shape shape, Color fill, Color edge, Graphics2D g2) {
+    Key key = new Key(shapeKey, fill, edge, g2);
+    synchronized(cache) {
+      MarkerSprite sprite = (MarkerSprite) cache.get(key);
+      if(sprite==null) {
+        sprite = new MarkerSprite(shape, fill, edge, g2);
+        cache.put(key, sprite);
+      }
+      return sprite;
+    }
+  }
+
+  /**
+   * Draws the sprite centered on the given pixel.
+   *
+   * @param g2
+   * @param x
+   * @param y
+   */
+  public void stamp(Graphics2D g2, int x, int y) {
+    g2.drawImage(image, x+left, y+top, null);
+  }
+
+  /**
+   * Gets the maximum distance in pixels between the center and the edge of the sprite.
+   *
+   * @return the extent
+   */
+  public int getExtent() {
+    return extent;
+  }
+
+  /**
+   * The cache key.
+   */
+  private static class Key {
+    Object shapeKey;
+    int fill, edge, flags;
+    Object antialias, strokeControl, rendering;
+
+    Key(Object shapeKey, Color fill, Color edge, Graphics2D g2) {
+      this.shapeKey = shapeKey;
+      this.fill = (fill==null) ? 0 : fill.getRGB();
+      this.edge = (edge==null) ? 0 : edge.getRGB();
+      flags = ((fill==null) ? 0 : 1)|((edge==null) ? 0 : 2);
+      antialias = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+      strokeControl = g2.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+      rendering = g2.getRenderingHint(RenderingHints.KEY_RENDERING);
+    }
+
+    public boolean equals(Object obj) {
+      if(!(obj instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) obj;
+      return shapeKey.equals(key.shapeKey)&&(fill==key.fill)&&(edge==key.edge)&&(flags==key.flags)&&(antialias==key.antialias)&&(strokeControl==key.strokeControl)&&(rendering==key.rendering);
+    }
+
+    public int hashCode() {
+      return ((shapeKey.hashCode()*31+fill)*31+edge)*31+flags;
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
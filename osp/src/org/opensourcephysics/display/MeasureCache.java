@@ -0,0 +1,274 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * MeasureCache computes the range of the Measurable objects in a list of drawables.
+ *
+ * NotifyingMeasurable objects are queried only after they report a change and their combined
+ * range is updated incrementally, so the work per update is proportional to the number of
+ * changed objects.  The combined range is recomputed only when an object that defined the
+ * boundary has shrunk.  Other measurables are queried on every update.
+ *
+ * @version 1.0
+ */
+class MeasureCache {
+  private ArrayList list;                          // the measured list
+  private Entry[] entries = new Entry[0];          // all measurables in list order
+  private Entry[] polled = new Entry[0];           // measurables that do not report changes
+  private ArrayList changed = new ArrayList();     // notifying entries that have changed; guards itself
+  private boolean rangeValid = false;              // true if the notifying range is up to date
+  private Range notifyingX = new Range(), notifyingY = new Range();
+  // the range of all measurables after the last update
+  final Range x = new Range(), y = new Range();
+
+  /**
+   * Updates the range of the measurables in the given list.
+   *
+   * The list is treated as a snapshot; it must not be changed after it has been measured.
+   *
+   * @param drawables the list
+   */
+  synchronized void update(ArrayList drawables) {
+    if(drawables!=list) {
+      setList(drawables);
+    }
+    Object[] array;
+    synchronized(changed) {
+      array = changed.toArray();
+      changed.clear();
+    }
+    for(int i = 0;i<array.length;i++) {
+      Entry entry = (Entry) array[i];
+      if(entry.queue==null) {
+        continue; // the entry has been removed
+      }
+      boolean xValid = entry.xValid, yValid = entry.yValid;
+      double xLo = entry.xLo, xHi = entry.xHi, yLo = entry.yLo, yHi = entry.yHi;
+      entry.dirty = false; // cleared first so that a change during the query is not lost
+      entry.query();
+      if(rangeValid) {
+        rangeValid = notifyingX.replace(xValid, xLo, xHi, entry.xValid, entry.xLo, entry.xHi)
+                     &&notifyingY.replace(yValid, yLo, yHi, entry.yValid, entry.yLo, entry.yHi);
+      }
+    }
+    if(!rangeValid) {
+      notifyingX.clear();
+      notifyingY.clear();
+      for(int i = 0;i<entries.length;i++) {
+        Entry entry = entries[i];
+        if(entry.notifying) {
+          notifyingX.add(entry.xValid, entry.xLo, entry.xHi);
+          notifyingY.add(entry.yValid, entry.yLo, entry.yHi);
+        }
+      }
+      rangeValid = true;
+    }
+    x.set(notifyingX);
+    y.set(notifyingY);
+    for(int i = 0;i<polled.length;i++) {
+      Entry entry = polled[i];
+      entry.query();
+      x.add(entry.xValid, entry.xLo, entry.xHi);
+      y.add(entry.yValid, entry.yLo, entry.yHi);
+    }
+  }
+
+  /**
+   * Gets the measures of the measurables in list order.  The entries are current after an update.
+   *
+   * @return the entries
+   */
+  synchronized Entry[] getEntries() {
+    return entries;
+  }
+
+  /**
+   * Creates the entries for a new list.  Entries of measurables that are still in the list are kept.
+   */
+  private void setList(ArrayList drawables) {
+    IdentityHashMap oldEntries = new IdentityHashMap();
+    for(int i = 0;i<entries.length;i++) {
+      Entry duplicate = (Entry) oldEntries.put(entries[i].measurable, entries[i]);
+      if(duplicate!=null) {
+        duplicate.dispose();
+      }
+    }
+    ArrayList newEntries = new ArrayList(), newPolled = new ArrayList();
+    for(int i = 0, n = drawables.size();i<n;i++) {
+      Object obj = drawables.get(i);
+      if(!(obj instanceof Measurable)) {
+        continue;
+      }
+      Entry entry = (Entry) oldEntries.remove(obj);
+      if(entry==null) {
+        entry = new Entry(changed, (Measurable) obj);
+      }
+      newEntries.add(entry);
+      if(!entry.notifying) {
+        newPolled.add(entry);
+      }
+    }
+    Iterator it = oldEntries.values().iterator();
+    while(it.hasNext()) { // stop listening to measurables that have been removed
+      ((Entry) it.next()).dispose();
+    }
+    list = drawables;
+    entries = (Entry[]) newEntries.toArray(new Entry[newEntries.size()]);
+    polled = (Entry[]) newPolled.toArray(new Entry[newPolled.size()]);
+    rangeValid = false;
+  }
+
+  /**
+   * A range along one axis.
+   */
+  static class Range {
+    double min, max;
+    boolean found; // true if at least one measurable has a valid range
+
+    Range() {
+      clear();
+    }
+
+    void clear() {
+      min = Double.MAX_VALUE;
+      max = -Double.MAX_VALUE;
+      found = false;
+    }
+
+    void set(Range range) {
+      min = range.min;
+      max = range.max;
+      found = range.found;
+    }
+
+    void add(boolean valid, double lo, double hi) {
+      if(valid) {
+        min = Math.min(min, lo);
+        max = Math.max(max, hi);
+        found = true;
+      }
+    }
+
+    /**
+     * Replaces the range of one object.
+     *
+     * @return false if the range must be recomputed because the old range was on the boundary
+     */
+    boolean replace(boolean oldValid, double oldLo, double oldHi, boolean valid, double lo, double hi) {
+      if(oldValid&&((oldLo<=min)||(oldHi>=max))) {
+        if(!valid||(lo>oldLo)||(hi<oldHi)) {
+          return false;
+        }
+      }
+      add(valid, lo, hi);
+      return true;
+    }
+  }
+
+  /**
+   * The cached measure of a Measurable object.
+   *
+   * The entry refers to the changed list rather than to the cache so that a measurable
+   * does not keep the other drawables of a discarded panel in memory.
+   */
+  static class Entry implements MeasureListener {
+    ArrayList queue; // the changed list; null after the entry has been removed
+    Measurable measurable;
+    boolean notifying;             // true if the measurable reports changes
+    volatile boolean dirty = true; // true if the entry is waiting in the changed list
+    boolean measured;
+    double xmin, xmax, ymin, ymax;
+    boolean xValid, yValid;        // true if the range along an axis is a number
+    double xLo, xHi, yLo, yHi;
+
+    Entry(ArrayList queue, Measurable measurable) {
+      this.queue = queue;
+      this.measurable = measurable;
+      if((measurable instanceof NotifyingMeasurable)&&((NotifyingMeasurable) measurable).isMeasureNotifying()) {
+        notifying = true;
+        synchronized(queue) {
+          queue.add(this);
+        }
+        ((NotifyingMeasurable) measurable).addMeasureListener(this);
+      }
+    }
+
+    public void measureChanged(Measurable measurable) {
+      if(dirty) {
+        return; // already waiting
+      }
+      ArrayList list = queue;
+      if(list!=null) {
+        dirty = true;
+        synchronized(list) {
+          list.add(this);
+        }
+      }
+    }
+
+    /**
+     * Gets the measure from the measurable.
+     */
+    void query() {
+      measured = measurable.isMeasured();
+      xValid = yValid = false;
+      if(!measured) {
+        return;
+      }
+      xmin = measurable.getXMin();
+      xmax = measurable.getXMax();
+      ymin = measurable.getYMin();
+      ymax = measurable.getYMax();
+      if(!Double.isNaN(xmin)&&!Double.isNaN(xmax)) {
+        xValid = true;
+        xLo = Math.min(xmin, xmax);
+        xHi = Math.max(xmin, xmax);
+      }
+      if(!Double.isNaN(ymin)&&!Double.isNaN(ymax)) {
+        yValid = true;
+        yLo = Math.min(ymin, ymax);
+        yHi = Math.max(ymin, ymax);
+      }
+    }
+
+    void dispose() {
+      queue = null;
+      if(notifying) {
+        ((NotifyingMeasurable) measurable).removeMeasureListener(this);
+      }
+    }
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
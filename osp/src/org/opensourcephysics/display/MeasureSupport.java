@@ -0,0 +1,86 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+
+/**
+ * MeasureSupport keeps the listeners of a NotifyingMeasurable.
+ *
+ * The listeners are stored in an array that is copied when a listener is added or removed
+ * so that notification is not synchronized and does not allocate.
+ *
+ * @version 1.0
+ */
+class MeasureSupport {
+  static final MeasureListener[] NO_LISTENERS = new MeasureListener[0];
+  private volatile MeasureListener[] listeners = NO_LISTENERS;
+
+  synchronized void add(MeasureListener listener) {
+    if(listener==null) {
+      return;
+    }
+    MeasureListener[] old = listeners;
+    for(int i = 0;i<old.length;i++) {
+      if(old[i]==listener) {
+        return;
+      }
+    }
+    MeasureListener[] array = new MeasureListener[old.length+1];
+    System.arraycopy(old, 0, array, 0, old.length);
+    array[old.length] = listener;
+    listeners = array;
+  }
+
+  synchronized void remove(MeasureListener listener) {
+    MeasureListener[] old = listeners;
+    for(int i = 0;i<old.length;i++) {
+      if(old[i]==listener) {
+        MeasureListener[] array = (old.length==1) ? NO_LISTENERS : new MeasureListener[old.length-1];
+        System.arraycopy(old, 0, array, 0, i);
+        System.arraycopy(old, i+1, array, i, old.length-i-1);
+        listeners = array;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Notifies the listeners that the measure of the given object may have changed.
+   *
+   * @param measurable
+   */
+  void fire(Measurable measurable) {
+    MeasureListener[] array = listeners;
+    for(int i = 0;i<array.length;i++) {
+      array[i].measureChanged(measurable);
+    }
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
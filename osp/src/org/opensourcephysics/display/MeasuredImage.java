@@ -25,6 +25,7 @@ public class MeasuredImage implements Measurable {
   protected BufferedImage image;
   protected double xmin, xmax, ymin, ymax;
   protected boolean visible = true;
+  protected long changeCount = 0; // incremented whenever the image, scale, or visibility changes
 
   /**
    * Constructs a MeasuredImage with a pixel scale.
@@ -62,6 +63,7 @@ public class MeasuredImage implements Measurable {
 
   public void setImage(BufferedImage _image) {
     image = _image;
+    changeCount++;
   }
 
   /**
@@ -72,6 +74,7 @@ public class MeasuredImage implements Measurable {
    */
   public void setVisible(boolean isVisible) {
     visible = isVisible;
+    changeCount++;
   }
 
   /**
@@ -128,18 +131,22 @@ public class MeasuredImage implements Measurable {
 
   public void setXMin(double _xmin) {
     xmin = _xmin;
+    changeCount++;
   }
 
   public void setXMax(double _xmax) {
     xmax = _xmax;
+    changeCount++;
   }
 
   public void setYMin(double _ymin) {
     ymin = _ymin;
+    changeCount++;
   }
 
   public void setYMax(double _ymax) {
     ymax = _ymax;
+    changeCount++;
   }
 
   public void setMinMax(double _xmin, double _xmax, double _ymin, double _ymax) {
@@ -147,6 +154,7 @@ public class MeasuredImage implements Measurable {
     xmax = _xmax;
     ymin = _ymin;
     ymax = _ymax;
+    changeCount++;
   }
 }
 
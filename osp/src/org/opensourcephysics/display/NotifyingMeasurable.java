@@ -0,0 +1,69 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+
+/**
+ * A NotifyingMeasurable tells its listeners whenever its min/max values or its measured flag change.
+ *
+ * A drawing panel queries a NotifyingMeasurable only after it has been notified so that autoscaling
+ * does work in proportion to the number of objects that have changed.  Objects that do not implement
+ * this interface, or whose isMeasureNotifying method returns false, are queried every time the panel is scaled.
+ *
+ * @version 1.0
+ */
+public interface NotifyingMeasurable extends Measurable {
+
+  /**
+   * Adds a listener that is notified when the measure changes.
+   *
+   * @param listener
+   */
+  public void addMeasureListener(MeasureListener listener);
+
+  /**
+   * Removes a measure listener.
+   *
+   * @param listener
+   */
+  public void removeMeasureListener(MeasureListener listener);
+
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   *
+   * Classes return true only if they guarantee the notification.  A subclass that changes the
+   * min/max values or overrides the min/max getters may not notify the listeners, so subclasses
+   * must opt in by overriding this method.
+   *
+   * @return true if every change is reported
+   */
+  public boolean isMeasureNotifying();
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,327 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.util.HashMap;
+
+/**
+ * ParticleSystem draws a large number of particles as filled circles.
+ *
+ * Particle positions are stored in a packed array of x and y coordinates.  Per-particle colors
+ * and pixel radii are optional.  A simulation updates the particles by swapping arrays using
+ * the setPositions, setColors, and setRadii methods; the arrays are not copied, so an array
+ * should not be modified while it is being drawn.
+ *
+ * Particles are drawn by stamping pre-rendered MarkerSprites into image buffers.  Other
+ * graphics, such as printers, draw each circle.  Particles outside the clip are skipped.
+ *
+ * @version 1.0
+ */
+public class ParticleSystem implements Drawable, Measurable {
+  protected double[] positions = new double[0]; // x0, y0, x1, y1, ...
+  protected int count = 0;                       // the number of particles
+  protected Color[] colors;                      // optional per-particle colors
+  protected int[] radii;                         // optional per-particle radii in pixels
+  protected Color color = Color.red;
+  protected int pixRadius = 6;
+  protected boolean enableMeasure = true;
+  boolean shared = false; // true if the positions array belongs to the caller
+  double xmin = Double.MAX_VALUE, xmax = -Double.MAX_VALUE, ymin = Double.MAX_VALUE, ymax = -Double.MAX_VALUE;
+
+  /**
+   * Sets the particle positions without copying the array.
+   *
+   * @param xy the packed positions x0, y0, x1, y1, ...
+   * @param n the number of particles
+   */
+  public synchronized void setPositions(double[] xy, int n) {
+    if(2*n>xy.length) {
+      throw new IllegalArgumentException("Position array is too short for "+n+" particles.");
+    }
+    positions = xy;
+    count = n;
+    shared = true;
+    computeBounds();
+  }
+
+  /**
+   * Sets the particle positions without copying the array.
+   *
+   * @param xy the packed positions x0, y0, x1, y1, ...
+   */
+  public void setPositions(double[] xy) {
+    setPositions(xy, xy.length/2);
+  }
+
+  /**
+   * Gets the packed particle positions.  Only the first 2*getParticleCount() elements are used.
+   *
+   * @return the positions
+   */
+  public synchronized double[] getPositions() {
+    return positions;
+  }
+
+  /**
+   * Sets the per-particle colors without copying the array.
+   *
+   * @param colors the colors or null to use the default color
+   */
+  public synchronized void setColors(Color[] colors) {
+    this.colors = colors;
+  }
+
+  /**
+   * Sets the per-particle radii in pixels without copying the array.
+   *
+   * @param radii the radii or null to use the default radius
+   */
+  public synchronized void setRadii(int[] radii) {
+    this.radii = radii;
+  }
+
+  /**
+   * Sets the default color.
+   *
+   * @param color
+   */
+  public void setColor(Color color) {
+    this.color = color;
+  }
+
+  /**
+   * Gets the default color.
+   *
+   * @return the color
+   */
+  public Color getColor() {
+    return color;
+  }
+
+  /**
+   * Sets the default radius in pixels.
+   *
+   * @param radius
+   */
+  public void setRadius(int radius) {
+    pixRadius = radius;
+  }
+
+  /**
+   * Gets the default radius in pixels.
+   *
+   * @return the radius
+   */
+  public int getRadius() {
+    return pixRadius;
+  }
+
+  /**
+   * Adds a particle.
+   *
+   * The position array is copied before it is enlarged or if it belongs to the caller.
+   *
+   * @param x
+   * @param y
+   */
+  public synchronized void addParticle(double x, double y) {
+    if(shared||(2*count+2>positions.length)) {
+      double[] newPositions = new double[Math.max(2*count+2, 2*positions.length)];
+      System.arraycopy(positions, 0, newPositions, 0, 2*count);
+      positions = newPositions;
+      shared = false;
+    }
+    positions[2*count] = x;
+    positions[2*count+1] = y;
+    count++;
+    xmin = Math.min(xmin, x);
+    xmax = Math.max(xmax, x);
+    ymin = Math.min(ymin, y);
+    ymax = Math.max(ymax, y);
+  }
+
+  /**
+   * Gets the number of particles.
+   *
+   * @return the number of particles
+   */
+  public synchronized int getParticleCount() {
+    return count;
+  }
+
+  /**
+   * Removes all particles.
+   */
+  public synchronized void clear() {
+    positions = new double[0];
+    count = 0;
+    shared = false;
+    xmin = Double.MAX_VALUE;
+    xmax = -Double.MAX_VALUE;
+    ymin = Double.MAX_VALUE;
+    ymax = -Double.MAX_VALUE;
+  }
+
+  /**
+   * Draws the particles.
+   *
+   * @param panel
+   * @param g
+   */
+  public void draw(DrawingPanel panel, Graphics g) {
+    double[] xy;
+    Color[] c;
+    int[] r;
+    int n;
+    synchronized(this) {
+      xy = positions;
+      c = colors;
+      r = radii;
+      n = count;
+    }
+    if(n==0) {
+      return;
+    }
+    Graphics2D g2 = (Graphics2D) g;
+    Rectangle clip = g2.getClipBounds();
+    boolean stamp = MarkerSprite.canStamp(g2);
+    HashMap sprites = stamp ? new HashMap() : null;
+    MarkerSprite sprite = null;
+    Color lastColor = null;
+    int lastRadius = -1;
+    for(int i = 0;i<n;i++) {
+      Color pc = ((c==null)||(i>=c.length)||(c[i]==null)) ? color : c[i];
+      int pr = ((r==null)||(i>=r.length)) ? pixRadius : r[i];
+      int xpix = panel.xToPix(xy[2*i]), ypix = panel.yToPix(xy[2*i+1]);
+      if((clip!=null)&&((xpix+pr<clip.x)||(xpix-pr>clip.x+clip.width)||(ypix+pr<clip.y)||(ypix-pr>clip.y+clip.height))) {
+        continue;
+      }
+      if(!stamp) {
+        g2.setColor(pc);
+        g2.fillOval(xpix-pr, ypix-pr, 2*pr, 2*pr);
+        continue;
+      }
+      if((pc!=lastColor)||(pr!=lastRadius)) {
+        lastColor = pc;
+        lastRadius = pr;
+        Long key = new Long(((long) pc.getRGB()<<32)|(pr&0xFFFFFFFFL));
+        sprite = (MarkerSprite) sprites.get(key);
+        if(sprite==null) {
+          sprite = MarkerSprite.getSprite("oval "+pr, new Ellipse2D.Double(-pr, -pr, 2*pr, 2*pr), pc, null, g2);
+          sprites.put(key, sprite);
+        }
+      }
+      sprite.stamp(g2, xpix, ypix);
+    }
+  }
+
+  /**
+   * Sets the measured flag so that the particles affect the scale of a drawing panel.
+   *
+   * @param measure
+   */
+  public void setMeasured(boolean measure) {
+    enableMeasure = measure;
+  }
+
+  /**
+   * Determines if the particles scale the drawing panel.
+   *
+   * @return true if there is at least one particle and the measured flag is set
+   */
+  public synchronized boolean isMeasured() {
+    return enableMeasure&&(count>0);
+  }
+
+  /**
+   * Gets the minimum x coordinate of the particles.
+   *
+   * @return xmin
+   */
+  public double getXMin() {
+    return xmin;
+  }
+
+  /**
+   * Gets the maximum x coordinate of the particles.
+   *
+   * @return xmax
+   */
+  public double getXMax() {
+    return xmax;
+  }
+
+  /**
+   * Gets the minimum y coordinate of the particles.
+   *
+   * @return ymin
+   */
+  public double getYMin() {
+    return ymin;
+  }
+
+  /**
+   * Gets the maximum y coordinate of the particles.
+   *
+   * @return ymax
+   */
+  public double getYMax() {
+    return ymax;
+  }
+
+  /**
+   * Computes the bounds of the positions.
+   */
+  void computeBounds() {
+    xmin = ymin = Double.MAX_VALUE;
+    xmax = ymax = -Double.MAX_VALUE;
+    for(int i = 0;i<count;i++) {
+      double x = positions[2*i], y = positions[2*i+1];
+      if(x<xmin) {
+        xmin = x;
+      }
+      if(x>xmax) {
+        xmax = x;
+      }
+      if(y<ymin) {
+        ymin = y;
+      }
+      if(y>ymax) {
+        ymax = y;
+      }
+    }
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -238,6 +238,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleY = false;
     }
+    invalidateLayer();
   }
 
   /**
@@ -251,6 +252,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleX = false;
     }
+    invalidateLayer();
   }
 
   /**
@@ -273,6 +275,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleY = false;
     }
+    invalidateLayer();
   }
 
   /**
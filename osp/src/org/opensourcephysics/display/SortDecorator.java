@@ -6,20 +6,37 @@
  */
 
 package org.opensourcephysics.display;
+import java.util.ArrayList;
+import java.util.Collections;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.TableModel;
+import org.opensourcephysics.numerics.ParallelExecutor;
 
 /**
  * Sorts table column based on their numeric values if the table's values are
  * numeric.  Otherwise sorts using toString.
  *
+ * The values in the sort column are read once and stored as primitive keys.  The rows
+ * are ordered by a stable merge sort of row indexes; large tables are sorted in parallel.
+ * Rows appended to the model after a sort are sorted separately and merged into the
+ * existing order so that the table remains sorted.  The rows are sorted again if the
+ * values of the existing rows have changed.
+ *
  * @author W. Christian
  * @version 1.0
  */
 public class SortDecorator implements TableModel, TableModelListener {
+  static final int PARALLEL_THRESHOLD = 50000; // smallest table that is sorted in parallel
+  static final int INSERTION_SORT_LENGTH = 16;
   private TableModel realModel;
   private int indexes[];
+  private int sortedColumn = -1; // the sort column or -1 if the rows are not sorted
+  private int keyCount;          // number of rows whose keys have been read
+  private double[] numberKeys = new double[0];
+  private boolean[] nullKeys = new boolean[0];
+  private String[] stringKeys;   // keys of a column that is not numeric; null if the column is numeric
+  private int[] work = new int[0];
 
   public SortDecorator(TableModel model) {
     if(model==null) {
@@ -32,34 +49,288 @@ public class SortDecorator implements TableModel, TableModelListener {
 
   public Object getValueAt(int row, int column) {
     if(indexes.length<=row) {
-      allocate();
+      update(false);
     }
     return realModel.getValueAt(indexes[row], column);
   }
 
   public void setValueAt(Object aValue, int row, int column) {
     if(indexes.length<=row) {
-      allocate();
+      update(false);
     }
     realModel.setValueAt(aValue, indexes[row], column);
   }
 
+  /**
+   * Updates the row order after the model has changed.  Inserted rows are merged into
+   * the sorted rows if the keys of the existing rows have not changed; other changes to
+   * the data cause the rows to be sorted again.  The existing rows are not read if the
+   * inserted rows follow them because an insert event does not change other rows.
+   *
+   * @param e
+   */
   public void tableChanged(TableModelEvent e) {
-    allocate();
+    if(e==null) {
+      update(false);
+    } else if(e.getType()==TableModelEvent.INSERT) {
+      update(e.getFirstRow()>=keyCount);
+    } else if((e.getFirstRow()==TableModelEvent.HEADER_ROW)||(sortedColumn<0)) {
+      sortedColumn = -1; // the columns may have changed
+      allocate();
+    } else if((getRowCount()!=keyCount)||keysChanged()) {
+      sort(sortedColumn);
+    }
   }
 
+  /**
+   * Sorts the rows into increasing order of the values in the given column.
+   * Rows that have equal values remain in model order and null values are last.
+   *
+   * @param column the model column
+   */
   public void sort(int column) {
     int rowCount = getRowCount();
-    if(indexes.length<=rowCount) {
+    allocate();
+    sortedColumn = column;
+    keyCount = 0;
+    stringKeys = null;
+    if(!readKeys(0, rowCount)) {
+      stringKeys = new String[0];
+      readKeys(0, rowCount);
+    }
+    sortRange(indexes, rowCount);
+  }
+
+  /**
+   * Gets the column that was used to sort the rows.
+   *
+   * @return the model column or -1 if the rows are not sorted
+   */
+  public int getSortedColumn() {
+    return sortedColumn;
+  }
+
+  /**
+   * Converts a row index in this model to a row index in the decorated model.
+   *
+   * @param row
+   * @return the model row
+   */
+  public int convertRowIndexToModel(int row) {
+    if(indexes.length<=row) {
+      update(false);
+    }
+    return indexes[row];
+  }
+
+  /**
+   * Extends the row order to include the rows appended to the model.
+   *
+   * @param appended true if the rows whose keys have been read are unchanged
+   */
+  private void update(boolean appended) {
+    int rowCount = getRowCount();
+    if((sortedColumn<0)||(sortedColumn>=getColumnCount())) {
+      sortedColumn = -1;
       allocate();
+      return;
+    }
+    if(rowCount<keyCount) { // rows have been removed
+      sort(sortedColumn);
+      return;
+    }
+    if(rowCount==indexes.length) {
+      return;
     }
-    for(int i = 0;i<rowCount;i++) {
-      for(int j = i+1;j<rowCount;j++) {
-        if(compare(indexes[i], indexes[j], column)<0) {
-          swap(i, j);
+    if(!appended&&keysChanged()) { // the existing rows have been replaced or changed
+      sort(sortedColumn);
+      return;
+    }
+    int oldCount = keyCount;
+    if(!readKeys(oldCount, rowCount)) { // the column is no longer numeric
+      sort(sortedColumn);
+      return;
+    }
+    int[] newIndexes = new int[rowCount];
+    System.arraycopy(indexes, 0, newIndexes, 0, oldCount);
+    for(int i = oldCount;i<rowCount;i++) {
+      newIndexes[i] = i;
+    }
+    indexes = newIndexes;
+    ensureWorkCapacity(rowCount);
+    mergeSort(indexes, work, oldCount, rowCount);
+    merge(indexes, work, 0, oldCount, rowCount);
+  }
+
+  /**
+   * Reads the keys of the sort column for the given rows.
+   *
+   * @return false if a value that is not a number was found in a numeric column
+   */
+  private boolean readKeys(int from, int to) {
+    if(numberKeys.length<to) {
+      int capacity = Math.max(to, (numberKeys.length*3)/2);
+      double[] newNumberKeys = new double[capacity];
+      boolean[] newNullKeys = new boolean[capacity];
+      System.arraycopy(numberKeys, 0, newNumberKeys, 0, keyCount);
+      System.arraycopy(nullKeys, 0, newNullKeys, 0, keyCount);
+      numberKeys = newNumberKeys;
+      nullKeys = newNullKeys;
+    }
+    if((stringKeys!=null)&&(stringKeys.length<to)) {
+      String[] newStringKeys = new String[numberKeys.length];
+      System.arraycopy(stringKeys, 0, newStringKeys, 0, keyCount);
+      stringKeys = newStringKeys;
+    }
+    for(int i = from;i<to;i++) {
+      Object obj = realModel.getValueAt(i, sortedColumn);
+      nullKeys[i] = (obj==null);
+      if(obj==null) {
+        continue;
+      } else if(stringKeys!=null) {
+        stringKeys[i] = obj.toString();
+      } else if(obj instanceof Number) {
+        numberKeys[i] = ((Number) obj).doubleValue();
+      } else {
+        keyCount = 0;
+        return false;
+      }
+    }
+    keyCount = to;
+    return true;
+  }
+
+  /**
+   * Determines if the values in the sort column differ from the keys that have been read.
+   */
+  private boolean keysChanged() {
+    for(int i = 0;i<keyCount;i++) {
+      Object obj = realModel.getValueAt(i, sortedColumn);
+      if((obj==null)!=nullKeys[i]) {
+        return true;
+      } else if(obj==null) {
+        continue;
+      } else if(stringKeys!=null) {
+        if(!obj.toString().equals(stringKeys[i])) {
+          return true;
         }
+      } else if(!(obj instanceof Number)||(Double.doubleToLongBits(((Number) obj).doubleValue())!=Double.doubleToLongBits(numberKeys[i]))) {
+        return true;
       }
     }
+    return false;
+  }
+
+  /**
+   * Compares the keys of two model rows.  Nulls are larger than all other values and NaN
+   * is larger than all numbers.
+   */
+  private int compareKeys(int i, int j) {
+    if(nullKeys[i]||nullKeys[j]) {
+      return nullKeys[i] ? (nullKeys[j] ? 0 : 1) : -1;
+    }
+    if(stringKeys!=null) {
+      return stringKeys[i].compareTo(stringKeys[j]);
+    }
+    double a = numberKeys[i], b = numberKeys[j];
+    if(a<b) {
+      return -1;
+    } else if(a>b) {
+      return 1;
+    } else if(a==b) {
+      return 0;
+    }
+    return(a!=a) ? ((b!=b) ? 0 : 1) : -1;
+  }
+
+  /**
+   * Sorts the first n row indexes, using several threads if the table is large.
+   */
+  private void sortRange(final int[] a, int n) {
+    ensureWorkCapacity(n);
+    ParallelExecutor executor = ParallelExecutor.getDefault();
+    if((n<PARALLEL_THRESHOLD)||!executor.isParallel(n)) {
+      mergeSort(a, work, 0, n);
+      return;
+    }
+    final ArrayList starts = new ArrayList();
+    executor.forRange(new ParallelExecutor.RangeTask() {
+      public double compute(int start, int end) {
+        mergeSort(a, work, start, end);
+        synchronized(starts) {
+          starts.add(new Integer(start));
+        }
+        return 0;
+      }
+
+    }, n);
+    Collections.sort(starts);
+    int runs = starts.size();
+    int[] bounds = new int[runs+1];
+    for(int i = 0;i<runs;i++) {
+      bounds[i] = ((Integer) starts.get(i)).intValue();
+    }
+    bounds[runs] = n;
+    while(runs>1) { // merge neighboring runs
+      int m = 0;
+      for(int i = 0;i<runs;i += 2) {
+        if(i+1<runs) {
+          merge(a, work, bounds[i], bounds[i+1], bounds[i+2]);
+        }
+        bounds[m++] = bounds[i];
+      }
+      bounds[m] = n;
+      runs = m;
+    }
+  }
+
+  /**
+   * Stable merge sort of the row indexes from lo (inclusive) to hi (exclusive).
+   */
+  private void mergeSort(int[] a, int[] tmp, int lo, int hi) {
+    if(hi-lo<=INSERTION_SORT_LENGTH) {
+      for(int i = lo+1;i<hi;i++) {
+        int index = a[i];
+        int j = i;
+        while((j>lo)&&(compareKeys(a[j-1], index)>0)) {
+          a[j] = a[j-1];
+          j--;
+        }
+        a[j] = index;
+      }
+      return;
+    }
+    int mid = (lo+hi)>>>1;
+    mergeSort(a, tmp, lo, mid);
+    mergeSort(a, tmp, mid, hi);
+    merge(a, tmp, lo, mid, hi);
+  }
+
+  /**
+   * Merges the sorted ranges lo to mid and mid to hi.
+   */
+  private void merge(int[] a, int[] tmp, int lo, int mid, int hi) {
+    if((lo>=mid)||(mid>=hi)||(compareKeys(a[mid-1], a[mid])<=0)) {
+      return; // already in order
+    }
+    System.arraycopy(a, lo, tmp, lo, mid-lo);
+    int i = lo, j = mid, k = lo;
+    while((i<mid)&&(j<hi)) {
+      if(compareKeys(a[j], tmp[i])<0) {
+        a[k++] = a[j++];
+      } else {
+        a[k++] = tmp[i++];
+      }
+    }
+    while(i<mid) {
+      a[k++] = tmp[i++];
+    }
+  }
+
+  private void ensureWorkCapacity(int n) {
+    if(work.length<n) {
+      work = new int[n];
+    }
   }
 
   public void swap(int i, int j) {
@@ -14,6 +14,7 @@ import org.opensourcephysics.controls.XMLControl;
  * Stripchart stores data having increasing x values.
  *
  * Only data within the interval [lastx-xrange, lastx] is retained.
+ * The data is stored in a ring buffer so that old data is removed in constant time.
  *
  * @author Wolfgang Christian
  * @version 1.0
@@ -34,6 +35,7 @@ public class Stripchart extends Dataset {
     super();
     xrange = Math.abs(_xrange);
     yrange = Math.abs(_yrange);
+    setRingBuffer(true);
   }
 
   /**
@@ -113,14 +115,13 @@ public class Stripchart extends Dataset {
    * Trims data points whose x values are outside the xrange from the dataset.
    */
   private void trim() {
-    if(index>0&&xpoints[0]<lastx-xrange) {
-      int counter = 0;
-      while(counter<index&&xpoints[counter]<lastx-xrange) {
-        counter++;
-      }
-      System.arraycopy(xpoints, counter, xpoints, 0, index-counter);
-      System.arraycopy(ypoints, counter, ypoints, 0, index-counter);
-      index = index-counter;
+    int counter = 0;
+    while(counter<index&&xpoints[slot(counter)]<lastx-xrange) {
+      counter++;
+    }
+    removeFirst(counter);
+    if(!ringBuffer) {
+      resetXYMinMax(); // the ring buffer maintains the minimum and maximum values
     }
     if(rightToLeft) {
       xmin = lastx-xrange;
@@ -132,16 +133,11 @@ public class Stripchart extends Dataset {
     } else {
       xmax = lastx-xrange;
     }
-    ymin = ymax = ypoints[0];
-    for(int i = 1;i<index;i++) {
-      ymin = Math.min(ymin, ypoints[i]);
-      ymax = Math.max(ymax, ypoints[i]);
-    }
     if(ymax-ymin<yrange) {
       ymin = (ymax+ymin-yrange)/2.0;
       ymax = (ymax+ymin+yrange)/2.0;
     }
-    recalculatePath();
+    fireMeasureChanged();
   }
 
   /**
@@ -174,6 +170,15 @@ public class Stripchart extends Dataset {
      }
   }
 
+  /**
+   * Determines if the listeners are notified of every change to the measure.
+   * The bounds are reported whenever the data is appended or trimmed.
+   *
+   * @return true if this is a Stripchart rather than a subclass
+   */
+  public boolean isMeasureNotifying() {
+    return getClass()==Stripchart.class;
+  }
 }
 
 /*
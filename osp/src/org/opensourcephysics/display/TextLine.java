@@ -10,7 +10,11 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Stack;
 import java.util.Vector;
 
@@ -180,6 +184,28 @@ public class TextLine {
    * a change of context in the string ie font change and offset.
    */
   protected Vector list = new Vector(8, 4);
+
+  /**
+   * The maximum number of cached layouts.
+   */
+  final static int MAX_LAYOUTS = 256;
+
+  /**
+   * Layouts shared by all text lines.
+   */
+  private static Map layoutCache = new LinkedHashMap(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+      return size()>MAX_LAYOUTS;
+    }
+
+  };
+
+  /**
+   * The current layout and the font and font render context used to create it.
+   */
+  Layout layout;
+  Font layoutFont;
+  FontRenderContext layoutContext;
   /*
   **********************
   **
@@ -510,22 +536,30 @@ public class TextLine {
   /**
    * parse the text. When the text is parsed the width, height, leading
    * are all calculated. The text will only be truly parsed if
-   * the graphics context has changed or the text has changed or
-   * the font has changed. Otherwise nothing is done when this
+   * the text has changed, the font has changed, or a graphics context with a
+   * different font render context is used. Otherwise nothing is done when this
    * method is called.
+   *
+   * Layouts are cached by text, font, and font render context and are shared by
+   * all text lines, so that labels that are redrawn with a new graphics context
+   * are not parsed and measured again.
    * @param g Graphics context.
    */
   public void parseText(Graphics g) {
-    TextState current = new TextState();
-    char ch;
-    Stack state = new Stack();
-    int w = 0;
-    if(lg!=g) {
-      parse = true;
+    if((lg==g)&&!parse) {
+      return;
+    }
+    Font base = null;
+    FontRenderContext frc = null;
+    if(g!=null) {
+      base = (font==null) ? g.getFont() : font;
+      if(g instanceof Graphics2D) {
+        frc = ((Graphics2D) g).getFontRenderContext();
+      }
     }
     lg = g;
-    if(!parse) {
-      return;
+    if(!parse&&(frc!=null)&&frc.equals(layoutContext)&&(base!=null)&&base.equals(layoutFont)) {
+      return; // the layout has not changed
     }
     parse = false;
     width = 0;
@@ -535,15 +569,56 @@ public class TextLine {
     height = 0;
     maxAscent = 0;
     maxDescent = 0;
+    layout = null;
+    layoutFont = null;
+    layoutContext = null;
     if(text==null||g==null) {
       return;
     }
-    list.removeAllElements();
-    if(font==null) {
-      current.f = g.getFont();
-    } else {
-      current.f = font;
+    Layout newLayout = null;
+    LayoutKey key = null;
+    if(frc!=null) {
+      key = new LayoutKey(text, base, frc, script_fraction, sup_offset, sub_offset);
+      synchronized(layoutCache) {
+        newLayout = (Layout) layoutCache.get(key);
+      }
+    }
+    if(newLayout==null) {
+      newLayout = createLayout(g, base);
+      if(key!=null) {
+        synchronized(layoutCache) {
+          layoutCache.put(key, newLayout);
+        }
+      }
     }
+    list = newLayout.list;
+    width = newLayout.width;
+    ascent = newLayout.ascent;
+    descent = newLayout.descent;
+    leading = newLayout.leading;
+    maxAscent = newLayout.maxAscent;
+    maxDescent = newLayout.maxDescent;
+    height = newLayout.height;
+    layout = newLayout;
+    layoutFont = base;
+    layoutContext = frc;
+  }
+
+  /**
+   * Parses the text and measures it using the given graphics context.
+   *
+   * @param g Graphics context.
+   * @param base the font of the text outside of superscripts and subscripts
+   * @return the layout
+   */
+  private Layout createLayout(Graphics g, Font base) {
+    TextState current = new TextState();
+    char ch;
+    Stack state = new Stack();
+    int w = 0;
+    Layout layout = new Layout();
+    Vector list = layout.list;
+    current.f = base;
     state.push(current);
     list.addElement(current);
     for(int i = 0;i<text.length();i++) {
@@ -604,23 +679,23 @@ public class TextLine {
         break;
       }
     }
-    Vector vec; // added by W. Christian in case a parse is called during drawing.
-    synchronized(list) {
-      vec = (Vector) list.clone();
-    } // added by W. Christian
-    for(int i = 0;i<vec.size();i++) {
-      current = ((TextState) (vec.elementAt(i)));
+    layout.states = new TextState[list.size()];
+    layout.strings = new String[list.size()];
+    for(int i = 0;i<list.size();i++) {
+      current = ((TextState) (list.elementAt(i)));
+      layout.states[i] = current;
+      layout.strings[i] = current.toString();
       if(!current.isEmpty()) {
-        width += current.getWidth(g);
-        ascent = Math.max(ascent, Math.abs(current.y)+current.getAscent(g));
-        descent = Math.max(descent, Math.abs(current.y)+current.getDescent(g));
-        leading = Math.max(leading, current.getLeading(g));
-        maxDescent = Math.max(maxDescent, Math.abs(current.y)+current.getMaxDescent(g));
-        maxAscent = Math.max(maxAscent, Math.abs(current.y)+current.getMaxAscent(g));
+        layout.width += current.getWidth(g);
+        layout.ascent = Math.max(layout.ascent, Math.abs(current.y)+current.getAscent(g));
+        layout.descent = Math.max(layout.descent, Math.abs(current.y)+current.getDescent(g));
+        layout.leading = Math.max(layout.leading, current.getLeading(g));
+        layout.maxDescent = Math.max(layout.maxDescent, Math.abs(current.y)+current.getMaxDescent(g));
+        layout.maxAscent = Math.max(layout.maxAscent, Math.abs(current.y)+current.getMaxAscent(g));
       }
     }
-    height = ascent+descent+leading;
-    return;
+    layout.height = layout.ascent+layout.descent+layout.leading;
+    return layout;
   }
 
   /**
@@ -652,7 +727,6 @@ public class TextLine {
    * @param y pixel position of the text
    */
   public void drawText(Graphics g, int x, int y) {
-    TextState ts;
     int xoffset = x;
     int yoffset = y;
     if(g==null||text==null) {
@@ -663,6 +737,11 @@ public class TextLine {
       return; // added by W. Christian
     }
     parseText(g);
+    Layout layout = this.layout; // the layout is immutable
+    if(layout==null) {
+      lg.dispose();
+      return;
+    }
     if(justification==CENTER) {
       xoffset = x-width/2;
     } else if(justification==RIGHT) {
@@ -679,18 +758,12 @@ public class TextLine {
     if(color!=null) {
       lg.setColor(color);
     }
-    Vector vec; // added by W. Christian in case a parse is called during drawing.
-    synchronized(list) {
-      vec = (Vector) list.clone();
-    } // added by W. Christian
-    for(int i = 0;i<vec.size();i++) {
-      ts = ((TextState) (vec.elementAt(i)));
+    for(int i = 0;i<layout.states.length;i++) {
+      TextState ts = layout.states[i];
       if(ts.f!=null) {
         lg.setFont(ts.f);
       }
-      if(ts.s!=null) {
-        lg.drawString(ts.toString(), ts.x+xoffset, ts.y+yoffset);
-      }
+      lg.drawString(layout.strings[i], ts.x+xoffset, ts.y+yoffset);
     }
     lg.dispose();
     lg = null;
@@ -894,6 +967,48 @@ public class TextLine {
     }
     return Math.log(x)/2.30258509299404568401;
   }
+
+  /**
+   * The parsed and measured text.  A layout is not modified after it has been created.
+   */
+  static class Layout {
+    Vector list = new Vector(8, 4);
+    TextState[] states;
+    String[] strings;
+    int width, ascent, maxAscent, descent, maxDescent, height, leading;
+  }
+
+  /**
+   * The layout cache key.
+   */
+  private static class LayoutKey {
+    String text;
+    Font font;
+    FontRenderContext frc;
+    double scriptFraction, supOffset, subOffset;
+
+    LayoutKey(String text, Font font, FontRenderContext frc, double scriptFraction, double supOffset, double subOffset) {
+      this.text = text;
+      this.font = font;
+      this.frc = frc;
+      this.scriptFraction = scriptFraction;
+      this.supOffset = supOffset;
+      this.subOffset = subOffset;
+    }
+
+    public boolean equals(Object obj) {
+      if(!(obj instanceof LayoutKey)) {
+        return false;
+      }
+      LayoutKey key = (LayoutKey) obj;
+      return text.equals(key.text)&&font.equals(key.font)&&frc.equals(key.frc)&&(scriptFraction==key.scriptFraction)&&(supOffset==key.supOffset)&&(subOffset==key.subOffset);
+    }
+
+    public int hashCode() {
+      return (text.hashCode()*31+font.hashCode())*31+frc.hashCode();
+    }
+
+  }
 }
 
 /**
@@ -15,13 +15,24 @@ import org.opensourcephysics.controls.*;
  * Description:  A trail of pixels on the screen.  This object is often used to
  * show the path of a moving object.
  *
+ * The points are stored in a buffer that can be limited to a maximum number of points.
+ * The path that is drawn is built from the buffer and is extended, rather than rebuilt,
+ * while the oldest points are kept.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
 public class Trail extends AbstractTrail {
 
-   GeneralPath generalPath = new GeneralPath();
+   GeneralPath generalPath = new GeneralPath(); // the drawn points in world coordinates
    boolean connected = true;
+   int pathCount = 0;         // the number of buffer points that have been added to the path
+   int pathRemovals = -1;     // the buffer removal count when the path was started
+   boolean pathClosed = false;
+   double pathXScale, pathYScale; // the panel scale used to simplify the path
+   float lastX, lastY;        // the last point in the path
+   boolean pending = false;   // true if the last connected point was not added to the path
+   Line2D.Float pendingLine = new Line2D.Float();
 
    /**
     * Adds a point to the trail.
@@ -32,15 +43,7 @@ public class Trail extends AbstractTrail {
       if (closed){
          throw new IllegalStateException("Cannot add points to a closed trail.");
       }
-      if (!connected||(numpts==0)){
-         generalPath.moveTo((float) x, (float) y);
-      }
-      generalPath.lineTo((float) x, (float) y);
-      xmin=Math.min(xmin,x);
-      xmax=Math.max(xmax,x);
-      ymin=Math.min(ymin,y);
-      ymax=Math.max(ymax,y);
-      numpts++;
+      storePoint(x, y, (!connected||(numpts==0)) ? TrailBuffer.DOT : TrailBuffer.LINE);
    }
 
 
@@ -50,12 +53,7 @@ public class Trail extends AbstractTrail {
     * @param y double
     */
    public synchronized void moveToPoint(double x, double y) {
-      generalPath.moveTo( (float) x, (float) y);
-      xmin = Math.min(xmin, x);
-      xmax = Math.max(xmax, x);
-      ymin = Math.min(ymin, y);
-      ymax = Math.max(ymax, y);
-      numpts++;
+      storePoint(x, y, TrailBuffer.MOVE);
    }
 
    /**
@@ -64,7 +62,6 @@ public class Trail extends AbstractTrail {
     */
    public void closeTrail(){
       closed=true;
-      generalPath.closePath();
    }
 
 
@@ -94,12 +91,11 @@ public class Trail extends AbstractTrail {
     */
    public synchronized void clear() {
       closed=false;
-      numpts = 0;
-      xmin=Double.MAX_VALUE;
-      xmax=-Double.MAX_VALUE;
-      ymin=Double.MAX_VALUE;
-      ymax=-Double.MAX_VALUE;
+      clearPoints();
       generalPath.reset();
+      pathCount = 0;
+      pathClosed = false;
+      pending = false;
    }
 
    /**
@@ -112,15 +108,158 @@ public class Trail extends AbstractTrail {
       }
       Graphics2D g2 = (Graphics2D) g;
       g2.setColor(color);
-      // transform from world to pixel coordinates
-      Shape s = generalPath.createTransformedShape(panel.getPixelTransform());
+      Shape s, end = null;
+      synchronized(this) {
+         updatePath(panel);
+         // transform from world to pixel coordinates
+         s = generalPath.createTransformedShape(panel.getPixelTransform());
+         if(pending) {
+            end = panel.getPixelTransform().createTransformedShape(pendingLine);
+         }
+      }
+      Stroke stroke=g2.getStroke();
       if(drawingStroke!=null){
-         Stroke stroke=g2.getStroke();
          g2.setStroke(drawingStroke);
-         g2.draw(s);
-         g2.setStroke(stroke);
-      }else{
-         g2.draw(s);
+      }
+      g2.draw(s);
+      if(end!=null) {
+         g2.draw(end);
+      }
+      g2.setStroke(stroke);
+   }
+
+   /**
+    * Adds the new points in the buffer to the path.
+    *
+    * The path is rebuilt if points have been removed from the buffer or if the scale
+    * used to simplify the path has changed.
+    *
+    * @param panel
+    */
+   synchronized void updatePath(DrawingPanel panel) {
+      double sx = panel.getXPixPerUnit(), sy = panel.getYPixPerUnit();
+      boolean rescale = (simplification>0)&&((sx!=pathXScale)||(sy!=pathYScale));
+      if(rescale||(pathRemovals!=buffer.removals)||(pathCount>buffer.size)) {
+         generalPath.reset();
+         pathCount = 0;
+         pathRemovals = buffer.removals;
+         pathClosed = false;
+         pending = false;
+      }
+      pathXScale = sx;
+      pathYScale = sy;
+      double tol2 = simplification*simplification;
+      for(int i = pathCount, n = buffer.size;i<n;i++) {
+         float x = buffer.getX(i), y = buffer.getY(i);
+         byte type = (i==0) ? TrailBuffer.DOT : buffer.getType(i);
+         if(type!=TrailBuffer.LINE) {
+            flushPending();
+         }
+         if((tol2>0)&&(i>0)&&(type!=TrailBuffer.MOVE)) {
+            double dx = (x-lastX)*sx, dy = (y-lastY)*sy;
+            if(dx*dx+dy*dy<tol2) { // invisible at this scale
+               if(type==TrailBuffer.LINE) {
+                  pending = true;
+                  pendingLine.setLine(lastX, lastY, x, y);
+               }
+               continue;
+            }
+         }
+         if(type==TrailBuffer.LINE) {
+            generalPath.lineTo(x, y);
+            pending = false;
+         } else {
+            generalPath.moveTo(x, y);
+            if(type==TrailBuffer.DOT) {
+               generalPath.lineTo(x, y);
+            }
+         }
+         lastX = x;
+         lastY = y;
+      }
+      pathCount = buffer.size;
+      if(closed&&!pathClosed) {
+         flushPending();
+         generalPath.closePath();
+         pathClosed = true;
+      }
+   }
+
+   /**
+    * Adds the last connected point to the path if it was dropped by the simplification.
+    */
+   private void flushPending() {
+      if(pending) {
+         lastX = (float) pendingLine.x2;
+         lastY = (float) pendingLine.y2;
+         generalPath.lineTo(lastX, lastY);
+         pending = false;
+      }
+   }
+
+   /**
+    * Creates a path containing every point in world coordinates.
+    *
+    * @return the path
+    */
+   synchronized GeneralPath createPath() {
+      GeneralPath path = new GeneralPath();
+      for(int i = 0, n = buffer.size;i<n;i++) {
+         float x = buffer.getX(i), y = buffer.getY(i);
+         byte type = (i==0) ? TrailBuffer.DOT : buffer.getType(i);
+         if(type==TrailBuffer.LINE) {
+            path.lineTo(x, y);
+         } else {
+            path.moveTo(x, y);
+            if(type==TrailBuffer.DOT) {
+               path.lineTo(x, y);
+            }
+         }
+      }
+      if(closed&&(numpts>0)) {
+         path.closePath();
+      }
+      return path;
+   }
+
+   /**
+    * Sets the points from a path in world coordinates.
+    *
+    * @param path
+    */
+   synchronized void setPath(GeneralPath path) {
+      clear();
+      float[] coords = new float[6];
+      float moveX = 0, moveY = 0;
+      boolean moved = false; // true if a move has not been stored
+      for(PathIterator it = path.getPathIterator(null);!it.isDone();it.next()) {
+         switch(it.currentSegment(coords)) {
+            case PathIterator.SEG_MOVETO :
+               if(moved) {
+                  storePoint(moveX, moveY, TrailBuffer.MOVE);
+               }
+               moveX = coords[0];
+               moveY = coords[1];
+               moved = true;
+               break;
+            case PathIterator.SEG_LINETO :
+               if(moved&&(coords[0]==moveX)&&(coords[1]==moveY)) {
+                  storePoint(moveX, moveY, TrailBuffer.DOT);
+               } else {
+                  if(moved) {
+                     storePoint(moveX, moveY, TrailBuffer.MOVE);
+                  }
+                  storePoint(coords[0], coords[1], TrailBuffer.LINE);
+               }
+               moved = false;
+               break;
+            case PathIterator.SEG_CLOSE :
+               closed = true;
+               break;
+         }
+      }
+      if(moved) {
+         storePoint(moveX, moveY, TrailBuffer.MOVE);
       }
    }
 
@@ -143,7 +282,9 @@ public class Trail extends AbstractTrail {
          control.setValue("connected", trail.connected);
          control.setValue("color", trail.color);
          control.setValue("number of pts", trail.numpts);
-         control.setValue("general path", trail.generalPath);
+         control.setValue("maximum points", trail.getMaximumPoints());
+         control.setValue("simplification", trail.simplification);
+         control.setValue("general path", trail.createPath());
       }
 
       public Object createObject(XMLControl control) {
@@ -154,11 +295,29 @@ public class Trail extends AbstractTrail {
          Trail trail = (Trail) obj;
          trail.connected = control.getBoolean("connected");
          trail.color = (Color) control.getObject("color");
-         trail.numpts = control.getInt("number of pts");
-         trail.generalPath = (GeneralPath) control.getObject("general path");
+         int max = control.getInt("maximum points");
+         trail.setMaximumPoints((max==Integer.MIN_VALUE) ? 0 : max);
+         double tol = control.getDouble("simplification");
+         trail.setSimplification(Double.isNaN(tol) ? 0 : tol);
+         GeneralPath path = (GeneralPath) control.getObject("general path");
+         if(path==null) {
+            trail.clear();
+         } else {
+            trail.setPath(path);
+         }
          return obj;
       }
    }
+
+   /**
+    * Determines if the listeners are notified of every change to the measure.
+    * Points are reported whenever they are added or cleared.
+    *
+    * @return true if this is a Trail rather than a subclass
+    */
+   public boolean isMeasureNotifying() {
+      return getClass()==Trail.class;
+   }
 }
 /*
  * Open Source Physics software is free software; you can redistribute
@@ -14,18 +14,24 @@
     * TrailBezier defines a trail of points connected by a Bezier spline.  This object is often used to
     * show the path of a moving object.
     *
+    * The spline is built from the stored points when the trail is drawn.  The tangent at each point is
+    * parallel to the line connecting its neighbors.
+    *
     * @author       Wolfgang Christian
     * @version 1.0
     */
    public class TrailBezier extends AbstractTrail {
-      GeneralPath path = new GeneralPath();
-      GeneralPath pathStart = new GeneralPath();
-      GeneralPath pathEnd= new GeneralPath();
-      float x0, y0, x1, y1,x2,y2;
+      GeneralPath path = new GeneralPath();    // the spline ending at the next to last point
+      GeneralPath pathEnd= new GeneralPath();  // the spline segment ending at the last point
       float[] endPts=new float[4];
       float dxEstimate=0,dyEstimate=0;
       float slack=(float)0.15;
       float dx2, dy2;
+      int pathCount = -1, pathRemovals = -1;   // the buffer size and removal count when the path was built
+      boolean pathClosed;
+      float pathSlack;
+      double pathXScale, pathYScale;           // the panel scale used to simplify the path
+      float[] xs = new float[0], ys = new float[0]; // the points in the path
 
       /**
        * Adds a point to the trail.
@@ -36,43 +42,24 @@
          if(closed){
             throw new IllegalStateException("Cannot add points to a closed trail.");
          }
-         xmin = Math.min(xmin, x);
-         xmax = Math.max(xmax, x);
-         ymin = Math.min(ymin, y);
-         ymax = Math.max(ymax, y);
+         float fx=(float)x;
+         float fy=(float)y;
          if(numpts==0) {
-            pathStart.moveTo((float) x, (float) y);
-            endPts[0] = x0=(float)x;
-            endPts[1] = y0=(float)y;
+            endPts[0] = fx;
+            endPts[1] = fy;
          }else if(numpts==1){
-            endPts[2] = x1 =(float)x;
-            endPts[3] = y1 =(float)y;
-            path.moveTo(x1, y1);
+            endPts[2] = fx;
+            endPts[3] = fy;
          }else if(numpts==2){
-            x2 = (float) x;
-            y2 = (float) y;
-            dx2 = x2-endPts[0];
-            dy2 = y2-endPts[1];
-            float dx1 = -2*x2-4*endPts[0]+6*endPts[2];
-            float dy1 = -2*y2-4*endPts[1]+6*endPts[3];
-            pathStart.curveTo(
-               endPts[0]+slack*dx1, endPts[1]+slack*dy1,
-               endPts[2]-slack*dx2, endPts[3]-slack*dy2,
-               endPts[2], endPts[3]);
+            dx2 = fx-endPts[0];
+            dy2 = fy-endPts[1];
             endPts[0] = endPts[2];
             endPts[1] = endPts[3];
-            endPts[2] = x2;
-            endPts[3] = y2;
+            endPts[2] = fx;
+            endPts[3] = fy;
          }else{
-            float dx1=dx2, dy1=dy2;
-            float fx=(float)x;
-            float fy=(float)y;
             dx2 = fx-endPts[0];
             dy2 = fy-endPts[1];
-            path.curveTo(
-               endPts[0]+slack*dx1, endPts[1]+slack*dy1,
-               endPts[2]-slack*dx2, endPts[3]-slack*dy2,
-               endPts[2], endPts[3]);
             dxEstimate=2*endPts[0]+4*fx-6*endPts[2];
             dyEstimate=2*endPts[1]+4*fy-6*endPts[3];
             endPts[0] = endPts[2];
@@ -80,7 +67,7 @@
             endPts[2] = fx;
             endPts[3] = fy;
          }
-         numpts++;
+         storePoint(x, y, TrailBuffer.LINE);
       }
 
       /**
@@ -95,27 +82,18 @@
        * Closes the trail by connecting the first point to the last point.
        */
       public void closeTrail(){
-         addPoint(x0,y0);
-         addPoint(x1,y1);
-         addPoint(x2,y2);
          closed=true;
-         pathStart.reset();
-         pathEnd.reset();
-         path.closePath();
       }
 
       /**
        * Clears all points from the trail.
        */
       public synchronized void clear() {
-         numpts = 0;
-         xmin=Double.MAX_VALUE;
-         xmax=-Double.MAX_VALUE;
-         ymin=Double.MAX_VALUE;
-         ymax=-Double.MAX_VALUE;
+         clearPoints();
          path.reset();
-         pathStart.reset();
          pathEnd.reset();
+         pathCount = -1;
+         dxEstimate = dyEstimate = 0;
          closed=false;
       }
 
@@ -129,22 +107,20 @@
          }
          Graphics2D g2 = (Graphics2D) g;
          g2.setColor(color);
-         // transform paths from world to pixel coordinates
-         Shape s = path.createTransformedShape(panel.getPixelTransform());
+         Stroke stroke=g2.getStroke();
          if(drawingStroke!=null){
-            Stroke stroke=g2.getStroke();
             g2.setStroke(drawingStroke);
-            g2.draw(s);
-            g2.setStroke(stroke);
-         }else{
-            g2.draw(s);
          }
-         if(closed) return;
-         s = pathStart.createTransformedShape(panel.getPixelTransform());
-         g2.draw(s);
-         if(numpts>2){
-            drawPathEnd(panel,g2);
+         synchronized(this) {
+            updatePath(panel);
+            // transform paths from world to pixel coordinates
+            Shape s = path.createTransformedShape(panel.getPixelTransform());
+            g2.draw(s);
+            if(!closed&&(numpts>2)){
+               drawPathEnd(panel,g2);
+            }
          }
+         g2.setStroke(stroke);
       }
 
       /**
@@ -154,8 +130,8 @@
        */
       protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
          pathEnd.reset();
-         path.moveTo(endPts[0], endPts[1]);// start the path at the last point
-         path.curveTo(
+         pathEnd.moveTo(endPts[0], endPts[1]);// start the path at the last point
+         pathEnd.curveTo(
             endPts[0]+slack*dx2, endPts[1]+slack*dy2,
             endPts[2]-slack*dxEstimate, endPts[3]-slack*dyEstimate,
             endPts[2], endPts[3]);
@@ -164,53 +140,117 @@
       }
 
       /**
-       * Returns the XML.ObjectLoader for this class.
+       * Rebuilds the spline if the points, the slack, or the scale used to simplify the spline have changed.
        *
-       * @return the object loader
+       * The spline ends at the next to last point if the trail is open.
+       *
+       * @param panel
        */
-      public static XML.ObjectLoader getLoader() {
-         return new Loader();
+      synchronized void updatePath(DrawingPanel panel) {
+         double sx = panel.getXPixPerUnit(), sy = panel.getYPixPerUnit();
+         boolean rescale = (simplification>0)&&((sx!=pathXScale)||(sy!=pathYScale));
+         if(!rescale&&(pathCount==buffer.size)&&(pathRemovals==buffer.removals)&&(pathClosed==closed)&&(pathSlack==slack)){
+            return;
+         }
+         pathCount = buffer.size;
+         pathRemovals = buffer.removals;
+         pathClosed = closed;
+         pathSlack = slack;
+         pathXScale = sx;
+         pathYScale = sy;
+         path.reset();
+         int n = simplify(sx, sy);
+         if(n<2 || (!closed&&(n<3))){
+            return;
+         }
+         if(closed){
+            path.moveTo(xs[1], ys[1]);
+            for(int j = 1;j<=n;j++){
+               curveTo(j-1, j%n, (j+1)%n, (j+2)%n);
+            }
+            path.closePath();
+            return;
+         }
+         float dx1 = -2*xs[2]-4*xs[0]+6*xs[1];
+         float dy1 = -2*ys[2]-4*ys[0]+6*ys[1];
+         path.moveTo(xs[0], ys[0]);
+         path.curveTo(
+            xs[0]+slack*dx1, ys[0]+slack*dy1,
+            xs[1]-slack*(xs[2]-xs[0]), ys[1]-slack*(ys[2]-ys[0]),
+            xs[1], ys[1]);
+         for(int j = 1;j<n-2;j++){
+            curveTo(j-1, j, j+1, j+2);
+         }
       }
 
       /**
-       * Determines if this trail scales the drawing panel.
-       *
-       * @return boolean
+       * Adds the spline segment from point j to point k using the neighboring points to set the tangents.
        */
-      public boolean isMeasured() {
-         return enableMeasure&&(this.numpts>0);
+      private void curveTo(int i, int j, int k, int m){
+         path.curveTo(
+            xs[j]+slack*(xs[k]-xs[i]), ys[j]+slack*(ys[k]-ys[i]),
+            xs[k]-slack*(xs[m]-xs[j]), ys[k]-slack*(ys[m]-ys[j]),
+            xs[k], ys[k]);
       }
 
       /**
-       * Gets the minimum x value in the trail.
-       * @return double
+       * Copies the points to the path arrays.
+       *
+       * Points closer than the simplification tolerance to the previous point are skipped.  The first point
+       * and the last three points, which determine the end of the spline, are always kept.
+       *
+       * @return the number of points
        */
-      public double getXMin() {
-         return xmin;
+      private int simplify(double sx, double sy){
+         int n = buffer.size;
+         if(xs.length<n){
+            xs = new float[n];
+            ys = new float[n];
+         }
+         double tol2 = simplification*simplification;
+         int count = 0;
+         for(int i = 0;i<n;i++){
+            float x = buffer.getX(i), y = buffer.getY(i);
+            if((tol2>0)&&(count>0)&&(i<n-3)){
+               double dx = (x-xs[count-1])*sx, dy = (y-ys[count-1])*sy;
+               if(dx*dx+dy*dy<tol2){ // invisible at this scale
+                  continue;
+               }
+            }
+            xs[count] = x;
+            ys[count] = y;
+            count++;
+         }
+         return count;
       }
 
       /**
-       * Gets the maximum x value in the trail.
-       * @return double
+       * Returns the XML.ObjectLoader for this class.
+       *
+       * @return the object loader
        */
-      public double getXMax() {
-         return xmax;
+      public static XML.ObjectLoader getLoader() {
+         return new Loader();
       }
 
       /**
-       * Gets the minimum y value in the trail.
-       * @return double
+       * Determines if this trail scales the drawing panel.
+       *
+       * @return boolean
        */
-      public double getYMin() {
-         return ymin;
+      public boolean isMeasured() {
+         return enableMeasure&&(this.numpts>0);
       }
+
       /**
-       * Gets the maximum y value in the trail.
-       * @return double
+       * Determines if the listeners are notified of every change to the measure.
+       * Points are reported whenever they are added or cleared.
+       *
+       * @return true if this is a TrailBezier rather than a subclass
        */
-      public double getYMax() {
-         return ymax;
-   }
+      public boolean isMeasureNotifying() {
+         return getClass()==TrailBezier.class;
+      }
 
       /**
        * A class to save and load Dataset data in an XMLControl.
@@ -222,6 +262,7 @@
             control.setValue("closed", trail.closed);
             control.setValue("color", trail.color);
             control.setValue("number of pts", trail.numpts);
+            control.setValue("maximum points", trail.getMaximumPoints());
             //control.setValue("general path", trail.generalPath);
          }
 
@@ -231,9 +272,11 @@
 
          public Object loadObject(XMLControl control, Object obj) {
             TrailBezier trail = (TrailBezier) obj;
+            trail.clear(); // the points are not saved
             trail.closed = control.getBoolean("closed");
             trail.color = (Color) control.getObject("color");
-            trail.numpts = control.getInt("number of pts");
+            int max = control.getInt("maximum points");
+            trail.setMaximumPoints((max==Integer.MIN_VALUE) ? 0 : max);
             //trail.generalPath = (GeneralPath) control.getObject("general path");
             return obj;
          }
@@ -0,0 +1,200 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display;
+
+/**
+ * TrailBuffer stores the points of a trail in primitive arrays.
+ *
+ * The buffer grows as points are added unless a maximum number of points has been set.
+ * A full buffer is a ring:  adding a point overwrites the oldest point in constant time.
+ *
+ * TrailBuffer is not synchronized.
+ *
+ * @version 1.0
+ */
+class TrailBuffer {
+  static final byte MOVE = 0; // starts a new segment
+  static final byte LINE = 1; // connected to the previous point
+  static final byte DOT = 2;  // starts a new segment and marks the point
+  static final int MIN_CAPACITY = 16;
+  float[] x = new float[0], y = new float[0];
+  byte[] type = new byte[0];
+  int first;    // array index of the oldest point
+  int size;     // number of points
+  int maximum;  // maximum number of points; zero if unbounded
+  int removals; // incremented whenever points are removed from the front of the buffer
+  float removedX, removedY; // the last point removed by add
+
+  /**
+   * Adds a point and removes the oldest point if the buffer is full.
+   *
+   * @param px
+   * @param py
+   * @param ptype MOVE, LINE, or DOT
+   * @return true if the oldest point was removed
+   */
+  boolean add(float px, float py, byte ptype) {
+    if((maximum>0)&&(size==maximum)) {
+      removedX = x[first];
+      removedY = y[first];
+      x[first] = px;
+      y[first] = py;
+      type[first] = ptype;
+      first = (first+1)%maximum;
+      removals++;
+      return true;
+    }
+    if(size==x.length) {
+      int capacity = Math.max(MIN_CAPACITY, 2*size);
+      if(maximum>0) {
+        capacity = Math.min(capacity, maximum);
+      }
+      resize(capacity);
+    }
+    x[size] = px;
+    y[size] = py;
+    type[size] = ptype;
+    size++;
+    return false;
+  }
+
+  /**
+   * Gets the x coordinate of a point.
+   *
+   * @param i the point index starting with the oldest point
+   * @return the x coordinate
+   */
+  float getX(int i) {
+    return x[index(i)];
+  }
+
+  /**
+   * Gets the y coordinate of a point.
+   *
+   * @param i the point index starting with the oldest point
+   * @return the y coordinate
+   */
+  float getY(int i) {
+    return y[index(i)];
+  }
+
+  /**
+   * Gets the type of a point.
+   *
+   * @param i the point index starting with the oldest point
+   * @return MOVE, LINE, or DOT
+   */
+  byte getType(int i) {
+    return type[index(i)];
+  }
+
+  /**
+   * Sets the maximum number of points.  The newest points are kept if the buffer is too large.
+   *
+   * @param max the maximum; zero or negative if unbounded
+   */
+  void setMaximum(int max) {
+    max = Math.max(max, 0);
+    if(max==maximum) {
+      return;
+    }
+    int skip = ((max>0)&&(size>max)) ? size-max : 0;
+    if(skip>0) {
+      removals++;
+    }
+    int capacity = size-skip;
+    if((max>0)&&(x.length>max)) {
+      capacity = max;
+    } else if(x.length>capacity) {
+      capacity = x.length;
+    }
+    float[] newX = new float[capacity], newY = new float[capacity];
+    byte[] newType = new byte[capacity];
+    for(int i = skip;i<size;i++) {
+      int j = index(i);
+      newX[i-skip] = x[j];
+      newY[i-skip] = y[j];
+      newType[i-skip] = type[j];
+    }
+    x = newX;
+    y = newY;
+    type = newType;
+    size -= skip;
+    first = 0;
+    maximum = max;
+  }
+
+  /**
+   * Removes all points.
+   */
+  void clear() {
+    x = new float[0];
+    y = new float[0];
+    type = new byte[0];
+    first = 0;
+    size = 0;
+    removals++;
+  }
+
+  /**
+   * Computes the bounds of the points.
+   *
+   * @param bounds an array that receives xmin, xmax, ymin, and ymax
+   */
+  void getBounds(double[] bounds) {
+    bounds[0] = bounds[2] = Double.MAX_VALUE;
+    bounds[1] = bounds[3] = -Double.MAX_VALUE;
+    for(int i = 0;i<size;i++) {
+      int j = index(i);
+      bounds[0] = Math.min(bounds[0], x[j]);
+      bounds[1] = Math.max(bounds[1], x[j]);
+      bounds[2] = Math.min(bounds[2], y[j]);
+      bounds[3] = Math.max(bounds[3], y[j]);
+    }
+  }
+
+  private int index(int i) {
+    i += first;
+    return (i>=x.length) ? i-x.length : i;
+  }
+
+  private void resize(int capacity) {
+    float[] newX = new float[capacity], newY = new float[capacity];
+    byte[] newType = new byte[capacity];
+    System.arraycopy(x, 0, newX, 0, size); // the buffer is not a ring until it is full
+    System.arraycopy(y, 0, newY, 0, size);
+    System.arraycopy(type, 0, newType, 0, size);
+    x = newX;
+    y = newY;
+    type = newType;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -47,6 +47,7 @@ public class TrailSmart extends TrailBezier{
       y1 = y2;
       x2 = x;
       y2 = y;
+      fireMeasureChanged();
    }
 
 
@@ -57,10 +58,10 @@ public class TrailSmart extends TrailBezier{
  */
 protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
    pathEnd.reset();
-   path.moveTo(endPts[0], endPts[1]);// start the path at the last point
-   path.lineTo(endPts[2], endPts[3]);
-   path.lineTo((float)x1, (float)y1);
-   path.lineTo((float)x2, (float)y2);
+   pathEnd.moveTo(endPts[0], endPts[1]);// start the path at the last point
+   pathEnd.lineTo(endPts[2], endPts[3]);
+   pathEnd.lineTo((float)x1, (float)y1);
+   pathEnd.lineTo((float)x2, (float)y2);
    Shape s = pathEnd.createTransformedShape(panel.getPixelTransform());
    g2.draw(s);
 }
@@ -71,7 +72,7 @@ protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
     * @return double
     */
    public double getXMin(){
-      return Math.min(x2,xmin);
+      return Math.min(x2,super.getXMin());
    }
 
    /**
@@ -79,7 +80,7 @@ protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
     * @return double
     */
    public double getXMax(){
-      return Math.max(x2,xmax);
+      return Math.max(x2,super.getXMax());
    }
 
    /**
@@ -87,7 +88,7 @@ protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
     * @return double
     */
    public double getYMin(){
-      return Math.min(y2,ymin);
+      return Math.min(y2,super.getYMin());
    }
 
    /**
@@ -95,8 +96,16 @@ protected void drawPathEnd(DrawingPanel panel, Graphics2D g2){
     * @return double
     */
    public double getYMax(){
-      return Math.max(y2,ymax);
+      return Math.max(y2,super.getYMax());
    }
 
-
+   /**
+    * Determines if the listeners are notified of every change to the measure.
+    * Pending points are reported whenever they are added.
+    *
+    * @return true if this is a TrailSmart rather than a subclass
+    */
+   public boolean isMeasureNotifying() {
+      return getClass()==TrailSmart.class;
+   }
 }
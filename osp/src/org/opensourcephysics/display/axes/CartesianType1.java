@@ -88,6 +88,9 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
   NumberFormat numberFormat = NumberFormat.getInstance();
   NumberFormat scientificFormat = new DecimalFormat("0.0E0");
 
+  /** The automatic ticks; these are reused until the scale changes. */
+  TickLabels xTickLabels = new TickLabels(), yTickLabels = new TickLabels();
+
   /** Whether to draw a background grid. */
   boolean drawMajorXGrid = true;
   boolean drawMinorXGrid = false;
@@ -302,6 +305,7 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
     }
     labelFont = Font.decode(name);
     // labelFontMetrics = getFontMetrics(labelFont);  FIX_ME
+    invalidateTickLabels();
   }
 
   /**
@@ -360,6 +364,7 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
    */
   public void setXLog(boolean xlog) {
     this.xlog = xlog;
+    invalidateTickLabels();
   }
 
   /**
@@ -386,6 +391,15 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
    */
   public void setYLog(boolean ylog) {
     this.ylog = ylog;
+    invalidateTickLabels();
+  }
+
+  /**
+   *  Forces the tick labels to be formatted and measured when the axes are drawn.
+   */
+  private void invalidateTickLabels() {
+    xTickLabels.invalidate();
+    yTickLabels.invalidate();
   }
 
   /**
@@ -442,6 +456,7 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
   public void resizeFonts(double factor, DrawingPanel panel) {
      super.resizeFonts(factor, panel);
      if(xLine==null) return;
+     invalidateTickLabels();
      xLine.setFont(labelFont);
      yLine.setFont(labelFont);
      int left = (int) (defaultLeftGutter*factor);
@@ -516,26 +531,36 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
         ygrid = gridInit(yStart, yTickSize, true, null);
         yTmpStart = gridStep(ygrid, yStart, yTickSize, ylog);
       }
-      // Set to false if we don't need the exponent
-      boolean needExponent = ylog;
-      boolean firstIteration = true;
-      graphics.setColor(foreground);
       double chop = Math.abs(yTickSize/100);
-      int counter = numberYTickMarks;
-      yTickWidth=7;
-      for(double ypos = yTmpStart;ypos<=ytickMax;ypos = gridStep(ygrid, ypos, yTickSize, ylog)) {
-        if(--counter<0) {
-          break;
-        }
-        String yticklabel = null;
-        if(ylog) {
-          yticklabel = formatLogNum(ypos, numfracdigits);
-          if(yticklabel.indexOf('e')!=-1) {
-            needExponent = false;
+      if(!yTickLabels.matches(yStart, ytickMax, yTickSize, numberYTickMarks, numfracdigits, ylog, chop, labelFontMetrics)) {
+        // the scale has changed so the labels are formatted and measured
+        yTickLabels.reset(yStart, ytickMax, yTickSize, numberYTickMarks, numfracdigits, ylog, chop, labelFontMetrics);
+        // Set to false if we don't need the exponent
+        yTickLabels.needExponent = ylog;
+        int counter = numberYTickMarks;
+        for(double ypos = yTmpStart;ypos<=ytickMax;ypos = gridStep(ygrid, ypos, yTickSize, ylog)) {
+          if(--counter<0) {
+            break;
           }
-        } else {
-          yticklabel = formatNum(ypos, numfracdigits, chop);
+          String yticklabel = null;
+          if(ylog) {
+            yticklabel = formatLogNum(ypos, numfracdigits);
+            if(yticklabel.indexOf('e')!=-1) {
+              yTickLabels.needExponent = false;
+            }
+          } else {
+            yticklabel = formatNum(ypos, numfracdigits, chop);
+          }
+          yTickLabels.add(ypos, yticklabel);
         }
+      }
+      boolean needExponent = yTickLabels.needExponent;
+      boolean firstIteration = true;
+      graphics.setColor(foreground);
+      yTickWidth=7;
+      for(int i = 0;i<yTickLabels.count;i++) {
+        double ypos = yTickLabels.positions[i];
+        String yticklabel = yTickLabels.labels[i];
         int yCoord1 = 0;
         if(ylog||yExponent==0) {
           yCoord1 = yToPix(ypos, panel);
@@ -557,11 +582,10 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
           graphics.drawLine(xCoord1, yCoord1, xCoord2, yCoord1);
           graphics.setColor(foreground);
         }
-        int labelWidth = labelFontMetrics.stringWidth(yticklabel);
+        int labelWidth = yTickLabels.widths[i];
         // NOTE: 4 pixel spacing between axis and labels.
         graphics.drawString(yticklabel, leftGutter-labelWidth-4, yCoord1+offset); // draw tick label
-        int sw=labelFontMetrics.stringWidth(yticklabel);
-        yTickWidth=Math.max(yTickWidth,sw);
+        yTickWidth=Math.max(yTickWidth,labelWidth);
       }
       if(ylog||drawMinorYGrid) {
         // Draw in grid lines that don't have labels.
@@ -674,28 +698,37 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
         // xgrid = gridInit(xStart, xTickSize);
         xTmpStart = gridRoundUp(xgrid, xStart);
       }
-      // Set to false if we don't need the exponent
-      boolean needExponent = xlog;
       // Label the x axis.  The labels are quantized so that
       // they don't have excess resolution.
-      graphics.setColor(foreground);
       double chop = Math.abs(yTickSize/100);
-      int counter = numberXTickMarks;
-      for(double xpos = xTmpStart;xpos<=xtickMax;xpos = gridStep(xgrid, xpos, xTickSize, xlog)) {
-        if(--counter<0) {
-          break;
-        }
-        String xticklabel = null;
-        boolean hasExponent = false;
-        if(xlog) {
-          xticklabel = formatLogNum(xpos, numfracdigits);
-          if(xticklabel.indexOf('e')!=-1) {
-            needExponent = false;
-            hasExponent = true;
+      if(!xTickLabels.matches(xStart, xtickMax, xTickSize, numberXTickMarks, numfracdigits, xlog, chop, labelFontMetrics)) {
+        // the scale has changed so the labels are formatted and measured
+        xTickLabels.reset(xStart, xtickMax, xTickSize, numberXTickMarks, numfracdigits, xlog, chop, labelFontMetrics);
+        // Set to false if we don't need the exponent
+        xTickLabels.needExponent = xlog;
+        int counter = numberXTickMarks;
+        for(double xpos = xTmpStart;xpos<=xtickMax;xpos = gridStep(xgrid, xpos, xTickSize, xlog)) {
+          if(--counter<0) {
+            break;
           }
-        } else {
-          xticklabel = formatNum(xpos, numfracdigits, chop);
+          String xticklabel = null;
+          if(xlog) {
+            xticklabel = formatLogNum(xpos, numfracdigits);
+            if(xticklabel.indexOf('e')!=-1) {
+              xTickLabels.needExponent = false;
+            }
+          } else {
+            xticklabel = formatNum(xpos, numfracdigits, chop);
+          }
+          xTickLabels.add(xpos, xticklabel);
         }
+      }
+      boolean needExponent = xTickLabels.needExponent;
+      graphics.setColor(foreground);
+      for(int i = 0;i<xTickLabels.count;i++) {
+        double xpos = xTickLabels.positions[i];
+        String xticklabel = xTickLabels.labels[i];
+        boolean hasExponent = xlog&&(xticklabel.indexOf('e')!=-1);
         if(xlog||xExponent==0) {  // exponent is drawn if greater than 1
           xCoord1 = xToPix(xpos, panel);
         } else {
@@ -709,7 +742,7 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
           graphics.drawLine(xCoord1, yCoord1, xCoord1, yCoord2);
           graphics.setColor(foreground);
         }
-        int labxpos = xCoord1-labelFontMetrics.stringWidth(xticklabel)/2;
+        int labxpos = xCoord1-xTickLabels.widths[i]/2;
         if(hasExponent) {
           graphics.drawString(xticklabel, labxpos+7, lry+3+labelheight); // draw tick label
         } else {
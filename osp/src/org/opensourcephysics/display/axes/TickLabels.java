@@ -0,0 +1,112 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.display.axes;
+import java.awt.FontMetrics;
+
+/**
+ * TickLabels stores the positions, labels, and label widths of the ticks on an axis.
+ *
+ * The ticks are determined by the tick range, the tick spacing, and the label font.  Axes
+ * reuse the stored ticks until one of these changes so that the labels are not formatted
+ * and measured every time the axes are drawn.  Axes invalidate the ticks when the label
+ * font or the label format is set.
+ *
+ * @version 1.0
+ */
+class TickLabels {
+  double start, max, step, chop;
+  int marks, digits;
+  boolean log;
+  FontMetrics metrics;
+  boolean valid = false;
+  boolean needExponent; // the exponent flag computed while labeling a log axis
+  int count = 0;
+  double[] positions = new double[16];
+  String[] labels = new String[16];
+  int[] widths = new int[16];
+
+  /**
+   * Determines if the stored ticks were computed for the given parameters.
+   *
+   * @return true if the ticks can be reused
+   */
+  boolean matches(double start, double max, double step, int marks, int digits, boolean log, double chop, FontMetrics metrics) {
+    return valid&&(this.start==start)&&(this.max==max)&&(this.step==step)&&(this.marks==marks)&&(this.digits==digits)&&(this.log==log)&&(this.chop==chop)&&(this.metrics==metrics);
+  }
+
+  /**
+   * Removes the stored ticks and records the parameters of the new ticks.
+   */
+  void reset(double start, double max, double step, int marks, int digits, boolean log, double chop, FontMetrics metrics) {
+    this.start = start;
+    this.max = max;
+    this.step = step;
+    this.marks = marks;
+    this.digits = digits;
+    this.log = log;
+    this.chop = chop;
+    this.metrics = metrics;
+    count = 0;
+    valid = true;
+  }
+
+  /**
+   * Adds a tick.
+   *
+   * @param position the tick position
+   * @param label the tick label
+   */
+  void add(double position, String label) {
+    if(count==positions.length) {
+      double[] newPositions = new double[2*count];
+      String[] newLabels = new String[2*count];
+      int[] newWidths = new int[2*count];
+      System.arraycopy(positions, 0, newPositions, 0, count);
+      System.arraycopy(labels, 0, newLabels, 0, count);
+      System.arraycopy(widths, 0, newWidths, 0, count);
+      positions = newPositions;
+      labels = newLabels;
+      widths = newWidths;
+    }
+    positions[count] = position;
+    labels[count] = label;
+    widths[count] = metrics.stringWidth(label);
+    count++;
+  }
+
+  /**
+   * Forces the ticks to be recomputed.
+   */
+  void invalidate() {
+    valid = false;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
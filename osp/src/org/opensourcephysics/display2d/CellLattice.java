@@ -6,6 +6,7 @@
  */
 
 package org.opensourcephysics.display2d;
+import org.opensourcephysics.display.Cacheable;
 import org.opensourcephysics.display.DrawingPanel;
 import java.awt.Graphics;
 import java.awt.Color;
@@ -24,7 +25,7 @@ import javax.swing.JFrame;
  * @created    July 3, 2005
  * @version    1.0
  */
-public class CellLattice implements ByteLattice {
+public class CellLattice implements ByteLattice, Cacheable {
   ByteLattice lattice = null;
   static String osName;
 
@@ -75,6 +76,15 @@ public class CellLattice implements ByteLattice {
     lattice.draw(panel, g);
   }
 
+  /**
+   * Gets the change count of the lattice that draws the cells.
+   *
+   * @return the change count
+   */
+  public long getChangeCount() {
+    return((Cacheable) lattice).getChangeCount();
+  }
+
   public int getNx() {
     return lattice.getNx();
   }
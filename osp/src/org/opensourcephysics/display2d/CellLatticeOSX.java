@@ -81,6 +81,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     ny = _ny;
     setMinMax(xmin, xmax, ymin, ymax);
     data = new byte[nx][ny]; // site array
+    changeCount++;
   }
 
   /**
@@ -174,6 +175,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
    */
   public void setVisible(boolean isVisible) {
     visible = isVisible;
+    changeCount++;
   }
 
   private Rectangle getBounds(DrawingPanel panel) {
@@ -248,6 +250,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
         data[ix][iy] = val[ix-ix_offset][iy-iy_offset];
       }
     }
+    changeCount++;
   }
 
   /**
@@ -299,6 +302,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
         data[ix][iy] = (byte) val[ix-ix_offset][iy-iy_offset];
       }
     }
+    changeCount++;
   }
 
   /**
@@ -327,6 +331,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     for(int iy = iy_offset, my = val.length+iy_offset;iy<my;iy++) {
       data[ix][iy] = val[iy-iy_offset];
     }
+    changeCount++;
   }
 
   /**
@@ -346,6 +351,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     for(int xindex = ix_offset, mx = val.length+ix_offset;xindex<mx;xindex++) {
       data[xindex][iy] = val[xindex-ix_offset];
     }
+    changeCount++;
   }
 
   /**
@@ -363,6 +369,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
       throw new IllegalArgumentException("Column index "+ix+" out of range.");
     }
     data[ix][iy] = val;
+    changeCount++;
   }
 
   /**
@@ -385,6 +392,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
    */
   public void setShowVisible(boolean isVisible) {
     visible = isVisible; // note that we are shadowing super.visible
+    changeCount++;
   }
 
   /**
@@ -394,6 +402,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
    */
   public void setShowGridLines(boolean showGridLines) {
     super.visible = showGridLines;
+    changeCount++;
   }
 
   /** Randomizes the lattice values. */
@@ -404,6 +413,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
         data[cindex][rindex] = (byte) random.nextInt(256);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -451,6 +461,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     for(int i = n;i<256;i++) {
       colors[i] = Color.black;
     }
+    changeCount++;
   }
 
   /**
@@ -460,6 +471,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
    */
   public void setGridLineColor(Color _color) {
     color = _color;
+    changeCount++;
   }
 
   /**
@@ -472,6 +484,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     // i         = i % colors.length;
     i = (i+256)%colors.length;
     colors[i] = color;
+    changeCount++;
   }
 
   /**
@@ -486,18 +499,22 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
 
   public void setXMin(double _value) {
     xmin = _value;
+    changeCount++;
   }
 
   public void setXMax(double _value) {
     xmax = _value;
+    changeCount++;
   }
 
   public void setYMin(double _value) {
     ymin = _value;
+    changeCount++;
   }
 
   public void setYMax(double _value) {
     ymax = _value;
+    changeCount++;
   }
 
   /**
@@ -516,6 +533,7 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
       int blue = (int) (255*val);  // blue
       colors[i] = new Color(red, green, blue);
     }
+    changeCount++;
   }
 }
 
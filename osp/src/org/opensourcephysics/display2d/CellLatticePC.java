@@ -30,7 +30,7 @@ import org.opensourcephysics.display.axes.XYAxis;
  * @created    February 11, 2003
  * @version    1.0
  */
-public class CellLatticePC extends MeasuredImage implements ByteLattice {
+public class CellLatticePC extends MeasuredImage implements ByteLattice, Cacheable {
   // static final int ZERO = 0;
   WritableRaster raster;
   Grid grid;
@@ -117,6 +117,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
       }
     }
     setMinMax(0, nx, 0, ny);
+    changeCount++;
   }
 
   /**
@@ -148,6 +149,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
   public void setMinMax(double xmin, double xmax, double ymin, double ymax) {
     super.setMinMax(xmin, xmax, ymin, ymax);
     grid.setMinMax(xmin, xmax, ymin, ymax);
+    changeCount++;
   }
 
   /**
@@ -222,6 +224,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
         raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -244,6 +247,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
         raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -264,6 +268,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
       data[ix][iy] = val[iy-iy_offset];
       raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]);
     }
+    changeCount++;
   }
 
   /**
@@ -284,6 +289,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
       data[xindex][iy] = val[xindex-ix_offset];
       raster.setPixel(xindex, ny-iy-1, rgb[data[xindex][iy]&0xFF]);
     }
+    changeCount++;
   }
 
   /**
@@ -296,6 +302,16 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
   public void setValue(int ix, int iy, byte val) {
     data[ix][iy] = val;
     raster.setPixel(ix, ny-iy-1, rgb[val&0xFF]);
+    changeCount++;
+  }
+
+  /**
+   * Gets the change count.  The count is incremented whenever the values, colors, grid, or scale change.
+   *
+   * @return the change count
+   */
+  public long getChangeCount() {
+    return changeCount;
   }
 
   /**
@@ -383,6 +399,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
    */
   public void setShowGridLines(boolean showGridLines) {
     grid.setVisible(showGridLines);
+    changeCount++;
   }
 
   /**
@@ -396,6 +413,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
         raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]); // sets the image pixel
       }
     }
+    changeCount++;
   }
 
   /**
@@ -457,6 +475,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
         raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -465,6 +484,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
    */
   public void setGridLineColor(Color color) {
     grid.setColor(color);
+    changeCount++;
   }
 
   /**
@@ -484,6 +504,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
         raster.setPixel(ix, ny-iy-1, rgb[data[ix][iy]&0xFF]);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -501,6 +522,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
       val = Math.exp(-x*x*8);
       rgb[i][2] = (int) (255*val); // blue
     }
+    changeCount++;
   }
 }
 
@@ -60,6 +60,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     ny = sy-1; // in Grid
     setMinMax(xmin, xmax, ymin, ymax);
     data = new byte[sx][sy]; // site array
+    changeCount++;
   }
 
   /**
@@ -97,6 +98,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
    */
   public void setVisible(boolean isVisible) {
     visible = isVisible;
+    changeCount++;
   }
 
   /**
@@ -181,6 +183,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
         data[ix][iy] = val[ix-ix_offset][iy-iy_offset];
       }
     }
+    changeCount++;
   }
 
   /**
@@ -202,6 +205,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
         data[ix][iy] = (byte) val[ix-ix_offset][iy-iy_offset];
       }
     }
+    changeCount++;
   }
 
   /**
@@ -230,6 +234,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     for(int iy = iy_offset, my = val.length+iy_offset;iy<my;iy++) {
       data[ix][iy] = val[iy-iy_offset];
     }
+    changeCount++;
   }
 
   /**
@@ -249,6 +254,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     for(int xindex = ix_offset, mx = val.length+ix_offset;xindex<mx;xindex++) {
       data[xindex][iy] = val[xindex-ix_offset];
     }
+    changeCount++;
   }
 
   /**
@@ -266,6 +272,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
       throw new IllegalArgumentException("Column index "+ix+" out of range.");
     }
     data[ix][iy] = val;
+    changeCount++;
   }
 
   /**
@@ -355,6 +362,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
    */
   public void setShowVisible(boolean isVisible) {
     visible = isVisible; // note that we are shadowing super.visible
+    changeCount++;
   }
 
   /**
@@ -364,6 +372,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
    */
   public void setShowGridLines(boolean showGridLines) {
     super.visible = showGridLines;
+    changeCount++;
   }
 
   /** Randomizes the lattice values. */
@@ -374,6 +383,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
         data[cindex][rindex] = (byte) random.nextInt(256);
       }
     }
+    changeCount++;
   }
 
   /**
@@ -421,6 +431,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     for(int i = n;i<256;i++) {
       colors[i] = Color.black;
     }
+    changeCount++;
   }
 
   /**
@@ -430,6 +441,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
    */
   public void setGridLineColor(Color _color) {
     color = _color;
+    changeCount++;
   }
 
   /**
@@ -442,6 +454,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     // i = i % colors.length;
     i = (i+256)%colors.length;
     colors[i] = color;
+    changeCount++;
   }
 
   /**
@@ -487,18 +500,22 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
 
   public void setXMin(double _value) {
     xmin = _value+dy/2;
+    changeCount++;
   }
 
   public void setXMax(double _value) {
     xmax = _value-dy/2;
+    changeCount++;
   }
 
   public void setYMin(double _value) {
     ymin = _value+dy/2;
+    changeCount++;
   }
 
   public void setYMax(double _value) {
     ymax = _value-dy/2;
+    changeCount++;
   }
 
   /**
@@ -517,6 +534,7 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
       int blue = (int) (255*val);  // blue
       colors[i] = new Color(red, green, blue);
     }
+    changeCount++;
   }
 }
 
@@ -23,8 +23,8 @@ public class ElementTrail extends Element implements org.opensourcephysics.displ
 
   // Implementation variables
   private int theFirstPoint = 0;
-  protected ArrayList list = new ArrayList();
-  private TrailPoint[] points = new TrailPoint[0];
+  protected ArrayList list = new ArrayList();     // the points; a full list is overwritten starting at theFirstPoint
+  private TrailPoint[] points = new TrailPoint[0]; // a copy of the list that is given to the panel
   // private boolean cloning = false;
 
   // -------------------------------------
@@ -78,14 +78,16 @@ public class ElementTrail extends Element implements org.opensourcephysics.displ
   private void addPoint(double _x, double _y, double _z, boolean _c) {
     synchronized(list) {
       int position = list.size();
-      if(maximum>0&&position>=maximum) {
+      TrailPoint point;
+      if(maximum>0&&position>=maximum) { // replace the oldest point without shifting the list
         position = theFirstPoint;
-        list.remove(theFirstPoint);
         theFirstPoint = (theFirstPoint+1)%maximum;
+        point = new TrailPoint(position, _x, _y, _z, _c);
+        list.set(position, point);
+      } else {
+        point = new TrailPoint(position, _x, _y, _z, _c);
+        list.add(point);
       }
-      TrailPoint point = new TrailPoint(position, _x, _y, _z, _c);
-      // while (cloning); // wait for cloning to finish
-      list.add(position, point);
       if(getPanel()!=null) {
         point.transformAndProject();
       }
@@ -13,6 +13,8 @@ import org.opensourcephysics.controls.*;
 import org.opensourcephysics.display.*;
 import org.opensourcephysics.tools.DataTool;
 import java.awt.Color;
+import java.text.DecimalFormat;
+import org.opensourcephysics.numerics.RunningStatistics;
 
 /**
  * HistogramFrame displays a histogram using a dedicated Histogram object.
@@ -27,6 +29,8 @@ public class HistogramFrame extends DrawingFrame {
   DataTool tool;
   HistogramDataset dataset;
   JCheckBoxMenuItem logItem;
+  boolean showStatistics;
+  DecimalFormat statisticsFormat = new DecimalFormat("0.###E0");
 
   /**
    * A DrawingFrame with a Histogram as its drawable.
@@ -256,6 +260,72 @@ protected JMenu loadToolsMenu() {
     }
   }
 
+  /**
+   *  Appends values with 1 occurence from a range of an array.
+   *
+   * @param  values
+   * @param  from    the index of the first value
+   * @param  to      the index after the last value
+   */
+  public void append(double[] values, int from, int to){
+     histogram.append(values, from, to);
+     if(tableFrame!=null&&tableFrame.isShowing()) {
+       dataTable.refreshTable();
+    }
+  }
+
+  /**
+   *  Gets the statistics of the appended values.
+   *
+   * @return    a copy of the histogram's statistics
+   */
+  public RunningStatistics getStatistics() {
+    return histogram.getStatistics();
+  }
+
+  /**
+   *  Enables a quantile sketch of the appended values.
+   *
+   * @param  enable
+   */
+  public void enableQuantileSketch(boolean enable) {
+    histogram.enableQuantileSketch(enable);
+  }
+
+  /**
+   *  Estimates the value below which the given fraction of the appended values lies.
+   *
+   * @param  q  the fraction between 0 and 1
+   * @return    the quantile or NaN if the quantile sketch is not enabled
+   */
+  public double getQuantile(double q) {
+    return histogram.getQuantile(q);
+  }
+
+  /**
+   *  Shows the count, mean, and standard deviation of the appended values in the message box.
+   *  The message is updated whenever the frame is rendered.
+   *
+   * @param  show
+   */
+  public void showStatistics(boolean show) {
+    showStatistics = show;
+    if(!show) {
+      setMessage(null);
+    }
+  }
+
+  /**
+   * Updates the statistics message and renders the drawing panel.
+   */
+  public void render() {
+    if(showStatistics) {
+      RunningStatistics stats = histogram.getStatistics();
+      setMessage("n="+stats.getCount()+"  mean="+statisticsFormat.format(stats.getMean())+"  sd="+statisticsFormat.format(stats.getStandardDeviation()));
+    }
+    super.render();
+  }
+
   /**
    *  Sets the discrete flag in the histogram.
    *
@@ -265,6 +335,15 @@ public void setDiscrete(boolean b) {
   histogram.setDiscrete(b);
 }
 
+  /**
+   *  Enables concurrent appends from several threads.
+   *
+   * @param  concurrent  <code>true<\code> if values are appended from several threads
+   */
+  public void setConcurrentAppends(boolean concurrent) {
+    histogram.setConcurrentAppends(concurrent);
+  }
+
 
   /**
    * Histogram uses logarithmic scale (true/false)
@@ -300,6 +379,24 @@ public void setDiscrete(boolean b) {
     return histogram.getBinWidth();
   }
 
+  /**
+   *  Sets logarithmic bins with the given number of bins per factor of ten.
+   *
+   * @param  binsPerDecade
+   */
+  public void setLogBins(int binsPerDecade) {
+    histogram.setLogBins(binsPerDecade);
+  }
+
+  /**
+   *  Sets bins with variable widths.  Bin n contains the values in [edges[n], edges[n+1]).
+   *
+   * @param  edges  the bin edges in increasing order
+   */
+  public void setBinEdges(double[] edges) {
+    histogram.setBinEdges(edges);
+  }
+
   /**
    * Sets the bin's fill and edge colors.  If the fill color is null the bin is not filled.
    *
@@ -6,24 +6,25 @@
  */
 
 package org.opensourcephysics.frames;
+import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Iterator;
-import org.opensourcephysics.display.Drawable;
 import org.opensourcephysics.display.DrawingFrame;
 import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Interactive;
 import org.opensourcephysics.display.InteractiveCircle;
-import org.opensourcephysics.display.Measurable;
+import org.opensourcephysics.display.ParticleSystem;
 import org.opensourcephysics.display.PlottingPanel;
 import org.opensourcephysics.display.DisplayColors;
 
 /**
  * A DrawingFrame that displays particles.
  *
- * Particle locations are specified using a Point2D.
- * The default particle drawing shape is a circle.
+ * Particle locations are specified using a Point2D or a packed array of coordinates.
+ * The default particle drawing shape is a circle.  Circles are stamped by a ParticleSystem
+ * so that large numbers of particles can be animated.
  *
  * @author W. Christian
  * @version 1.0
@@ -54,7 +55,7 @@ public class ParticleFrame extends DrawingFrame {
     while(index>=partlist.size()) {
       Particles p = new Particles();
       partlist.add(p);
-      ((InteractiveCircle) p.shape).color = DisplayColors.getLineColor(partlist.indexOf(p));
+      p.circle.color = DisplayColors.getLineColor(partlist.indexOf(p));
       addDrawable(p);
     }
     return(Particles) partlist.get(index);
@@ -80,6 +81,40 @@ public class ParticleFrame extends DrawingFrame {
     checkIndex(i).addParticles(points);
   }
 
+  /**
+   * Sets the positions of the particles without copying the array.
+   *
+   * The array replaces the particles that have been added.  A new array should be passed
+   * to this method rather than modifying an array that may be drawn.
+   *
+   * @param  i
+   * @param xy the packed positions x0, y0, x1, y1, ...
+   * @param n the number of particles
+   */
+  public void setParticles(int i, double[] xy, int n) {
+    checkIndex(i).setPositions(xy, n);
+  }
+
+  /**
+   * Sets the colors of the particles without copying the array.
+   *
+   * @param  i
+   * @param colors the colors or null to use the default color
+   */
+  public void setParticleColors(int i, Color[] colors) {
+    checkIndex(i).setColors(colors);
+  }
+
+  /**
+   * Sets the radii of the particles in pixels without copying the array.
+   *
+   * @param  i
+   * @param radii the radii or null to use the default radius
+   */
+  public void setParticleRadii(int i, int[] radii) {
+    checkIndex(i).setRadii(radii);
+  }
+
   /**
    * Sets the drawing shape for the particles.
    *
@@ -112,110 +147,46 @@ public class ParticleFrame extends DrawingFrame {
     drawingPanel.invalidateImage();
   }
 
-  class Particles implements Drawable, Measurable {
-    Interactive shape = new InteractiveCircle();
-    private ArrayList pointList = new ArrayList();
-    double xmin = Double.MAX_VALUE, xmax = -Double.MAX_VALUE, ymin = Double.MAX_VALUE, ymax = -Double.MAX_VALUE;
+  class Particles extends ParticleSystem {
+    InteractiveCircle circle = new InteractiveCircle();
+    Interactive shape = circle;
 
     Particles() {
       shape.setEnabled(false); // default cannot drag particles
     }
 
     void addParticle(Point2D point) {
-      synchronized(pointList) {
-        xmax = Math.max(xmax, point.getX());
-        xmin = Math.min(xmin, point.getX());
-        ymax = Math.max(ymax, point.getY());
-        ymin = Math.min(ymin, point.getY());
-        pointList.add(point);
-      }
+      addParticle(point.getX(), point.getY());
     }
 
-    void addParticles(Point2D[] points) {
+    synchronized void addParticles(Point2D[] points) {
       for(int i = 0, n = points.length;i<n;i++) {
-        xmax = Math.max(xmax, points[i].getX());
-        xmin = Math.min(xmin, points[i].getX());
-        ymax = Math.max(ymax, points[i].getY());
-        ymin = Math.min(ymin, points[i].getY());
-      }
-      synchronized(pointList) {
-        pointList.add(points);
-      }
-    }
-
-    void clear() {
-      synchronized(pointList) {
-        pointList.clear();
-        xmin = Double.MAX_VALUE;
-        xmax = -Double.MAX_VALUE;
-        ymin = Double.MAX_VALUE;
-        ymax = -Double.MAX_VALUE;
+        addParticle(points[i].getX(), points[i].getY());
       }
     }
 
     /**
      * Draws the particles.
      *
+     * Circles are drawn by the particle system.  Other shapes are moved to every particle.
+     *
      * @param panel DrawingPanel
      * @param g Graphics
      */
     public void draw(DrawingPanel panel, Graphics g) {
-      synchronized(pointList) {
-        Iterator it = pointList.iterator();
-        while(it.hasNext()) {
-          Point2D point = ((Point2D) it.next());
-          shape.setXY(point.getX(), point.getY());
+      if(shape==circle) {
+        color = circle.color;
+        pixRadius = circle.pixRadius;
+        super.draw(panel, g);
+        return;
+      }
+      synchronized(this) {
+        for(int i = 0;i<count;i++) {
+          shape.setXY(positions[2*i], positions[2*i+1]);
           shape.draw(panel, g);
         }
       }
     }
-
-    /**
-     * getXMax
-     *
-     * @return double
-     */
-    public double getXMax() {
-      return xmax;
-    }
-
-    /**
-     * getXMin
-     *
-     * @return double
-     */
-    public double getXMin() {
-      return xmin;
-    }
-
-    /**
-     * getYMax
-     *
-     * @return double
-     */
-    public double getYMax() {
-      return ymax;
-    }
-
-    /**
-     * getYMin
-     *
-     * @return double
-     */
-    public double getYMin() {
-      return ymin;
-    }
-
-    /**
-     * There is a measure if there is at least one particle.
-     *
-     * @return boolean
-     */
-    public boolean isMeasured() {
-      synchronized(pointList) {
-        return(pointList.size()>0) ? true : false;
-      }
-    }
   }
 }
 
@@ -74,6 +74,7 @@ public class VideoPanel extends InteractivePanel
   protected Point2D pt = new Point2D.Double();
   protected File dataFile;
   protected Map filterClasses = new TreeMap(); // maps filter names to classes
+  private ArrayList trackables, trackableSource; // the trackables drawn in imagespace and the list they came from
   public boolean changed = false;
   public String defaultFileName;
 
@@ -356,6 +357,25 @@ public class VideoPanel extends InteractivePanel
     return super.getDrawables(Trackable.class);
   }
 
+  /**
+   * Overrides DrawingPanel getDrawableSnapshot method so that only trackables
+   * are drawn in imagespace.
+   *
+   * @return the shared list of Drawable objects
+   */
+  protected synchronized ArrayList getDrawableSnapshot() {
+    ArrayList list = super.getDrawableSnapshot();
+    if (!isDrawingInImageSpace()) return list;
+    if (list != trackableSource) {
+      trackables = new ArrayList();
+      for (int i = 0, n = list.size(); i < n; i++) {
+        if (list.get(i) instanceof Trackable) trackables.add(list.get(i));
+      }
+      trackableSource = list;
+    }
+    return trackables;
+  }
+
   /**
    * Adds a drawable object to the drawable list.
    *
@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * AbstractODE provides a common superclass for ODESolvers.
@@ -13,7 +16,7 @@ package org.opensourcephysics.numerics;
  * @author       Wolfgang Christian
  * @version 1.0
  */
-public abstract class AbstractODESolver extends Object implements ODESolver{
+public abstract class AbstractODESolver extends Object implements ODESolver, Checkpointable{
    protected double stepSize = 0.1; // parameter increment such as delta time
    protected int numEqn = 0; // number of equations
    protected ODE ode; // object that computes rate
@@ -79,6 +82,40 @@ public abstract class AbstractODESolver extends Object implements ODESolver{
       return stepSize;
    }
 
+   /**
+    * Writes the step size and the number of equations.
+    *
+    * Solvers that keep a history of previous steps write the history after invoking this method.
+    *
+    * @param out the output stream
+    * @throws IOException
+    */
+   public void writeState(DataOutput out) throws IOException{
+      out.writeDouble(stepSize);
+      out.writeInt(numEqn);
+   }
+
+   /**
+    * Reads the step size and the number of equations.
+    *
+    * The solver is initialized if the number of equations has changed.
+    *
+    * @param in the input stream
+    * @throws IOException if the ODE does not have the saved number of equations
+    */
+   public void readState(DataInput in) throws IOException{
+      double savedStepSize = in.readDouble();
+      int n = in.readInt();
+      double state[] = ode.getState();
+      if (n!=((state==null) ? 0 : state.length)){
+         throw new IOException("Checkpoint has "+n+" equations.");
+      }
+      if (n!=numEqn){
+         initialize(savedStepSize);
+      }
+      stepSize = savedStepSize;
+   }
+
 }
 
 /*
@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Title:        Adams5
@@ -78,6 +81,36 @@ public class Adams5 extends Butcher5 {
     System.arraycopy(fn,  0, fn1, 0, numEqn);
     return stepSize;
   }
+
+  /**
+   * Writes the step size, the number of starting steps, and the rate history.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    super.writeState(out);
+    out.writeInt(counter);
+    Checkpoint.writeDoubles(out, fn1);
+    Checkpoint.writeDoubles(out, fn2);
+    Checkpoint.writeDoubles(out, fn3);
+    Checkpoint.writeDoubles(out, fn4);
+  }
+
+  /**
+   * Reads the step size, the number of starting steps, and the rate history.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    super.readState(in);
+    counter = in.readInt();
+    Checkpoint.readDoubles(in, fn1);
+    Checkpoint.readDoubles(in, fn2);
+    Checkpoint.readDoubles(in, fn3);
+    Checkpoint.readDoubles(in, fn4);
+  }
 }
 
 /*
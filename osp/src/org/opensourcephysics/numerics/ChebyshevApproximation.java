@@ -0,0 +1,240 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * ChebyshevApproximation replaces an expensive function by piecewise Chebyshev series on a finite interval.
+ *
+ * The interval is divided into equal segments and the function is fit on each segment using its values
+ * at the Chebyshev nodes.  The series are evaluated using the Clenshaw recurrence so that the cost of an
+ * evaluation is a segment lookup and a fixed number of multiplications.  Values outside the interval
+ * are obtained from the original function.
+ *
+ * Use the fit method to obtain an approximation having a given accuracy.
+ *
+ * @version 1.0
+ */
+public class ChebyshevApproximation implements Function {
+  /** The degree used by the fit method. */
+  public static final int DEFAULT_DEGREE = 14;
+  static final int MAX_SEGMENTS = 1<<14;
+  Function f;
+  double a, b, segmentWidth;
+  int segments, degree;
+  double[][] coef;
+  double error = Double.NaN;
+
+  /**
+   * Constructs a ChebyshevApproximation with the given number of segments and the given degree.
+   *
+   * @param f the function
+   * @param a the start of the interval
+   * @param b the end of the interval
+   * @param segments the number of segments
+   * @param degree the degree of the polynomial on each segment
+   */
+  public ChebyshevApproximation(Function f, double a, double b, int segments, int degree) {
+    if(!(b>a)) {
+      throw new IllegalArgumentException("Chebyshev approximation interval is empty.");
+    }
+    this.f = f;
+    this.a = a;
+    this.b = b;
+    this.segments = Math.max(1, segments);
+    this.degree = Math.max(0, degree);
+    segmentWidth = (b-a)/this.segments;
+    coef = new double[this.segments][];
+    for(int i = 0;i<this.segments;i++) {
+      coef[i] = coefficients(f, a+i*segmentWidth, a+(i+1)*segmentWidth, this.degree);
+    }
+  }
+
+  /**
+   * Creates an approximation whose error on the interval does not exceed the tolerance.
+   *
+   * The error is absolute where |f| is less than one and relative elsewhere.  The number of segments
+   * is doubled until the error, measured between the nodes of every segment, is within the tolerance.
+   *
+   * @param f the function
+   * @param a the start of the interval
+   * @param b the end of the interval
+   * @param tolerance the error
+   * @return the approximation
+   */
+  public static ChebyshevApproximation fit(Function f, double a, double b, double tolerance) {
+    int n = 1;
+    ChebyshevApproximation cheb = new ChebyshevApproximation(f, a, b, n, DEFAULT_DEGREE);
+    while((cheb.measureError()>tolerance)&&(n<MAX_SEGMENTS)) {
+      n *= 2;
+      cheb = new ChebyshevApproximation(f, a, b, n, DEFAULT_DEGREE);
+    }
+    return cheb;
+  }
+
+  /**
+   * Computes the Chebyshev coefficients of a function on the interval [lo, hi].
+   *
+   * @param f the function
+   * @param lo
+   * @param hi
+   * @param degree the degree of the series
+   * @return the coefficients
+   */
+  public static double[] coefficients(Function f, double lo, double hi, int degree) {
+    int n = degree+1;
+    double[] fx = new double[n];
+    double mid = (hi+lo)/2, half = (hi-lo)/2;
+    for(int k = 0;k<n;k++) {
+      fx[k] = f.evaluate(mid+half*Math.cos(Math.PI*(k+0.5)/n));
+    }
+    double[] c = new double[n];
+    for(int j = 0;j<n;j++) {
+      double sum = 0;
+      for(int k = 0;k<n;k++) {
+        sum += fx[k]*Math.cos(Math.PI*j*(k+0.5)/n);
+      }
+      c[j] = 2.0*sum/n;
+    }
+    c[0] /= 2; // so that the series is c0 + c1 T1 + c2 T2 ...
+    return c;
+  }
+
+  /**
+   * Evaluates the approximation at x.
+   *
+   * @param x
+   * @return f(x)
+   */
+  public double evaluate(double x) {
+    if((x<a)||(x>b)||(x!=x)) {
+      return f.evaluate(x);
+    }
+    double t = (x-a)/segmentWidth;
+    int i = (int) t;
+    if(i>=segments) {
+      i = segments-1;
+    }
+    double u = 2*(t-i)-1;
+    double[] c = coef[i];
+    // Clenshaw recurrence
+    double u2 = 2*u, b1 = 0, b2 = 0;
+    for(int j = degree;j>0;j--) {
+      double tmp = b1;
+      b1 = u2*b1-b2+c[j];
+      b2 = tmp;
+    }
+    return u*b1-b2+c[0];
+  }
+
+  /**
+   * Evaluates the approximation at every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public void evaluate(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = evaluate(x[i]);
+    }
+  }
+
+  /**
+   * Gets the maximum error measured between the Chebyshev nodes.
+   * The error is absolute where |f| is less than one and relative elsewhere.
+   *
+   * @return the error
+   */
+  public double getError() {
+    if(error!=error) {
+      measureError();
+    }
+    return error;
+  }
+
+  /**
+   * Gets the number of segments.
+   *
+   * @return int
+   */
+  public int getSegmentCount() {
+    return segments;
+  }
+
+  /**
+   * Gets the degree of the polynomial on each segment.
+   *
+   * @return int
+   */
+  public int getDegree() {
+    return degree;
+  }
+
+  /**
+   * Gets the start of the approximation interval.
+   *
+   * @return double
+   */
+  public double getStart() {
+    return a;
+  }
+
+  /**
+   * Gets the end of the approximation interval.
+   *
+   * @return double
+   */
+  public double getEnd() {
+    return b;
+  }
+
+  double measureError() {
+    int n = degree+1;
+    double max = 0;
+    for(int i = 0;i<segments;i++) {
+      double lo = a+i*segmentWidth;
+      for(int k = 0;k<=n;k++) { // points midway between the nodes and at the segment ends
+        double u = (k==0) ? -1 : ((k==n) ? 1 : Math.cos(Math.PI*k/n));
+        double x = lo+(u+1)*segmentWidth/2;
+        if(x>b) {
+          x = b;
+        }
+        double fx = f.evaluate(x);
+        double diff = Math.abs(evaluate(x)-fx)/Math.max(1, Math.abs(fx));
+        if(!(diff<=max)) {
+          max = diff;
+        }
+      }
+    }
+    error = max;
+    return max;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,626 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+
+/**
+ * Checkpoint saves and restores the state of an ODE, its ODESolver, and registered fields
+ * using a compact binary format.
+ *
+ * Double values are stored using their bit patterns.  Solvers that implement Checkpointable, such as
+ * the adaptive and the Adams predictor-corrector solvers, also save their step size and history so that
+ * a restored computation continues exactly as the original computation would have continued.
+ *
+ * A checkpoint can save itself periodically.  Snapshots are taken on the calling thread and are written
+ * to disk on a background thread.  Only the most recent files are kept.
+ *
+ * @version 1.0
+ */
+public class Checkpoint {
+  static final int MAGIC = 0x4F535043; // OSPC
+  static final int VERSION = 1;
+  private ODE ode;
+  private ODESolver solver;
+  private ArrayList entries = new ArrayList();
+  // automatic saving
+  private File directory;
+  private String prefix = "checkpoint";
+  private int interval = 0;
+  private int maxFiles = 2;
+  private int stepCounter = 0;
+  private int fileCounter = 0;
+  private ArrayList savedFiles = new ArrayList();
+  private byte[] pendingBytes;
+  private File pendingFile;
+  private boolean writing = false;
+  private Thread writerThread;
+
+  /**
+   * Constructs a Checkpoint for an ODE that is advanced by the given solver.
+   * Either argument may be null.
+   *
+   * @param ode the ODE
+   * @param solver the ODE solver
+   */
+  public Checkpoint(ODE ode, ODESolver solver) {
+    this.ode = ode;
+    this.solver = solver;
+  }
+
+  /**
+   * Registers a field so that its value is saved and restored.
+   *
+   * Primitive fields and arrays of primitives (including multidimensional arrays) are supported.
+   * Arrays are restored in place if their length has not changed.
+   *
+   * @param obj the object containing the field
+   * @param fieldName the name of the field
+   */
+  public void addField(Object obj, String fieldName) {
+    Field field = findField(obj.getClass(), fieldName);
+    if(field==null) {
+      throw new IllegalArgumentException("Field not found: "+fieldName);
+    }
+    Class type = field.getType();
+    Class base = type;
+    while(base.isArray()) {
+      base = base.getComponentType();
+    }
+    if(!base.isPrimitive()) {
+      throw new IllegalArgumentException("Field "+fieldName+" is not a primitive or a primitive array.");
+    }
+    field.setAccessible(true);
+    entries.add(new FieldEntry(obj, field));
+  }
+
+  /**
+   * Registers an object that saves and restores its own state.
+   *
+   * @param name a name that identifies the object
+   * @param obj the object
+   */
+  public void addCheckpointable(String name, Checkpointable obj) {
+    entries.add(new CheckpointableEntry(name, obj));
+  }
+
+  /**
+   * Writes the checkpoint.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    double[] state = (ode==null) ? null : ode.getState();
+    writeArray(out, state);
+    boolean saveSolver = solver instanceof Checkpointable;
+    out.writeBoolean(saveSolver);
+    if(saveSolver) {
+      out.writeUTF(solver.getClass().getName());
+      ((Checkpointable) solver).writeState(out);
+    }
+    out.writeInt(entries.size());
+    for(int i = 0, n = entries.size();i<n;i++) {
+      Entry entry = (Entry) entries.get(i);
+      out.writeUTF(entry.getName());
+      entry.write(out);
+    }
+  }
+
+  /**
+   * Reads a checkpoint and restores the ODE, the solver, and the registered fields.
+   *
+   * The current values are saved before the checkpoint is read and are put back if the checkpoint
+   * cannot be restored, so a failed read leaves the ODE, the solver, and the fields unchanged.
+   *
+   * @param in the input stream
+   * @throws IOException if the checkpoint does not match this ODE, solver, or registered fields
+   */
+  public void read(DataInput in) throws IOException {
+    byte[] backup = toByteArray();
+    try {
+      readCheckpoint(in);
+    } catch(IOException ex) {
+      readCheckpoint(new DataInputStream(new ByteArrayInputStream(backup)));
+      throw ex;
+    } catch(RuntimeException ex) {
+      readCheckpoint(new DataInputStream(new ByteArrayInputStream(backup)));
+      throw ex;
+    }
+  }
+
+  /**
+   * Reads a checkpoint.
+   *
+   * The ODE state and the solver class are checked before anything is changed.  The ODE state is
+   * restored before the solver state so that solvers can check the number of equations.
+   */
+  private void readCheckpoint(DataInput in) throws IOException {
+    if(in.readInt()!=MAGIC) {
+      throw new IOException("Not a checkpoint.");
+    }
+    int version = in.readInt();
+    if(version!=VERSION) {
+      throw new IOException("Unsupported checkpoint version: "+version);
+    }
+    double[] state = (ode==null) ? null : ode.getState();
+    double[] saved = (double[]) readArray(in, double[].class, null);
+    if((saved==null) ? (state!=null) : ((state==null)||(saved.length!=state.length))) {
+      throw new IOException("Checkpoint state does not match the ODE state.");
+    }
+    boolean hasSolver = in.readBoolean();
+    if(hasSolver) {
+      String className = in.readUTF();
+      if((solver==null)||!solver.getClass().getName().equals(className)) {
+        throw new IOException("Checkpoint was written by a different ODE solver: "+className);
+      }
+    }
+    if(state!=null) {
+      System.arraycopy(saved, 0, state, 0, state.length);
+    }
+    if(hasSolver) {
+      ((Checkpointable) solver).readState(in);
+    }
+    int n = in.readInt();
+    if(n!=entries.size()) {
+      throw new IOException("Checkpoint has "+n+" registered entries; expected "+entries.size()+".");
+    }
+    for(int i = 0;i<n;i++) {
+      Entry entry = (Entry) entries.get(i);
+      String name = in.readUTF();
+      if(!name.equals(entry.getName())) {
+        throw new IOException("Checkpoint entry "+name+" does not match "+entry.getName()+".");
+      }
+      entry.read(in);
+    }
+  }
+
+  /**
+   * Takes a snapshot and returns it as an array of bytes.
+   *
+   * @return byte[]
+   * @throws IOException
+   */
+  public byte[] toByteArray() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    write(out);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Restores a snapshot that was created by toByteArray.
+   *
+   * @param bytes byte[]
+   * @throws IOException
+   */
+  public void fromByteArray(byte[] bytes) throws IOException {
+    read(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  /**
+   * Saves a checkpoint to a file.
+   *
+   * @param file File
+   * @throws IOException
+   */
+  public void save(File file) throws IOException {
+    writeFile(file, toByteArray());
+  }
+
+  /**
+   * Restores a checkpoint from a file.
+   *
+   * @param file File
+   * @throws IOException
+   */
+  public void restore(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      read(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Enables periodic checkpoints.
+   *
+   * A checkpoint file is written every <code>interval</code> invocations of the step method.
+   * Files are named prefix_n.chk and only the most recent <code>maxFiles</code> files are kept.
+   * An interval of zero disables periodic checkpoints.
+   *
+   * @param directory the directory
+   * @param prefix the file name prefix
+   * @param interval the number of steps between checkpoints
+   * @param maxFiles the maximum number of checkpoint files
+   */
+  public synchronized void setAutoSave(File directory, String prefix, int interval, int maxFiles) {
+    this.directory = directory;
+    this.prefix = prefix;
+    this.interval = Math.max(0, interval);
+    this.maxFiles = Math.max(1, maxFiles);
+    stepCounter = 0;
+  }
+
+  /**
+   * Counts a step and writes a checkpoint if a periodic checkpoint is due.
+   *
+   * Invoke this method after every ODE solver step.  The snapshot is taken immediately and is written
+   * asynchronously.  If the disk falls behind, an unwritten snapshot is replaced by the newer snapshot.
+   *
+   * @return true if a snapshot was taken
+   */
+  public boolean step() {
+    if((interval<=0)||(directory==null)) {
+      return false;
+    }
+    stepCounter++;
+    if(stepCounter<interval) {
+      return false;
+    }
+    stepCounter = 0;
+    byte[] bytes;
+    try {
+      bytes = toByteArray();
+    } catch(IOException ex) {
+      NumericsLog.fine("Checkpoint failed: "+ex);
+      return false;
+    }
+    synchronized(this) {
+      pendingBytes = bytes;
+      pendingFile = new File(directory, prefix+"_"+(fileCounter++)+".chk");
+      if(writerThread==null) {
+        writerThread = new Thread(new Writer(), "Checkpoint writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+      }
+      notifyAll();
+    }
+    return true;
+  }
+
+  /**
+   * Waits until all pending checkpoints have been written.
+   */
+  public synchronized void flush() {
+    while((pendingBytes!=null)||writing) {
+      try {
+        wait();
+      } catch(InterruptedException ex) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Gets the most recent checkpoint file that was written to disk.
+   *
+   * @return the file or null if no file has been written
+   */
+  public synchronized File getLatestFile() {
+    if(savedFiles.isEmpty()) {
+      return null;
+    }
+    return(File) savedFiles.get(savedFiles.size()-1);
+  }
+
+  /**
+   * Writes an array of doubles.
+   *
+   * @param out the output stream
+   * @param array the array; may be null
+   * @throws IOException
+   */
+  public static void writeDoubles(DataOutput out, double[] array) throws IOException {
+    writeArray(out, array);
+  }
+
+  /**
+   * Reads an array of doubles into an existing array.
+   *
+   * @param in the input stream
+   * @param array the destination array
+   * @throws IOException if the saved array has a different length
+   */
+  public static void readDoubles(DataInput in, double[] array) throws IOException {
+    if(readArray(in, double[].class, array)!=array) {
+      throw new IOException("Checkpoint array length does not match.");
+    }
+  }
+
+  /**
+   * Writes an array of primitives or a multidimensional array of primitives.
+   */
+  static void writeArray(DataOutput out, Object array) throws IOException {
+    if(array==null) {
+      out.writeInt(-1);
+      return;
+    }
+    int n = Array.getLength(array);
+    out.writeInt(n);
+    Class type = array.getClass().getComponentType();
+    if(type==Double.TYPE) {
+      double[] a = (double[]) array;
+      for(int i = 0;i<n;i++) {
+        out.writeDouble(a[i]);
+      }
+    } else if(type==Integer.TYPE) {
+      int[] a = (int[]) array;
+      for(int i = 0;i<n;i++) {
+        out.writeInt(a[i]);
+      }
+    } else if(type.isArray()) {
+      Object[] a = (Object[]) array;
+      for(int i = 0;i<n;i++) {
+        writeArray(out, a[i]);
+      }
+    } else {
+      for(int i = 0;i<n;i++) {
+        writePrimitive(out, type, Array.get(array, i));
+      }
+    }
+  }
+
+  /**
+   * Reads an array.  The current array is reused if it has the correct length.
+   */
+  static Object readArray(DataInput in, Class arrayType, Object current) throws IOException {
+    int n = in.readInt();
+    if(n<0) {
+      return null;
+    }
+    Object array = current;
+    if((array==null)||(Array.getLength(array)!=n)) {
+      array = Array.newInstance(arrayType.getComponentType(), n);
+    }
+    Class type = arrayType.getComponentType();
+    if(type==Double.TYPE) {
+      double[] a = (double[]) array;
+      for(int i = 0;i<n;i++) {
+        a[i] = in.readDouble();
+      }
+    } else if(type==Integer.TYPE) {
+      int[] a = (int[]) array;
+      for(int i = 0;i<n;i++) {
+        a[i] = in.readInt();
+      }
+    } else if(type.isArray()) {
+      Object[] a = (Object[]) array;
+      for(int i = 0;i<n;i++) {
+        a[i] = readArray(in, type, a[i]);
+      }
+    } else {
+      for(int i = 0;i<n;i++) {
+        Array.set(array, i, readPrimitive(in, type));
+      }
+    }
+    return array;
+  }
+
+  static void writePrimitive(DataOutput out, Class type, Object value) throws IOException {
+    if(type==Double.TYPE) {
+      out.writeDouble(((Double) value).doubleValue());
+    } else if(type==Float.TYPE) {
+      out.writeFloat(((Float) value).floatValue());
+    } else if(type==Long.TYPE) {
+      out.writeLong(((Long) value).longValue());
+    } else if(type==Integer.TYPE) {
+      out.writeInt(((Integer) value).intValue());
+    } else if(type==Short.TYPE) {
+      out.writeShort(((Short) value).shortValue());
+    } else if(type==Byte.TYPE) {
+      out.writeByte(((Byte) value).byteValue());
+    } else if(type==Character.TYPE) {
+      out.writeChar(((Character) value).charValue());
+    } else {
+      out.writeBoolean(((Boolean) value).booleanValue());
+    }
+  }
+
+  static Object readPrimitive(DataInput in, Class type) throws IOException {
+    if(type==Double.TYPE) {
+      return Double.valueOf(in.readDouble());
+    } else if(type==Float.TYPE) {
+      return Float.valueOf(in.readFloat());
+    } else if(type==Long.TYPE) {
+      return Long.valueOf(in.readLong());
+    } else if(type==Integer.TYPE) {
+      return Integer.valueOf(in.readInt());
+    } else if(type==Short.TYPE) {
+      return Short.valueOf(in.readShort());
+    } else if(type==Byte.TYPE) {
+      return Byte.valueOf(in.readByte());
+    } else if(type==Character.TYPE) {
+      return Character.valueOf(in.readChar());
+    } else {
+      return Boolean.valueOf(in.readBoolean());
+    }
+  }
+
+  /**
+   * Finds a declared field in a class or its superclasses.
+   */
+  private static Field findField(Class c, String name) {
+    while(c!=null) {
+      try {
+        return c.getDeclaredField(name);
+      } catch(NoSuchFieldException ex) {
+        c = c.getSuperclass();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Writes bytes to a temporary file and then renames the file so that a partial checkpoint is never left on disk.
+   */
+  private static void writeFile(File file, byte[] bytes) throws IOException {
+    File temp = new File(file.getPath()+".tmp");
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(temp));
+    try {
+      out.write(bytes);
+    } finally {
+      out.close();
+    }
+    if(file.exists()&&!file.delete()) {
+      throw new IOException("Cannot replace "+file);
+    }
+    if(!temp.renameTo(file)) {
+      throw new IOException("Cannot rename "+temp);
+    }
+  }
+
+  /**
+   * An item that is saved in the checkpoint.
+   */
+  private interface Entry {
+    String getName();
+
+    void write(DataOutput out) throws IOException;
+
+    void read(DataInput in) throws IOException;
+  }
+
+  private static class FieldEntry implements Entry {
+    Object obj;
+    Field field;
+
+    FieldEntry(Object obj, Field field) {
+      this.obj = obj;
+      this.field = field;
+    }
+
+    public String getName() {
+      return field.getName();
+    }
+
+    public void write(DataOutput out) throws IOException {
+      try {
+        Class type = field.getType();
+        if(type.isArray()) {
+          writeArray(out, field.get(obj));
+        } else {
+          writePrimitive(out, type, field.get(obj));
+        }
+      } catch(IllegalAccessException ex) {
+        throw new IOException(ex.toString());
+      }
+    }
+
+    public void read(DataInput in) throws IOException {
+      try {
+        Class type = field.getType();
+        if(type.isArray()) {
+          Object current = field.get(obj);
+          Object array = readArray(in, type, current);
+          if(array!=current) {
+            field.set(obj, array);
+          }
+        } else {
+          field.set(obj, readPrimitive(in, type));
+        }
+      } catch(IllegalAccessException ex) {
+        throw new IOException(ex.toString());
+      }
+    }
+  }
+
+  private static class CheckpointableEntry implements Entry {
+    String name;
+    Checkpointable obj;
+
+    CheckpointableEntry(String name, Checkpointable obj) {
+      this.name = name;
+      this.obj = obj;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void write(DataOutput out) throws IOException {
+      obj.writeState(out);
+    }
+
+    public void read(DataInput in) throws IOException {
+      obj.readState(in);
+    }
+  }
+
+  /**
+   * Writes pending snapshots and deletes old checkpoint files.
+   */
+  private class Writer implements Runnable {
+    public void run() {
+      while(true) {
+        byte[] bytes;
+        File file;
+        synchronized(Checkpoint.this) {
+          while(pendingBytes==null) {
+            try {
+              Checkpoint.this.wait();
+            } catch(InterruptedException ex) {
+              return;
+            }
+          }
+          bytes = pendingBytes;
+          file = pendingFile;
+          pendingBytes = null;
+          writing = true;
+        }
+        try {
+          writeFile(file, bytes);
+          synchronized(Checkpoint.this) {
+            savedFiles.add(file);
+            while(savedFiles.size()>maxFiles) {
+              ((File) savedFiles.remove(0)).delete();
+            }
+          }
+        } catch(IOException ex) {
+          NumericsLog.fine("Checkpoint not written: "+ex);
+        } finally {
+          synchronized(Checkpoint.this) {
+            writing = false;
+            Checkpoint.this.notifyAll();
+          }
+        }
+      }
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
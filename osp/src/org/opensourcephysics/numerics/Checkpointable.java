@@ -0,0 +1,62 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Checkpointable objects write their internal state to a binary stream so that a computation
+ * can be restarted and continue exactly as if it had not been interrupted.
+ *
+ * ODE solvers implement this interface to save the step size and any history that is not
+ * contained in the ODE's state array.  Floating point values are written using their bit patterns
+ * so that a restored solver produces bit-identical results.
+ *
+ */
+public interface Checkpointable {
+
+  /**
+   * Writes the internal state.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException;
+
+  /**
+   * Reads the internal state that was written by writeState.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException;
+}
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 /**
  *
  * DormandPrince45 implements a RKF 4/5 ODE solver with variable step size using Dormand-Prince coefficients.
@@ -14,7 +17,7 @@ package org.opensourcephysics.numerics;
  * @version 1.0
  */
 
-public class DormandPrince45 implements ODEAdaptiveSolver {
+public class DormandPrince45 implements ODEAdaptiveSolver, Checkpointable {
    int error_code=ODEAdaptiveSolver.NO_ERROR;
   // embedding constants Dormand-Prince 4th and 5th order
     static final double[][] a={{1.0/5.0},
@@ -204,6 +207,28 @@ public class DormandPrince45 implements ODEAdaptiveSolver {
     return error_code;
   }
 
+  /**
+   * Writes the adaptive step size and the tolerance.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(stepSize);
+    out.writeDouble(tol);
+  }
+
+  /**
+   * Reads the adaptive step size and the tolerance.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    stepSize = in.readDouble();
+    tol = in.readDouble();
+  }
+
 }
 
 /*
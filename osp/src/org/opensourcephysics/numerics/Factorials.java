@@ -62,6 +62,8 @@ public class Factorials {
   /**
    * Returns log (n!) = log (n * (n-1) * ... 2 * 1)
    *
+   * Values for small n are obtained from a table.
+   *
    * @param n
    * @return log(n!)
    */
@@ -69,6 +71,9 @@ public class Factorials {
     if(n<0) {
       throw new IllegalArgumentException("Negative value passed to logFactorial.");
     }
+    if(n<SpecialFunctions.LOG_FACTORIAL_TABLE_SIZE) {
+      return SpecialFunctions.getLogFactorialTable()[n];
+    }
     return Factorials.gammaln(n+1.0);
   }
 
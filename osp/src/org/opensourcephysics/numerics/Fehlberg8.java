@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Title:        Fehlberg8
@@ -133,6 +136,33 @@ public class Fehlberg8 extends AbstractODESolver {
     }
     return stepSize;
   }
+
+  /**
+   * Writes the step size and the rate at the start of the last step.
+   *
+   * The remaining stage rates are recomputed at every step and are not saved.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    super.writeState(out);
+    Checkpoint.writeDoubles(out, rate1);
+  }
+
+  /**
+   * Reads the step size and the rate at the start of the last step.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    super.readState(in);
+    if((rate1==null)||(rate1.length!=numEqn)) {
+      initialize(stepSize);
+    }
+    Checkpoint.readDoubles(in, rate1);
+  }
 }
 
 /*
@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * LeapFrog method ODE solver.
@@ -128,6 +131,28 @@ public class LeapFrog extends AbstractODESolver {
     System.arraycopy(currentState, 0, priorState, 0, numEqn); // save the current state as the prior state
     return stepSize;
   }
+
+  /**
+   * Writes the step size and the prior state.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    super.writeState(out);
+    Checkpoint.writeDoubles(out, priorState);
+  }
+
+  /**
+   * Reads the step size and the prior state.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    super.readState(in);
+    Checkpoint.readDoubles(in, priorState);
+  }
 }
 
 /*
@@ -0,0 +1,51 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * MultirateODE is an ODE that can compute the rate for one group of state variables at a time.
+ *
+ * A MultirateSolver sub-cycles the fast group and invokes this method so that the rates of slow
+ * variables are not recomputed at every fast step.  Implementations must fill the rate array
+ * elements that belong to the given group.  Other elements may be left unchanged.
+ *
+ */
+public interface MultirateODE extends ODE {
+
+  /**
+   * Gets the rate of change of the state variables that belong to a rate group.
+   *
+   * @param state  the state array
+   * @param rate   the rate array
+   * @param group  MultirateSolver.SLOW or MultirateSolver.FAST
+   */
+  public void getRate(double[] state, double[] rate, int group);
+}
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
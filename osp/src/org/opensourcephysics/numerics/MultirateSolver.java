@@ -0,0 +1,546 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * MultirateSolver advances a system whose state variables are divided into a slow group and a fast group.
+ *
+ * Each step first predicts the fast variables using RK4 sub-steps while the slow variables are extrapolated
+ * linearly.  The slow variables are then advanced by a fourth order Runge-Kutta macro step whose stages use
+ * the predicted fast values, so the fast variables are never evaluated with an unstable macro step.
+ * Finally the fast variables are recomputed using RK4 sub-steps while the slow variables are
+ * interpolated using the third order continuous extension of the macro step.
+ *
+ * The error of each group is controlled separately.  The slow error is estimated using the embedded third
+ * order formula that shares the RK4 stages and the macro step size adapts to the slow tolerance.
+ * The fast error is the largest error estimated the same way for each sub-step and the number of sub-steps
+ * adapts to the fast tolerance.
+ *
+ * The ODE should implement MultirateODE so that slow rates are not recomputed during sub-steps.
+ * Other ODEs are solved correctly but every rate evaluation computes the entire rate array.
+ *
+ * @version 1.0
+ */
+public class MultirateSolver implements ODEAdaptiveSolver, Checkpointable {
+  /** The slow rate group. */
+  public static final int SLOW = 0;
+
+  /** The fast rate group. */
+  public static final int FAST = 1;
+  private static final int MAX_ATTEMPTS = 20;
+  int error_code = ODEAdaptiveSolver.NO_ERROR;
+  private ODE ode;
+  private boolean[] fast = new boolean[0];
+  private int[] slowIndex, fastIndex;
+  private int numEqn = 0;
+  private double stepSize = 0.1;
+  private double[] tol = {1.0e-6, 1.0e-6};
+  private int substeps = 2;
+  private int maxSubsteps = 1000;
+  private long[] rateCount = new long[2];
+  protected boolean enableExceptions = false;
+  private double[] y0, k1, k2, k3, k4, k5, temp_state, full_rate;
+  private double[] z, zMid, zk1, zk2, zk3, zk4, w;
+
+  /**
+   * Constructs a MultirateSolver.
+   *
+   * @param ode the system of differential equations
+   * @param fastIndices the indices of the fast state variables; all other variables are slow
+   */
+  public MultirateSolver(ODE ode, int[] fastIndices) {
+    this.ode = ode;
+    setFastIndices(fastIndices);
+  }
+
+  /**
+   * Sets the indices of the fast state variables.  All other variables are slow.
+   *
+   * @param fastIndices int[]
+   */
+  public void setFastIndices(int[] fastIndices) {
+    int max = 0;
+    for(int i = 0;i<fastIndices.length;i++) {
+      max = Math.max(max, fastIndices[i]+1);
+    }
+    fast = new boolean[max];
+    for(int i = 0;i<fastIndices.length;i++) {
+      fast[fastIndices[i]] = true;
+    }
+    numEqn = -1; // forces the index arrays to be rebuilt
+    initialize(stepSize);
+  }
+
+  /**
+   * Initializes the ODE solver.
+   *
+   * Temporary arrays are allocated and the state variables are partitioned into groups.
+   *
+   * @param _stepSize
+   */
+  public void initialize(double _stepSize) {
+    stepSize = _stepSize;
+    double[] state = ode.getState();
+    int n = (state==null) ? 0 : state.length;
+    if(n!=numEqn) {
+      numEqn = n;
+      int nf = 0;
+      for(int i = 0;i<n;i++) {
+        if((i<fast.length)&&fast[i]) {
+          nf++;
+        }
+      }
+      slowIndex = new int[n-nf];
+      fastIndex = new int[nf];
+      for(int i = 0, is = 0, jf = 0;i<n;i++) {
+        if((i<fast.length)&&fast[i]) {
+          fastIndex[jf++] = i;
+        } else {
+          slowIndex[is++] = i;
+        }
+      }
+      y0 = new double[n];
+      k1 = new double[n];
+      k2 = new double[n];
+      k3 = new double[n];
+      k4 = new double[n];
+      k5 = new double[n];
+      temp_state = new double[n];
+      full_rate = new double[n];
+      w = new double[n];
+      z = new double[nf];
+      zMid = new double[nf];
+      zk1 = new double[n];
+      zk2 = new double[n];
+      zk3 = new double[n];
+      zk4 = new double[n];
+    }
+  }
+
+  /**
+   * Steps (advances) the differential equations.
+   *
+   * The step is repeated with a smaller macro step size if the slow error exceeds the slow tolerance or
+   * with more sub-steps if the fast error exceeds the fast tolerance.  The slow step is repeated using the
+   * corrected fast values and its error is checked again before the step is accepted.  If neither tolerance can be reached
+   * the step is rejected, the state is left unchanged, and the error code is set to DID_NOT_CONVERGE.
+   *
+   * @return the step size that was taken or zero if the step was rejected
+   */
+  public double step() {
+    error_code = ODEAdaptiveSolver.NO_ERROR;
+    double[] state = ode.getState();
+    if(state==null) {
+      return stepSize;
+    }
+    if(state.length!=numEqn) {
+      initialize(stepSize);
+    }
+    System.arraycopy(state, 0, y0, 0, numEqn);
+    rateAll(y0, k1);
+    boolean converged = false;
+    double currentStep = stepSize;
+    for(int attempt = 0;(attempt<MAX_ATTEMPTS)&&!converged;attempt++) {
+      currentStep = stepSize;
+      int m = Math.max(2, substeps+substeps%2); // even so that the fast group has a value at the midpoint
+      fastSteps(currentStep, m, true);          // predicts the fast values for the slow stages
+      if(!slowStep(currentStep)) {
+        continue;
+      }
+      converged = subcycle(currentStep, m);
+      if(!converged) {
+        if(substeps>=maxSubsteps) {
+          stepSize = currentStep/2;             // the fast group needs a smaller macro step
+        }
+        continue;
+      }
+      if((fastIndex.length>0)&&(slowIndex.length>0)) {
+        converged = slowStep(currentStep);      // repeat the slow step using the corrected fast values
+      }
+    }
+    if(!converged) {
+      error_code = ODEAdaptiveSolver.DID_NOT_CONVERGE;
+      if(enableExceptions) {
+        throw new ODESolverException("MultirateSolver did not converge.");
+      }
+      return 0;
+    }
+    // copy the result into the ode's state
+    for(int j = 0;j<slowIndex.length;j++) {
+      state[slowIndex[j]] = temp_state[slowIndex[j]];
+    }
+    for(int j = 0;j<fastIndex.length;j++) {
+      state[fastIndex[j]] = z[j];
+    }
+    return currentStep;
+  }
+
+  /**
+   * Performs an RK4 step of the slow variables, stores the result in temp_state, and adapts the macro step size
+   * to the error of this step.
+   *
+   * The fast variables in the RK4 stages are taken from the predicted fast solution so that the slow rates are
+   * computed from stable fast values.
+   *
+   * @return true if the slow tolerance was reached
+   */
+  private boolean slowStep(double h) {
+    if(slowIndex.length==0) {
+      return true;
+    }
+    double error = slowRK4(h);
+    if(error<=Float.MIN_VALUE) { // error too small to be meaningful
+      error = tol[SLOW]/1.0e5;
+    }
+    if(error>tol[SLOW]) { // shrink, no more than x10
+      double fac = 0.9*Math.pow(error/tol[SLOW], -0.25);
+      stepSize = h*Math.max(fac, 0.1);
+      return false;
+    } else if(error<tol[SLOW]/10.0) { // grow, but no more than x10
+      double fac = 0.9*Math.pow(error/tol[SLOW], -0.25);
+      if(fac>1) {
+        stepSize = h*Math.min(fac, 10);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Performs an RK4 step of the slow variables using the fast values in zMid and z and stores the result in temp_state.
+   *
+   * @return the slow error
+   */
+  private double slowRK4(double h) {
+    for(int j = 0;j<fastIndex.length;j++) {
+      temp_state[fastIndex[j]] = zMid[j];
+    }
+    for(int j = 0;j<slowIndex.length;j++) {
+      int i = slowIndex[j];
+      temp_state[i] = y0[i]+h*k1[i]/2;
+    }
+    rate(temp_state, k2, SLOW);
+    for(int j = 0;j<slowIndex.length;j++) {
+      int i = slowIndex[j];
+      temp_state[i] = y0[i]+h*k2[i]/2;
+    }
+    rate(temp_state, k3, SLOW);
+    for(int j = 0;j<fastIndex.length;j++) {
+      temp_state[fastIndex[j]] = z[j];
+    }
+    for(int j = 0;j<slowIndex.length;j++) {
+      int i = slowIndex[j];
+      temp_state[i] = y0[i]+h*k3[i];
+    }
+    rate(temp_state, k4, SLOW);
+    for(int j = 0;j<slowIndex.length;j++) {
+      int i = slowIndex[j];
+      temp_state[i] = y0[i]+h*(k1[i]+2*k2[i]+2*k3[i]+k4[i])/6.0;
+    }
+    // estimate the error using the embedded third order formula h*(k1+2*k2+2*k3+k5)/6
+    rate(temp_state, k5, SLOW);
+    double error = 0;
+    for(int j = 0;j<slowIndex.length;j++) {
+      int i = slowIndex[j];
+      error = Math.max(error, Math.abs(h*(k4[i]-k5[i])/6.0));
+    }
+    return error;
+  }
+
+  /**
+   * Sub-cycles the fast variables using the slow continuous extension and adapts the number of sub-steps.
+   *
+   * @return true if the fast tolerance was reached
+   */
+  private boolean subcycle(double h, int m) {
+    if(fastIndex.length==0) {
+      return true;
+    }
+    while(true) {
+      double error = fastSteps(h, m, false);
+      if(error<=Float.MIN_VALUE) { // error too small to be meaningful
+        error = tol[FAST]/1.0e5;
+      }
+      // the largest local error of m sub-steps decreases as 1/m^4
+      int needed = (int) Math.ceil(1.1*m*Math.pow(error/tol[FAST], 0.25));
+      substeps = Math.max(2, Math.min(needed, maxSubsteps));
+      if(error<=tol[FAST]) {
+        return true;
+      }
+      if(m>=maxSubsteps) {
+        return false;
+      }
+      m = Math.max(substeps, m+2);
+      m += m%2;
+    }
+  }
+
+  /**
+   * Advances the fast variables using m RK4 sub-steps and stores the result in z.
+   *
+   * The fast values at the midpoint are saved in zMid.  The predictor interpolates the slow variables
+   * linearly using the initial rate and the corrector uses the continuous extension of the slow RK4 step.
+   *
+   * @return the largest fast error estimated using the embedded third order formula of each sub-step
+   */
+  private double fastSteps(double h, int m, boolean predictor) {
+    for(int j = 0;j<fastIndex.length;j++) {
+      z[j] = y0[fastIndex[j]];
+      zMid[j] = z[j];
+    }
+    if(fastIndex.length==0) {
+      return 0;
+    }
+    double dt = h/m, dtheta = 1.0/m, error = 0;
+    buildState(h, 0, zk1, 0, predictor);
+    rate(w, zk1, FAST);
+    for(int s = 0;s<m;s++) {
+      double theta = s/(double) m;
+      buildState(h, theta+dtheta/2, zk1, dt/2, predictor);
+      rate(w, zk2, FAST);
+      buildState(h, theta+dtheta/2, zk2, dt/2, predictor);
+      rate(w, zk3, FAST);
+      buildState(h, theta+dtheta, zk3, dt, predictor);
+      rate(w, zk4, FAST);
+      for(int j = 0;j<fastIndex.length;j++) {
+        int i = fastIndex[j];
+        z[j] = z[j]+dt*(zk1[i]+2*zk2[i]+2*zk3[i]+zk4[i])/6.0;
+      }
+      if(2*(s+1)==m) {
+        System.arraycopy(z, 0, zMid, 0, z.length);
+      }
+      // the rate at the end of this sub-step is the first rate of the next sub-step
+      buildState(h, theta+dtheta, zk1, 0, predictor);
+      rate(w, zk1, FAST);
+      for(int j = 0;j<fastIndex.length;j++) {
+        int i = fastIndex[j];
+        error = Math.max(error, Math.abs(dt*(zk4[i]-zk1[i])/6.0));
+      }
+    }
+    return error;
+  }
+
+  /**
+   * Builds a full state for a fast stage.  Slow variables are interpolated at theta and fast variables
+   * are z+c*rate.
+   */
+  private void buildState(double h, double theta, double[] rate, double c, boolean predictor) {
+    if(predictor) {
+      for(int j = 0;j<slowIndex.length;j++) {
+        int i = slowIndex[j];
+        w[i] = y0[i]+h*theta*k1[i];
+      }
+    } else {
+      // coefficients of the third order continuous extension of RK4
+      double t2 = theta*theta, t3 = t2*theta;
+      double b1 = theta-1.5*t2+2*t3/3, b23 = t2-2*t3/3, b4 = -0.5*t2+2*t3/3;
+      for(int j = 0;j<slowIndex.length;j++) {
+        int i = slowIndex[j];
+        w[i] = y0[i]+h*(b1*k1[i]+b23*(k2[i]+k3[i])+b4*k4[i]);
+      }
+    }
+    if(c==0) {
+      for(int j = 0;j<fastIndex.length;j++) {
+        w[fastIndex[j]] = z[j];
+      }
+    } else {
+      for(int j = 0;j<fastIndex.length;j++) {
+        w[fastIndex[j]] = z[j]+c*rate[fastIndex[j]];
+      }
+    }
+  }
+
+  /**
+   * Computes the rate of both groups.
+   */
+  private void rateAll(double[] x, double[] rate) {
+    if(ode instanceof MultirateODE) {
+      ((MultirateODE) ode).getRate(x, rate, SLOW);
+      ((MultirateODE) ode).getRate(x, rate, FAST);
+    } else {
+      ode.getRate(x, rate);
+    }
+    rateCount[SLOW]++;
+    rateCount[FAST]++;
+  }
+
+  /**
+   * Computes the rate of a single group.
+   */
+  private void rate(double[] x, double[] rate, int group) {
+    rateCount[group]++;
+    if(ode instanceof MultirateODE) {
+      ((MultirateODE) ode).getRate(x, rate, group);
+      return;
+    }
+    ode.getRate(x, full_rate);
+    int[] index = (group==FAST) ? fastIndex : slowIndex;
+    for(int j = 0;j<index.length;j++) {
+      rate[index[j]] = full_rate[index[j]];
+    }
+  }
+
+  /**
+   * Gets the number of times the rate of a group has been computed.
+   *
+   * @param group SLOW or FAST
+   * @return long
+   */
+  public long getRateCount(int group) {
+    return rateCount[group];
+  }
+
+  /**
+   * Gets the number of fast sub-steps that will be attempted during the next step.
+   *
+   * @return int
+   */
+  public int getSubsteps() {
+    return substeps;
+  }
+
+  /**
+   * Sets the maximum number of fast sub-steps per macro step.
+   *
+   * @param n int
+   */
+  public void setMaxSubsteps(int n) {
+    maxSubsteps = Math.max(2, n);
+    substeps = Math.min(substeps, maxSubsteps);
+  }
+
+  /**
+   * Enables runtime exceptions if the solver does not converge.
+   * @param enable boolean
+   */
+  public void enableRuntimeExpecptions(boolean enable) {
+    this.enableExceptions = enable;
+  }
+
+  /**
+   * Sets the macro step size.
+   *
+   * The step size may change when the step method is invoked.
+   *
+   * @param stepSize
+   */
+  public void setStepSize(double stepSize) {
+    this.stepSize = stepSize;
+  }
+
+  /**
+   * Gets the macro step size.
+   *
+   * @return the step size
+   */
+  public double getStepSize() {
+    return stepSize;
+  }
+
+  /**
+   * Sets the tolerance of both groups.
+   *
+   * @param _tol
+   */
+  public void setTolerance(double _tol) {
+    setTolerance(SLOW, _tol);
+    setTolerance(FAST, _tol);
+  }
+
+  /**
+   * Sets the tolerance of a group.
+   *
+   * @param group SLOW or FAST
+   * @param _tol the tolerance
+   */
+  public void setTolerance(int group, double _tol) {
+    tol[group] = Math.max(Math.abs(_tol), 1.0e-12);
+  }
+
+  /**
+   * Gets the slow tolerance.
+   *
+   * @return the tolerance
+   */
+  public double getTolerance() {
+    return tol[SLOW];
+  }
+
+  /**
+   * Gets the tolerance of a group.
+   *
+   * @param group SLOW or FAST
+   * @return the tolerance
+   */
+  public double getTolerance(int group) {
+    return tol[group];
+  }
+
+  /**
+   * Gets the error code.
+   * Error codes:
+   *   ODEAdaptiveSolver.NO_ERROR
+   *   ODEAdaptiveSolver.DID_NOT_CONVERGE
+   * @return int
+   */
+  public int getErrorCode() {
+    return error_code;
+  }
+
+  /**
+   * Writes the macro step size, the tolerances, and the number of sub-steps.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(stepSize);
+    out.writeDouble(tol[SLOW]);
+    out.writeDouble(tol[FAST]);
+    out.writeInt(substeps);
+  }
+
+  /**
+   * Reads the macro step size, the tolerances, and the number of sub-steps.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    stepSize = in.readDouble();
+    tol[SLOW] = in.readDouble();
+    tol[FAST] = in.readDouble();
+    substeps = in.readInt();
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
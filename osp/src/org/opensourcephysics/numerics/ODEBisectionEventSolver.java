@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Enumeration;
 import java.util.Vector;
 
@@ -15,7 +18,7 @@ import java.util.Vector;
  *
  * @author       Francisco Esquembre (March 2004)
  */
-public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolver {
+public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolver, Checkpointable {
 
   /**
    * Maximum number of bisections allowed
@@ -113,6 +116,40 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
     return 0.0;
   }
 
+  /**
+   * Writes the state of the solver that advances the ODE.
+   *
+   * The event list is not saved.  Events must be added again before the checkpoint is restored.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    boolean saveSolver = solver instanceof Checkpointable;
+    out.writeBoolean(saveSolver);
+    if(saveSolver) {
+      ((Checkpointable) solver).writeState(out); // Defer to the real solver
+    }
+  }
+
+  /**
+   * Reads the state of the solver that advances the ODE.
+   *
+   * The trigger ODE is synchronized with the restored ODE state before the solver state is read.
+   *
+   * @param in the input stream
+   * @throws IOException if the checkpoint was written by a different solver
+   */
+  public void readState(DataInput in) throws IOException {
+    triggerOde.readRealState();
+    if(in.readBoolean()) {
+      if(!(solver instanceof Checkpointable)) {
+        throw new IOException("ODE solver cannot be restored.");
+      }
+      ((Checkpointable) solver).readState(in); // Defer to the real solver
+    }
+  }
+
   /**
    * Gets the eventHappend flag.  The falg is true if an event occured during the last step.
    * @return boolean
@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * ODEMultistepSolver performs multiple ODE steps so that a uniform step size is maintained.
@@ -13,7 +16,7 @@ package org.opensourcephysics.numerics;
  * @author       Wolfgang Christian
  * @version 1.0
  */
-public class ODEMultistepSolver implements ODEAdaptiveSolver {
+public class ODEMultistepSolver implements ODEAdaptiveSolver, Checkpointable {
   private static int maxMessages = 3; // maximum number of error messages
   protected int err_code = NO_ERROR;
   protected int maxIterations=200;
@@ -273,6 +276,38 @@ public class ODEMultistepSolver implements ODEAdaptiveSolver {
     return fixedStepSize;
   }
 
+  /**
+   * Writes the fixed step size and the state of the ODE engine.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(fixedStepSize);
+    boolean saveEngine = odeEngine instanceof Checkpointable;
+    out.writeBoolean(saveEngine);
+    if(saveEngine) {
+      ((Checkpointable) odeEngine).writeState(out);
+    }
+  }
+
+  /**
+   * Reads the fixed step size and the state of the ODE engine.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    fixedStepSize = in.readDouble();
+    internalODE.setInitialConditions();
+    if(in.readBoolean()) {
+      if(!(odeEngine instanceof Checkpointable)) {
+        throw new IOException("ODE engine cannot be restored.");
+      }
+      ((Checkpointable) odeEngine).readState(in);
+    }
+  }
+
   /**
    * A class that saves an internal state that may be different from the orginal ODE.
    * This internal state is used with interpolation solvers.
@@ -44,6 +44,10 @@ public static ODESolver createODESolver(ODE ode, String solverName){
       return new Ralston2(ode);
    } else if (solverName.equals("verlet")){
       return new Verlet(ode);
+   } else if (solverName.equals("parallelrk4")){
+      return new ParallelRK4(ode);
+   } else if (solverName.equals("paralleldormandprince45")){
+      return new ParallelDormandPrince45(ode);
    } else return null;
 }
 
@@ -0,0 +1,318 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * ParallelDormandPrince45 implements the DormandPrince45 adaptive ODE solver with loops that are divided among threads.
+ *
+ * The stage updates, the error norm, and the final update are partitioned into index ranges that are
+ * processed by a ParallelExecutor.  The rate is also computed in parallel if the ODE implements ParallelODE.
+ * Small systems are solved serially.  The results are identical to those of DormandPrince45.
+ *
+ * @version 1.0
+ */
+public class ParallelDormandPrince45 implements ODEAdaptiveSolver, Checkpointable {
+  int error_code = ODEAdaptiveSolver.NO_ERROR;
+  static final double[][] a = DormandPrince45.a;
+  static final double[] b5 = DormandPrince45.b5;
+  static final double[] er = DormandPrince45.er;
+  static final int numStages = DormandPrince45.numStages;
+  private volatile double stepSize = 0.01;
+  private double currentStep;
+  private int numEqn = 0;
+  private double[] state;
+  private double[] temp_state;
+  private double[][] k;
+  private ODE ode;
+  private ParallelExecutor executor;
+  protected double tol = 1.0e-6;
+  protected boolean enableExceptions = false;
+  private StageTask stageTask = new StageTask();
+  private RateTask rateTask = new RateTask();
+  private ParallelExecutor.RangeTask errorTask = new ParallelExecutor.RangeTask() {
+    public double compute(int start, int end) {
+      double error = 0;
+      for(int i = start;i<end;i++) {
+        double truncErr = 0;
+        for(int s = 0;s<numStages;s++) {
+          truncErr = truncErr+stepSize*er[s]*k[s][i];
+        }
+        error = Math.max(error, Math.abs(truncErr));
+      }
+      return error;
+    }
+
+  };
+  private ParallelExecutor.RangeTask advanceTask = new ParallelExecutor.RangeTask() {
+    public double compute(int start, int end) {
+      for(int i = start;i<end;i++) {
+        for(int s = 0;s<numStages;s++) {
+          state[i] += currentStep*b5[s]*k[s][i];
+        }
+      }
+      return 0;
+    }
+
+  };
+
+  /**
+   * Constructs the ParallelDormandPrince45 ODESolver using the default ParallelExecutor.
+   *
+   * @param _ode the system of differential equations.
+   */
+  public ParallelDormandPrince45(ODE _ode) {
+    this(_ode, ParallelExecutor.getDefault());
+  }
+
+  /**
+   * Constructs the ParallelDormandPrince45 ODESolver using the given ParallelExecutor.
+   *
+   * @param _ode the system of differential equations.
+   * @param executor the executor
+   */
+  public ParallelDormandPrince45(ODE _ode, ParallelExecutor executor) {
+    ode = _ode;
+    this.executor = executor;
+    initialize(stepSize);
+  }
+
+  /**
+   * Initializes the ODE solver.
+   *
+   * Temporary state and rate arrays are allocated.
+   * The number of differential equations is determined by invoking getState().length on the ODE.
+   *
+   * @param _stepSize
+   */
+  public void initialize(double _stepSize) {
+    stepSize = _stepSize;
+    double state[] = ode.getState();
+    if(state==null) { // state vector not defined.
+      return;
+    }
+    if(numEqn!=state.length) {
+      numEqn = state.length;
+      temp_state = new double[numEqn];
+      k = new double[numStages][numEqn]; // six intermediate rates
+    }
+  }
+
+  /**
+   * Steps (advances) the differential equations by the stepSize.
+   *
+   * The ODESolver invokes the ODE's getRate method to obtain the initial state of the system.
+   * The ODESolver then advances the solution and copies the new state into the
+   * state array at the end of the solution step.
+   *
+   * @return the step size
+   */
+  public double step() {
+    error_code = ODEAdaptiveSolver.NO_ERROR;
+    int iterations = 10;
+    double error = 0;
+    currentStep = stepSize;
+    state = ode.getState();
+    rate(state, k[0]); // get the initial rate
+    do {
+      iterations--;
+      currentStep = stepSize;
+      // Compute the k's
+      for(int s = 1;s<numStages;s++) {
+        stageTask.stage = s;
+        executor.forRange(stageTask, numEqn);
+        rate(temp_state, k[s]);
+      }
+      // Compute the error
+      error = executor.maxOverRange(errorTask, numEqn);
+      if(error<=Float.MIN_VALUE) { // error too small to be meaningful,
+        error = tol/1.0e5;         // increase stepSize x10
+      }
+      // find h step for the next try.
+      if(error>tol) { // shrink, no more than x10
+        double fac = 0.9*Math.pow(error/tol, -0.25);
+        stepSize = stepSize*Math.max(fac, 0.1);
+      } else if(error<tol/10.0) { // grow, but no more than factor of 10
+        double fac = 0.9*Math.pow(error/tol, -0.2);
+        if(fac>1) { // sometimes fac is <1 because error/tol is close to one
+          stepSize = stepSize*Math.min(fac, 10);
+        }
+      }
+    } while(error>tol&&iterations>0);
+    // advance the state
+    executor.forRange(advanceTask, numEqn);
+    state = null;
+    if(iterations==0) {
+      error_code = ODEAdaptiveSolver.DID_NOT_CONVERGE;
+      if(enableExceptions) {
+        throw new ODESolverException("DormanPrince45 ODE solver did not converge.");
+      }
+    }
+    return currentStep; // the value of the step actually taken.
+  }
+
+  /**
+   * Computes the rate, in parallel if the ODE is a ParallelODE.
+   */
+  private void rate(double[] x, double[] rate) {
+    if((ode instanceof ParallelODE)&&executor.isParallel(numEqn)) {
+      rateTask.x = x;
+      rateTask.rate = rate;
+      executor.forRange(rateTask, numEqn);
+    } else {
+      ode.getRate(x, rate);
+    }
+  }
+
+  /**
+   * Enables runtime exceptions if the solver does not converge.
+   * @param enable boolean
+   */
+  public void enableRuntimeExpecptions(boolean enable) {
+    this.enableExceptions = enable;
+  }
+
+  /**
+   * Sets the step size.
+   *
+   * The step size may change when the step method is invoked.
+   *
+   * @param stepSize
+   */
+  public void setStepSize(double stepSize) {
+    this.stepSize = stepSize;
+  }
+
+  /**
+   * Gets the step size.
+   *
+   * The stepsize is adaptive and may change as the step() method is invoked.
+   *
+   * @return the step size
+   */
+  public double getStepSize() {
+    return stepSize;
+  }
+
+  /**
+   * Method setTolerance
+   *
+   * @param _tol
+   */
+  public void setTolerance(double _tol) {
+    tol = Math.abs(_tol);
+    if(tol<1.0E-12) {
+      String err_msg = "Error: Dormand-Prince ODE solver tolerance cannot be smaller than 1.0e-12.";
+      if(enableExceptions) {
+        throw new ODESolverException(err_msg);
+      }
+      System.err.println(err_msg);
+      tol = 1.0e-12;
+    }
+  }
+
+  /**
+   * Method getTolerance
+   *
+   * @return
+   */
+  public double getTolerance() {
+    return tol;
+  }
+
+  /**
+   * Gets the error code.
+   * Error codes:
+   *   ODEAdaptiveSolver.NO_ERROR
+   *   ODEAdaptiveSolver.DID_NOT_CONVERGE
+   * @return int
+   */
+  public int getErrorCode() {
+    return error_code;
+  }
+
+  /**
+   * Writes the adaptive step size and the tolerance.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(stepSize);
+    out.writeDouble(tol);
+  }
+
+  /**
+   * Reads the adaptive step size and the tolerance.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    stepSize = in.readDouble();
+    tol = in.readDouble();
+  }
+
+  /**
+   * Computes the intermediate state for a stage.
+   */
+  private class StageTask implements ParallelExecutor.RangeTask {
+    int stage;
+
+    public double compute(int start, int end) {
+      double[] as = a[stage-1];
+      for(int i = start;i<end;i++) {
+        temp_state[i] = state[i];
+        for(int j = 0;j<stage;j++) {
+          temp_state[i] = temp_state[i]+stepSize*as[j]*k[j][i];
+        }
+      }
+      return 0;
+    }
+
+  }
+
+  /**
+   * Evaluates a range of the rate array.
+   */
+  private class RateTask implements ParallelExecutor.RangeTask {
+    double[] x, rate;
+
+    public double compute(int start, int end) {
+      ((ParallelODE) ode).getRate(x, rate, start, end);
+      return 0;
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
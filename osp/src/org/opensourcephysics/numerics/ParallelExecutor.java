@@ -0,0 +1,291 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * ParallelExecutor divides an index range into equal chunks and processes the chunks on a fixed set of threads.
+ *
+ * The calling thread processes the first chunk and daemon worker threads process the others.
+ * Loops that are shorter than the threshold are processed entirely on the calling thread so that
+ * small systems do not pay for thread synchronization.  Because chunks are disjoint, element-wise
+ * loops produce exactly the same results as serial loops.
+ *
+ * A loop that is started from inside a task running on this executor is processed on the current thread.
+ *
+ * @version 1.0
+ */
+public class ParallelExecutor {
+  /** Loops shorter than this length are processed serially by default. */
+  public static final int DEFAULT_THRESHOLD = 10000;
+  private static ParallelExecutor defaultExecutor;
+  private int numThreads;
+  private int threshold = DEFAULT_THRESHOLD;
+  private Thread[] workers;
+  private Object invokeLock = new Object();
+  // the current job
+  private RangeTask task;
+  private int length;
+  private int generation = 0;
+  private int pending = 0;
+  private double[] results;
+  private Throwable exception;
+  private boolean shutdown = false;
+  private boolean shared = false;
+  // marks the threads that are processing a chunk of a loop
+  private ThreadLocal running = new ThreadLocal();
+
+  /**
+   * Constructs a ParallelExecutor that uses the given number of threads including the calling thread.
+   *
+   * @param numThreads the number of threads
+   */
+  public ParallelExecutor(int numThreads) {
+    this.numThreads = Math.max(1, numThreads);
+    results = new double[this.numThreads];
+  }
+
+  /**
+   * Gets a shared executor that uses all available processors.
+   *
+   * @return the executor
+   */
+  public static synchronized ParallelExecutor getDefault() {
+    if(defaultExecutor==null) {
+      defaultExecutor = new ParallelExecutor(Runtime.getRuntime().availableProcessors());
+      defaultExecutor.shared = true;
+    }
+    return defaultExecutor;
+  }
+
+  /**
+   * Gets the number of threads.
+   *
+   * @return int
+   */
+  public int getThreadCount() {
+    return numThreads;
+  }
+
+  /**
+   * Sets the minimum loop length that is divided among threads.
+   *
+   * @param n int
+   */
+  public void setThreshold(int n) {
+    threshold = Math.max(1, n);
+  }
+
+  /**
+   * Gets the minimum loop length that is divided among threads.
+   *
+   * @return int
+   */
+  public int getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Determines if a loop of the given length will be divided among threads.
+   *
+   * @param n the loop length
+   * @return boolean
+   */
+  public boolean isParallel(int n) {
+    return(numThreads>1)&&(n>=threshold)&&!shutdown;
+  }
+
+  /**
+   * Processes the index range from 0 to n.
+   *
+   * @param task the task
+   * @param n the loop length
+   */
+  public void forRange(RangeTask task, int n) {
+    invoke(task, n);
+  }
+
+  /**
+   * Processes the index range from 0 to n and returns the maximum of the values returned by the chunks.
+   *
+   * @param task the task
+   * @param n the loop length
+   * @return the maximum
+   */
+  public double maxOverRange(RangeTask task, int n) {
+    return invoke(task, n);
+  }
+
+  /**
+   * Stops the worker threads after they finish the current loop.  Subsequent loops are processed serially.
+   *
+   * The shared default executor cannot be shut down.
+   *
+   * @throws UnsupportedOperationException if this is the default executor
+   */
+  public void shutdown() {
+    if(shared) {
+      throw new UnsupportedOperationException("The default ParallelExecutor cannot be shut down.");
+    }
+    synchronized(this) {
+      shutdown = true;
+      notifyAll();
+    }
+  }
+
+  private double invoke(RangeTask task, int n) {
+    if(!isParallel(n)||(running.get()!=null)) { // nested loops run on the current thread
+      return task.compute(0, n);
+    }
+    synchronized(invokeLock) { // one loop at a time
+      synchronized(this) {
+        if(shutdown) { // shut down after isParallel was checked
+          return task.compute(0, n);
+        }
+        if(workers==null) {
+          startWorkers();
+        }
+        this.task = task;
+        length = n;
+        exception = null;
+        pending = numThreads-1;
+        generation++;
+        notifyAll();
+      }
+      double max = Double.NaN;
+      Throwable ex = null;
+      running.set(Boolean.TRUE);
+      try {
+        max = task.compute(0, chunkEnd(0, n));
+      } catch(Throwable e) {
+        ex = e;
+      } finally {
+        running.set(null);
+      }
+      synchronized(this) {
+        while(pending>0) {
+          try {
+            wait();
+          } catch(InterruptedException e) {}
+        }
+        this.task = null;
+        if(ex==null) {
+          ex = exception;
+        }
+        exception = null;
+        for(int i = 1;i<numThreads;i++) {
+          max = Math.max(max, results[i]);
+        }
+      }
+      if(ex instanceof Error) {
+        throw (Error) ex;
+      } else if(ex!=null) {
+        throw (RuntimeException) ex; // compute does not throw checked exceptions
+      }
+      return max;
+    }
+  }
+
+  private int chunkEnd(int chunk, int n) {
+    return (int) (((long) n*(chunk+1))/numThreads);
+  }
+
+  private void startWorkers() {
+    workers = new Thread[numThreads-1];
+    for(int i = 0;i<workers.length;i++) {
+      workers[i] = new Thread(new Worker(i+1), "ParallelExecutor-"+(i+1));
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  /**
+   * A task that processes a range of indices.
+   */
+  public interface RangeTask {
+
+    /**
+     * Processes the indices from start (inclusive) to end (exclusive).
+     *
+     * @param start the first index
+     * @param end one more than the last index
+     * @return a value that is reduced using the maximum; return 0 if no value is needed
+     */
+    public double compute(int start, int end);
+  }
+
+  private class Worker implements Runnable {
+    int chunk;
+    int lastGeneration = 0;
+
+    Worker(int chunk) {
+      this.chunk = chunk;
+    }
+
+    public void run() {
+      running.set(Boolean.TRUE);
+      while(true) {
+        RangeTask currentTask;
+        int n;
+        synchronized(ParallelExecutor.this) {
+          while((generation==lastGeneration)&&!shutdown) {
+            try {
+              ParallelExecutor.this.wait();
+            } catch(InterruptedException ex) {}
+          }
+          if(generation==lastGeneration) { // shut down with no loop outstanding
+            return;
+          }
+          lastGeneration = generation;
+          currentTask = task;
+          n = length;
+        }
+        double val = Double.NaN;
+        Throwable ex = null;
+        try {
+          val = currentTask.compute(chunkEnd(chunk-1, n), chunkEnd(chunk, n));
+        } catch(Throwable e) {
+          ex = e;
+        } finally {
+          synchronized(ParallelExecutor.this) {
+            results[chunk] = val;
+            if((ex!=null)&&(exception==null)) {
+              exception = ex;
+            }
+            pending--;
+            ParallelExecutor.this.notifyAll();
+          }
+        }
+      }
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
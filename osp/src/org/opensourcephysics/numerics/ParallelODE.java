@@ -0,0 +1,55 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * ParallelODE is an ODE whose rate can be computed one range of indices at a time.
+ *
+ * Parallel ODE solvers divide the rate computation into ranges that are evaluated concurrently.
+ * Implementations must read the state array but write only the elements of the rate array
+ * in the given range.  Typical applications are method-of-lines discretizations of partial
+ * differential equations and N-body models.
+ *
+ */
+public interface ParallelODE extends ODE {
+
+  /**
+   * Gets the rate of change for the elements of the state array from start (inclusive) to end (exclusive).
+   *
+   * This method may be invoked concurrently for disjoint ranges.
+   *
+   * @param state  the state array
+   * @param rate   the rate array
+   * @param start  the first index
+   * @param end    one more than the last index
+   */
+  public void getRate(double[] state, double[] rate, int start, int end);
+}
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
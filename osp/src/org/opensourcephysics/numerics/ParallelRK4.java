@@ -0,0 +1,183 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * Title:        ParallelRK4
+ * Description:  A fourth order Runge-Kutta ODE solver that divides its loops among threads.
+ *
+ * The stage updates are partitioned into index ranges that are processed by a ParallelExecutor.
+ * The rate is also computed in parallel if the ODE implements ParallelODE.  Small systems are
+ * solved serially.  The results are identical to those of RK4.
+ *
+ * @version 1.0
+ */
+public class ParallelRK4 extends AbstractODESolver {
+  private double[] state, rate1, rate2, rate3, rate4, estimated_state;
+  private ParallelExecutor executor;
+  private StageTask stage = new StageTask();
+  private RateTask rateTask = new RateTask();
+  private ParallelExecutor.RangeTask updateTask = new ParallelExecutor.RangeTask() {
+    public double compute(int start, int end) {
+      for(int i = start;i<end;i++) {
+        state[i] = state[i]+stepSize*(rate1[i]+2*rate2[i]+2*rate3[i]+rate4[i])/6.0;
+      }
+      return 0;
+    }
+
+  };
+
+  /**
+   * Constructs the ParallelRK4 ODESolver using the default ParallelExecutor.
+   *
+   * @param ode the system of differential equations.
+   */
+  public ParallelRK4(ODE ode) {
+    this(ode, ParallelExecutor.getDefault());
+  }
+
+  /**
+   * Constructs the ParallelRK4 ODESolver using the given ParallelExecutor.
+   *
+   * @param ode the system of differential equations.
+   * @param executor the executor
+   */
+  public ParallelRK4(ODE ode, ParallelExecutor executor) {
+    super(ode);
+    this.executor = executor;
+  }
+
+  /**
+   * Initializes the ODE solver and allocates the rate and state arrays.
+   * The number of differential equations is determined by invoking getState().length on the superclass.
+   *
+   * @param stepSize
+   */
+  public void initialize(double stepSize) {
+    super.initialize(stepSize);
+    rate1 = new double[numEqn];
+    rate2 = new double[numEqn];
+    rate3 = new double[numEqn];
+    rate4 = new double[numEqn];
+    estimated_state = new double[numEqn];
+  }
+
+  /**
+   * Steps (advances) the differential equations by the stepSize.
+   *
+   * The ODESolver invokes the ODE's getRate method to compute the rate at various intermediate states.
+   *
+   * The ODESolver then advances the solution and copies the new state into the
+   * ODE's state array at the end of the solution step.
+   *
+   * @return the step size
+   */
+  public double step() {
+    state = ode.getState();
+    if(state==null) {
+      return stepSize;
+    }
+    if(state.length!=numEqn) {
+      initialize(stepSize);
+    }
+    rate(state, rate1);
+    stage.set(rate1, true);
+    executor.forRange(stage, numEqn);
+    rate(estimated_state, rate2);
+    stage.set(rate2, true);
+    executor.forRange(stage, numEqn);
+    rate(estimated_state, rate3);
+    stage.set(rate3, false);
+    executor.forRange(stage, numEqn);
+    rate(estimated_state, rate4);
+    executor.forRange(updateTask, numEqn);
+    state = null;
+    return stepSize;
+  }
+
+  /**
+   * Computes the rate, in parallel if the ODE is a ParallelODE.
+   */
+  private void rate(double[] x, double[] rate) {
+    if((ode instanceof ParallelODE)&&executor.isParallel(numEqn)) {
+      rateTask.set(x, rate);
+      executor.forRange(rateTask, numEqn);
+    } else {
+      ode.getRate(x, rate);
+    }
+  }
+
+  /**
+   * Computes an estimated state using a full or a half step.
+   */
+  private class StageTask implements ParallelExecutor.RangeTask {
+    double[] rate;
+    boolean half;
+
+    void set(double[] rate, boolean half) {
+      this.rate = rate;
+      this.half = half;
+    }
+
+    public double compute(int start, int end) {
+      if(half) { // same arithmetic as RK4
+        for(int i = start;i<end;i++) {
+          estimated_state[i] = state[i]+stepSize*rate[i]/2;
+        }
+      } else {
+        for(int i = start;i<end;i++) {
+          estimated_state[i] = state[i]+stepSize*rate[i];
+        }
+      }
+      return 0;
+    }
+
+  }
+
+  /**
+   * Evaluates a range of the rate array.
+   */
+  private class RateTask implements ParallelExecutor.RangeTask {
+    double[] x, rate;
+
+    void set(double[] x, double[] rate) {
+      this.x = x;
+      this.rate = rate;
+    }
+
+    public double compute(int start, int end) {
+      ((ParallelODE) ode).getRate(x, rate, start, end);
+      return 0;
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
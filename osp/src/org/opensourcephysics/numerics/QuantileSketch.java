@@ -0,0 +1,314 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * QuantileSketch estimates the quantiles of a stream of values using a bounded amount of memory.
+ *
+ * The sketch is a merging t-digest.  Values are collected in a buffer and periodically merged
+ * into a sorted list of weighted centroids.  Centroids near the median may absorb many values
+ * whereas centroids near the tails remain small, so that the relative accuracy is best for
+ * extreme quantiles.  The number of centroids is proportional to the compression.
+ *
+ * Sketches built from separate streams can be combined using the add(QuantileSketch) method.
+ *
+ * QuantileSketch is not synchronized.
+ *
+ * @version 1.0
+ */
+public class QuantileSketch {
+  static final int BUFFER_FACTOR = 5; // buffer size in units of the compression
+  double compression;
+  // sorted centroids
+  double[] means = new double[0];
+  double[] weights = new double[0];
+  int n;
+  double totalWeight;                 // weight of the centroids
+  // unmerged values
+  double[] bufferValues, bufferWeights;
+  int bufferSize;
+  double bufferWeight;
+  double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+  // work arrays used during a merge
+  double[] workMeans = new double[0];
+  double[] workWeights = new double[0];
+
+  /**
+   * Constructs a QuantileSketch with a compression of 100.
+   */
+  public QuantileSketch() {
+    this(100);
+  }
+
+  /**
+   * Constructs a QuantileSketch with the given compression.
+   *
+   * Larger values are more accurate but use more memory.  The error in the
+   * estimated median is usually well below 1/compression of the total weight.
+   *
+   * @param compression
+   */
+  public QuantileSketch(double compression) {
+    this.compression = Math.max(compression, 10);
+    int size = (int) (BUFFER_FACTOR*this.compression);
+    bufferValues = new double[size];
+    bufferWeights = new double[size];
+  }
+
+  /**
+   * Adds a value with unit weight.
+   *
+   * @param x
+   */
+  public void add(double x) {
+    add(x, 1);
+  }
+
+  /**
+   * Adds a value with the given weight.  Values with nonpositive weights and NaN values are ignored.
+   *
+   * @param x the value
+   * @param w the weight
+   */
+  public void add(double x, double w) {
+    if(!(w>0)||(x!=x)) {
+      return;
+    }
+    if(bufferSize==bufferValues.length) {
+      flush();
+    }
+    bufferValues[bufferSize] = x;
+    bufferWeights[bufferSize] = w;
+    bufferSize++;
+    bufferWeight += w;
+    if(x<min) {
+      min = x;
+    }
+    if(x>max) {
+      max = x;
+    }
+  }
+
+  /**
+   * Adds the values summarized by another sketch to this sketch.
+   *
+   * @param sketch
+   */
+  public void add(QuantileSketch sketch) {
+    sketch.flush();
+    for(int i = 0;i<sketch.n;i++) {
+      add(sketch.means[i], sketch.weights[i]);
+    }
+    min = Math.min(min, sketch.min);
+    max = Math.max(max, sketch.max);
+  }
+
+  /**
+   * Removes all values.
+   */
+  public void clear() {
+    n = 0;
+    totalWeight = 0;
+    bufferSize = 0;
+    bufferWeight = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Gets the sum of the weights of all values.
+   *
+   * @return the total weight
+   */
+  public double getTotalWeight() {
+    return totalWeight+bufferWeight;
+  }
+
+  /**
+   * Gets the compression.
+   *
+   * @return the compression
+   */
+  public double getCompression() {
+    return compression;
+  }
+
+  /**
+   * Gets the smallest value.
+   *
+   * @return the minimum or NaN if the sketch is empty
+   */
+  public double getMin() {
+    return(getTotalWeight()==0) ? Double.NaN : min;
+  }
+
+  /**
+   * Gets the largest value.
+   *
+   * @return the maximum or NaN if the sketch is empty
+   */
+  public double getMax() {
+    return(getTotalWeight()==0) ? Double.NaN : max;
+  }
+
+  /**
+   * Estimates the value below which the given fraction of the total weight lies.
+   *
+   * @param q the fraction between 0 and 1
+   * @return the quantile or NaN if the sketch is empty
+   */
+  public double getQuantile(double q) {
+    flush();
+    if((n==0)||!(q>=0)||(q>1)) {
+      return Double.NaN;
+    }
+    if(n==1) {
+      return means[0];
+    }
+    double target = q*totalWeight;
+    double left = weights[0]/2; // position of the center of the first centroid
+    if(target<left) {           // interpolate between the minimum and the first centroid
+      return min+(means[0]-min)*target/left;
+    }
+    for(int i = 0;i<n-1;i++) {
+      double right = left+(weights[i]+weights[i+1])/2;
+      if(target<right) {
+        return means[i]+(means[i+1]-means[i])*(target-left)/(right-left);
+      }
+      left = right;
+    }
+    double tail = weights[n-1]/2; // interpolate between the last centroid and the maximum
+    return means[n-1]+(max-means[n-1])*Math.min(1, (target-left)/tail);
+  }
+
+  /**
+   * Merges the buffered values into the centroids.
+   */
+  void flush() {
+    if(bufferSize==0) {
+      return;
+    }
+    sort(bufferValues, bufferWeights, 0, bufferSize-1);
+    int size = n+bufferSize;
+    if(workMeans.length<size) {
+      workMeans = new double[size];
+      workWeights = new double[size];
+    }
+    // merge the sorted centroids and the sorted buffer
+    int i = 0, j = 0;
+    for(int k = 0;k<size;k++) {
+      if((j>=bufferSize)||((i<n)&&(means[i]<=bufferValues[j]))) {
+        workMeans[k] = means[i];
+        workWeights[k] = weights[i];
+        i++;
+      } else {
+        workMeans[k] = bufferValues[j];
+        workWeights[k] = bufferWeights[j];
+        j++;
+      }
+    }
+    double total = totalWeight+bufferWeight;
+    bufferSize = 0;
+    bufferWeight = 0;
+    if(means.length<size) {
+      means = new double[size];
+      weights = new double[size];
+    }
+    // combine neighbors while the combined weight is below the limit set by the quantile
+    n = 0;
+    double mean = workMeans[0], weight = workWeights[0], before = 0;
+    double factor = 4*total/compression;
+    for(int k = 1;k<size;k++) {
+      double proposed = weight+workWeights[k];
+      double q0 = before/total, q2 = (before+proposed)/total;
+      if(proposed<=factor*Math.min(q0*(1-q0), q2*(1-q2))) {
+        mean += (workMeans[k]-mean)*workWeights[k]/proposed;
+        weight = proposed;
+      } else {
+        means[n] = mean;
+        weights[n] = weight;
+        n++;
+        before += weight;
+        mean = workMeans[k];
+        weight = workWeights[k];
+      }
+    }
+    means[n] = mean;
+    weights[n] = weight;
+    n++;
+    totalWeight = total;
+  }
+
+  /**
+   * Sorts values and the corresponding weights into increasing order of the values.
+   */
+  private static void sort(double[] values, double[] w, int lo, int hi) {
+    while(hi-lo>16) {
+      double pivot = values[(lo+hi)>>>1];
+      int i = lo, j = hi;
+      while(i<=j) {
+        while(values[i]<pivot) {
+          i++;
+        }
+        while(values[j]>pivot) {
+          j--;
+        }
+        if(i<=j) {
+          swap(values, w, i, j);
+          i++;
+          j--;
+        }
+      }
+      if(j-lo<hi-i) { // recurse on the smaller part
+        sort(values, w, lo, j);
+        lo = i;
+      } else {
+        sort(values, w, i, hi);
+        hi = j;
+      }
+    }
+    for(int i = lo+1;i<=hi;i++) { // insertion sort
+      for(int j = i;(j>lo)&&(values[j-1]>values[j]);j--) {
+        swap(values, w, j-1, j);
+      }
+    }
+  }
+
+  private static void swap(double[] values, double[] w, int i, int j) {
+    double v = values[i];
+    values[i] = values[j];
+    values[j] = v;
+    v = w[i];
+    w[i] = w[j];
+    w[j] = v;
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
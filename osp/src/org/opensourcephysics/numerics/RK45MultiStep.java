@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Title:        RK45MultiStep
@@ -206,6 +209,28 @@ public class RK45MultiStep extends RK45 {
     return error_code;
   }
 
+  /**
+   * Writes the adaptive step size, the tolerance, and the fixed step size.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    super.writeState(out);
+    out.writeDouble(fixedStepSize);
+  }
+
+  /**
+   * Reads the adaptive step size, the tolerance, and the fixed step size.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    super.readState(in);
+    fixedStepSize = in.readDouble();
+  }
+
 }
 
 /*
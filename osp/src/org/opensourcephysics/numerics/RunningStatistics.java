@@ -0,0 +1,224 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * RunningStatistics accumulates the weighted mean, variance, minimum, and maximum of a
+ * stream of values in constant time and memory per value.
+ *
+ * The mean and variance are updated using Welford's algorithm so that the variance does
+ * not suffer from the cancellation that occurs when the sum of squares is accumulated.
+ * Statistics computed by different threads can be combined using the add(RunningStatistics) method.
+ *
+ * RunningStatistics is not synchronized.
+ *
+ * @version 1.0
+ */
+public class RunningStatistics {
+  long count;    // number of values
+  double weight; // sum of the weights
+  double mean;
+  double m2;     // weighted sum of the squared deviations from the mean
+  double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Constructs an empty RunningStatistics.
+   */
+  public RunningStatistics() {}
+
+  /**
+   * Constructs a RunningStatistics that is a copy of the given statistics.
+   *
+   * @param stats
+   */
+  public RunningStatistics(RunningStatistics stats) {
+    add(stats);
+  }
+
+  /**
+   * Adds a value with unit weight.
+   *
+   * @param x
+   */
+  public void add(double x) {
+    add(x, 1);
+  }
+
+  /**
+   * Adds a value with the given weight.  Values with nonpositive weights and NaN values are ignored.
+   *
+   * @param x the value
+   * @param w the weight
+   */
+  public void add(double x, double w) {
+    if(!(w>0)||(x!=x)) {
+      return;
+    }
+    count++;
+    weight += w;
+    double delta = x-mean;
+    mean += delta*w/weight;
+    m2 += w*delta*(x-mean);
+    if(x<min) {
+      min = x;
+    }
+    if(x>max) {
+      max = x;
+    }
+  }
+
+  /**
+   * Adds an array of values with unit weight.
+   *
+   * @param values
+   * @param from the index of the first value
+   * @param to the index after the last value
+   */
+  public void add(double[] values, int from, int to) {
+    for(int i = from;i<to;i++) {
+      add(values[i], 1);
+    }
+  }
+
+  /**
+   * Combines the given statistics with these statistics.
+   *
+   * @param stats
+   */
+  public void add(RunningStatistics stats) {
+    if(stats.weight==0) {
+      return;
+    }
+    if(weight==0) {
+      count = stats.count;
+      weight = stats.weight;
+      mean = stats.mean;
+      m2 = stats.m2;
+      min = stats.min;
+      max = stats.max;
+      return;
+    }
+    double total = weight+stats.weight;
+    double delta = stats.mean-mean;
+    mean += delta*stats.weight/total;
+    m2 += stats.m2+delta*delta*weight*stats.weight/total;
+    weight = total;
+    count += stats.count;
+    min = Math.min(min, stats.min);
+    max = Math.max(max, stats.max);
+  }
+
+  /**
+   * Removes all values.
+   */
+  public void clear() {
+    count = 0;
+    weight = 0;
+    mean = 0;
+    m2 = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Gets the number of values that have been added.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the sum of the weights.
+   *
+   * @return the weight
+   */
+  public double getWeight() {
+    return weight;
+  }
+
+  /**
+   * Gets the weighted mean.
+   *
+   * @return the mean or NaN if there are no values
+   */
+  public double getMean() {
+    return(weight==0) ? Double.NaN : mean;
+  }
+
+  /**
+   * Gets the sample variance.  The weights are treated as frequencies so that the variance
+   * is the weighted sum of the squared deviations divided by the total weight minus one.
+   *
+   * @return the variance or NaN if the total weight does not exceed one
+   */
+  public double getVariance() {
+    return(weight>1) ? m2/(weight-1) : Double.NaN;
+  }
+
+  /**
+   * Gets the sample standard deviation.
+   *
+   * @return the standard deviation
+   */
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  /**
+   * Gets the smallest value.
+   *
+   * @return the minimum or NaN if there are no values
+   */
+  public double getMin() {
+    return(weight==0) ? Double.NaN : min;
+  }
+
+  /**
+   * Gets the largest value.
+   *
+   * @return the maximum or NaN if there are no values
+   */
+  public double getMax() {
+    return(weight==0) ? Double.NaN : max;
+  }
+
+  /**
+   * Creates a string containing the count, mean, standard deviation, minimum, and maximum.
+   *
+   * @return the string
+   */
+  public String toString() {
+    return "n="+count+" mean="+getMean()+" sd="+getStandardDeviation()+" min="+getMin()+" max="+getMax();
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,537 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.HashMap;
+
+/**
+ * SpecialFunctions evaluates the error, gamma, and Bessel functions.
+ *
+ * Every function has an accurate kernel and a fast version.  The fast versions use tables and
+ * piecewise Chebyshev approximations that are computed the first time they are needed.
+ * The default accuracy of the fast versions is close to machine precision.  Approximations
+ * having other accuracies are available using the getFastFunction method.  Array
+ * versions evaluate the fast functions for every element of an array.
+ *
+ * @version 1.0
+ */
+public class SpecialFunctions {
+  /** The error of the default fast functions. */
+  public static final double DEFAULT_TOLERANCE = 1.0e-13;
+  /** The number of log factorials that are tabulated. */
+  public static final int LOG_FACTORIAL_TABLE_SIZE = 1024;
+  static final double SQRT_PI = Math.sqrt(Math.PI);
+  static final double LOG_SQRT_2PI = 0.5*Math.log(2*Math.PI);
+  static final double ERF_LIMIT = 6.0;      // erf(x)=1 to machine precision for x>6
+  static final double ERFC_LIMIT = 27.0;    // erfc(x) underflows for x>27
+  static final double GAMMA_SPLIT = 16.0;   // Stirling series is used for larger arguments
+  static final double BESSEL_J_LIMIT = 64.0;
+  static final double BESSEL_I_LIMIT = 64.0;
+  // Lanczos coefficients, g=7, n=9
+  static final double[] lanczos = {
+    0.99999999999980993, 676.5203681218851, -1259.1392167224028, 771.32342877765313, -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+  };
+  static double[] logFactorialTable;
+  static HashMap fastFunctions = new HashMap();
+  static Function erfFast, erfcxFast, gammalnFast, j0Fast, j1Fast, i0Fast;
+
+  private SpecialFunctions() { // prohibit instantiation because all methods are static
+  }
+
+  /**
+   * Returns log(n!) using a table for small values of n.
+   *
+   * @param n
+   * @return log(n!)
+   */
+  public static double logFactorial(int n) {
+    if(n<0) {
+      throw new IllegalArgumentException("Negative value passed to logFactorial.");
+    }
+    if(n<LOG_FACTORIAL_TABLE_SIZE) {
+      return getLogFactorialTable()[n];
+    }
+    return gammaln(n+1.0);
+  }
+
+  static double[] getLogFactorialTable() {
+    double[] table = logFactorialTable;
+    if(table==null) {
+      table = new double[LOG_FACTORIAL_TABLE_SIZE];
+      double sum = 0;
+      for(int i = 2;i<LOG_FACTORIAL_TABLE_SIZE;i++) {
+        sum += Math.log(i);
+        table[i] = sum;
+      }
+      logFactorialTable = table;
+    }
+    return table;
+  }
+
+  /**
+   * Computes the error function to nearly machine precision.
+   *
+   * @param x
+   * @return erf(x)
+   */
+  public static double erf(double x) {
+    double ax = Math.abs(x);
+    if(ax<2) {
+      // series with positive terms: erf(x) = 2/sqrt(pi) exp(-x^2) sum 2^n x^(2n+1)/(1*3*...*(2n+1))
+      double x2 = x*x, term = x, sum = x;
+      for(int n = 1;n<200;n++) {
+        term *= 2*x2/(2*n+1);
+        sum += term;
+        if(Math.abs(term)<1.0e-17*Math.abs(sum)) {
+          break;
+        }
+      }
+      return 2/SQRT_PI*Math.exp(-x2)*sum;
+    }
+    return(x>0) ? 1-erfc(x) : erfc(-x)-1;
+  }
+
+  /**
+   * Computes the complementary error function to nearly machine precision.
+   *
+   * @param x
+   * @return erfc(x)
+   */
+  public static double erfc(double x) {
+    if(x<2) {
+      return 1-erf(x);
+    }
+    return Math.exp(-x*x)*erfcxContinuedFraction(x);
+  }
+
+  /**
+   * Evaluates exp(x^2) erfc(x) for x>=2 using a continued fraction and Lentz's method.
+   */
+  static double erfcxContinuedFraction(double x) {
+    // erfc(x) = exp(-x^2)/sqrt(pi) * 1/(x+ (1/2)/(x+ 1/(x+ (3/2)/(x+ ...))))
+    double tiny = 1.0e-300;
+    double f = x, c = x, d = 0;
+    for(int k = 1;k<1000;k++) {
+      double ak = k/2.0;
+      d = x+ak*d;
+      if(d==0) {
+        d = tiny;
+      }
+      c = x+ak/c;
+      if(c==0) {
+        c = tiny;
+      }
+      d = 1/d;
+      double delta = c*d;
+      f *= delta;
+      if(Math.abs(delta-1)<1.0e-16) {
+        break;
+      }
+    }
+    return 1/(SQRT_PI*f);
+  }
+
+  /**
+   * Computes the logarithm of the absolute value of the gamma function to nearly machine precision.
+   *
+   * @param x
+   * @return log|gamma(x)|
+   */
+  public static double gammaln(double x) {
+    if(x<0.5) { // reflection formula
+      return Math.log(Math.PI/Math.abs(Math.sin(Math.PI*x)))-gammaln(1-x);
+    }
+    x -= 1;
+    double sum = lanczos[0];
+    for(int i = 1;i<lanczos.length;i++) {
+      sum += lanczos[i]/(x+i);
+    }
+    double t = x+7.5;
+    return LOG_SQRT_2PI+(x+0.5)*Math.log(t)-t+Math.log(sum);
+  }
+
+  /**
+   * Computes the gamma function.
+   *
+   * @param x
+   * @return gamma(x)
+   */
+  public static double gamma(double x) {
+    if((x==Math.floor(x))&&(x>0)&&(x<Factorials.fac.length+1)) {
+      return Factorials.fac[(int) x-1];
+    }
+    if(x<0.5) { // reflection formula
+      return Math.PI/(Math.sin(Math.PI*x)*gamma(1-x));
+    }
+    return Math.exp(gammaln(x));
+  }
+
+  /**
+   * Computes the Bessel function of the first kind of integer order n.
+   *
+   * The integral representation is evaluated using the trapezoidal rule, which converges exponentially
+   * for periodic integrands.  The computation time increases linearly with |x|.
+   *
+   * @param n the order
+   * @param x
+   * @return Jn(x)
+   */
+  public static double besselJ(int n, double x) {
+    // Jn(x) = 1/(2 pi) integral from 0 to 2 pi of cos(n t - x sin t)
+    int m = 2*((int) (Math.abs(x)+Math.abs(n))+32);
+    double sum = 0, dt = 2*Math.PI/m;
+    for(int k = 0;k<m;k++) {
+      double t = k*dt;
+      sum += Math.cos(n*t-x*Math.sin(t));
+    }
+    return sum/m;
+  }
+
+  /**
+   * Computes the modified Bessel function of the first kind of integer order n.
+   *
+   * @param n the order
+   * @param x
+   * @return In(x)
+   */
+  public static double besselI(int n, double x) {
+    // In(x) = 1/(2 pi) integral from 0 to 2 pi of exp(x cos t) cos(n t)
+    int m = 2*((int) (Math.abs(x)+Math.abs(n))+32);
+    double sum = 0, dt = 2*Math.PI/m;
+    for(int k = 0;k<m;k++) {
+      double t = k*dt;
+      sum += Math.exp(x*Math.cos(t))*Math.cos(n*t);
+    }
+    return sum/m;
+  }
+
+  /**
+   * Computes the error function using a Chebyshev approximation.
+   *
+   * @param x
+   * @return erf(x)
+   */
+  public static double fastErf(double x) {
+    if(erfFast==null) {
+      erfFast = fit("erf", 0, ERF_LIMIT, DEFAULT_TOLERANCE);
+    }
+    if(x<0) {
+      return(x<-ERF_LIMIT) ? -1 : -erfFast.evaluate(-x);
+    }
+    return(x>ERF_LIMIT) ? 1 : erfFast.evaluate(x);
+  }
+
+  /**
+   * Computes the complementary error function using a Chebyshev approximation.
+   *
+   * The approximation has a small relative error for large x.
+   *
+   * @param x
+   * @return erfc(x)
+   */
+  public static double fastErfc(double x) {
+    if(x<0.5) {
+      return 1-fastErf(x);
+    }
+    if(x>ERFC_LIMIT) {
+      return 0;
+    }
+    if(erfcxFast==null) {
+      erfcxFast = fit("erfcx", 0.5, ERFC_LIMIT, DEFAULT_TOLERANCE);
+    }
+    return Math.exp(-x*x)*erfcxFast.evaluate(x);
+  }
+
+  /**
+   * Computes the logarithm of the gamma function using a Chebyshev approximation for small arguments
+   * and the Stirling series for large arguments.
+   *
+   * @param x
+   * @return log|gamma(x)|
+   */
+  public static double fastGammaln(double x) {
+    if(x>=GAMMA_SPLIT) {
+      return stirling(x);
+    }
+    if(x<0.5) {
+      return gammaln(x);
+    }
+    if(gammalnFast==null) {
+      gammalnFast = fit("gammaln", 0.5, GAMMA_SPLIT, DEFAULT_TOLERANCE);
+    }
+    return gammalnFast.evaluate(x);
+  }
+
+  /**
+   * Computes the gamma function using the fast logarithm of the gamma function.
+   *
+   * @param x
+   * @return gamma(x)
+   */
+  public static double fastGamma(double x) {
+    if((x==Math.floor(x))&&(x>0)&&(x<Factorials.fac.length+1)) {
+      return Factorials.fac[(int) x-1];
+    }
+    if(x<0.5) {
+      return gamma(x);
+    }
+    return Math.exp(fastGammaln(x));
+  }
+
+  /**
+   * Computes the Bessel function J0 using a Chebyshev approximation.
+   *
+   * @param x
+   * @return J0(x)
+   */
+  public static double fastBesselJ0(double x) {
+    x = Math.abs(x);
+    if(x>BESSEL_J_LIMIT) {
+      return besselJ(0, x);
+    }
+    if(j0Fast==null) {
+      j0Fast = fit("j0", 0, BESSEL_J_LIMIT, DEFAULT_TOLERANCE);
+    }
+    return j0Fast.evaluate(x);
+  }
+
+  /**
+   * Computes the Bessel function J1 using a Chebyshev approximation.
+   *
+   * @param x
+   * @return J1(x)
+   */
+  public static double fastBesselJ1(double x) {
+    if(Math.abs(x)>BESSEL_J_LIMIT) {
+      return besselJ(1, x);
+    }
+    if(j1Fast==null) {
+      j1Fast = fit("j1", 0, BESSEL_J_LIMIT, DEFAULT_TOLERANCE);
+    }
+    return(x<0) ? -j1Fast.evaluate(-x) : j1Fast.evaluate(x);
+  }
+
+  /**
+   * Computes the modified Bessel function I0 using a Chebyshev approximation.
+   *
+   * The approximation has a small relative error.
+   *
+   * @param x
+   * @return I0(x)
+   */
+  public static double fastBesselI0(double x) {
+    x = Math.abs(x);
+    if(x>BESSEL_I_LIMIT) {
+      return besselI(0, x);
+    }
+    if(i0Fast==null) {
+      i0Fast = fit("i0x", 0, BESSEL_I_LIMIT, DEFAULT_TOLERANCE);
+    }
+    return Math.exp(x)*i0Fast.evaluate(x);
+  }
+
+  /**
+   * Evaluates the fast error function for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastErf(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastErf(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the fast complementary error function for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastErfc(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastErfc(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the fast logarithm of the gamma function for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastGammaln(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastGammaln(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the fast Bessel function J0 for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastBesselJ0(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastBesselJ0(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the fast Bessel function J1 for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastBesselJ1(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastBesselJ1(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the fast modified Bessel function I0 for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void fastBesselI0(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = fastBesselI0(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates the exponential function for every element of an array.
+   *
+   * @param x the arguments
+   * @param result the values; may be the same array as x
+   */
+  public static void exp(double[] x, double[] result) {
+    for(int i = 0, n = x.length;i<n;i++) {
+      result[i] = Math.exp(x[i]);
+    }
+  }
+
+  /**
+   * Evaluates log(n!) for every element of an array.
+   *
+   * @param n the arguments
+   * @param result the values
+   */
+  public static void logFactorial(int[] n, double[] result) {
+    double[] table = getLogFactorialTable();
+    for(int i = 0, len = n.length;i<len;i++) {
+      int k = n[i];
+      result[i] = ((k>=0)&&(k<LOG_FACTORIAL_TABLE_SIZE)) ? table[k] : logFactorial(k);
+    }
+  }
+
+  /**
+   * Gets a Chebyshev approximation of a special function on an interval with the given error.
+   *
+   * Available functions are "erf", "erfc", "gammaln", "j0", "j1", "i0", and "exp".
+   * Approximations are cached so that they are computed only once.
+   *
+   * @param name the function name
+   * @param a the start of the interval
+   * @param b the end of the interval
+   * @param tolerance the error
+   * @return the approximation
+   */
+  public static ChebyshevApproximation getFastFunction(String name, double a, double b, double tolerance) {
+    return fit(name.toLowerCase(), a, b, tolerance);
+  }
+
+  static synchronized ChebyshevApproximation fit(String name, double a, double b, double tolerance) {
+    String key = name+":"+a+":"+b+":"+tolerance;
+    ChebyshevApproximation cheb = (ChebyshevApproximation) fastFunctions.get(key);
+    if(cheb==null) {
+      cheb = ChebyshevApproximation.fit(new Kernel(name), a, b, tolerance);
+      fastFunctions.put(key, cheb);
+    }
+    return cheb;
+  }
+
+  /**
+   * Stirling series for the logarithm of the gamma function.
+   */
+  static double stirling(double x) {
+    double x2 = 1/(x*x);
+    double series = (1.0/12-x2*(1.0/360-x2*(1.0/1260-x2*(1.0/1680-x2/1188))))/x;
+    return(x-0.5)*Math.log(x)-x+LOG_SQRT_2PI+series;
+  }
+
+  /**
+   * The accurate kernels that are approximated by Chebyshev series.
+   */
+  static class Kernel implements Function {
+    int id;
+
+    Kernel(String name) {
+      String[] names = {"erf", "erfc", "erfcx", "gammaln", "j0", "j1", "i0", "i0x", "exp"};
+      id = -1;
+      for(int i = 0;i<names.length;i++) {
+        if(names[i].equals(name)) {
+          id = i;
+        }
+      }
+      if(id<0) {
+        throw new IllegalArgumentException("Unknown special function: "+name);
+      }
+    }
+
+    public double evaluate(double x) {
+      switch(id) {
+      case 0 :
+        return erf(x);
+      case 1 :
+        return erfc(x);
+      case 2 :
+        return(x<2) ? Math.exp(x*x)*erfc(x) : erfcxContinuedFraction(x);
+      case 3 :
+        return gammaln(x);
+      case 4 :
+        return besselJ(0, x);
+      case 5 :
+        return besselJ(1, x);
+      case 6 :
+        return besselI(0, x);
+      case 7 :
+        return besselI(0, x)*Math.exp(-x);
+      default :
+        return Math.exp(x);
+      }
+    }
+
+  }
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2026  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -89,7 +89,8 @@ public final class SuryonoParser extends MathExpParser {
 
   // private  static final int NO_FUNCS      = 24;   // no. of built-in functions
   // changed from 24 function by W. Christian to add step and random function
-  private static final int NO_FUNCS = 26;          // no. of built-in functions
+  // changed from 26 functions to add the special functions
+  private static final int NO_FUNCS = 32;          // no. of built-in functions
   private static final int NO_EXT_FUNCS = 4;       // no. of extended functions
   private static final int STACK_SIZE = 50;        // evaluation stack size
   private double[] stack = new double[STACK_SIZE]; // moved by W. Christian from evaluate to global variables for speed
@@ -232,7 +233,7 @@ public final class SuryonoParser extends MathExpParser {
 
   // built in functions
   private String funcname[] = {
-    "sin", "cos", "tan", "ln", "log", "abs", "int", "frac", "asin", "acos", "atan", "sinh", "cosh", "tanh", "asinh", "acosh", "atanh", "ceil", "floor", "round", "exp", "sqr", "sqrt", "sign", "step", "random"
+    "sin", "cos", "tan", "ln", "log", "abs", "int", "frac", "asin", "acos", "atan", "sinh", "cosh", "tanh", "asinh", "acosh", "atanh", "ceil", "floor", "round", "exp", "sqr", "sqrt", "sign", "step", "random", "erf", "erfc", "lngamma", "besselj0", "besselj1", "besseli0"
   };
 
   // extended functions
@@ -1342,6 +1343,18 @@ public final class SuryonoParser extends MathExpParser {
       }
     case 25 :
       return parameter*Math.random(); // added by W. Christian for random function
+    case 26 :
+      return SpecialFunctions.fastErf(parameter);
+    case 27 :
+      return SpecialFunctions.fastErfc(parameter);
+    case 28 :
+      return SpecialFunctions.fastGammaln(parameter);
+    case 29 :
+      return SpecialFunctions.fastBesselJ0(parameter);
+    case 30 :
+      return SpecialFunctions.fastBesselJ1(parameter);
+    case 31 :
+      return SpecialFunctions.fastBesselI0(parameter);
     default :
       error = CODE_DAMAGED;
       return Double.NaN;
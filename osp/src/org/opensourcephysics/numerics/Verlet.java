@@ -6,6 +6,9 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Verlet:  A velocity Verlet method ODE solver.
@@ -114,6 +117,34 @@ public class Verlet extends AbstractODESolver {
     }
     return stepSize;
   }
+
+  /**
+   * Writes the step size, the rate counter, and the rates from the last step.
+   *
+   * Models may use the rate counter and the stored force, so both are saved.
+   *
+   * @param out the output stream
+   * @throws IOException
+   */
+  public void writeState(DataOutput out) throws IOException {
+    super.writeState(out);
+    out.writeInt(rateCounter);
+    Checkpoint.writeDoubles(out, rate1);
+    Checkpoint.writeDoubles(out, rate2);
+  }
+
+  /**
+   * Reads the step size, the rate counter, and the rates from the last step.
+   *
+   * @param in the input stream
+   * @throws IOException
+   */
+  public void readState(DataInput in) throws IOException {
+    super.readState(in);
+    rateCounter = in.readInt();
+    Checkpoint.readDoubles(in, rate1);
+    Checkpoint.readDoubles(in, rate2);
+  }
 }
 
 /*
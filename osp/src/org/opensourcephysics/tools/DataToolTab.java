@@ -8,6 +8,7 @@
 package org.opensourcephysics.tools;
 import java.beans.*;
 import java.lang.reflect.Method;
+import java.nio.DoubleBuffer;
 import java.util.*;
 
 import java.awt.*;
@@ -607,11 +608,10 @@ public class DataToolTab extends JPanel {
   	Iterator it = dataManager.getDatasets().iterator();
   	while (it.hasNext()) {
   		Dataset next = (Dataset)it.next();
-  		double[] y = next.getYPoints();
   		if (name.equals(next.getYColumnName())
-  				&& isDuplicate(data, next.getYPoints())) {
+  				&& isDuplicate(data, next.getYBuffer())) {
   			// next is duplicate column: add new points if any
-  			if (data.length > y.length) {
+  			if (data.length > next.getIndex()) {
   				next.clear();
   				next.append(data, data);
 	  		}  			
@@ -628,11 +628,12 @@ public class DataToolTab extends JPanel {
    * @param data1 data array 1
    * @return true if identical
    */
-  private boolean isDuplicate(double[] data0, double[] data1) {
-    int len = Math.min(data0.length, data1.length);
+  private boolean isDuplicate(double[] data0, DoubleBuffer data1) {
+    int len = Math.min(data0.length, data1.limit());
     for (int i = 0; i < len; i++) {
-    	if (Double.isNaN(data0[i]) && Double.isNaN(data1[i])) continue;
-    	if (data0[i] != data1[i]) return false;
+    	double value = data1.get(i);
+    	if (Double.isNaN(data0[i]) && Double.isNaN(value)) continue;
+    	if (data0[i] != value) return false;
     }
     return true;
   }
@@ -15,6 +15,7 @@ import java.util.List;
 import org.opensourcephysics.display2d.GridData;
 import java.util.Iterator;
 import java.io.PrintWriter;
+import java.nio.DoubleBuffer;
 
 /**
 * Text format, compatible with Octave and Gnuplot
@@ -37,11 +38,12 @@ public class ExportGnuplotFormat implements ExportFormat {
    * @param  file
    */
   void exportDataset(PrintWriter pw, Dataset data, int index) throws IOException {
-    double[] x = data.getXPoints();
-    double[] y = data.getYPoints();
-    pw.print("\n# name: data"+index+"\n"+"# type: matrix\n"+"# rows: "+x.length+"\n"+"# columns: "+2+"\n");
-    for(int j = 0;j<x.length;j++) {
-      pw.println(x[j]+" "+y[j]);
+    DoubleBuffer x = data.getXBuffer(); // read the data without copying it
+    DoubleBuffer y = data.getYBuffer();
+    int n = x.limit();
+    pw.print("\n# name: data"+index+"\n"+"# type: matrix\n"+"# rows: "+n+"\n"+"# columns: "+2+"\n");
+    for(int j = 0;j<n;j++) {
+      pw.println(x.get(j)+" "+y.get(j));
     }
   }
 
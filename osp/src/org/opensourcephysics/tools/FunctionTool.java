@@ -76,7 +76,9 @@ public class FunctionTool extends JDialog {
 			"exp", "frac", "floor", "int", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 			"random", "round", "sign", "sinh", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 			"step", "tanh", "atan2", "max", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-			"sqrt", "sqr", "if", "tan"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"sqrt", "sqr", "if", "tan", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"erf", "erfc", "lngamma", "besselj0", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"besselj1", "besseli0"}); //$NON-NLS-1$ //$NON-NLS-2$
     setName("FunctionTool"); //$NON-NLS-1$
     createGUI();
     refreshGUI();